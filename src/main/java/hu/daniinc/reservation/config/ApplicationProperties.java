@@ -13,12 +13,42 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Availability availability = new Availability();
+
+    private final Statistics statistics = new Statistics();
+
+    private final Sse sse = new Sse();
+
+    private final NotificationBus notificationBus = new NotificationBus();
+
+    private final NotificationBuffer notificationBuffer = new NotificationBuffer();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Availability getAvailability() {
+        return availability;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public Sse getSse() {
+        return sse;
+    }
+
+    public NotificationBus getNotificationBus() {
+        return notificationBus;
+    }
+
+    public NotificationBuffer getNotificationBuffer() {
+        return notificationBuffer;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +63,278 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Availability {
+
+        private final Cache cache = new Cache();
+
+        private int gridCellMinutes = 5;
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public int getGridCellMinutes() {
+            return gridCellMinutes;
+        }
+
+        public void setGridCellMinutes(int gridCellMinutes) {
+            this.gridCellMinutes = gridCellMinutes;
+        }
+
+        public static class Cache {
+
+            private long timeToLiveSeconds = 600;
+
+            private long occupancyTimeToLiveSeconds = 86400;
+
+            private long maxEntries = 20000;
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public long getOccupancyTimeToLiveSeconds() {
+                return occupancyTimeToLiveSeconds;
+            }
+
+            public void setOccupancyTimeToLiveSeconds(long occupancyTimeToLiveSeconds) {
+                this.occupancyTimeToLiveSeconds = occupancyTimeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class Statistics {
+
+        private final Cache cache = new Cache();
+
+        private int queryPoolSize = 8;
+
+        private int queryQueueCapacity = 64;
+
+        private long queryTimeoutMillis = 5000;
+
+        private int sketchCapacity = 32;
+
+        private int topK = 10;
+
+        public int getQueryPoolSize() {
+            return queryPoolSize;
+        }
+
+        public void setQueryPoolSize(int queryPoolSize) {
+            this.queryPoolSize = queryPoolSize;
+        }
+
+        public int getQueryQueueCapacity() {
+            return queryQueueCapacity;
+        }
+
+        public void setQueryQueueCapacity(int queryQueueCapacity) {
+            this.queryQueueCapacity = queryQueueCapacity;
+        }
+
+        public long getQueryTimeoutMillis() {
+            return queryTimeoutMillis;
+        }
+
+        public void setQueryTimeoutMillis(long queryTimeoutMillis) {
+            this.queryTimeoutMillis = queryTimeoutMillis;
+        }
+
+        public int getSketchCapacity() {
+            return sketchCapacity;
+        }
+
+        public void setSketchCapacity(int sketchCapacity) {
+            this.sketchCapacity = sketchCapacity;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public static class Cache {
+
+            private long openWindowTimeToLiveSeconds = 60;
+
+            private long closedWindowTimeToLiveSeconds = 86400;
+
+            private long maxEntries = 10000;
+
+            public long getOpenWindowTimeToLiveSeconds() {
+                return openWindowTimeToLiveSeconds;
+            }
+
+            public void setOpenWindowTimeToLiveSeconds(long openWindowTimeToLiveSeconds) {
+                this.openWindowTimeToLiveSeconds = openWindowTimeToLiveSeconds;
+            }
+
+            public long getClosedWindowTimeToLiveSeconds() {
+                return closedWindowTimeToLiveSeconds;
+            }
+
+            public void setClosedWindowTimeToLiveSeconds(long closedWindowTimeToLiveSeconds) {
+                this.closedWindowTimeToLiveSeconds = closedWindowTimeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class Sse {
+
+        private int writerPoolSize = 4;
+
+        private int queueCapacity = 64;
+
+        private int maxEventsPerDrain = 16;
+
+        private int replayCapacity = 100;
+
+        private long replayRetentionSeconds = 300;
+
+        public int getWriterPoolSize() {
+            return writerPoolSize;
+        }
+
+        public void setWriterPoolSize(int writerPoolSize) {
+            this.writerPoolSize = writerPoolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxEventsPerDrain() {
+            return maxEventsPerDrain;
+        }
+
+        public void setMaxEventsPerDrain(int maxEventsPerDrain) {
+            this.maxEventsPerDrain = maxEventsPerDrain;
+        }
+
+        public int getReplayCapacity() {
+            return replayCapacity;
+        }
+
+        public void setReplayCapacity(int replayCapacity) {
+            this.replayCapacity = replayCapacity;
+        }
+
+        public long getReplayRetentionSeconds() {
+            return replayRetentionSeconds;
+        }
+
+        public void setReplayRetentionSeconds(long replayRetentionSeconds) {
+            this.replayRetentionSeconds = replayRetentionSeconds;
+        }
+    }
+
+    public static class NotificationBus {
+
+        private String type = "memory";
+
+        private String channel = "reservation_notifications";
+
+        private long reconnectDelayMillis = 5000;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public long getReconnectDelayMillis() {
+            return reconnectDelayMillis;
+        }
+
+        public void setReconnectDelayMillis(long reconnectDelayMillis) {
+            this.reconnectDelayMillis = reconnectDelayMillis;
+        }
+    }
+
+    public static class NotificationBuffer {
+
+        private int capacity = 10000;
+
+        private int maxBatchSize = 100;
+
+        private long maxDelayMillis = 20;
+
+        private long submitTimeoutMillis = 50;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public long getMaxDelayMillis() {
+            return maxDelayMillis;
+        }
+
+        public void setMaxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+        }
+
+        public long getSubmitTimeoutMillis() {
+            return submitTimeoutMillis;
+        }
+
+        public void setSubmitTimeoutMillis(long submitTimeoutMillis) {
+            this.submitTimeoutMillis = submitTimeoutMillis;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
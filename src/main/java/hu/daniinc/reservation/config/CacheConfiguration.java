@@ -1,6 +1,7 @@
 package hu.daniinc.reservation.config;
 
 import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
 import java.util.OptionalLong;
 import java.util.concurrent.TimeUnit;
 import org.hibernate.cache.jcache.ConfigSettings;
@@ -22,8 +23,10 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> availabilityCacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> occupancyCacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Caffeine caffeine = jHipsterProperties.getCache().getCaffeine();
 
         CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
@@ -31,6 +34,23 @@ public class CacheConfiguration {
         caffeineConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(caffeine.getTimeToLiveSeconds())));
         caffeineConfiguration.setStatisticsEnabled(true);
         jcacheConfiguration = caffeineConfiguration;
+
+        // per (business, employee, day) availability snapshots: many small entries, invalidated on every relevant write
+        ApplicationProperties.Availability.Cache availability = applicationProperties.getAvailability().getCache();
+        CaffeineConfiguration<Object, Object> availabilityConfiguration = new CaffeineConfiguration<>();
+        availabilityConfiguration.setMaximumSize(OptionalLong.of(availability.getMaxEntries()));
+        availabilityConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(availability.getTimeToLiveSeconds())));
+        availabilityConfiguration.setStatisticsEnabled(true);
+        availabilityCacheConfiguration = availabilityConfiguration;
+
+        // per (business, employee, closed day) occupancy: same invalidation, but a closed day rarely changes
+        CaffeineConfiguration<Object, Object> occupancyConfiguration = new CaffeineConfiguration<>();
+        occupancyConfiguration.setMaximumSize(OptionalLong.of(availability.getMaxEntries()));
+        occupancyConfiguration.setExpireAfterWrite(
+            OptionalLong.of(TimeUnit.SECONDS.toNanos(availability.getOccupancyTimeToLiveSeconds()))
+        );
+        occupancyConfiguration.setStatisticsEnabled(true);
+        occupancyCacheConfiguration = occupancyConfiguration;
     }
 
     @Bean
@@ -63,15 +83,25 @@ public class CacheConfiguration {
             // jhipster-needle-caffeine-add-entry
             createCache(cm, "businessBySlug");
             createCache(cm, "businessByCustomDomain");
+            createCache(cm, AvailabilityCache.DAY_AVAILABILITY_CACHE, availabilityCacheConfiguration);
+            createCache(cm, AvailabilityCache.DAY_OCCUPANCY_CACHE, occupancyCacheConfiguration);
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
         }
     }
 
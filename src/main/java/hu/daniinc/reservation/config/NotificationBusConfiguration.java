@@ -0,0 +1,59 @@
+package hu.daniinc.reservation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.service.bus.InMemoryNotificationBus;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import hu.daniinc.reservation.service.bus.PostgresNotificationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Chooses the {@link NotificationBus} by {@code application.notification-bus.type}: {@code memory} (default) for a
+ * single instance, {@code postgres} to fan real-time messages out to every instance sharing the database.
+ */
+@Configuration
+public class NotificationBusConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationBusConfiguration.class);
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.notification-bus", name = "type", havingValue = "memory", matchIfMissing = true)
+    public NotificationBus inMemoryNotificationBus(ObjectMapper objectMapper) {
+        LOG.debug("Creating in-memory Notification Bus");
+        return new InMemoryNotificationBus(objectMapper);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "application.notification-bus", name = "type", havingValue = "postgres")
+    public NotificationBus postgresNotificationBus(
+        ObjectMapper objectMapper,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        DataSourceProperties dataSourceProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        LOG.debug("Creating PostgreSQL Notification Bus");
+        ApplicationProperties.NotificationBus properties = applicationProperties.getNotificationBus();
+        // a commit utáni hívásokban a régi tranzakcióhoz csatlakozva a NOTIFY sosem menne ki
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new PostgresNotificationBus(
+            objectMapper,
+            jdbcTemplate,
+            transactionTemplate,
+            dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(),
+            dataSourceProperties.determinePassword(),
+            properties.getChannel(),
+            properties.getReconnectDelayMillis()
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package hu.daniinc.reservation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SseConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SseConfiguration.class);
+
+    /**
+     * Writer pool of the SSE connections. Each connection has at most one drain task queued or running, so the
+     * queue never holds more tasks than there are open connections, and a slow client only occupies one writer.
+     */
+    @Bean(name = "sseExecutor")
+    public ThreadPoolTaskExecutor sseExecutor(ApplicationProperties applicationProperties) {
+        LOG.debug("Creating SSE Writer Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getSse().getWriterPoolSize());
+        executor.setMaxPoolSize(applicationProperties.getSse().getWriterPoolSize());
+        executor.setThreadNamePrefix("sse-writer-");
+        return executor;
+    }
+}
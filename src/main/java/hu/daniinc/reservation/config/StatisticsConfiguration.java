@@ -0,0 +1,32 @@
+package hu.daniinc.reservation.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class StatisticsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatisticsConfiguration.class);
+
+    /**
+     * Bounded pool for the dashboard statistic queries, kept apart from the {@code @Async} executor so slow
+     * statistics never hold back emails or listeners. When the queue is full the request thread runs the query
+     * itself, which throttles the callers instead of failing them.
+     */
+    @Bean(name = "statisticsExecutor")
+    public ThreadPoolTaskExecutor statisticsExecutor(ApplicationProperties applicationProperties) {
+        LOG.debug("Creating Statistics Query Executor");
+        ApplicationProperties.Statistics statistics = applicationProperties.getStatistics();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(statistics.getQueryPoolSize());
+        executor.setMaxPoolSize(statistics.getQueryPoolSize());
+        executor.setQueueCapacity(statistics.getQueryQueueCapacity());
+        executor.setThreadNamePrefix("statistics-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -96,6 +96,28 @@ public class Business implements Serializable {
     @Column(name = "custom_domain", length = 64)
     private String customDomain;
 
+    // értékelések futó összesítése, csak a BusinessRepository natív update-jei írják
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    private Long ratingSum;
+
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    private Long ratingCount;
+
+    @Column(name = "rating_count_1", insertable = false, updatable = false)
+    private Long ratingCount1;
+
+    @Column(name = "rating_count_2", insertable = false, updatable = false)
+    private Long ratingCount2;
+
+    @Column(name = "rating_count_3", insertable = false, updatable = false)
+    private Long ratingCount3;
+
+    @Column(name = "rating_count_4", insertable = false, updatable = false)
+    private Long ratingCount4;
+
+    @Column(name = "rating_count_5", insertable = false, updatable = false)
+    private Long ratingCount5;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -316,6 +338,34 @@ public class Business implements Serializable {
         this.customDomain = customDomain;
     }
 
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public Long getRatingCount1() {
+        return ratingCount1;
+    }
+
+    public Long getRatingCount2() {
+        return ratingCount2;
+    }
+
+    public Long getRatingCount3() {
+        return ratingCount3;
+    }
+
+    public Long getRatingCount4() {
+        return ratingCount4;
+    }
+
+    public Long getRatingCount5() {
+        return ratingCount5;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -77,6 +77,10 @@ public class BusinessEmployee {
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "businessEmployee")
     private Set<CustomWorkingHours> customWorkingHours = new HashSet<>();
 
+    // olvasatlan értesítések száma, csak a BusinessEmployeeRepository natív update-jei írják
+    @Column(name = "unread_notification_count", insertable = false, updatable = false)
+    private Long unreadNotificationCount;
+
     public Long getId() {
         return id;
     }
@@ -85,6 +89,10 @@ public class BusinessEmployee {
         this.id = id;
     }
 
+    public Long getUnreadNotificationCount() {
+        return unreadNotificationCount;
+    }
+
     public Business getBusiness() {
         return business;
     }
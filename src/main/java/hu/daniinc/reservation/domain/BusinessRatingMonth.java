@@ -0,0 +1,121 @@
+package hu.daniinc.reservation.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Rating totals of one business in one business-local month, keyed by the first day of the month.
+ * <p>
+ * Rows are written by native statements of {@link hu.daniinc.reservation.repository.BusinessRatingMonthWriteRepository},
+ * never through this entity, so it is only used for reading.
+ */
+@Entity
+@Table(name = "business_rating_month")
+public class BusinessRatingMonth implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "business_id", nullable = false)
+    private Business business;
+
+    @NotNull
+    @Column(name = "month", nullable = false)
+    private LocalDate month;
+
+    @NotNull
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @NotNull
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount = 0L;
+
+    @NotNull
+    @Column(name = "rating_count_1", nullable = false)
+    private Long ratingCount1 = 0L;
+
+    @NotNull
+    @Column(name = "rating_count_2", nullable = false)
+    private Long ratingCount2 = 0L;
+
+    @NotNull
+    @Column(name = "rating_count_3", nullable = false)
+    private Long ratingCount3 = 0L;
+
+    @NotNull
+    @Column(name = "rating_count_4", nullable = false)
+    private Long ratingCount4 = 0L;
+
+    @NotNull
+    @Column(name = "rating_count_5", nullable = false)
+    private Long ratingCount5 = 0L;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Business getBusiness() {
+        return business;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public Long getRatingCount1() {
+        return ratingCount1;
+    }
+
+    public Long getRatingCount2() {
+        return ratingCount2;
+    }
+
+    public Long getRatingCount3() {
+        return ratingCount3;
+    }
+
+    public Long getRatingCount4() {
+        return ratingCount4;
+    }
+
+    public Long getRatingCount5() {
+        return ratingCount5;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BusinessRatingMonth)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((BusinessRatingMonth) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BusinessRatingMonth{id=" + getId() + ", month='" + getMonth() + "', ratingCount=" + getRatingCount() + "}";
+    }
+}
@@ -0,0 +1,181 @@
+package hu.daniinc.reservation.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated statistics of one employee on one business-local day.
+ * <p>
+ * Rows are written by {@link hu.daniinc.reservation.repository.DailyBusinessStatsWriteRepository}, never through
+ * this entity, so it is only used for reading.
+ */
+@Entity
+@Table(name = "daily_business_stats")
+public class DailyBusinessStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "business_id", nullable = false)
+    private Business business;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "business_employee_id", nullable = false)
+    private BusinessEmployee businessEmployee;
+
+    @NotNull
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    // a CONFIRMED foglalások árainak összege
+    @NotNull
+    @Column(name = "revenue", precision = 21, scale = 2, nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    // CONFIRMED foglalások, amelyeknek van szolgáltatása és vendége
+    @NotNull
+    @Column(name = "bookings", nullable = false)
+    private Long bookings = 0L;
+
+    @NotNull
+    @Column(name = "cancellations", nullable = false)
+    private Long cancellations = 0L;
+
+    // az adott napon létrehozott vendégek
+    @NotNull
+    @Column(name = "new_guests", nullable = false)
+    private Long newGuests = 0L;
+
+    // a nap legtöbbet foglaló vendégei és legtöbbet foglalt szolgáltatásai, JSON: [{"key", "label", "count"}]
+    @Column(name = "top_guests")
+    private String topGuests;
+
+    @Column(name = "top_offerings")
+    private String topOfferings;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Business getBusiness() {
+        return business;
+    }
+
+    public void setBusiness(Business business) {
+        this.business = business;
+    }
+
+    public BusinessEmployee getBusinessEmployee() {
+        return businessEmployee;
+    }
+
+    public void setBusinessEmployee(BusinessEmployee businessEmployee) {
+        this.businessEmployee = businessEmployee;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public Long getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(Long bookings) {
+        this.bookings = bookings;
+    }
+
+    public Long getCancellations() {
+        return cancellations;
+    }
+
+    public void setCancellations(Long cancellations) {
+        this.cancellations = cancellations;
+    }
+
+    public Long getNewGuests() {
+        return newGuests;
+    }
+
+    public void setNewGuests(Long newGuests) {
+        this.newGuests = newGuests;
+    }
+
+    public String getTopGuests() {
+        return topGuests;
+    }
+
+    public void setTopGuests(String topGuests) {
+        this.topGuests = topGuests;
+    }
+
+    public String getTopOfferings() {
+        return topOfferings;
+    }
+
+    public void setTopOfferings(String topOfferings) {
+        this.topOfferings = topOfferings;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailyBusinessStats)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((DailyBusinessStats) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "DailyBusinessStats{" +
+            "id=" +
+            getId() +
+            ", statDate='" +
+            getStatDate() +
+            "'" +
+            ", revenue=" +
+            getRevenue() +
+            ", bookings=" +
+            getBookings() +
+            ", cancellations=" +
+            getCancellations() +
+            ", newGuests=" +
+            getNewGuests() +
+            "}"
+        );
+    }
+}
@@ -60,6 +60,10 @@ public class Guest implements Serializable {
     @Column(updatable = false)
     private Instant createdDate;
 
+    // az első foglalás kezdete az üzletnél, csak natív update írja (GuestRepository.recordVisit)
+    @Column(name = "first_appointment_date", insertable = false, updatable = false)
+    private Instant firstAppointmentDate;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Instant getCreatedDate() {
@@ -70,6 +74,14 @@ public class Guest implements Serializable {
         this.createdDate = createdDate;
     }
 
+    public Instant getFirstAppointmentDate() {
+        return firstAppointmentDate;
+    }
+
+    public void setFirstAppointmentDate(Instant firstAppointmentDate) {
+        this.firstAppointmentDate = firstAppointmentDate;
+    }
+
     public Long getId() {
         return this.id;
     }
@@ -0,0 +1,34 @@
+package hu.daniinc.reservation.repository;
+
+import hu.daniinc.reservation.domain.Appointment;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Overlap lookups of appointments, mixed into {@link AppointmentRepository}.
+ * <p>
+ * On PostgreSQL they test the generated tstzrange column {@code period} with {@code &&}, so they are answered from
+ * the GiST index. Other databases (the H2 of the dev profiles) have no such column; there the same conditions are
+ * written on {@code start_date} / {@code end_date}.
+ * <p>
+ * None of them returns deleted appointments.
+ */
+public interface AppointmentOverlapRepository {
+    //[startDate, endDate], both ends included
+    List<Appointment> findOverlappingAppointments(Instant startDate, Instant endDate, Long businessId, Long employeeId);
+
+    //calendar view: every employee of the business, or only one when businessEmployeeId is given; [startDate, endDate]
+    List<Appointment> findOverlappingForCalendar(Long businessId, Long businessEmployeeId, Instant startDate, Instant endDate);
+
+    List<Appointment> findByBusinessIdAndDateRange(Long businessId, ZonedDateTime start, ZonedDateTime end);
+
+    List<Appointment> findOverlappingByBusinessIdAndEmployeeId(Long businessId, Long employeeId, Instant start, Instant end);
+
+    //business employee ids (not user ids), the employee column leads the GiST index
+    List<Appointment> findOverlappingByBusinessEmployeeIdIn(Collection<Long> businessEmployeeIds, Instant start, Instant end);
+
+    //does the employee have any appointment overlapping [start, end)? (business employee id, not user id)
+    boolean existsOverlappingByBusinessEmployeeId(Long businessEmployeeId, Instant start, Instant end);
+}
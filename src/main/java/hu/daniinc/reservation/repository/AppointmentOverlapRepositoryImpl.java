@@ -0,0 +1,115 @@
+package hu.daniinc.reservation.repository;
+
+import hu.daniinc.reservation.domain.Appointment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Native implementation of {@link AppointmentOverlapRepository}; the overlap condition depends on the database.
+ */
+class AppointmentOverlapRepositoryImpl implements AppointmentOverlapRepository {
+
+    private static final String SELECT_BY_BUSINESS =
+        "SELECT a.* FROM appointment a JOIN business_employee be ON be.id = a.business_employee_id WHERE be.business_id = :businessId ";
+
+    private static final String NOT_DELETED = "AND a.status <> 'DELETED' ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public List<Appointment> findOverlappingAppointments(Instant startDate, Instant endDate, Long businessId, Long employeeId) {
+        Query query = appointments(SELECT_BY_BUSINESS + "AND be.user_id = :employeeId " + NOT_DELETED + overlaps(true));
+        return bindRange(query, startDate, endDate)
+            .setParameter("businessId", businessId)
+            .setParameter("employeeId", employeeId)
+            .getResultList();
+    }
+
+    @Override
+    public List<Appointment> findOverlappingForCalendar(Long businessId, Long businessEmployeeId, Instant startDate, Instant endDate) {
+        String employeeFilter = businessEmployeeId != null ? "AND a.business_employee_id = :businessEmployeeId " : "";
+        Query query = appointments(SELECT_BY_BUSINESS + employeeFilter + NOT_DELETED + overlaps(true));
+        bindRange(query, startDate, endDate).setParameter("businessId", businessId);
+        if (businessEmployeeId != null) {
+            query.setParameter("businessEmployeeId", businessEmployeeId);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Appointment> findByBusinessIdAndDateRange(Long businessId, ZonedDateTime start, ZonedDateTime end) {
+        Query query = appointments(SELECT_BY_BUSINESS + NOT_DELETED + overlaps(false));
+        return bindRange(query, start.toInstant(), end.toInstant()).setParameter("businessId", businessId).getResultList();
+    }
+
+    @Override
+    public List<Appointment> findOverlappingByBusinessIdAndEmployeeId(Long businessId, Long employeeId, Instant start, Instant end) {
+        Query query = appointments(SELECT_BY_BUSINESS + "AND be.user_id = :employeeId " + NOT_DELETED + overlaps(false));
+        return bindRange(query, start, end).setParameter("businessId", businessId).setParameter("employeeId", employeeId).getResultList();
+    }
+
+    @Override
+    public List<Appointment> findOverlappingByBusinessEmployeeIdIn(Collection<Long> businessEmployeeIds, Instant start, Instant end) {
+        Query query = appointments(
+            "SELECT a.* FROM appointment a WHERE a.business_employee_id IN (:businessEmployeeIds) " + NOT_DELETED + overlaps(false)
+        );
+        return bindRange(query, start, end).setParameter("businessEmployeeIds", businessEmployeeIds).getResultList();
+    }
+
+    @Override
+    public boolean existsOverlappingByBusinessEmployeeId(Long businessEmployeeId, Instant start, Instant end) {
+        Query query = entityManager.createNativeQuery(
+            "SELECT 1 FROM appointment a WHERE a.business_employee_id = :businessEmployeeId " + NOT_DELETED + overlaps(false) + " LIMIT 1"
+        );
+        return !bindRange(query, start, end).setParameter("businessEmployeeId", businessEmployeeId).getResultList().isEmpty();
+    }
+
+    private Query appointments(String sql) {
+        return entityManager.createNativeQuery(sql, Appointment.class);
+    }
+
+    private static Query bindRange(Query query, Instant start, Instant end) {
+        return query.setParameter("start", start).setParameter("end", end);
+    }
+
+    /**
+     * The appointment overlaps [:start, :end) or, with {@code inclusiveEnd}, [:start, :end]. Like the {@code period}
+     * column, the appointment itself is the half-open range between its two dates, and an empty one overlaps nothing.
+     */
+    private String overlaps(boolean inclusiveEnd) {
+        if (isPostgres()) {
+            return (
+                "AND a.period && tstzrange(CAST(:start AS timestamptz), CAST(:end AS timestamptz), '" + (inclusiveEnd ? "[]" : "[)") + "')"
+            );
+        }
+        return (
+            "AND a.start_date <> a.end_date " +
+            "AND LEAST(a.start_date, a.end_date) " +
+            (inclusiveEnd ? "<=" : "<") +
+            " :end AND GREATEST(a.start_date, a.end_date) > :start"
+        );
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager
+                .getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -1,11 +1,14 @@
 package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.Appointment;
-import hu.daniinc.reservation.service.dto.IncomeChartDTO;
+import hu.daniinc.reservation.service.dto.AppointmentExportRow;
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
-import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,30 +18,9 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
-    @Query(
-        "SELECT a FROM Appointment a " +
-        "WHERE a.startDate <= :endDate " +
-        "AND a.endDate >= :startDate " +
-        "AND a.businessEmployee.user.id = :employeeId " +
-        "AND a.businessEmployee.business.id = :businessId " +
-        "and a.status <> 'DELETED'"
-    )
-    List<Appointment> findOverlappingAppointments(
-        @Param("startDate") Instant startDate,
-        @Param("endDate") Instant endDate,
-        @Param("businessId") Long businessId,
-        @Param("employeeId") Long employeeId
-    );
-
-    @Query(
-        "SELECT a FROM Appointment a WHERE a.businessEmployee.business.id = :businessId AND a.startDate < :end AND a.endDate > :start and a.status <> 'DELETED'"
-    )
-    List<Appointment> findByBusinessIdAndDateRange(
-        @Param("businessId") Long businessId,
-        @Param("start") ZonedDateTime start,
-        @Param("end") ZonedDateTime end
-    );
+public interface AppointmentRepository
+    extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment>, AppointmentOverlapRepository {
+    // The overlap lookups (tstzrange column "period" on PostgreSQL) are in AppointmentOverlapRepository.
 
     @Query(
         "SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END FROM Appointment a WHERE a.businessEmployee.user.login = ?#{authentication.name} and a.id = ?1"
@@ -69,34 +51,25 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>,
         @Param("endDate") Instant endDate
     );
 
-    //find optional appointment BY Appointment ID and Business ID
-    @Query("select a from Appointment a where a.businessEmployee.business.id = :businessId and a.id = :appointmentId")
-    Optional<Appointment> findByBusinessAndAppointmentId(@Param("businessId") Long businessId, @Param("appointmentId") Long appointmentId);
-
-    //for statistic income
+    //[business employee id, start, end] of the booked appointments overlapping [start, end), no entity is loaded;
+    //pending ones count as booked because they already hold their slot, cancelled and deleted ones do not
     @Query(
-        """
-            SELECT new hu.daniinc.reservation.service.dto.IncomeChartDTO(
-                CAST(CAST(a.startDate AS date) AS string),
-                SUM(a.offering.price)
-            )
-            FROM Appointment a
-            WHERE a.startDate BETWEEN :start AND :end
-            AND a.businessEmployee.business.id = :businessId
-            AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
-            AND a.status != 'PENDING'
-            AND a.status != 'CANCELLED'
-            GROUP BY CAST(CAST(a.startDate AS date) AS string)
-            ORDER BY CAST(CAST(a.startDate AS date) AS string) ASC
-        """
+        "SELECT a.businessEmployee.id, a.startDate, a.endDate FROM Appointment a " +
+        "WHERE a.businessEmployee.id IN :businessEmployeeIds " +
+        "AND a.status IN (hu.daniinc.reservation.domain.enumeration.AppointmentStatus.PENDING, " +
+        "hu.daniinc.reservation.domain.enumeration.AppointmentStatus.CONFIRMED) " +
+        "AND a.startDate < :end AND a.endDate > :start"
     )
-    List<IncomeChartDTO> getDailyStats(
-        @Param("businessId") Long businessId,
+    List<Object[]> findBookedIntervalsByBusinessEmployeeIdIn(
+        @Param("businessEmployeeIds") Collection<Long> businessEmployeeIds,
         @Param("start") Instant start,
-        @Param("end") Instant end,
-        @Param("employeeId") Long employeeId
+        @Param("end") Instant end
     );
 
+    //find optional appointment BY Appointment ID and Business ID
+    @Query("select a from Appointment a where a.businessEmployee.business.id = :businessId and a.id = :appointmentId")
+    Optional<Appointment> findByBusinessAndAppointmentId(@Param("businessId") Long businessId, @Param("appointmentId") Long appointmentId);
+
     @Query(
         """
             select a from Appointment a where a.businessEmployee.business.id = :businessId
@@ -121,4 +94,39 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>,
         """
     )
     Optional<Appointment> findByIdWithDetails(@Param("appointmentId") Long appointmentId);
+
+    //export rows by start date, without the deleted ones, read through a cursor; must be consumed inside a transaction and closed
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.AppointmentExportRow(
+                a.id, a.startDate, a.endDate, a.status,
+                u.firstName, u.lastName,
+                g.name, g.email, g.phoneNumber,
+                o.title, o.price
+            )
+            FROM Appointment a
+            JOIN a.businessEmployee be
+            JOIN be.user u
+            LEFT JOIN a.guest g
+            LEFT JOIN a.offering o
+            WHERE be.business.id = :businessId
+            AND (:employeeId IS NULL OR u.id = :employeeId)
+            AND a.startDate >= :from AND a.startDate < :to
+            AND a.status != 'DELETED'
+            ORDER BY a.startDate, a.id
+        """
+    )
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+        }
+    )
+    Stream<AppointmentExportRow> streamExportRows(
+        @Param("businessId") Long businessId,
+        @Param("employeeId") Long employeeId,
+        @Param("from") Instant from,
+        @Param("to") Instant to
+    );
 }
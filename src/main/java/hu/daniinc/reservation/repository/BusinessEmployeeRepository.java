@@ -1,14 +1,21 @@
 package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.BusinessEmployee;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -38,6 +45,24 @@ public interface BusinessEmployeeRepository extends JpaRepository<BusinessEmploy
     @Query("select be from BusinessEmployee be where be.business.id = :businessId")
     Page<BusinessEmployee> findAllByBusinessId(Long businessId, Pageable pageable);
 
+    @Query("select be.user.id from BusinessEmployee be where be.business.id = :businessId order by be.id")
+    List<Long> findUserIdsByBusinessId(@Param("businessId") Long businessId);
+
+    //[business employee id, user id] pairs of the given users of the business
+    @Query("select be.id, be.user.id from BusinessEmployee be where be.business.id = :businessId and be.user.id in :userIds")
+    List<Object[]> findIdsByBusinessIdAndUserIdIn(@Param("businessId") Long businessId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Row lock on the employee ({@code SELECT ... FOR UPDATE}), held until the transaction ends. Bookings of the same
+     * employee queue up behind it, bookings of other employees lock other rows and are not affected.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select be from BusinessEmployee be where be.id = :id")
+    Optional<BusinessEmployee> lockById(@Param("id") Long id);
+
+    @Query("select be.business.timeZone from BusinessEmployee be where be.id = :id")
+    Optional<String> findTimeZoneById(@Param("id") Long id);
+
     //find business Employee by business Id and employee (user) id
     @Query("select be from BusinessEmployee be where be.business.id = :businessId and be.user.id = :employeeId")
     Optional<BusinessEmployee> findByBusinessIdAndEmployeeId(Long businessId, Long employeeId);
@@ -55,6 +80,47 @@ public interface BusinessEmployeeRepository extends JpaRepository<BusinessEmploy
     )
     List<BusinessEmployee> findAllPublicByBusinessId(Long businessId);
 
+    /**
+     * Business, employee (by user id) and offering of a guest booking in one round trip, as {@code [Business, BusinessEmployee, Offering]}.
+     * Empty when any of them is missing, the employee is not public (inactive or deleted) or the offering does not
+     * belong to the business.
+     */
+    @Query(
+        "select b, be, o from BusinessEmployee be join be.business b, Offering o " +
+        "where b.id = :businessId and be.user.id = :employeeId " +
+        "and be.status <> 'DELETED' and be.status <> 'INACTIVE' " +
+        "and o.id = :offeringId and o.businessEmployee.business.id = :businessId"
+    )
+    List<Object[]> findBookingContext(
+        @Param("businessId") Long businessId,
+        @Param("employeeId") Long employeeId,
+        @Param("offeringId") Long offeringId
+    );
+
     @Query("select be from BusinessEmployee be where be.id = :employeeId")
     Optional<BusinessEmployee> findByEmployeeId(@Param("employeeId") Long employeeId);
+
+    @Query("select count(be) > 0 from BusinessEmployee be where be.id = :businessEmployeeId and be.user.id = :userId")
+    boolean isOfUser(@Param("businessEmployeeId") Long businessEmployeeId, @Param("userId") Long userId);
+
+    /**
+     * Adjusts the unread notification counter by {@code delta}; it never goes below zero.
+     */
+    @Modifying
+    @Query(
+        value = """
+            UPDATE business_employee SET unread_notification_count = GREATEST(unread_notification_count + :delta, 0)
+            WHERE id = :businessEmployeeId
+        """,
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "business_employee"))
+    int addUnreadNotifications(@Param("businessEmployeeId") Long businessEmployeeId, @Param("delta") long delta);
+
+    @Query("select be.unreadNotificationCount from BusinessEmployee be where be.id = :businessEmployeeId")
+    Optional<Long> findUnreadNotificationCount(@Param("businessEmployeeId") Long businessEmployeeId);
+
+    //[business employee id, unread notification count] of every business employee of the user
+    @Query("select be.id, be.unreadNotificationCount from BusinessEmployee be where be.user.id = :userId")
+    List<Object[]> findUnreadNotificationCountsByUserId(@Param("userId") Long userId);
 }
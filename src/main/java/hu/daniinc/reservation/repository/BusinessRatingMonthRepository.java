@@ -0,0 +1,40 @@
+package hu.daniinc.reservation.repository;
+
+import hu.daniinc.reservation.domain.BusinessRatingMonth;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BusinessRatingMonthRepository extends JpaRepository<BusinessRatingMonth, Long>, BusinessRatingMonthWriteRepository {
+    // totals of the months [from, to], both given by their first day
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.RatingAggregateDTO(
+                SUM(m.ratingSum),
+                SUM(m.ratingCount),
+                SUM(m.ratingCount1),
+                SUM(m.ratingCount2),
+                SUM(m.ratingCount3),
+                SUM(m.ratingCount4),
+                SUM(m.ratingCount5)
+            )
+            FROM BusinessRatingMonth m
+            WHERE m.business.id = :businessId
+            AND m.month BETWEEN :from AND :to
+        """
+    )
+    RatingAggregateDTO sumByBusinessId(@Param("businessId") Long businessId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "DELETE FROM business_rating_month WHERE business_id = :businessId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "business_rating_month"))
+    int deleteByBusinessId(@Param("businessId") Long businessId);
+}
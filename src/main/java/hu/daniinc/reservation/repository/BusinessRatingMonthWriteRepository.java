@@ -0,0 +1,39 @@
+package hu.daniinc.reservation.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Writes of the {@code business_rating_month} buckets, mixed into {@link BusinessRatingMonthRepository}.
+ * <p>
+ * On PostgreSQL a rating is added with a single upsert and the rebuild is one set-based statement; rating writes take
+ * a shared and the rebuild an exclusive advisory lock of the business. Other databases (the H2 of the dev profiles)
+ * have no advisory locks, {@code ON CONFLICT}, {@code FILTER} or {@code date_trunc}; there the month rows are
+ * written with a plain update or insert, and both paths lock the row of the business, so rating writes of one
+ * business run one at a time.
+ */
+public interface BusinessRatingMonthWriteRepository {
+    /**
+     * Lock taken before adjusting the totals of the business by one rating, held until the end of the transaction;
+     * it only waits for a running rebuild.
+     */
+    void lockForUpdate(Long businessId);
+
+    /**
+     * Lock taken before rebuilding the totals of the business: it waits for the running rating transactions and
+     * holds back new ones until the rebuild commits.
+     */
+    void lockForRebuild(Long businessId);
+
+    /**
+     * Adds (delta = 1) or removes (delta = -1) one rating of the given star to the month, creating its row on the
+     * first rating.
+     */
+    int addRating(Long businessId, LocalDate month, int star, int delta);
+
+    /**
+     * Aggregates every rating of one business into month rows, grouping by the business-local month. Run after
+     * {@link BusinessRatingMonthRepository#deleteByBusinessId(Long)} in the same transaction; returns the number of
+     * rows written.
+     */
+    int rebuildBusiness(Long businessId);
+}
@@ -0,0 +1,223 @@
+package hu.daniinc.reservation.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Implementation of {@link BusinessRatingMonthWriteRepository}; the statements depend on the database.
+ */
+class BusinessRatingMonthWriteRepositoryImpl implements BusinessRatingMonthWriteRepository {
+
+    private static final String TABLE = "business_rating_month";
+
+    private static final String DEFAULT_TIME_ZONE = "Europe/Budapest";
+
+    private static final String PG_LOCK_FOR_UPDATE =
+        "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtextextended('business_rating:' || CAST(:businessId AS bigint), 0))";
+
+    private static final String PG_LOCK_FOR_REBUILD =
+        "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended('business_rating:' || CAST(:businessId AS bigint), 0))";
+
+    private static final String PG_ADD_RATING = """
+            INSERT INTO business_rating_month (
+                business_id, month, rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5
+            )
+            VALUES (
+                :businessId, :month, :star * :delta, :delta,
+                CASE WHEN :star = 1 THEN :delta ELSE 0 END,
+                CASE WHEN :star = 2 THEN :delta ELSE 0 END,
+                CASE WHEN :star = 3 THEN :delta ELSE 0 END,
+                CASE WHEN :star = 4 THEN :delta ELSE 0 END,
+                CASE WHEN :star = 5 THEN :delta ELSE 0 END
+            )
+            ON CONFLICT (business_id, month) DO UPDATE SET
+                rating_sum = business_rating_month.rating_sum + EXCLUDED.rating_sum,
+                rating_count = business_rating_month.rating_count + EXCLUDED.rating_count,
+                rating_count_1 = business_rating_month.rating_count_1 + EXCLUDED.rating_count_1,
+                rating_count_2 = business_rating_month.rating_count_2 + EXCLUDED.rating_count_2,
+                rating_count_3 = business_rating_month.rating_count_3 + EXCLUDED.rating_count_3,
+                rating_count_4 = business_rating_month.rating_count_4 + EXCLUDED.rating_count_4,
+                rating_count_5 = business_rating_month.rating_count_5 + EXCLUDED.rating_count_5
+        """;
+
+    private static final String PG_REBUILD_BUSINESS = """
+            INSERT INTO business_rating_month (
+                business_id, month, rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5
+            )
+            SELECT r.business_id,
+                CAST(
+                    date_trunc('month', (r.created_date AT TIME ZONE 'UTC') AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest')) AS date
+                ),
+                SUM(r.number), COUNT(*),
+                COUNT(*) FILTER (WHERE r.number = 1), COUNT(*) FILTER (WHERE r.number = 2),
+                COUNT(*) FILTER (WHERE r.number = 3), COUNT(*) FILTER (WHERE r.number = 4),
+                COUNT(*) FILTER (WHERE r.number = 5)
+            FROM business_rating r
+            JOIN business b ON b.id = r.business_id
+            WHERE r.business_id = :businessId AND r.created_date IS NOT NULL
+            GROUP BY 1, 2
+        """;
+
+    private static final String UPDATE_MONTH = """
+            UPDATE business_rating_month SET
+                rating_sum = rating_sum + :ratingSum,
+                rating_count = rating_count + :ratingCount,
+                rating_count_1 = rating_count_1 + :ratingCount1,
+                rating_count_2 = rating_count_2 + :ratingCount2,
+                rating_count_3 = rating_count_3 + :ratingCount3,
+                rating_count_4 = rating_count_4 + :ratingCount4,
+                rating_count_5 = rating_count_5 + :ratingCount5
+            WHERE business_id = :businessId AND month = :month
+        """;
+
+    private static final String INSERT_MONTH = """
+            INSERT INTO business_rating_month (
+                business_id, month, rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5
+            )
+            VALUES (
+                :businessId, :month, :ratingSum, :ratingCount, :ratingCount1, :ratingCount2, :ratingCount3, :ratingCount4, :ratingCount5
+            )
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public void lockForUpdate(Long businessId) {
+        if (isPostgres()) {
+            entityManager.createNativeQuery(PG_LOCK_FOR_UPDATE).setParameter("businessId", businessId).getResultList();
+            return;
+        }
+        lockBusinessRow(businessId);
+    }
+
+    @Override
+    public void lockForRebuild(Long businessId) {
+        if (isPostgres()) {
+            entityManager.createNativeQuery(PG_LOCK_FOR_REBUILD).setParameter("businessId", businessId).getResultList();
+            return;
+        }
+        lockBusinessRow(businessId);
+    }
+
+    @Override
+    public int addRating(Long businessId, LocalDate month, int star, int delta) {
+        if (isPostgres()) {
+            return write(PG_ADD_RATING)
+                .setParameter("businessId", businessId)
+                .setParameter("month", month)
+                .setParameter("star", star)
+                .setParameter("delta", delta)
+                .executeUpdate();
+        }
+        long[] totals = new long[7];
+        totals[0] = (long) star * delta;
+        totals[1] = delta;
+        if (star >= 1 && star <= 5) {
+            totals[star + 1] = delta;
+        }
+        return upsertPortable(businessId, month, totals);
+    }
+
+    @Override
+    public int rebuildBusiness(Long businessId) {
+        if (isPostgres()) {
+            return write(PG_REBUILD_BUSINESS).setParameter("businessId", businessId).executeUpdate();
+        }
+
+        String timeZone = entityManager
+            .createQuery("SELECT b.timeZone FROM Business b WHERE b.id = :businessId", String.class)
+            .setParameter("businessId", businessId)
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+        ZoneId zone = ZoneId.of(timeZone != null ? timeZone : DEFAULT_TIME_ZONE);
+
+        // hónap első napja -> összeg, darab, 1..5 csillagos darabszámok
+        Map<LocalDate, long[]> months = new TreeMap<>();
+        List<Object[]> ratings = entityManager
+            .createQuery(
+                "SELECT r.createdDate, r.number FROM BusinessRating r WHERE r.business.id = :businessId AND r.createdDate IS NOT NULL",
+                Object[].class
+            )
+            .setParameter("businessId", businessId)
+            .getResultList();
+        for (Object[] rating : ratings) {
+            LocalDate month = LocalDate.ofInstant((Instant) rating[0], zone).withDayOfMonth(1);
+            long[] totals = months.computeIfAbsent(month, key -> new long[7]);
+            totals[1]++;
+            if (rating[1] instanceof Integer star) {
+                totals[0] += star;
+                if (star >= 1 && star <= 5) {
+                    totals[star + 1]++;
+                }
+            }
+        }
+
+        int written = 0;
+        for (Map.Entry<LocalDate, long[]> month : months.entrySet()) {
+            written += bindMonth(write(INSERT_MONTH), businessId, month.getKey(), month.getValue()).executeUpdate();
+        }
+        return written;
+    }
+
+    private int upsertPortable(Long businessId, LocalDate month, long[] totals) {
+        // a zárolás miatt nem fut párhuzamosan másik írás, a frissítés vagy beszúrás nem ütközhet
+        if (bindMonth(write(UPDATE_MONTH), businessId, month, totals).executeUpdate() > 0) {
+            return 1;
+        }
+        return bindMonth(write(INSERT_MONTH), businessId, month, totals).executeUpdate();
+    }
+
+    private Query bindMonth(Query query, Long businessId, LocalDate month, long[] totals) {
+        return query
+            .setParameter("businessId", businessId)
+            .setParameter("month", month)
+            .setParameter("ratingSum", totals[0])
+            .setParameter("ratingCount", totals[1])
+            .setParameter("ratingCount1", totals[2])
+            .setParameter("ratingCount2", totals[3])
+            .setParameter("ratingCount3", totals[4])
+            .setParameter("ratingCount4", totals[5])
+            .setParameter("ratingCount5", totals[6]);
+    }
+
+    private void lockBusinessRow(Long businessId) {
+        entityManager
+            .createNativeQuery("SELECT id FROM business WHERE id = :businessId FOR UPDATE")
+            .setParameter("businessId", businessId)
+            .getResultList();
+    }
+
+    /**
+     * Native write that only touches the month buckets, so Hibernate does not evict the second-level cache regions.
+     */
+    private Query write(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABLE);
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager
+                .getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -17,7 +17,4 @@ import org.springframework.stereotype.Repository;
 public interface BusinessRatingRepository extends JpaRepository<BusinessRating, Long> {
     @Query("select br from BusinessRating br where br.business.id = ?1")
     Page<BusinessRating> findAllByBusinessId(Long businessId, Pageable pageable);
-
-    @Query("SELECT AVG(r.number) FROM BusinessRating r WHERE r.business.id = :businessId")
-    Double getAverageRatingForBusiness(@Param("businessId") Long businessId);
 }
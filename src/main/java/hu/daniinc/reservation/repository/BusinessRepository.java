@@ -1,7 +1,11 @@
 package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,4 +35,59 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
 
     @Query("select b from Business b where lower(b.customDomain) = lower(:domain) ")
     Optional<Business> findByCustomDomainIgnoreCase(@Param("domain") String domain);
+
+    @Query("select b.id from Business b")
+    List<Long> findAllIds();
+
+    @Query("select b.timeZone from Business b where b.id = :id")
+    Optional<String> findTimeZoneById(@Param("id") Long id);
+
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.RatingAggregateDTO(
+                b.ratingSum, b.ratingCount, b.ratingCount1, b.ratingCount2, b.ratingCount3, b.ratingCount4, b.ratingCount5
+            )
+            FROM Business b
+            WHERE b.id = :businessId
+        """
+    )
+    Optional<RatingAggregateDTO> findRatingAggregate(@Param("businessId") Long businessId);
+
+    // adds (delta = 1) or removes (delta = -1) one rating of the given star to the running totals
+    @Modifying
+    @Query(
+        value = """
+            UPDATE business SET
+                rating_sum = rating_sum + :star * :delta,
+                rating_count = rating_count + :delta,
+                rating_count_1 = rating_count_1 + CASE WHEN :star = 1 THEN :delta ELSE 0 END,
+                rating_count_2 = rating_count_2 + CASE WHEN :star = 2 THEN :delta ELSE 0 END,
+                rating_count_3 = rating_count_3 + CASE WHEN :star = 3 THEN :delta ELSE 0 END,
+                rating_count_4 = rating_count_4 + CASE WHEN :star = 4 THEN :delta ELSE 0 END,
+                rating_count_5 = rating_count_5 + CASE WHEN :star = 5 THEN :delta ELSE 0 END
+            WHERE id = :businessId
+        """,
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "business"))
+    int addRating(@Param("businessId") Long businessId, @Param("star") int star, @Param("delta") int delta);
+
+    // recomputes the running totals from the ratings, repairs any drift of the incremental updates
+    @Modifying
+    @Query(
+        value = """
+            UPDATE business SET
+                rating_sum = (SELECT COALESCE(SUM(r.number), 0) FROM business_rating r WHERE r.business_id = :businessId),
+                rating_count = (SELECT COUNT(*) FROM business_rating r WHERE r.business_id = :businessId),
+                rating_count_1 = (SELECT COUNT(*) FROM business_rating r WHERE r.business_id = :businessId AND r.number = 1),
+                rating_count_2 = (SELECT COUNT(*) FROM business_rating r WHERE r.business_id = :businessId AND r.number = 2),
+                rating_count_3 = (SELECT COUNT(*) FROM business_rating r WHERE r.business_id = :businessId AND r.number = 3),
+                rating_count_4 = (SELECT COUNT(*) FROM business_rating r WHERE r.business_id = :businessId AND r.number = 4),
+                rating_count_5 = (SELECT COUNT(*) FROM business_rating r WHERE r.business_id = :businessId AND r.number = 5)
+            WHERE id = :businessId
+        """,
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "business"))
+    int rebuildRatingTotals(@Param("businessId") Long businessId);
 }
@@ -2,6 +2,7 @@ package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.CustomWorkingHours;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
@@ -31,5 +32,16 @@ public interface CustomWorkingHoursRepository extends JpaRepository<CustomWorkin
         @Param("from") LocalDate from,
         @Param("to") LocalDate to
     );
+
+    @Query(
+        "SELECT c FROM CustomWorkingHours c JOIN FETCH c.businessEmployee be WHERE be.business.id = :businessId " +
+        "AND be.user.id IN :employeeIds AND c.workDate BETWEEN :from AND :to"
+    )
+    List<CustomWorkingHours> findByBusinessIdAndEmployeeIdInAndWorkDateBetween(
+        @Param("businessId") Long businessId,
+        @Param("employeeIds") Collection<Long> employeeIds,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to
+    );
     //List<CustomWorkingHours> findByBusinessIdAndEmployeeIdAndWorkDateBetween(Long businessId, Long employeeId, LocalDate from, LocalDate to);
 }
@@ -0,0 +1,125 @@
+package hu.daniinc.reservation.repository;
+
+import hu.daniinc.reservation.domain.DailyBusinessStats;
+import hu.daniinc.reservation.service.dto.DailyStatsProjection;
+import hu.daniinc.reservation.service.dto.IncomeChartDTO;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DailyBusinessStatsRepository extends JpaRepository<DailyBusinessStats, Long>, DailyBusinessStatsWriteRepository {
+    // totals of the summary card, dates are business-local and inclusive
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.DailyStatsProjection(
+                SUM(s.revenue),
+                SUM(s.bookings),
+                SUM(s.cancellations),
+                SUM(s.newGuests)
+            )
+            FROM DailyBusinessStats s
+            WHERE s.business.id = :businessId
+            AND s.statDate BETWEEN :from AND :to
+            AND (:employeeId IS NULL OR s.businessEmployee.user.id = :employeeId)
+        """
+    )
+    DailyStatsProjection sumByBusinessId(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("employeeId") Long employeeId
+    );
+
+    // for statistic income
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.IncomeChartDTO(
+                CAST(s.statDate AS string),
+                SUM(s.revenue)
+            )
+            FROM DailyBusinessStats s
+            WHERE s.business.id = :businessId
+            AND s.statDate BETWEEN :from AND :to
+            AND (:employeeId IS NULL OR s.businessEmployee.user.id = :employeeId)
+            GROUP BY s.statDate
+            HAVING SUM(s.revenue) > 0
+            ORDER BY s.statDate ASC
+        """
+    )
+    List<IncomeChartDTO> getDailyIncome(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("employeeId") Long employeeId
+    );
+
+    // revenue per business-local day, days without revenue are left out
+    @Query(
+        """
+            SELECT s.statDate, SUM(s.revenue)
+            FROM DailyBusinessStats s
+            WHERE s.business.id = :businessId
+            AND s.statDate BETWEEN :from AND :to
+            AND (:employeeId IS NULL OR s.businessEmployee.user.id = :employeeId)
+            GROUP BY s.statDate
+            HAVING SUM(s.revenue) > 0
+        """
+    )
+    List<Object[]> getDailyRevenue(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("employeeId") Long employeeId
+    );
+
+    // per-day top lists of the guests, read and merged by TopKRankingService
+    @Query(
+        """
+            SELECT s.topGuests
+            FROM DailyBusinessStats s
+            WHERE s.business.id = :businessId
+            AND s.statDate BETWEEN :from AND :to
+            AND (:employeeId IS NULL OR s.businessEmployee.user.id = :employeeId)
+            AND s.topGuests IS NOT NULL
+        """
+    )
+    List<String> findTopGuestLists(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("employeeId") Long employeeId
+    );
+
+    // per-day top lists of the offerings, filtered by the user id or by the business employee id
+    @Query(
+        """
+            SELECT s.topOfferings
+            FROM DailyBusinessStats s
+            WHERE s.business.id = :businessId
+            AND s.statDate BETWEEN :from AND :to
+            AND (:employeeId IS NULL OR s.businessEmployee.user.id = :employeeId)
+            AND (:businessEmployeeId IS NULL OR s.businessEmployee.id = :businessEmployeeId)
+            AND s.topOfferings IS NOT NULL
+        """
+    )
+    List<String> findTopOfferingLists(
+        @Param("businessId") Long businessId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("employeeId") Long employeeId,
+        @Param("businessEmployeeId") Long businessEmployeeId
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_business_stats WHERE business_id = :businessId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_business_stats"))
+    int deleteByBusinessId(@Param("businessId") Long businessId);
+}
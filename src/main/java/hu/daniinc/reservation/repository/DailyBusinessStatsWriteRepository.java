@@ -0,0 +1,41 @@
+package hu.daniinc.reservation.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Writes of the {@code daily_business_stats} rollup, mixed into {@link DailyBusinessStatsRepository}.
+ * <p>
+ * On PostgreSQL a refresh is a single upsert and the rebuild two set-based statements; refreshes take a shared and
+ * the rebuild an exclusive advisory lock of the business. Other databases (the H2 of the dev profiles) have no
+ * advisory locks, {@code ON CONFLICT} or {@code json_agg}; there the same rows are computed with JPQL and written
+ * with a plain update or insert, and both paths lock the row of the business, so refreshes of one business run
+ * one at a time.
+ */
+public interface DailyBusinessStatsWriteRepository {
+    /**
+     * Lock taken before {@link #refreshDay}, held until the end of the transaction; it only waits for a running
+     * rebuild of the employee's business.
+     */
+    void lockForRefresh(Long businessEmployeeId);
+
+    /**
+     * Lock taken before rebuilding the statistics of the business: it waits for the running refreshes and holds
+     * back new ones until the rebuild commits.
+     */
+    void lockForRebuild(Long businessId);
+
+    /**
+     * Recomputes the row of one employee and day from the appointments starting and the guests created
+     * in {@code [start, end)}, the UTC bounds of that business-local day. The top lists keep the
+     * {@code capacity} guests and offerings with the most bookings that day.
+     */
+    int refreshDay(Long businessEmployeeId, LocalDate statDate, Instant start, Instant end, int capacity);
+
+    /**
+     * Aggregates the whole history of one business into daily rows, top lists included, grouping by the
+     * business-local date. Run after {@link DailyBusinessStatsRepository#deleteByBusinessId(Long)} in the same
+     * transaction; returns the number of rows written.
+     */
+    int rebuildBusiness(Long businessId, int capacity);
+}
@@ -0,0 +1,450 @@
+package hu.daniinc.reservation.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Implementation of {@link DailyBusinessStatsWriteRepository}; the statements depend on the database.
+ */
+class DailyBusinessStatsWriteRepositoryImpl implements DailyBusinessStatsWriteRepository {
+
+    private static final String TABLE = "daily_business_stats";
+
+    private static final String DEFAULT_TIME_ZONE = "Europe/Budapest";
+
+    private static final String PG_LOCK_FOR_REFRESH = """
+            SELECT 1 FROM business_employee be
+            CROSS JOIN LATERAL pg_advisory_xact_lock_shared(hashtextextended('daily_business_stats:' || be.business_id, 0))
+            WHERE be.id = :businessEmployeeId
+        """;
+
+    private static final String PG_LOCK_FOR_REBUILD =
+        "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended('daily_business_stats:' || CAST(:businessId AS bigint), 0))";
+
+    private static final String PG_REFRESH_DAY = """
+            INSERT INTO daily_business_stats (
+                business_id, business_employee_id, stat_date, revenue, bookings, cancellations, new_guests, top_guests, top_offerings
+            )
+            SELECT be.business_id, be.id, :statDate,
+                COALESCE((
+                    SELECT SUM(o.price) FROM appointment a JOIN offering o ON o.id = a.offering_id
+                    WHERE a.business_employee_id = be.id AND a.status = 'CONFIRMED'
+                    AND a.start_date >= :start AND a.start_date < :end
+                ), 0),
+                (
+                    SELECT COUNT(*) FROM appointment a
+                    WHERE a.business_employee_id = be.id AND a.status = 'CONFIRMED'
+                    AND a.offering_id IS NOT NULL AND a.guest_id IS NOT NULL
+                    AND a.start_date >= :start AND a.start_date < :end
+                ),
+                (
+                    SELECT COUNT(*) FROM appointment a
+                    WHERE a.business_employee_id = be.id AND a.status = 'CANCELLED'
+                    AND a.start_date >= :start AND a.start_date < :end
+                ),
+                (
+                    SELECT COUNT(*) FROM guest g
+                    WHERE g.business_employee_id = be.id
+                    AND g.created_date >= :start AND g.created_date < :end
+                ),
+                (
+                    SELECT CAST(json_agg(json_build_object('key', t.item_key, 'label', t.label, 'count', t.cnt)) AS text)
+                    FROM (
+                        SELECT CAST(g.id AS varchar) AS item_key, g.name AS label, COUNT(*) AS cnt
+                        FROM appointment a JOIN guest g ON g.id = a.guest_id
+                        WHERE a.business_employee_id = be.id AND a.status <> 'DELETED'
+                        AND a.start_date >= :start AND a.start_date < :end
+                        GROUP BY g.id, g.name
+                        ORDER BY COUNT(*) DESC
+                        LIMIT :capacity
+                    ) t
+                ),
+                (
+                    SELECT CAST(json_agg(json_build_object('key', t.item_key, 'label', t.item_key, 'count', t.cnt)) AS text)
+                    FROM (
+                        SELECT o.title AS item_key, COUNT(*) AS cnt
+                        FROM appointment a JOIN offering o ON o.id = a.offering_id
+                        WHERE a.business_employee_id = be.id AND a.status <> 'DELETED'
+                        AND a.start_date >= :start AND a.start_date < :end
+                        GROUP BY o.title
+                        ORDER BY COUNT(*) DESC
+                        LIMIT :capacity
+                    ) t
+                )
+            FROM business_employee be
+            WHERE be.id = :businessEmployeeId
+            ON CONFLICT (business_employee_id, stat_date) DO UPDATE SET
+                revenue = EXCLUDED.revenue,
+                bookings = EXCLUDED.bookings,
+                cancellations = EXCLUDED.cancellations,
+                new_guests = EXCLUDED.new_guests,
+                top_guests = EXCLUDED.top_guests,
+                top_offerings = EXCLUDED.top_offerings
+        """;
+
+    private static final String PG_REBUILD_BUSINESS = """
+            INSERT INTO daily_business_stats (business_id, business_employee_id, stat_date, revenue, bookings, cancellations, new_guests)
+            SELECT x.business_id, x.business_employee_id, x.stat_date,
+                SUM(x.revenue), SUM(x.bookings), SUM(x.cancellations), SUM(x.new_guests)
+            FROM (
+                SELECT be.business_id, a.business_employee_id,
+                    CAST((a.start_date AT TIME ZONE 'UTC') AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest') AS date) AS stat_date,
+                    CASE WHEN a.status = 'CONFIRMED' THEN COALESCE(o.price, 0) ELSE 0 END AS revenue,
+                    CASE WHEN a.status = 'CONFIRMED' AND a.offering_id IS NOT NULL AND a.guest_id IS NOT NULL THEN 1 ELSE 0 END AS bookings,
+                    CASE WHEN a.status = 'CANCELLED' THEN 1 ELSE 0 END AS cancellations,
+                    0 AS new_guests
+                FROM appointment a
+                JOIN business_employee be ON be.id = a.business_employee_id
+                JOIN business b ON b.id = be.business_id
+                LEFT JOIN offering o ON o.id = a.offering_id
+                WHERE be.business_id = :businessId AND a.status <> 'DELETED' AND a.start_date IS NOT NULL
+                UNION ALL
+                SELECT be.business_id, g.business_employee_id,
+                    CAST((g.created_date AT TIME ZONE 'UTC') AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest') AS date),
+                    0, 0, 0, 1
+                FROM guest g
+                JOIN business_employee be ON be.id = g.business_employee_id
+                JOIN business b ON b.id = be.business_id
+                WHERE be.business_id = :businessId AND g.created_date IS NOT NULL
+            ) x
+            GROUP BY x.business_id, x.business_employee_id, x.stat_date
+        """;
+
+    // the top lists of every row of the business, like the refresh of a single row
+    private static final String PG_REFRESH_TOP_LISTS = """
+            UPDATE daily_business_stats d SET
+                top_guests = (
+                    SELECT CAST(json_agg(json_build_object('key', t.item_key, 'label', t.label, 'count', t.cnt)) AS text)
+                    FROM (
+                        SELECT CAST(g.id AS varchar) AS item_key, g.name AS label, COUNT(*) AS cnt
+                        FROM appointment a JOIN guest g ON g.id = a.guest_id
+                        WHERE a.business_employee_id = d.business_employee_id AND a.status <> 'DELETED'
+                        AND a.start_date >= (CAST(d.stat_date AS timestamp) AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest'))
+                            AT TIME ZONE 'UTC'
+                        AND a.start_date < (CAST(d.stat_date + 1 AS timestamp) AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest'))
+                            AT TIME ZONE 'UTC'
+                        GROUP BY g.id, g.name
+                        ORDER BY COUNT(*) DESC
+                        LIMIT :capacity
+                    ) t
+                ),
+                top_offerings = (
+                    SELECT CAST(json_agg(json_build_object('key', t.item_key, 'label', t.item_key, 'count', t.cnt)) AS text)
+                    FROM (
+                        SELECT o.title AS item_key, COUNT(*) AS cnt
+                        FROM appointment a JOIN offering o ON o.id = a.offering_id
+                        WHERE a.business_employee_id = d.business_employee_id AND a.status <> 'DELETED'
+                        AND a.start_date >= (CAST(d.stat_date AS timestamp) AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest'))
+                            AT TIME ZONE 'UTC'
+                        AND a.start_date < (CAST(d.stat_date + 1 AS timestamp) AT TIME ZONE COALESCE(b.time_zone, 'Europe/Budapest'))
+                            AT TIME ZONE 'UTC'
+                        GROUP BY o.title
+                        ORDER BY COUNT(*) DESC
+                        LIMIT :capacity
+                    ) t
+                )
+            FROM business b
+            WHERE b.id = d.business_id AND d.business_id = :businessId
+        """;
+
+    private static final String UPDATE_ROW = """
+            UPDATE daily_business_stats SET
+                revenue = :revenue, bookings = :bookings, cancellations = :cancellations, new_guests = :newGuests,
+                top_guests = :topGuests, top_offerings = :topOfferings
+            WHERE business_employee_id = :businessEmployeeId AND stat_date = :statDate
+        """;
+
+    private static final String INSERT_ROW = """
+            INSERT INTO daily_business_stats (
+                business_id, business_employee_id, stat_date, revenue, bookings, cancellations, new_guests, top_guests, top_offerings
+            )
+            VALUES (:businessId, :businessEmployeeId, :statDate, :revenue, :bookings, :cancellations, :newGuests, :topGuests, :topOfferings)
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Boolean postgres;
+
+    DailyBusinessStatsWriteRepositoryImpl(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void lockForRefresh(Long businessEmployeeId) {
+        if (isPostgres()) {
+            entityManager.createNativeQuery(PG_LOCK_FOR_REFRESH).setParameter("businessEmployeeId", businessEmployeeId).getResultList();
+            return;
+        }
+        findBusinessId(businessEmployeeId).ifPresent(this::lockBusinessRow);
+    }
+
+    @Override
+    public void lockForRebuild(Long businessId) {
+        if (isPostgres()) {
+            entityManager.createNativeQuery(PG_LOCK_FOR_REBUILD).setParameter("businessId", businessId).getResultList();
+            return;
+        }
+        lockBusinessRow(businessId);
+    }
+
+    @Override
+    public int refreshDay(Long businessEmployeeId, LocalDate statDate, Instant start, Instant end, int capacity) {
+        if (isPostgres()) {
+            return write(PG_REFRESH_DAY)
+                .setParameter("businessEmployeeId", businessEmployeeId)
+                .setParameter("statDate", statDate)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("capacity", capacity)
+                .executeUpdate();
+        }
+        return findBusinessId(businessEmployeeId)
+            .map(businessId -> refreshDayPortable(businessId, businessEmployeeId, statDate, start, end, capacity))
+            .orElse(0);
+    }
+
+    @Override
+    public int rebuildBusiness(Long businessId, int capacity) {
+        if (isPostgres()) {
+            int inserted = write(PG_REBUILD_BUSINESS).setParameter("businessId", businessId).executeUpdate();
+            write(PG_REFRESH_TOP_LISTS).setParameter("businessId", businessId).setParameter("capacity", capacity).executeUpdate();
+            return inserted;
+        }
+
+        String timeZone = entityManager
+            .createQuery("SELECT b.timeZone FROM Business b WHERE b.id = :businessId", String.class)
+            .setParameter("businessId", businessId)
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+        ZoneId zone = ZoneId.of(timeZone != null ? timeZone : DEFAULT_TIME_ZONE);
+
+        // a sorok napjai: ahol foglalás kezdődik vagy vendég jött létre
+        Map<Long, TreeSet<LocalDate>> days = new TreeMap<>();
+        List<Object[]> activity = new ArrayList<>();
+        activity.addAll(
+            entityManager
+                .createQuery(
+                    "SELECT a.businessEmployee.id, a.startDate FROM Appointment a " +
+                    "WHERE a.businessEmployee.business.id = :businessId AND a.status <> :deleted AND a.startDate IS NOT NULL",
+                    Object[].class
+                )
+                .setParameter("businessId", businessId)
+                .setParameter("deleted", AppointmentStatus.DELETED)
+                .getResultList()
+        );
+        activity.addAll(
+            entityManager
+                .createQuery(
+                    "SELECT g.businessEmployee.id, g.createdDate FROM Guest g " +
+                    "WHERE g.businessEmployee.business.id = :businessId AND g.createdDate IS NOT NULL",
+                    Object[].class
+                )
+                .setParameter("businessId", businessId)
+                .getResultList()
+        );
+        for (Object[] row : activity) {
+            days.computeIfAbsent((Long) row[0], id -> new TreeSet<>()).add(LocalDate.ofInstant((Instant) row[1], zone));
+        }
+
+        int written = 0;
+        for (Map.Entry<Long, TreeSet<LocalDate>> employee : days.entrySet()) {
+            for (LocalDate date : employee.getValue()) {
+                Instant start = date.atStartOfDay(zone).toInstant();
+                Instant end = date.plusDays(1).atStartOfDay(zone).toInstant();
+                written += refreshDayPortable(businessId, employee.getKey(), date, start, end, capacity);
+            }
+        }
+        return written;
+    }
+
+    private int refreshDayPortable(Long businessId, Long businessEmployeeId, LocalDate statDate, Instant start, Instant end, int capacity) {
+        BigDecimal revenue = dayQuery(
+            "SELECT SUM(a.offering.price) FROM Appointment a " +
+            "WHERE a.businessEmployee.id = :businessEmployeeId AND a.status = :confirmed " +
+            "AND a.startDate >= :start AND a.startDate < :end",
+            BigDecimal.class,
+            businessEmployeeId,
+            start,
+            end
+        )
+            .setParameter("confirmed", AppointmentStatus.CONFIRMED)
+            .getSingleResult();
+        Long bookings = dayQuery(
+            "SELECT COUNT(a) FROM Appointment a " +
+            "WHERE a.businessEmployee.id = :businessEmployeeId AND a.status = :confirmed " +
+            "AND a.offering IS NOT NULL AND a.guest IS NOT NULL AND a.startDate >= :start AND a.startDate < :end",
+            Long.class,
+            businessEmployeeId,
+            start,
+            end
+        )
+            .setParameter("confirmed", AppointmentStatus.CONFIRMED)
+            .getSingleResult();
+        Long cancellations = dayQuery(
+            "SELECT COUNT(a) FROM Appointment a " +
+            "WHERE a.businessEmployee.id = :businessEmployeeId AND a.status = :cancelled " +
+            "AND a.startDate >= :start AND a.startDate < :end",
+            Long.class,
+            businessEmployeeId,
+            start,
+            end
+        )
+            .setParameter("cancelled", AppointmentStatus.CANCELLED)
+            .getSingleResult();
+        Long newGuests = dayQuery(
+            "SELECT COUNT(g) FROM Guest g " +
+            "WHERE g.businessEmployee.id = :businessEmployeeId AND g.createdDate >= :start AND g.createdDate < :end",
+            Long.class,
+            businessEmployeeId,
+            start,
+            end
+        ).getSingleResult();
+        List<Object[]> topGuests = dayQuery(
+            "SELECT g.id, g.name, COUNT(a) FROM Appointment a JOIN a.guest g " +
+            "WHERE a.businessEmployee.id = :businessEmployeeId AND a.status <> :deleted " +
+            "AND a.startDate >= :start AND a.startDate < :end " +
+            "GROUP BY g.id, g.name ORDER BY COUNT(a) DESC",
+            Object[].class,
+            businessEmployeeId,
+            start,
+            end
+        )
+            .setParameter("deleted", AppointmentStatus.DELETED)
+            .setMaxResults(capacity)
+            .getResultList();
+        List<Object[]> topOfferings = dayQuery(
+            "SELECT o.title, o.title, COUNT(a) FROM Appointment a JOIN a.offering o " +
+            "WHERE a.businessEmployee.id = :businessEmployeeId AND a.status <> :deleted " +
+            "AND a.startDate >= :start AND a.startDate < :end " +
+            "GROUP BY o.title ORDER BY COUNT(a) DESC",
+            Object[].class,
+            businessEmployeeId,
+            start,
+            end
+        )
+            .setParameter("deleted", AppointmentStatus.DELETED)
+            .setMaxResults(capacity)
+            .getResultList();
+
+        // a zárolás miatt nem fut párhuzamosan másik frissítés, a frissítés vagy beszúrás nem ütközhet
+        Query update = write(UPDATE_ROW);
+        bindRow(update, businessEmployeeId, statDate, revenue, bookings, cancellations, newGuests, topGuests, topOfferings);
+        if (update.executeUpdate() > 0) {
+            return 1;
+        }
+        Query insert = write(INSERT_ROW).setParameter("businessId", businessId);
+        bindRow(insert, businessEmployeeId, statDate, revenue, bookings, cancellations, newGuests, topGuests, topOfferings);
+        return insert.executeUpdate();
+    }
+
+    private <T> TypedQuery<T> dayQuery(String jpql, Class<T> type, Long businessEmployeeId, Instant start, Instant end) {
+        return entityManager
+            .createQuery(jpql, type)
+            .setParameter("businessEmployeeId", businessEmployeeId)
+            .setParameter("start", start)
+            .setParameter("end", end);
+    }
+
+    private void bindRow(
+        Query query,
+        Long businessEmployeeId,
+        LocalDate statDate,
+        BigDecimal revenue,
+        Long bookings,
+        Long cancellations,
+        Long newGuests,
+        List<Object[]> topGuests,
+        List<Object[]> topOfferings
+    ) {
+        query
+            .setParameter("businessEmployeeId", businessEmployeeId)
+            .setParameter("statDate", statDate)
+            .setParameter("revenue", revenue != null ? revenue : BigDecimal.ZERO)
+            .setParameter("bookings", bookings)
+            .setParameter("cancellations", cancellations)
+            .setParameter("newGuests", newGuests)
+            .setParameter("topGuests", toJson(topGuests))
+            .setParameter("topOfferings", toJson(topOfferings));
+    }
+
+    /**
+     * Same shape as the {@code json_agg} of the PostgreSQL statements: {@code [{"key", "label", "count"}]},
+     * {@code null} when the day has no such bookings.
+     */
+    private String toJson(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<Map<String, Object>> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("key", String.valueOf(row[0]));
+            entry.put("label", row[1]);
+            entry.put("count", row[2]);
+            entries.add(entry);
+        }
+        try {
+            return objectMapper.writeValueAsString(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize daily top list", e);
+        }
+    }
+
+    private Optional<Long> findBusinessId(Long businessEmployeeId) {
+        return entityManager
+            .createQuery("SELECT be.business.id FROM BusinessEmployee be WHERE be.id = :businessEmployeeId", Long.class)
+            .setParameter("businessEmployeeId", businessEmployeeId)
+            .getResultStream()
+            .findFirst();
+    }
+
+    private void lockBusinessRow(Long businessId) {
+        entityManager
+            .createNativeQuery("SELECT id FROM business WHERE id = :businessId FOR UPDATE")
+            .setParameter("businessId", businessId)
+            .getResultList();
+    }
+
+    /**
+     * Native write that only touches the rollup table, so Hibernate does not evict the second-level cache regions.
+     */
+    private Query write(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABLE);
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager
+                .getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+}
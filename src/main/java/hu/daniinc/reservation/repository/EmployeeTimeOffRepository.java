@@ -2,6 +2,7 @@ package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.EmployeeTimeOff;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -28,6 +29,21 @@ public interface EmployeeTimeOffRepository extends JpaRepository<EmployeeTimeOff
         @Param("rangeEnd") Instant rangeEnd
     );
 
+    @Query(
+        "SELECT t FROM EmployeeTimeOff t " +
+        "JOIN FETCH t.businessEmployee be " +
+        "WHERE be.business.id = :businessId " +
+        "AND be.user.id IN :employeeIds " +
+        "AND t.status = hu.daniinc.reservation.domain.enumeration.TimeOffStatus.ACTIVE " +
+        "AND t.startInstant < :rangeEnd AND t.endInstant > :rangeStart"
+    )
+    List<EmployeeTimeOff> findOverlappingForEmployees(
+        @Param("businessId") Long businessId,
+        @Param("employeeIds") Collection<Long> employeeIds,
+        @Param("rangeStart") Instant rangeStart,
+        @Param("rangeEnd") Instant rangeEnd
+    );
+
     @Query(
         "SELECT t FROM EmployeeTimeOff t " +
         "WHERE t.businessEmployee.business.id = :businessId " +
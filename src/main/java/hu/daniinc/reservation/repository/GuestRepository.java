@@ -1,9 +1,12 @@
 package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.Guest;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.checkerframework.checker.nullness.qual.EnsuresKeyFor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -32,4 +35,30 @@ public interface GuestRepository extends JpaRepository<Guest, Long>, JpaSpecific
 
     @Query("select g from Guest g where LOWER(g.email) = LOWER(?1) and g.businessEmployee.business.id = ?2")
     Optional<Guest> findByEmailByBusinessId(String email, Long businessId);
+
+    // only ever moves the first visit earlier, so concurrent bookings of the same guest cannot race
+    @Modifying
+    @Query(
+        value = """
+            UPDATE guest SET first_appointment_date = :at
+            WHERE id = :guestId AND (first_appointment_date IS NULL OR first_appointment_date > :at)
+        """,
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "guest"))
+    int recordVisit(@Param("guestId") Long guestId, @Param("at") Instant at);
+
+    // repairs the first visits after appointments were deleted or moved to another guest
+    @Modifying
+    @Query(
+        value = """
+            UPDATE guest SET first_appointment_date = (
+                SELECT MIN(a.start_date) FROM appointment a WHERE a.guest_id = guest.id AND a.status <> 'DELETED'
+            )
+            WHERE business_employee_id IN (SELECT be.id FROM business_employee be WHERE be.business_id = :businessId)
+        """,
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "guest"))
+    int recomputeFirstVisits(@Param("businessId") Long businessId);
 }
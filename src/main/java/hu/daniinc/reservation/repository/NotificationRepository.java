@@ -2,12 +2,12 @@ package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.Notification;
 import hu.daniinc.reservation.domain.User;
-import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -44,24 +44,21 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
         @Param("user") User user
     );
 
+    /**
+     * Marks the notification read if it is still unread; returns the number of notifications changed (0 or 1).
+     */
+    @Modifying
     @Query(
         """
-        SELECT count(n) FROM Notification n
-        WHERE n.businessEmployee.id = :businessEmployeeId
-        AND n.businessEmployee.user = :user
+        UPDATE Notification n SET n.read = true
+        WHERE n.id = :id
+        AND n.businessEmployee.id = :businessEmployeeId
         AND n.read = false
         """
     )
-    long countUnreadByBusinessEmployeeAndUser(@Param("businessEmployeeId") Long businessEmployeeId, @Param("user") User user);
+    int markAsRead(@Param("id") Long id, @Param("businessEmployeeId") Long businessEmployeeId);
 
-    @Query(
-        """
-        SELECT n.businessEmployee.id, COUNT(n)
-        FROM Notification n
-        WHERE n.businessEmployee.user = :user
-        AND n.read = false
-        GROUP BY n.businessEmployee.id
-        """
-    )
-    List<Object[]> countUnreadGroupedByBusinessEmployee(@Param("user") User user);
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.businessEmployee.id = :businessEmployeeId AND n.read = false")
+    int markAllAsRead(@Param("businessEmployeeId") Long businessEmployeeId);
 }
@@ -45,6 +45,7 @@ public interface OfferingRepository extends JpaRepository<Offering, Long>, JpaSp
     @Query("select o from Offering o where o.businessEmployee.business.id = :businessId and o.id = :offerId")
     Optional<Offering> findByOfferingIdAndBusinessId(@Param("offerId") Long offerId, @Param("businessId") Long businessId);
 
+    // exact counterpart of the daily top lists: bookings starting in the window, every status except DELETED
     @Query(
         """
             SELECT new hu.daniinc.reservation.service.dto.TopOfferingStatisticDTO(
@@ -54,7 +55,8 @@ public interface OfferingRepository extends JpaRepository<Offering, Long>, JpaSp
             FROM Appointment a
             WHERE a.businessEmployee.business.id = :businessId
             AND (:businessEmployeeSearch IS NULL OR a.businessEmployee.id = :businessEmployeeSearch)
-            AND a.createdDate BETWEEN :from AND :to
+            AND a.startDate BETWEEN :from AND :to
+            AND a.status != 'DELETED'
             GROUP BY a.offering.title
             ORDER BY COUNT(a.id) DESC
         """
@@ -66,6 +68,29 @@ public interface OfferingRepository extends JpaRepository<Offering, Long>, JpaSp
         @Param("businessEmployeeSearch") Long businessEmployeeSearch
     );
 
+    // same as findTopOfferingsByBusiness, filtered by the user id of the employee like the other statistics
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.TopOfferingStatisticDTO(
+                a.offering.title,
+                COUNT(a.id)
+            )
+            FROM Appointment a
+            WHERE a.businessEmployee.business.id = :businessId
+            AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
+            AND a.startDate BETWEEN :from AND :to
+            AND a.status != 'DELETED'
+            GROUP BY a.offering.title
+            ORDER BY COUNT(a.id) DESC
+        """
+    )
+    List<TopOfferingStatisticDTO> findTopOfferingsByBusinessAndEmployeeUser(
+        @Param("businessId") Long businessId,
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        @Param("employeeId") Long employeeId
+    );
+
     @Query(
         "select o from Offering o where o.businessEmployee.user.login = ?#{authentication.name} and o.businessEmployee.business.id = :businessId"
     )
@@ -1,8 +1,7 @@
 package hu.daniinc.reservation.repository;
 
 import hu.daniinc.reservation.domain.Appointment;
-import hu.daniinc.reservation.service.dto.RatingProjection;
-import hu.daniinc.reservation.service.dto.RevenueProjection;
+import hu.daniinc.reservation.service.dto.RevenuePoint;
 import java.time.Instant;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
@@ -13,100 +12,62 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface StatisticRepository extends JpaRepository<Appointment, Long> {
-    //revenue and count it
+    // guests with a booking starting in the window; like the daily top lists, every status except DELETED counts
     @Query(
         """
-            SELECT new hu.daniinc.reservation.service.dto.RevenueProjection(
-                SUM(a.offering.price),
-                COUNT(a.id)
-            )
+            SELECT COUNT(DISTINCT a.guest.id)
             FROM Appointment a
             WHERE a.businessEmployee.business.id = :businessId
-            AND a.offering IS NOT NULL
-            AND a.guest IS NOT NULL
-            AND a.startDate BETWEEN :from AND :to
-            AND a.status != 'CANCELLED'
-            AND a.status != 'PENDING'
             AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
+            AND a.startDate BETWEEN :from AND :to
+            AND a.status != 'DELETED'
         """
     )
-    RevenueProjection getRevenueAndCount(
-        @Param("businessId") Long businessId,
-        @Param("from") Instant from,
-        @Param("to") Instant to,
-        @Param("employeeId") Long employeeId
-    );
-
-    // new customer count
-    @Query(
-        """
-            SELECT COUNT(g.id)
-            FROM Guest g
-            WHERE g.businessEmployee.business.id = :businessId
-            AND g.createdDate BETWEEN :from AND :to
-            AND (:employeeId IS NULL OR g.businessEmployee.user.id = :employeeId)
-        """
-    )
-    Long countNewCustomers(
-        @Param("businessId") Long businessId,
-        @Param("from") Instant from,
-        @Param("to") Instant to,
-        @Param("employeeId") Long employeeId
-    );
-
-    // average rating and count
-    @Query(
-        """
-            SELECT new hu.daniinc.reservation.service.dto.RatingProjection(
-                AVG(r.number),
-                COUNT(r.id)
-            )
-            FROM BusinessRating r
-            WHERE r.business.id = :businessId
-            AND r.createdDate BETWEEN :from AND :to
-        """
-    )
-    RatingProjection getRatingSummary(@Param("businessId") Long businessId, @Param("from") Instant from, @Param("to") Instant to);
+    Long countUniqueCustomers(Long businessId, Long employeeId, Instant from, Instant to);
 
-    //
+    // returning guests: their first booking at the business started before the window
     @Query(
         """
             SELECT COUNT(DISTINCT a.guest.id)
-            FROM Appointment a
-            WHERE a.businessEmployee.business.id = :businessId
-            AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
-            AND a.createdDate BETWEEN :from AND :to
+             FROM Appointment a
+             WHERE a.businessEmployee.business.id = :businessId
+             AND a.startDate BETWEEN :from AND :to
+             AND a.status != 'DELETED'
+             AND a.guest.firstAppointmentDate < :from
         """
     )
-    Long countUniqueCustomers(Long businessId, Long employeeId, Instant from, Instant to);
+    Long countReturningCustomers(Long businessId, Instant from, Instant to);
 
-    // returning guests
+    // returning guests of one employee: they had an earlier booking with that employee, not only with the business
     @Query(
         """
             SELECT COUNT(DISTINCT a.guest.id)
              FROM Appointment a
              WHERE a.businessEmployee.business.id = :businessId
-             AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
-             AND a.createdDate BETWEEN :from AND :to
-             AND a.guest.id IN (
-                 SELECT a2.guest.id
+             AND a.businessEmployee.user.id = :employeeId
+             AND a.startDate BETWEEN :from AND :to
+             AND a.status != 'DELETED'
+             AND EXISTS (
+                 SELECT 1
                  FROM Appointment a2
-                 WHERE a2.businessEmployee.business.id = :businessId
-                 AND (:employeeId IS NULL OR a2.businessEmployee.user.id = :employeeId)
-                 AND a2.createdDate < :from
+                 WHERE a2.guest = a.guest
+                 AND a2.businessEmployee = a.businessEmployee
+                 AND a2.startDate < :from
+                 AND a2.status != 'DELETED'
              )
         """
     )
-    Long countReturningCustomers(Long businessId, Long employeeId, Instant from, Instant to);
+    Long countReturningCustomersOfEmployee(Long businessId, Long employeeId, Instant from, Instant to);
 
-    //most active guest
+    //most active guest, exact counterpart of the daily top lists
     @Query(
         """
              SELECT a.guest.name, COUNT(a.id)
              FROM Appointment a
              WHERE a.businessEmployee.business.id = :businessId
              AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
-             AND a.createdDate BETWEEN :from AND :to
+             AND a.startDate BETWEEN :from AND :to
+             AND a.status != 'DELETED'
              GROUP BY a.guest.id, a.guest.name
              ORDER BY COUNT(a.id) DESC
         """
@@ -118,4 +79,22 @@ public interface StatisticRepository extends JpaRepository<Appointment, Long> {
         @Param("to") Instant to,
         Pageable pageable
     );
+
+    // confirmed revenue by appointment start, for the hourly income chart; a plain range on start_date
+    @Query(
+        """
+            SELECT new hu.daniinc.reservation.service.dto.RevenuePoint(a.startDate, a.offering.price)
+            FROM Appointment a
+            WHERE a.businessEmployee.business.id = :businessId
+            AND (:employeeId IS NULL OR a.businessEmployee.user.id = :employeeId)
+            AND a.status = 'CONFIRMED'
+            AND a.startDate >= :from AND a.startDate < :to
+        """
+    )
+    List<RevenuePoint> findConfirmedRevenuePoints(
+        @Param("businessId") Long businessId,
+        @Param("employeeId") Long employeeId,
+        @Param("from") Instant from,
+        @Param("to") Instant to
+    );
 }
@@ -23,6 +23,15 @@ public interface WorkingHoursRepository extends JpaRepository<WorkingHours, Long
     @Query("select w from WorkingHours w where w.businessEmployee.business.id = :businessId and w.businessEmployee.user.id = :employeeId")
     Set<WorkingHours> findAllByBusinessAndEmployeeId(@Param("businessId") Long businessId, @Param("employeeId") Long employeeId);
 
+    @Query(
+        "select w from WorkingHours w join fetch w.businessEmployee be " +
+        "where be.business.id = :businessId and be.user.id in :employeeIds"
+    )
+    List<WorkingHours> findAllByBusinessAndEmployeeIdIn(
+        @Param("businessId") Long businessId,
+        @Param("employeeIds") Collection<Long> employeeIds
+    );
+
     @Query(
         "SELECT w FROM WorkingHours w WHERE w.businessEmployee.business.id = :businessId " +
         "AND w.businessEmployee.id = :employeeId AND w.dayOfWeek = :dayOfWeek"
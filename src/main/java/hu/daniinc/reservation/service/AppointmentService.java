@@ -8,6 +8,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -71,6 +72,37 @@ public interface AppointmentService {
         Duration slotLength
     );
 
+    /**
+     * Same slots as {@link #getAvailableSlotsBetweenDates}, computed a week at a time and handed to {@code dayConsumer}
+     * day by day in date order (days without a free slot are skipped), so the caller can write them out as they come.
+     */
+    void streamAvailableSlots(
+        Long businessId,
+        Long employeeId,
+        LocalDate from,
+        LocalDate to,
+        Duration slotLength,
+        BiConsumer<LocalDate, List<Instant>> dayConsumer
+    );
+
+    /**
+     * The first {@code n} free slots of the employee for the offering, starting at or after {@code after}, in time order.
+     * Days are loaded in growing windows (a day, a week, then a month at a time) and the search stops as soon as
+     * {@code n} slots are found or the booking horizon is reached.
+     */
+    List<Instant> findNextAvailableSlots(Long businessId, Long employeeId, Long offeringId, Instant after, int n);
+
+    /**
+     * Free slots of every public employee of the business, computed together: each slot carries the
+     * (user) ids of the employees who are free at that time.
+     */
+    Map<LocalDate, List<StaffAvailableSlotDTO>> getAvailableSlotsForAnyEmployee(
+        Long businessId,
+        LocalDate from,
+        LocalDate to,
+        Duration slotLength
+    );
+
     AppointmentDTO saveByOwner(Long employeeId, Long businessId, CreateAppointmentRequestDTO createAppointmentRequestDTO);
 
     AppointmentDTO saveAppointmentByGuest(Long businessId, Long employeeId, CreateAppointmentByGuestDTO createAppointmentByGuestDTO);
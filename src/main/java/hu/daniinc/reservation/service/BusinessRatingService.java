@@ -2,6 +2,7 @@ package hu.daniinc.reservation.service;
 
 import hu.daniinc.reservation.service.dto.BusinessRatingDTO;
 import hu.daniinc.reservation.service.dto.BusinessRatingSummaryDTO;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -60,4 +61,9 @@ public interface BusinessRatingService {
     Page<BusinessRatingDTO> findAllByBusinessId(Long businessId, Pageable pageable);
 
     Double getAverageRatingForBusiness(Long businessId);
+
+    /**
+     * Running rating totals of the business: sum, count and count per star.
+     */
+    RatingAggregateDTO getRatingAggregate(Long businessId);
 }
@@ -0,0 +1,63 @@
+package hu.daniinc.reservation.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.regex.Pattern;
+
+/**
+ * Writes RFC 4180 CSV rows to a {@link Writer}, one row at a time and without buffering rows.
+ * <p>
+ * Fields containing the separator, quotes or line breaks are quoted. Text that a spreadsheet would evaluate as a
+ * formula gets a leading apostrophe; plain numbers and phone numbers like {@code +36 30 123 4567} are left alone.
+ */
+public class CsvWriter {
+
+    private static final char SEPARATOR = ',';
+
+    private static final Pattern NUMBER_LIKE = Pattern.compile("[+-]?[\\d\\s()/.-]*");
+
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeRow(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(escape(fields[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    static String escape(Object field) {
+        if (field == null) {
+            return "";
+        }
+        String value = field.toString();
+        if (isFormula(value)) {
+            value = "'" + value;
+        }
+        if (value.indexOf(SEPARATOR) >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static boolean isFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        return switch (value.charAt(0)) {
+            case '=', '@', '\t', '\r' -> true;
+            case '+', '-' -> !NUMBER_LIKE.matcher(value).matches();
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package hu.daniinc.reservation.service;
+
+import hu.daniinc.reservation.config.ApplicationProperties;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.DailyBusinessStatsRepository;
+import hu.daniinc.reservation.repository.GuestRepository;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the {@code daily_business_stats} rollup the dashboard statistics are read from.
+ * <p>
+ * A row is always recomputed from the source tables instead of being adjusted by deltas, so repeated or
+ * reordered refreshes converge to the same value and a missed one is repaired by the next refresh of
+ * that day or by {@link #rebuildBusiness(Long)}.
+ */
+@Service
+public class DailyBusinessStatsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DailyBusinessStatsService.class);
+
+    private static final String DEFAULT_TIME_ZONE = "Europe/Budapest";
+
+    private final DailyBusinessStatsRepository dailyBusinessStatsRepository;
+    private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final GuestRepository guestRepository;
+    private final int sketchCapacity;
+
+    public DailyBusinessStatsService(
+        DailyBusinessStatsRepository dailyBusinessStatsRepository,
+        BusinessEmployeeRepository businessEmployeeRepository,
+        GuestRepository guestRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.dailyBusinessStatsRepository = dailyBusinessStatsRepository;
+        this.businessEmployeeRepository = businessEmployeeRepository;
+        this.guestRepository = guestRepository;
+        this.sketchCapacity = applicationProperties.getStatistics().getSketchCapacity();
+    }
+
+    /**
+     * Recomputes the row of the employee for the business-local day containing {@code at}.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh(Long businessEmployeeId, Instant at) {
+        if (businessEmployeeId == null || at == null) {
+            return;
+        }
+        ZoneId zone = ZoneId.of(businessEmployeeRepository.findTimeZoneById(businessEmployeeId).orElse(DEFAULT_TIME_ZONE));
+        LocalDate date = LocalDate.ofInstant(at, zone);
+        Instant start = date.atStartOfDay(zone).toInstant();
+        Instant end = date.plusDays(1).atStartOfDay(zone).toInstant();
+
+        LOG.debug("Refreshing daily statistics of business employee {} on {}", businessEmployeeId, date);
+        // egy futó újraépítés törölhetné vagy ütköztethetné a most írt sort
+        dailyBusinessStatsRepository.lockForRefresh(businessEmployeeId);
+        dailyBusinessStatsRepository.refreshDay(businessEmployeeId, date, start, end, sketchCapacity);
+    }
+
+    /**
+     * Drops and re-aggregates every row of the business from the full history, and recomputes the first visit
+     * of its guests, which only moves earlier while bookings come in. Refreshes of the business wait until it
+     * commits, so none of them lands between the delete and the insert.
+     */
+    @Transactional
+    public void rebuildBusiness(Long businessId) {
+        dailyBusinessStatsRepository.lockForRebuild(businessId);
+        int deleted = dailyBusinessStatsRepository.deleteByBusinessId(businessId);
+        int inserted = dailyBusinessStatsRepository.rebuildBusiness(businessId, sketchCapacity);
+        int guests = guestRepository.recomputeFirstVisits(businessId);
+        LOG.debug(
+            "Rebuilt daily statistics of business {}: {} rows removed, {} rows written, {} guests updated",
+            businessId,
+            deleted,
+            inserted,
+            guests
+        );
+    }
+}
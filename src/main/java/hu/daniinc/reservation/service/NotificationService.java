@@ -14,6 +14,8 @@ public interface NotificationService {
 
     void markAsRead(Long id, Long businessEmployeeId, User user);
 
+    void markAllAsRead(Long businessEmployeeId, User user);
+
     long getUnreadCount(Long businessEmployeeId, User user);
 
     Map<Long, Long> getUnreadCountsByBusiness(User user);
@@ -0,0 +1,289 @@
+package hu.daniinc.reservation.service;
+
+import hu.daniinc.reservation.config.ApplicationProperties;
+import hu.daniinc.reservation.domain.Notification;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.NotificationRepository;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind buffer of new notifications.
+ * <p>
+ * {@link #submit} only queues the notification. One writer thread takes the first waiting notification, waits at
+ * most {@code maxDelayMillis} for more (up to {@code maxBatchSize}) and inserts them in a single transaction, so
+ * Hibernate sends them in JDBC batches. The unread counters of the business employees are raised in the same
+ * transaction. Each notification is pushed on the {@link NotificationBus} only after its
+ * batch committed, in the order it was submitted; with one writer this keeps the order of every user's events.
+ * <p>
+ * Every write runs in a transaction of its own, also when {@link #submit} is called from an after-commit callback
+ * of a finished transaction. If a batch fails, its notifications are inserted one by one so a single bad row does
+ * not lose the others. On shutdown the queue is written out before the data source closes.
+ * <p>
+ * Producers run on request threads, so a full buffer holds them back for at most {@code submitTimeoutMillis}; after
+ * that the notification is dropped and counted in {@code reservation.notifications.dropped}.
+ */
+@Component
+public class NotificationWriteBuffer implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationWriteBuffer.class);
+
+    // ennyi ideig vár üres sorra, mielőtt újra megnézi, hogy le kell-e állnia
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+    private final NotificationRepository notificationRepository;
+    private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationBus notificationBus;
+    private final BlockingQueue<PendingNotification> queue;
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+    private final Duration submitTimeout;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public NotificationWriteBuffer(
+        NotificationRepository notificationRepository,
+        BusinessEmployeeRepository businessEmployeeRepository,
+        TransactionTemplate transactionTemplate,
+        NotificationBus notificationBus,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this(
+            notificationRepository,
+            businessEmployeeRepository,
+            transactionTemplate,
+            notificationBus,
+            applicationProperties.getNotificationBuffer().getCapacity(),
+            applicationProperties.getNotificationBuffer().getMaxBatchSize(),
+            Duration.ofMillis(applicationProperties.getNotificationBuffer().getMaxDelayMillis()),
+            Duration.ofMillis(applicationProperties.getNotificationBuffer().getSubmitTimeoutMillis()),
+            meterRegistry
+        );
+    }
+
+    NotificationWriteBuffer(
+        NotificationRepository notificationRepository,
+        BusinessEmployeeRepository businessEmployeeRepository,
+        TransactionTemplate transactionTemplate,
+        NotificationBus notificationBus,
+        int capacity,
+        int maxBatchSize,
+        Duration maxDelay,
+        Duration submitTimeout,
+        MeterRegistry meterRegistry
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.businessEmployeeRepository = businessEmployeeRepository;
+        // a hívó tranzakciója commit után már lezárt, ahhoz csatlakozva a beszúrás elveszne
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.notificationBus = notificationBus;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.submitTimeout = submitTimeout;
+        this.dropped = Counter.builder("reservation.notifications.dropped")
+            .description("Notifications dropped because the buffer stayed full")
+            .register(meterRegistry);
+        Gauge.builder("reservation.notifications.pending", queue, BlockingQueue::size)
+            .description("Notifications waiting to be written")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues a new notification of {@code userId}; {@code data} is sent to the client as it is. Waits at most
+     * {@code submitTimeout} while the buffer is full, then drops the notification. Outside the running lifecycle
+     * the notification is written right away.
+     */
+    public void submit(Notification notification, Long userId, Object data) {
+        PendingNotification pending = new PendingNotification(notification, userId, data);
+        try {
+            if (!enqueue(pending)) {
+                dropped.increment();
+                LOG.warn("Notification buffer is full, dropped notification of type {} for user {}", notification.getType(), userId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flush(List.of(pending));
+            return;
+        }
+        if (!running) {
+            flushQueue();
+        }
+    }
+
+    boolean enqueue(PendingNotification pending) throws InterruptedException {
+        return queue.offer(pending, submitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::write, "notification-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            running = false;
+            stopping = writer;
+            writer = null;
+        }
+        if (stopping != null) {
+            try {
+                stopping.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // ami a leállás közben érkezett
+        flushQueue();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void write() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingNotification> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Writing notifications failed", e);
+            }
+        }
+    }
+
+    /**
+     * The next batch: the first waiting notification and whatever arrives within {@code maxDelay} after it, up to
+     * {@code maxBatchSize}. Empty if nothing arrived for a while.
+     */
+    List<PendingNotification> nextBatch() throws InterruptedException {
+        PendingNotification first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<PendingNotification> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            PendingNotification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    void flush(List<PendingNotification> batch) {
+        List<PendingNotification> saved;
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(batch));
+            saved = batch;
+        } catch (RuntimeException e) {
+            LOG.warn("Saving {} notifications in one batch failed, saving them one by one: {}", batch.size(), e.getMessage());
+            saved = saveOneByOne(batch);
+        }
+        // csak a commit után, beküldési sorrendben
+        saved.forEach(this::publish);
+    }
+
+    private void save(List<PendingNotification> batch) {
+        List<Notification> notifications = batch.stream().map(PendingNotification::notification).toList();
+        notificationRepository.saveAll(notifications);
+        // azonosító szerinti sorrendben, hogy a párhuzamos tranzakciók ugyanabban a sorrendben zároljanak
+        Map<Long, Long> unread = new TreeMap<>();
+        notifications
+            .stream()
+            .filter(notification -> !notification.isRead())
+            .forEach(notification -> unread.merge(notification.getBusinessEmployee().getId(), 1L, Long::sum));
+        unread.forEach(businessEmployeeRepository::addUnreadNotifications);
+    }
+
+    private List<PendingNotification> saveOneByOne(List<PendingNotification> batch) {
+        List<PendingNotification> saved = new ArrayList<>(batch.size());
+        for (PendingNotification pending : batch) {
+            // a sikertelen batch már kiosztott azonosítót
+            pending.notification().setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(List.of(pending)));
+                saved.add(pending);
+            } catch (RuntimeException e) {
+                LOG.error("Notification of type {} for user {} could not be saved", pending.notification().getType(), pending.userId(), e);
+            }
+        }
+        return saved;
+    }
+
+    private void flushQueue() {
+        List<PendingNotification> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += maxBatchSize) {
+            flush(rest.subList(from, Math.min(from + maxBatchSize, rest.size())));
+        }
+    }
+
+    private void publish(PendingNotification pending) {
+        Notification notification = pending.notification();
+        // a data lehet null, amit a Map.of nem enged
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("id", notification.getId());
+        payload.put("type", notification.getType());
+        payload.put("data", pending.data());
+        payload.put("read", notification.isRead());
+        payload.put("createdAt", notification.getCreatedAt());
+        payload.put("businessEmployeeId", notification.getBusinessEmployee().getId());
+        try {
+            notificationBus.publish(BusMessage.SSE, pending.userId().toString(), payload);
+        } catch (RuntimeException e) {
+            LOG.warn("Notification {} could not be pushed to user {}: {}", notification.getId(), pending.userId(), e.getMessage());
+        }
+    }
+
+    record PendingNotification(Notification notification, Long userId, Object data) {}
+}
@@ -0,0 +1,112 @@
+package hu.daniinc.reservation.service;
+
+import hu.daniinc.reservation.domain.BusinessRating;
+import hu.daniinc.reservation.repository.BusinessRatingMonthRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the running rating totals on {@code business} and in the {@code business_rating_month} buckets.
+ * <p>
+ * Every rating write adjusts both by one rating inside the caller's transaction, so the totals commit or roll
+ * back together with the rating itself. Reading them is a single-row lookup (or one row per month) however many
+ * ratings the business has. {@link #rebuildBusiness(Long)} recomputes both from the ratings; a lock per business
+ * (advisory on PostgreSQL, the business row elsewhere) keeps rating writes out until it commits, so no delta is lost
+ * or counted twice.
+ */
+@Service
+@Transactional
+public class RatingAggregateService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    private static final String DEFAULT_TIME_ZONE = "Europe/Budapest";
+
+    private final BusinessRepository businessRepository;
+    private final BusinessRatingMonthRepository businessRatingMonthRepository;
+
+    public RatingAggregateService(BusinessRepository businessRepository, BusinessRatingMonthRepository businessRatingMonthRepository) {
+        this.businessRepository = businessRepository;
+        this.businessRatingMonthRepository = businessRatingMonthRepository;
+    }
+
+    public void ratingAdded(RatingSnapshot rating) {
+        apply(rating, 1);
+    }
+
+    public void ratingRemoved(RatingSnapshot rating) {
+        apply(rating, -1);
+    }
+
+    /**
+     * Moves one rating from its old state to the new one; nothing happens if neither counted field changed.
+     */
+    public void ratingChanged(RatingSnapshot before, RatingSnapshot after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        if (before != null) {
+            ratingRemoved(before);
+        }
+        if (after != null) {
+            ratingAdded(after);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RatingAggregateDTO getAggregate(Long businessId) {
+        return businessRepository.findRatingAggregate(businessId).orElseGet(RatingAggregateDTO::empty);
+    }
+
+    /**
+     * Totals of the ratings given in the business-local months touched by {@code [from, to]}.
+     */
+    @Transactional(readOnly = true)
+    public RatingAggregateDTO getAggregate(Long businessId, LocalDate from, LocalDate to) {
+        RatingAggregateDTO aggregate = businessRatingMonthRepository.sumByBusinessId(
+            businessId,
+            from.withDayOfMonth(1),
+            to.withDayOfMonth(1)
+        );
+        return aggregate != null ? aggregate : RatingAggregateDTO.empty();
+    }
+
+    public void rebuildBusiness(Long businessId) {
+        businessRatingMonthRepository.lockForRebuild(businessId);
+        businessRepository.rebuildRatingTotals(businessId);
+        int deleted = businessRatingMonthRepository.deleteByBusinessId(businessId);
+        int inserted = businessRatingMonthRepository.rebuildBusiness(businessId);
+        LOG.debug("Rebuilt rating totals of business {}: {} month rows removed, {} rows written", businessId, deleted, inserted);
+    }
+
+    private void apply(RatingSnapshot rating, int delta) {
+        if (rating == null || rating.businessId() == null || rating.star() == null) {
+            return;
+        }
+        // a zárat a tranzakció végéig tartjuk, így az újraépítés vagy látja ezt az értékelést, vagy utána fut
+        businessRatingMonthRepository.lockForUpdate(rating.businessId());
+        businessRepository.addRating(rating.businessId(), rating.star(), delta);
+        if (rating.createdDate() != null) {
+            ZoneId zone = ZoneId.of(businessRepository.findTimeZoneById(rating.businessId()).orElse(DEFAULT_TIME_ZONE));
+            LocalDate month = LocalDate.ofInstant(rating.createdDate(), zone).withDayOfMonth(1);
+            businessRatingMonthRepository.addRating(rating.businessId(), month, rating.star(), delta);
+        }
+    }
+
+    /**
+     * The fields of a rating the totals depend on, taken before the entity is changed.
+     */
+    public record RatingSnapshot(Long businessId, Integer star, Instant createdDate) {
+        public static RatingSnapshot of(BusinessRating rating) {
+            Long businessId = rating.getBusiness() != null ? rating.getBusiness().getId() : null;
+            return new RatingSnapshot(businessId, rating.getNumber(), rating.getCreatedDate());
+        }
+    }
+}
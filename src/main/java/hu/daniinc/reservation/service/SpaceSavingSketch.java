@@ -0,0 +1,78 @@
+package hu.daniinc.reservation.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary: keeps at most {@code capacity} keys with their counts. A new key arriving
+ * when the summary is full replaces the key with the smallest count and inherits that count as its error, so
+ * every count is an upper bound and overestimates the true count by at most its {@code error}.
+ * <p>
+ * Summaries are mergeable: offering the entries of another summary keeps the same guarantee, which is how the
+ * per-day lists of the rollup are combined into the top list of a date range.
+ */
+public final class SpaceSavingSketch {
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key);
+
+    private final int capacity;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid sketch capacity: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(String key, String label, long weight) {
+        offer(key, label, weight, 0);
+    }
+
+    /**
+     * Adds the entries of another summary, carrying over their error.
+     */
+    public void merge(Collection<Entry> other) {
+        other.forEach(entry -> offer(entry.key(), entry.label(), entry.count(), entry.error()));
+    }
+
+    /**
+     * The {@code k} keys with the highest counts, ties broken by key so the order is stable.
+     */
+    public List<Entry> top(int k) {
+        return entries.values().stream().sorted(RANKING).limit(k).toList();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void offer(String key, String label, long weight, long error) {
+        if (key == null || weight <= 0) {
+            return;
+        }
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            entries.put(key, new Entry(key, label, existing.count() + weight, existing.error() + error));
+            return;
+        }
+        if (entries.size() < capacity) {
+            entries.put(key, new Entry(key, label, weight, error));
+            return;
+        }
+
+        // tele van: a legkisebb számláló helyére kerül, annak értékét hibaként örökli
+        Entry min = entries.values().stream().min(RANKING.reversed()).orElseThrow();
+        entries.remove(min.key());
+        entries.put(key, new Entry(key, label, min.count() + weight, min.count() + error));
+    }
+
+    /**
+     * One counted key; {@code label} is what the statistics page shows (guest name, offering title).
+     */
+    public record Entry(String key, String label, long count, long error) {}
+}
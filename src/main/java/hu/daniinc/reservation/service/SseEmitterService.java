@@ -3,6 +3,15 @@ package hu.daniinc.reservation.service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface SseEmitterService {
-    SseEmitter addEmitter(Long userId);
+    /**
+     * Opens a connection of the user; with the {@code lastEventId} of a previous connection the events sent since are
+     * queued first, or a {@code resync} event if they are no longer all kept.
+     */
+    SseEmitter addEmitter(Long userId, String lastEventId);
+
+    /**
+     * Queues {@code data} to the connections of the user on this instance only; publish on the
+     * {@link hu.daniinc.reservation.service.bus.NotificationBus} to reach every instance.
+     */
     void sendToUser(Long userId, Object data);
 }
@@ -1,7 +1,12 @@
 package hu.daniinc.reservation.service;
 
 import hu.daniinc.reservation.service.dto.BusinessStatisticSummaryDTO;
+import hu.daniinc.reservation.service.dto.ChartGranularity;
 import hu.daniinc.reservation.service.dto.CustomerDistributionDTO;
+import hu.daniinc.reservation.service.dto.DashboardScope;
+import hu.daniinc.reservation.service.dto.DashboardStatisticDTO;
+import hu.daniinc.reservation.service.dto.EmployeeOccupancyDTO;
+import hu.daniinc.reservation.service.dto.IncomeBucketDTO;
 import hu.daniinc.reservation.service.dto.IncomeChartDTO;
 import hu.daniinc.reservation.service.dto.TopOfferingStatisticDTO;
 import java.time.Instant;
@@ -10,9 +15,64 @@ import java.util.List;
 public interface StatisticService {
     List<IncomeChartDTO> getIncomeChart(Long businessId, Instant from, Instant to, Long employeeId);
 
-    List<TopOfferingStatisticDTO> getTopOfferingsByBusinessId(Long businessId, Instant from, Instant to, Long businessEmployeeSearch);
+    /**
+     * The offerings with the most bookings, merged from the daily top lists; counts that may be off are marked
+     * {@code approximate}. {@code exact} groups the appointments of the range instead and returns every offering.
+     */
+    List<TopOfferingStatisticDTO> getTopOfferingsByBusinessId(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long businessEmployeeSearch,
+        boolean exact
+    );
 
     BusinessStatisticSummaryDTO getBusinessSummary(Long businessId, Instant from, Instant to, Long businessEmployeeSearch);
 
-    CustomerDistributionDTO getCustomerDistribution(Long businessId, Instant from, Instant to, Long businessEmployeeSearch);
+    /**
+     * New and returning guests; the top guest comes from the daily top lists unless {@code exact} is set, with
+     * {@code topCustomerApproximate} telling whether its count may be off.
+     */
+    CustomerDistributionDTO getCustomerDistribution(Long businessId, Instant from, Instant to, Long businessEmployeeSearch, boolean exact);
+
+    /**
+     * Income summed into hour, day, week or month buckets of the business time zone, one point per bucket
+     * (zero when there was no income), ascending.
+     */
+    List<IncomeBucketDTO> getIncomeBuckets(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long businessEmployeeSearch,
+        ChartGranularity granularity
+    );
+
+    /**
+     * Checks the statistics permissions of the logged-in user and computes the ETag of the dashboard without
+     * running any aggregation.
+     */
+    DashboardScope resolveDashboardScope(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long businessEmployeeSearch,
+        ChartGranularity granularity
+    );
+
+    /**
+     * Every widget of the statistics page, with the queries running in parallel.
+     */
+    DashboardStatisticDTO getDashboard(DashboardScope scope);
+
+    /**
+     * Booked versus available working time per employee (user id) on the business-local days touched by the range,
+     * for every employee of the business or only the filtered one. Closed days are served from a per-day cache.
+     */
+    List<EmployeeOccupancyDTO> getEmployeeOccupancy(Long businessId, Instant from, Instant to, Long businessEmployeeSearch);
+
+    /**
+     * Checks the statistics permissions of the logged-in user and returns the employee (user id) filter they may use:
+     * the requested one with {@code VIEW_ALL_STATISTICS}, otherwise their own id.
+     */
+    Long resolveEmployeeFilter(Long businessId, Long businessEmployeeSearch);
 }
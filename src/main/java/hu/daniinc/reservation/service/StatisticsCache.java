@@ -0,0 +1,149 @@
+package hu.daniinc.reservation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import hu.daniinc.reservation.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory cache of computed statistics, keyed by business, effective employee, time window and metric.
+ * <p>
+ * Every key also carries the {@link StatisticsVersions} version of the business, read before the result is
+ * computed, so committing an appointment, guest or rating of the business (which bumps the version) makes all
+ * of its entries unreachable at once; they age out by TTL or size. Windows reaching into the last day get a
+ * short TTL, closed historical windows a long one. {@link StatisticsVersions} spreads the bumps to the other
+ * instances, so their entries of the business become unreachable as well.
+ */
+@Component
+public class StatisticsCache {
+
+    // a legkorábbi időzónában is lezárt napnak számít, ami ennél régebben véget ért
+    private static final Duration OPEN_WINDOW = Duration.ofDays(1);
+
+    private final StatisticsVersions statisticsVersions;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Duration openWindowTimeToLive;
+    private final Duration closedWindowTimeToLive;
+    private final Cache<VersionedKey, Entry> cache;
+    // metrikánként egyszer regisztrált találat/hiány számlálók
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StatisticsCache(
+        StatisticsVersions statisticsVersions,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this(
+            statisticsVersions,
+            meterRegistry,
+            Clock.systemUTC(),
+            Duration.ofSeconds(applicationProperties.getStatistics().getCache().getOpenWindowTimeToLiveSeconds()),
+            Duration.ofSeconds(applicationProperties.getStatistics().getCache().getClosedWindowTimeToLiveSeconds()),
+            applicationProperties.getStatistics().getCache().getMaxEntries()
+        );
+    }
+
+    StatisticsCache(
+        StatisticsVersions statisticsVersions,
+        MeterRegistry meterRegistry,
+        Clock clock,
+        Duration openWindowTimeToLive,
+        Duration closedWindowTimeToLive,
+        long maxEntries
+    ) {
+        this.statisticsVersions = statisticsVersions;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.openWindowTimeToLive = openWindowTimeToLive;
+        this.closedWindowTimeToLive = closedWindowTimeToLive;
+        this.cache = Caffeine.newBuilder().maximumSize(maxEntries).expireAfter(new WindowExpiry()).build();
+    }
+
+    /**
+     * The cached result of {@code key}, or the result of {@code loader}, stored once it completes successfully.
+     */
+    public <T> CompletableFuture<T> getAsync(Key key, Supplier<CompletableFuture<T>> loader) {
+        VersionedKey versionedKey = new VersionedKey(key, statisticsVersions.current(key.businessId()));
+        Entry cached = cache.getIfPresent(versionedKey);
+        if (cached != null) {
+            counters(key).hit().increment();
+            @SuppressWarnings("unchecked")
+            T value = (T) cached.value();
+            return CompletableFuture.completedFuture(value);
+        }
+        counters(key).miss().increment();
+        return loader
+            .get()
+            .thenApply(value -> {
+                cache.put(versionedKey, new Entry(value, isOpen(key.to())));
+                return value;
+            });
+    }
+
+    public <T> T get(Key key, Supplier<T> loader) {
+        return getAsync(key, () -> CompletableFuture.completedFuture(loader.get())).join();
+    }
+
+    boolean isOpen(Instant to) {
+        return to == null || to.isAfter(clock.instant().minus(OPEN_WINDOW));
+    }
+
+    private Counters counters(Key key) {
+        return counters.computeIfAbsent(key.metric(), metric -> new Counters(counter(metric, "hit"), counter(metric, "miss")));
+    }
+
+    private Counter counter(String metric, String result) {
+        return Counter.builder("reservation.statistics.cache")
+            .description("Statistics results served from the cache (hit) or computed (miss)")
+            .tag("metric", metric)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * {@code employeeId} is the effective employee filter after the permission check; {@code variant} holds
+     * any further parameter of the metric, like the chart granularity.
+     */
+    public record Key(String metric, Long businessId, Long employeeId, Instant from, Instant to, Object variant) {
+        public Key(String metric, Long businessId, Long employeeId, Instant from, Instant to) {
+            this(metric, businessId, employeeId, from, to, null);
+        }
+    }
+
+    private record VersionedKey(Key key, String version) {}
+
+    private record Entry(Object value, boolean open) {}
+
+    private record Counters(Counter hit, Counter miss) {}
+
+    private class WindowExpiry implements Expiry<VersionedKey, Entry> {
+
+        @Override
+        public long expireAfterCreate(VersionedKey key, Entry entry, long currentTime) {
+            return (entry.open() ? openWindowTimeToLive : closedWindowTimeToLive).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(VersionedKey key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(VersionedKey key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package hu.daniinc.reservation.service;
+
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory change counter of the statistics of each business, used to build dashboard ETags without
+ * running any aggregation.
+ * <p>
+ * The counters restart on every boot, so the version also carries a random instance id: an ETag issued
+ * before a restart can never match again. Every bump is also published on the {@link NotificationBus}, and the
+ * other instances bump their own counter of the business, so none of them keeps serving the old statistics.
+ */
+@Component
+public class StatisticsVersions {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatisticsVersions.class);
+
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final NotificationBus notificationBus;
+
+    // minden üzletet érvénytelenít, ha a változás üzlete nem ismert
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public StatisticsVersions(NotificationBus notificationBus) {
+        this.notificationBus = notificationBus;
+        notificationBus.subscribe(BusMessage.STATISTICS, this::onRemoteBump);
+    }
+
+    public String current(Long businessId) {
+        return instanceId + "-" + globalVersion.get() + "-" + counter(businessId).get();
+    }
+
+    public void bump(Long businessId) {
+        bumpLocally(businessId);
+        try {
+            notificationBus.publish(BusMessage.STATISTICS, businessId != null ? businessId.toString() : null, Map.of("origin", instanceId));
+        } catch (RuntimeException e) {
+            LOG.warn("Statistics change of business {} could not be published: {}", businessId, e.getMessage());
+        }
+    }
+
+    private void onRemoteBump(BusMessage message) {
+        // a saját változásunkat már helyben léptettük
+        if (instanceId.equals(message.payload().path("origin").asText())) {
+            return;
+        }
+        bumpLocally(message.target() != null ? Long.valueOf(message.target()) : null);
+    }
+
+    private void bumpLocally(Long businessId) {
+        if (businessId == null) {
+            globalVersion.incrementAndGet();
+        } else {
+            counter(businessId).incrementAndGet();
+        }
+    }
+
+    private AtomicLong counter(Long businessId) {
+        return versions.computeIfAbsent(businessId, id -> new AtomicLong());
+    }
+}
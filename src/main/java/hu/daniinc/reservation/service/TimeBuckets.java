@@ -0,0 +1,53 @@
+package hu.daniinc.reservation.service;
+
+import hu.daniinc.reservation.service.dto.ChartGranularity;
+import hu.daniinc.reservation.service.dto.IncomeBucketDTO;
+import hu.daniinc.reservation.service.dto.RevenuePoint;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums revenue points into the buckets of a granularity in the business time zone and fills the buckets without
+ * any revenue with zero, so the chart gets one point per bucket in ascending order.
+ */
+public final class TimeBuckets {
+
+    private TimeBuckets() {}
+
+    /**
+     * Buckets covering {@code [from, to)}; the first one starts at {@code from} truncated to the granularity,
+     * points outside the range are ignored.
+     */
+    public static List<IncomeBucketDTO> sum(
+        Collection<RevenuePoint> points,
+        ChartGranularity granularity,
+        ZoneId zone,
+        Instant from,
+        Instant to
+    ) {
+        Map<Instant, BigDecimal> sums = new HashMap<>();
+        for (RevenuePoint point : points) {
+            if (point.at().isBefore(from) || !point.at().isBefore(to) || point.amount() == null) {
+                continue;
+            }
+            Instant bucket = granularity.truncate(point.at().atZone(zone)).toInstant();
+            sums.merge(bucket, point.amount(), BigDecimal::add);
+        }
+
+        List<IncomeBucketDTO> buckets = new ArrayList<>();
+        ZonedDateTime start = granularity.truncate(from.atZone(zone));
+        while (start.toInstant().isBefore(to)) {
+            Instant key = start.toInstant();
+            buckets.add(new IncomeBucketDTO(key.toEpochMilli(), sums.getOrDefault(key, BigDecimal.ZERO)));
+            start = granularity.next(start);
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,93 @@
+package hu.daniinc.reservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.config.ApplicationProperties;
+import hu.daniinc.reservation.repository.DailyBusinessStatsRepository;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Top guests and top offerings of a date range, merged from the per-day top lists of the
+ * {@code daily_business_stats} rollup instead of grouping the appointments of the whole range.
+ * <p>
+ * Every row keeps the {@code sketchCapacity} keys with the most bookings of one employee and day, and the rows
+ * are merged through a {@link SpaceSavingSketch} of the same capacity, so the work per request depends on the
+ * number of days and employees only. Counts are exact unless a single employee-day had more distinct guests
+ * or offerings than the capacity (its list was cut) or the merge evicted a key; such entries are returned as
+ * {@link RankedEntry#approximate()}. The exact queries of {@link StatisticService} remain available as fallback.
+ */
+@Service
+public class TopKRankingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopKRankingService.class);
+
+    private static final TypeReference<List<SpaceSavingSketch.Entry>> ENTRIES = new TypeReference<>() {};
+
+    private final DailyBusinessStatsRepository dailyBusinessStatsRepository;
+    private final ObjectMapper objectMapper;
+    private final int sketchCapacity;
+    private final int topK;
+
+    public TopKRankingService(
+        DailyBusinessStatsRepository dailyBusinessStatsRepository,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.dailyBusinessStatsRepository = dailyBusinessStatsRepository;
+        this.objectMapper = objectMapper;
+        this.sketchCapacity = applicationProperties.getStatistics().getSketchCapacity();
+        this.topK = applicationProperties.getStatistics().getTopK();
+    }
+
+    /**
+     * Guests with the most bookings starting on the business-local days {@code [from, to]}, keyed by guest id.
+     */
+    public List<RankedEntry> topGuests(Long businessId, LocalDate from, LocalDate to, Long employeeId) {
+        return rank(dailyBusinessStatsRepository.findTopGuestLists(businessId, from, to, employeeId));
+    }
+
+    /**
+     * Offerings with the most bookings, keyed by title; filtered by the user id or the business employee id.
+     */
+    public List<RankedEntry> topOfferings(
+        Long businessId,
+        LocalDate from,
+        LocalDate to,
+        Long employeeId,
+        Long businessEmployeeId
+    ) {
+        return rank(dailyBusinessStatsRepository.findTopOfferingLists(businessId, from, to, employeeId, businessEmployeeId));
+    }
+
+    private List<RankedEntry> rank(List<String> dailyLists) {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(sketchCapacity);
+        boolean truncated = false;
+        for (String dailyList : dailyLists) {
+            try {
+                List<SpaceSavingSketch.Entry> entries = objectMapper.readValue(dailyList, ENTRIES);
+                // a teli napi lista levághatott kulcsokat, azok foglalásai hiányoznak
+                truncated |= entries.size() >= sketchCapacity;
+                sketch.merge(entries);
+            } catch (JsonProcessingException e) {
+                // a hibás sort az éjszakai újraépítés javítja
+                LOG.warn("Skipping unreadable daily top list: {}", e.getMessage());
+            }
+        }
+        boolean anyTruncated = truncated;
+        return sketch
+            .top(topK)
+            .stream()
+            .map(entry -> new RankedEntry(entry.key(), entry.label(), entry.count(), anyTruncated || entry.error() > 0))
+            .toList();
+    }
+
+    /**
+     * One ranked key; {@code approximate} when {@code count} may differ from the bookings of the range.
+     */
+    public record RankedEntry(String key, String label, long count, boolean approximate) {}
+}
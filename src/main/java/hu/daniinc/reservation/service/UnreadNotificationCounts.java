@@ -0,0 +1,57 @@
+package hu.daniinc.reservation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory cache of the unread notification counters of each user, per business employee.
+ * <p>
+ * The counters themselves live on {@code business_employee.unread_notification_count}, adjusted in the same
+ * transaction as the notifications; loading them is one indexed lookup per user. Every change of a user's unread
+ * notifications is pushed to them on the {@link BusMessage#SSE} topic after its commit, so every instance drops the
+ * user's entry when such a message passes. The TTL only bounds the damage of a missed message.
+ */
+@Component
+public class UnreadNotificationCounts {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private static final long MAX_USERS = 10000;
+
+    private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final Cache<Long, Map<Long, Long>> cache = Caffeine.newBuilder()
+        .maximumSize(MAX_USERS)
+        .expireAfterWrite(TIME_TO_LIVE)
+        .build();
+
+    public UnreadNotificationCounts(BusinessEmployeeRepository businessEmployeeRepository, NotificationBus notificationBus) {
+        this.businessEmployeeRepository = businessEmployeeRepository;
+        notificationBus.subscribe(BusMessage.SSE, message -> cache.invalidate(Long.valueOf(message.target())));
+    }
+
+    /**
+     * Unread notification count per business employee of the user.
+     */
+    public Map<Long, Long> getByUser(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    public long get(Long userId, Long businessEmployeeId) {
+        return getByUser(userId).getOrDefault(businessEmployeeId, 0L);
+    }
+
+    private Map<Long, Long> load(Long userId) {
+        Map<Long, Long> counts = new HashMap<>();
+        businessEmployeeRepository
+            .findUnreadNotificationCountsByUserId(userId)
+            .forEach(row -> counts.put((Long) row[0], (Long) row[1])); // business employee id, unread count
+        return Map.copyOf(counts);
+    }
+}
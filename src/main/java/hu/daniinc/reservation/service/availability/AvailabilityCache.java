@@ -0,0 +1,665 @@
+package hu.daniinc.reservation.service.availability;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.CustomWorkingHours;
+import hu.daniinc.reservation.domain.EmployeeTimeOff;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.CustomWorkingHoursRepository;
+import hu.daniinc.reservation.repository.EmployeeTimeOffRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per (business, employee, day) cache of {@link DayAvailability} snapshots, and of the {@link DayOccupancy} of
+ * closed days.
+ * <p>
+ * Every write that changes an employee's schedule (appointments, time offs, weekly or custom working hours)
+ * must call one of the {@code evict*} methods. Evictions run immediately and once more after the surrounding
+ * transaction commits, so a concurrent read that loaded the old rows cannot leave a stale entry behind. After the
+ * commit the eviction is also published on the {@link NotificationBus}, and the other instances drop the same days
+ * from their own caches.
+ * <p>
+ * The {@code employeeId} used here is the employee's user id, the same id the public booking endpoints use.
+ */
+@Service
+public class AvailabilityCache {
+
+    public static final String DAY_AVAILABILITY_CACHE = "availabilityByEmployeeDay";
+
+    public static final String DAY_OCCUPANCY_CACHE = "occupancyByEmployeeDay";
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailabilityCache.class);
+
+    private static final String DEFAULT_TIME_ZONE = "Europe/Budapest";
+
+    private final CacheManager cacheManager;
+    private final AvailabilityEngine availabilityEngine;
+    private final AppointmentRepository appointmentRepository;
+    private final WorkingHoursRepository workingHoursRepository;
+    private final CustomWorkingHoursRepository customWorkingHoursRepository;
+    private final EmployeeTimeOffRepository employeeTimeOffRepository;
+    private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final BusinessRepository businessRepository;
+    private final NotificationBus notificationBus;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<EmployeeKey, EmployeeState> states = new ConcurrentHashMap<>();
+
+    public AvailabilityCache(
+        CacheManager cacheManager,
+        AvailabilityEngine availabilityEngine,
+        AppointmentRepository appointmentRepository,
+        WorkingHoursRepository workingHoursRepository,
+        CustomWorkingHoursRepository customWorkingHoursRepository,
+        EmployeeTimeOffRepository employeeTimeOffRepository,
+        BusinessEmployeeRepository businessEmployeeRepository,
+        BusinessRepository businessRepository,
+        NotificationBus notificationBus
+    ) {
+        this.cacheManager = cacheManager;
+        this.availabilityEngine = availabilityEngine;
+        this.appointmentRepository = appointmentRepository;
+        this.workingHoursRepository = workingHoursRepository;
+        this.customWorkingHoursRepository = customWorkingHoursRepository;
+        this.employeeTimeOffRepository = employeeTimeOffRepository;
+        this.businessEmployeeRepository = businessEmployeeRepository;
+        this.businessRepository = businessRepository;
+        this.notificationBus = notificationBus;
+        notificationBus.subscribe(BusMessage.AVAILABILITY, this::onRemoteEviction);
+    }
+
+    /**
+     * Returns the snapshot of every day in {@code [from, to]}, in date order. Missing days are loaded with one
+     * query per table for the smallest range covering all of them.
+     */
+    public Map<LocalDate, DayAvailability> getDays(Long businessId, Long employeeId, LocalDate from, LocalDate to, ZoneId zone) {
+        return getDays(businessId, List.of(employeeId), from, to, zone).get(employeeId);
+    }
+
+    /**
+     * Snapshot of a single day: one cache lookup on a hit, the booking hot path does nothing else.
+     */
+    public DayAvailability getDay(Long businessId, Long employeeId, LocalDate date, ZoneId zone) {
+        Cache cache = cache(DAY_AVAILABILITY_CACHE);
+        if (cache != null) {
+            EmployeeKey employeeKey = new EmployeeKey(businessId, employeeId);
+            EmployeeState state = states.get(employeeKey);
+            if (state != null) {
+                DayAvailability day = cache.get(new DayKey(employeeKey, state.generation.get(), date), DayAvailability.class);
+                if (day != null) {
+                    return day;
+                }
+            }
+        }
+        return getDays(businessId, employeeId, date, date, zone).get(date);
+    }
+
+    /**
+     * Same as {@link #getDays(Long, Long, LocalDate, LocalDate, ZoneId)} for several employees of one business;
+     * the days missing for any of them are loaded together, still with one query per table.
+     */
+    public Map<Long, Map<LocalDate, DayAvailability>> getDays(
+        Long businessId,
+        Collection<Long> employeeIds,
+        LocalDate from,
+        LocalDate to,
+        ZoneId zone
+    ) {
+        Cache cache = cache(DAY_AVAILABILITY_CACHE);
+        Map<Long, Map<LocalDate, DayAvailability>> result = new LinkedHashMap<>();
+        Map<Long, Long> writesBefore = new HashMap<>();
+        Map<Long, Long> generations = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+
+        for (Long employeeId : employeeIds) {
+            EmployeeState state = states.computeIfAbsent(new EmployeeKey(businessId, employeeId), k -> new EmployeeState());
+            writesBefore.put(employeeId, state.writes.get());
+            generations.put(employeeId, state.generation.get());
+
+            Map<LocalDate, DayAvailability> days = new LinkedHashMap<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                DayKey key = dayKey(businessId, employeeId, generations, date);
+                DayAvailability day = cache != null ? cache.get(key, DayAvailability.class) : null;
+                days.put(date, day);
+                if (day == null) {
+                    firstMissing = firstMissing == null || date.isBefore(firstMissing) ? date : firstMissing;
+                    lastMissing = lastMissing == null || date.isAfter(lastMissing) ? date : lastMissing;
+                }
+            }
+            result.put(employeeId, days);
+        }
+
+        if (firstMissing == null) {
+            return result;
+        }
+
+        Set<Long> missingEmployees = new LinkedHashSet<>();
+        result.forEach((employeeId, days) -> {
+            if (days.containsValue(null)) {
+                missingEmployees.add(employeeId);
+            }
+        });
+
+        load(businessId, missingEmployees, generations, firstMissing, lastMissing, zone).forEach((employeeId, loaded) -> {
+            Map<LocalDate, DayAvailability> days = result.get(employeeId);
+            List<DayKey> stored = new ArrayList<>();
+            loaded.forEach((date, day) -> {
+                if (days.containsKey(date) && days.get(date) == null) {
+                    days.put(date, day);
+                    if (cache != null) {
+                        DayKey key = dayKey(businessId, employeeId, generations, date);
+                        cache.put(key, day);
+                        stored.add(key);
+                    }
+                }
+            });
+
+            evictIfWrittenMeanwhile(cache, businessId, employeeId, writesBefore, stored);
+        });
+        return result;
+    }
+
+    /**
+     * Occupancy of every day in {@code [from, to]} per employee, in date order. Days before {@code today} are closed:
+     * they are cached and invalidated like the availability snapshots. The missing days of all employees are loaded
+     * together, with one query per table.
+     */
+    public Map<Long, Map<LocalDate, DayOccupancy>> getOccupancy(
+        Long businessId,
+        Collection<Long> employeeIds,
+        LocalDate from,
+        LocalDate to,
+        ZoneId zone,
+        LocalDate today
+    ) {
+        Cache cache = cache(DAY_OCCUPANCY_CACHE);
+        Map<Long, Map<LocalDate, DayOccupancy>> result = new LinkedHashMap<>();
+        Map<Long, Long> writesBefore = new HashMap<>();
+        Map<Long, Long> generations = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+
+        for (Long employeeId : employeeIds) {
+            EmployeeState state = states.computeIfAbsent(new EmployeeKey(businessId, employeeId), k -> new EmployeeState());
+            writesBefore.put(employeeId, state.writes.get());
+            generations.put(employeeId, state.generation.get());
+
+            Map<LocalDate, DayOccupancy> days = new LinkedHashMap<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                DayOccupancy day = cache != null && date.isBefore(today)
+                    ? cache.get(dayKey(businessId, employeeId, generations, date), DayOccupancy.class)
+                    : null;
+                days.put(date, day);
+                if (day == null) {
+                    firstMissing = firstMissing == null || date.isBefore(firstMissing) ? date : firstMissing;
+                    lastMissing = lastMissing == null || date.isAfter(lastMissing) ? date : lastMissing;
+                }
+            }
+            result.put(employeeId, days);
+        }
+
+        if (firstMissing == null) {
+            return result;
+        }
+
+        Set<Long> missingEmployees = new LinkedHashSet<>();
+        result.forEach((employeeId, days) -> {
+            if (days.containsValue(null)) {
+                missingEmployees.add(employeeId);
+            }
+        });
+
+        loadOccupancy(businessId, missingEmployees, generations, firstMissing, lastMissing, zone).forEach((employeeId, loaded) -> {
+            Map<LocalDate, DayOccupancy> days = result.get(employeeId);
+            List<DayKey> stored = new ArrayList<>();
+            loaded.forEach((date, day) -> {
+                if (days.containsKey(date) && days.get(date) == null) {
+                    days.put(date, day);
+                    if (cache != null && date.isBefore(today)) {
+                        DayKey key = dayKey(businessId, employeeId, generations, date);
+                        cache.put(key, day);
+                        stored.add(key);
+                    }
+                }
+            });
+
+            evictIfWrittenMeanwhile(cache, businessId, employeeId, writesBefore, stored);
+        });
+        return result;
+    }
+
+    public void evictAppointment(Appointment appointment) {
+        if (appointment != null) {
+            evictRange(appointment.getBusinessEmployee(), appointment.getStartDate(), appointment.getEndDate());
+        }
+    }
+
+    /**
+     * Evicts every day touched by {@code [start, end]} in the business time zone, plus one day on each side,
+     * since a day's snapshot also holds busy intervals (and appointment breaks) spilling over from its neighbours.
+     */
+    public void evictRange(BusinessEmployee businessEmployee, Instant start, Instant end) {
+        BusinessEmployee employee = resolve(businessEmployee);
+        if (employee == null || start == null) {
+            return;
+        }
+        ZoneId zone = zoneOf(employee);
+        LocalDate first = LocalDate.ofInstant(start, zone).minusDays(1);
+        LocalDate last = LocalDate.ofInstant(end != null && end.isAfter(start) ? end : start, zone).plusDays(1);
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        evict(keyOf(employee), dates);
+    }
+
+    public void evictDay(BusinessEmployee businessEmployee, LocalDate date) {
+        BusinessEmployee employee = resolve(businessEmployee);
+        if (employee != null && date != null) {
+            evict(keyOf(employee), List.of(date));
+        }
+    }
+
+    /**
+     * Drops every cached day of every employee of the business, used when business-wide settings
+     * (time zone, break between appointments) change.
+     */
+    public void evictBusiness(Long businessId) {
+        if (businessId == null) {
+            return;
+        }
+        evictBusinessLocally(businessId);
+        broadcast(businessId, null, null);
+    }
+
+    /**
+     * Drops every cached day and the weekly template of the employee, used when the weekly working hours change.
+     */
+    public void evictEmployee(BusinessEmployee businessEmployee) {
+        BusinessEmployee employee = resolve(businessEmployee);
+        if (employee != null) {
+            evict(keyOf(employee), null);
+        }
+    }
+
+    private Map<Long, Map<LocalDate, DayAvailability>> load(
+        Long businessId,
+        Set<Long> employeeIds,
+        Map<Long, Long> generations,
+        LocalDate from,
+        LocalDate to,
+        ZoneId zone
+    ) {
+        Instant rangeStart = from.atStartOfDay(zone).toInstant();
+        Instant rangeEnd = to.plusDays(1).atStartOfDay(zone).toInstant();
+
+        // a szünet a foglalások két oldalára kerül, így az új foglalás mindkét szomszédjától tartja a távolságot
+        Duration breakBetweenAppointments = businessRepository
+            .findById(businessId)
+            .map(Business::getBreakBetweenAppointmentsMin)
+            .filter(minutes -> minutes > 0)
+            .map(Duration::ofMinutes)
+            .orElse(Duration.ZERO);
+
+        Map<Long, WeeklyTemplate> templates = weeklyTemplates(businessId, employeeIds, generations, zone);
+
+        List<CustomWorkingHours> customWorkingHours = customWorkingHoursRepository.findByBusinessIdAndEmployeeIdInAndWorkDateBetween(
+            businessId,
+            employeeIds,
+            from,
+            to
+        );
+
+        Map<Long, Map<LocalDate, CustomWorkingHours>> customByEmployee = new HashMap<>();
+        for (CustomWorkingHours cwh : customWorkingHours) {
+            customByEmployee.computeIfAbsent(cwh.getBusinessEmployee().getUser().getId(), k -> new HashMap<>()).put(cwh.getWorkDate(), cwh);
+
+            // egyedi munkaidő elvileg kilóghat a napból, ilyenkor a foglaltsági ablakot is kiterjesztjük
+            if (cwh.getStartTime() != null && cwh.getStartTime().isBefore(rangeStart)) {
+                rangeStart = cwh.getStartTime();
+            }
+            if (cwh.getEndTime() != null && cwh.getEndTime().isAfter(rangeEnd)) {
+                rangeEnd = cwh.getEndTime();
+            }
+        }
+
+        Map<Long, BusyTimeline.Builder> busyByEmployee = new HashMap<>();
+        employeeIds.forEach(employeeId -> busyByEmployee.put(employeeId, BusyTimeline.builder()));
+        // a foglalásokat az alkalmazott (business_employee) azonosítója szerint kérjük le, így a GiST index használható
+        Map<Long, Long> userIdByBusinessEmployeeId = new HashMap<>();
+        for (Object[] ids : businessEmployeeRepository.findIdsByBusinessIdAndUserIdIn(businessId, employeeIds)) {
+            userIdByBusinessEmployeeId.put((Long) ids[0], (Long) ids[1]);
+        }
+        List<Appointment> appointments = userIdByBusinessEmployeeId.isEmpty()
+            ? List.of()
+            : appointmentRepository.findOverlappingByBusinessEmployeeIdIn(
+                userIdByBusinessEmployeeId.keySet(),
+                rangeStart.minus(breakBetweenAppointments),
+                rangeEnd.plus(breakBetweenAppointments)
+            );
+        for (Appointment a : appointments) {
+            Long employeeId = userIdByBusinessEmployeeId.get(a.getBusinessEmployee().getId());
+            busyByEmployee.get(employeeId).addAppointment(a, breakBetweenAppointments);
+        }
+
+        List<EmployeeTimeOff> timeOffs = employeeTimeOffRepository.findOverlappingForEmployees(
+            businessId,
+            employeeIds,
+            rangeStart,
+            rangeEnd
+        );
+        for (EmployeeTimeOff t : timeOffs) {
+            busyByEmployee.get(t.getBusinessEmployee().getUser().getId()).add(t.getStartInstant(), t.getEndInstant());
+        }
+
+        Map<Long, Map<LocalDate, DayAvailability>> result = new HashMap<>();
+        for (Long employeeId : employeeIds) {
+            result.put(
+                employeeId,
+                availabilityEngine.buildDays(
+                    from,
+                    to,
+                    templates.get(employeeId),
+                    customByEmployee.getOrDefault(employeeId, Map.of()),
+                    busyByEmployee.get(employeeId).build()
+                )
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Unlike {@link #load}, appointments are taken without the break between appointments and kept apart from the
+     * time offs: time off reduces the available time, appointments fill it.
+     */
+    private Map<Long, Map<LocalDate, DayOccupancy>> loadOccupancy(
+        Long businessId,
+        Set<Long> employeeIds,
+        Map<Long, Long> generations,
+        LocalDate from,
+        LocalDate to,
+        ZoneId zone
+    ) {
+        Instant rangeStart = from.atStartOfDay(zone).toInstant();
+        Instant rangeEnd = to.plusDays(1).atStartOfDay(zone).toInstant();
+
+        Map<Long, WeeklyTemplate> templates = weeklyTemplates(businessId, employeeIds, generations, zone);
+
+        List<CustomWorkingHours> customWorkingHours = customWorkingHoursRepository.findByBusinessIdAndEmployeeIdInAndWorkDateBetween(
+            businessId,
+            employeeIds,
+            from,
+            to
+        );
+
+        Map<Long, Map<LocalDate, CustomWorkingHours>> customByEmployee = new HashMap<>();
+        for (CustomWorkingHours cwh : customWorkingHours) {
+            customByEmployee.computeIfAbsent(cwh.getBusinessEmployee().getUser().getId(), k -> new HashMap<>()).put(cwh.getWorkDate(), cwh);
+            if (cwh.getStartTime() != null && cwh.getStartTime().isBefore(rangeStart)) {
+                rangeStart = cwh.getStartTime();
+            }
+            if (cwh.getEndTime() != null && cwh.getEndTime().isAfter(rangeEnd)) {
+                rangeEnd = cwh.getEndTime();
+            }
+        }
+
+        Map<Long, BusyTimeline.Builder> bookedByEmployee = new HashMap<>();
+        Map<Long, BusyTimeline.Builder> timeOffByEmployee = new HashMap<>();
+        employeeIds.forEach(employeeId -> {
+            bookedByEmployee.put(employeeId, BusyTimeline.builder());
+            timeOffByEmployee.put(employeeId, BusyTimeline.builder());
+        });
+
+        Map<Long, Long> userIdByBusinessEmployeeId = new HashMap<>();
+        for (Object[] ids : businessEmployeeRepository.findIdsByBusinessIdAndUserIdIn(businessId, employeeIds)) {
+            userIdByBusinessEmployeeId.put((Long) ids[0], (Long) ids[1]);
+        }
+        List<Object[]> booked = userIdByBusinessEmployeeId.isEmpty()
+            ? List.of()
+            : appointmentRepository.findBookedIntervalsByBusinessEmployeeIdIn(userIdByBusinessEmployeeId.keySet(), rangeStart, rangeEnd);
+        for (Object[] row : booked) {
+            bookedByEmployee.get(userIdByBusinessEmployeeId.get((Long) row[0])).add((Instant) row[1], (Instant) row[2]);
+        }
+
+        for (EmployeeTimeOff t : employeeTimeOffRepository.findOverlappingForEmployees(businessId, employeeIds, rangeStart, rangeEnd)) {
+            timeOffByEmployee.get(t.getBusinessEmployee().getUser().getId()).add(t.getStartInstant(), t.getEndInstant());
+        }
+
+        Map<Long, Map<LocalDate, DayOccupancy>> result = new HashMap<>();
+        for (Long employeeId : employeeIds) {
+            WeeklyTemplate template = templates.get(employeeId);
+            Map<LocalDate, CustomWorkingHours> customByDate = customByEmployee.getOrDefault(employeeId, Map.of());
+            BusyTimeline timeOff = timeOffByEmployee.get(employeeId).build();
+            BusyTimeline appointments = bookedByEmployee.get(employeeId).build();
+
+            Map<LocalDate, DayOccupancy> days = new LinkedHashMap<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                CustomWorkingHours cwh = customByDate.get(date);
+                List<TimeWindow> windows = cwh != null
+                    ? List.of(new TimeWindow(cwh.getStartTime(), cwh.getEndTime()))
+                    : template.windowsOn(date);
+                days.put(date, OccupancySweep.measure(windows, timeOff, appointments));
+            }
+            result.put(employeeId, days);
+        }
+        return result;
+    }
+
+    /**
+     * The weekly templates of the employees, built from {@link WorkingHours} only for those whose template is missing
+     * or was invalidated since (working hours or business settings changed: the generation moved on).
+     */
+    private Map<Long, WeeklyTemplate> weeklyTemplates(Long businessId, Set<Long> employeeIds, Map<Long, Long> generations, ZoneId zone) {
+        Map<Long, WeeklyTemplate> templates = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long employeeId : employeeIds) {
+            TemplateEntry entry = states.get(new EmployeeKey(businessId, employeeId)).template;
+            if (entry != null && entry.generation() == generations.get(employeeId) && entry.template().zone().equals(zone)) {
+                templates.put(employeeId, entry.template());
+            } else {
+                missing.add(employeeId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return templates;
+        }
+
+        Map<Long, List<WorkingHours>> workingHoursByEmployee = workingHoursRepository
+            .findAllByBusinessAndEmployeeIdIn(businessId, missing)
+            .stream()
+            .collect(Collectors.groupingBy(w -> w.getBusinessEmployee().getUser().getId()));
+        for (Long employeeId : missing) {
+            WeeklyTemplate template = WeeklyTemplate.of(workingHoursByEmployee.getOrDefault(employeeId, List.of()), zone);
+            states.get(new EmployeeKey(businessId, employeeId)).template = new TemplateEntry(generations.get(employeeId), template);
+            templates.put(employeeId, template);
+        }
+        return templates;
+    }
+
+    private void evict(EmployeeKey employeeKey, List<LocalDate> dates) {
+        evictLocally(employeeKey, dates);
+        broadcast(employeeKey.businessId(), employeeKey.employeeId(), dates);
+    }
+
+    private void evictBusinessLocally(Long businessId) {
+        states
+            .keySet()
+            .stream()
+            .filter(key -> businessId.equals(key.businessId()))
+            .toList()
+            .forEach(key -> evictLocally(key, null));
+    }
+
+    private void evictLocally(EmployeeKey employeeKey, List<LocalDate> dates) {
+        EmployeeState state = states.computeIfAbsent(employeeKey, k -> new EmployeeState());
+        Runnable eviction = () -> {
+            state.writes.incrementAndGet();
+            if (dates == null) {
+                state.generation.incrementAndGet();
+                return;
+            }
+            long generation = state.generation.get();
+            for (String name : List.of(DAY_AVAILABILITY_CACHE, DAY_OCCUPANCY_CACHE)) {
+                Cache cache = cache(name);
+                if (cache != null) {
+                    dates.forEach(date -> cache.evict(new DayKey(employeeKey, generation, date)));
+                }
+            }
+        };
+
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        eviction.run();
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Publishes the eviction to the other instances once the changes are committed; {@code employeeId} is
+     * {@code null} for the whole business, {@code dates} for every day of the employee.
+     */
+    private void broadcast(Long businessId, Long employeeId, List<LocalDate> dates) {
+        // a Map.of nem enged null értéket
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("origin", instanceId);
+        payload.put("employeeId", employeeId);
+        payload.put("dates", dates != null ? dates.stream().map(LocalDate::toString).toList() : null);
+        Runnable publish = () -> {
+            try {
+                notificationBus.publish(BusMessage.AVAILABILITY, businessId.toString(), payload);
+            } catch (RuntimeException e) {
+                LOG.warn("Availability eviction of business {} could not be published: {}", businessId, e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            }
+        );
+    }
+
+    private void onRemoteEviction(BusMessage message) {
+        JsonNode payload = message.payload();
+        // a saját kiürítésünk már helyben lefutott
+        if (instanceId.equals(payload.path("origin").asText())) {
+            return;
+        }
+        Long businessId = Long.valueOf(message.target());
+        JsonNode employeeId = payload.path("employeeId");
+        if (!employeeId.canConvertToLong()) {
+            evictBusinessLocally(businessId);
+            return;
+        }
+        List<LocalDate> dates = null;
+        if (payload.path("dates").isArray()) {
+            dates = new ArrayList<>();
+            for (JsonNode date : payload.path("dates")) {
+                dates.add(LocalDate.parse(date.asText()));
+            }
+        }
+        evictLocally(new EmployeeKey(businessId, employeeId.asLong()), dates);
+    }
+
+    private BusinessEmployee resolve(BusinessEmployee businessEmployee) {
+        if (businessEmployee == null) {
+            return null;
+        }
+        if (businessEmployee.getBusiness() != null && businessEmployee.getUser() != null) {
+            return businessEmployee;
+        }
+        if (businessEmployee.getId() == null) {
+            return null;
+        }
+        return businessEmployeeRepository.findById(businessEmployee.getId()).orElse(null);
+    }
+
+    private void evictIfWrittenMeanwhile(Cache cache, Long businessId, Long employeeId, Map<Long, Long> writesBefore, List<DayKey> stored) {
+        // betöltés közben commitolt írás: amit most tároltunk, már elavult lehet
+        EmployeeState state = states.get(new EmployeeKey(businessId, employeeId));
+        if (cache != null && state.writes.get() != writesBefore.get(employeeId)) {
+            stored.forEach(cache::evict);
+        }
+    }
+
+    private static DayKey dayKey(Long businessId, Long employeeId, Map<Long, Long> generations, LocalDate date) {
+        return new DayKey(new EmployeeKey(businessId, employeeId), generations.get(employeeId), date);
+    }
+
+    private static EmployeeKey keyOf(BusinessEmployee employee) {
+        return new EmployeeKey(employee.getBusiness().getId(), employee.getUser().getId());
+    }
+
+    private static ZoneId zoneOf(BusinessEmployee employee) {
+        String timeZone = employee.getBusiness().getTimeZone();
+        return ZoneId.of(timeZone != null ? timeZone : DEFAULT_TIME_ZONE);
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            LOG.warn("Cache {} is not configured, it is computed without caching", name);
+        }
+        return cache;
+    }
+
+    record EmployeeKey(Long businessId, Long employeeId) implements Serializable {}
+
+    record DayKey(EmployeeKey employee, long generation, LocalDate date) implements Serializable {}
+
+    private record TemplateEntry(long generation, WeeklyTemplate template) {}
+
+    private static final class EmployeeState {
+
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicLong writes = new AtomicLong();
+        private volatile TemplateEntry template;
+    }
+}
@@ -0,0 +1,201 @@
+package hu.daniinc.reservation.service.availability;
+
+import hu.daniinc.reservation.config.ApplicationProperties;
+import hu.daniinc.reservation.domain.CustomWorkingHours;
+import hu.daniinc.reservation.domain.WorkingHours;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the free booking slots of one employee from already loaded working hours and busy intervals.
+ * <p>
+ * Each day is encoded as an {@link AvailabilityGrid}: working windows are ORed in, appointments and time offs
+ * are masked out, so checking a slot of any length is a word-level scan over a few {@code long}s.
+ */
+@Component
+public class AvailabilityEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailabilityEngine.class);
+
+    private final Duration cellSize;
+
+    @Autowired
+    public AvailabilityEngine(ApplicationProperties applicationProperties) {
+        this(Duration.ofMinutes(applicationProperties.getAvailability().getGridCellMinutes()));
+    }
+
+    public AvailabilityEngine(Duration cellSize) {
+        if (cellSize.isZero() || cellSize.isNegative() || cellSize.getNano() != 0) {
+            throw new IllegalArgumentException("Invalid availability grid cell size: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    public Map<LocalDate, List<Instant>> computeAvailableSlots(
+        LocalDate from,
+        LocalDate to,
+        ZoneId zone,
+        Collection<WorkingHours> workingHours,
+        Map<LocalDate, CustomWorkingHours> customByDate,
+        BusyTimeline busy,
+        Duration slotLength,
+        Instant now
+    ) {
+        return computeAvailableSlots(buildDays(from, to, zone, workingHours, customByDate, busy), slotLength, now);
+    }
+
+    /**
+     * Computes the slots from per-day snapshots, keeping the iteration order of {@code days}.
+     */
+    public Map<LocalDate, List<Instant>> computeAvailableSlots(Map<LocalDate, DayAvailability> days, Duration slotLength, Instant now) {
+        Map<LocalDate, List<Instant>> availableSlotsMap = new LinkedHashMap<>();
+        if (slotLength == null || slotLength.isZero() || slotLength.isNegative()) {
+            LOG.warn("Invalid slotLength provided: {}", slotLength);
+            return availableSlotsMap;
+        }
+
+        days.forEach((date, day) -> {
+            if (day.isClosed()) {
+                return;
+            }
+            List<Instant> available = new ArrayList<>();
+            for (TimeWindow window : day.workingWindows()) {
+                sweepWindow(available, window, slotLength, day.grid(), now);
+            }
+            if (!available.isEmpty()) {
+                availableSlotsMap.put(date, available);
+            }
+        });
+
+        return availableSlotsMap;
+    }
+
+    /**
+     * Unions the free slots of several employees: for every free start instant, the ids of the employees
+     * who are free at that time, in the iteration order of {@code slotsByEmployee}. Dates and slots are ascending.
+     */
+    public Map<LocalDate, Map<Instant, List<Long>>> mergeAvailableSlots(Map<Long, Map<LocalDate, List<Instant>>> slotsByEmployee) {
+        Map<LocalDate, Map<Instant, List<Long>>> merged = new TreeMap<>();
+        slotsByEmployee.forEach((employeeId, slotsByDate) ->
+            slotsByDate.forEach((date, slots) -> {
+                Map<Instant, List<Long>> byStart = merged.computeIfAbsent(date, d -> new TreeMap<>());
+                for (Instant slot : slots) {
+                    byStart.computeIfAbsent(slot, i -> new ArrayList<>()).add(employeeId);
+                }
+            })
+        );
+        return merged;
+    }
+
+    public Map<LocalDate, DayAvailability> buildDays(
+        LocalDate from,
+        LocalDate to,
+        ZoneId zone,
+        Collection<WorkingHours> workingHours,
+        Map<LocalDate, CustomWorkingHours> customByDate,
+        BusyTimeline busy
+    ) {
+        return buildDays(from, to, WeeklyTemplate.of(workingHours, zone), customByDate, busy);
+    }
+
+    /**
+     * Takes the working windows of every day in {@code [from, to]} from the weekly template (or the custom working
+     * hours of that date) and masks the busy intervals into a grid per day, in the template's zone.
+     */
+    public Map<LocalDate, DayAvailability> buildDays(
+        LocalDate from,
+        LocalDate to,
+        WeeklyTemplate template,
+        Map<LocalDate, CustomWorkingHours> customByDate,
+        BusyTimeline busy
+    ) {
+        Map<LocalDate, DayAvailability> days = new LinkedHashMap<>();
+
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            CustomWorkingHours cwh = customByDate.get(date);
+            List<TimeWindow> windows = cwh != null
+                ? List.of(new TimeWindow(cwh.getStartTime(), cwh.getEndTime()))
+                : template.windowsOn(date);
+
+            days.put(
+                date,
+                windows.isEmpty() ? DayAvailability.CLOSED : new DayAvailability(windows, buildGrid(date, template.zone(), windows, busy))
+            );
+        }
+
+        return days;
+    }
+
+    /**
+     * The grid starts at local midnight (or earlier, cell-aligned, if a window starts before it) and ends at the
+     * last window end, so a full day is 288 bits at 5-minute cells.
+     */
+    private AvailabilityGrid buildGrid(LocalDate date, ZoneId zone, List<TimeWindow> windows, BusyTimeline busy) {
+        long cellSeconds = cellSize.getSeconds();
+        Instant origin = date.atStartOfDay(zone).toInstant();
+        Instant min = origin;
+        Instant max = origin;
+        for (TimeWindow window : windows) {
+            min = window.start().isBefore(min) ? window.start() : min;
+            max = window.end().isAfter(max) ? window.end() : max;
+        }
+        if (min.isBefore(origin)) {
+            long cellsBefore = -Math.floorDiv(min.getEpochSecond() - origin.getEpochSecond(), cellSeconds);
+            origin = origin.minusSeconds(cellsBefore * cellSeconds);
+        }
+        long span = Duration.between(origin, max).getSeconds() + (max.getNano() > 0 ? 1 : 0);
+        int cells = (int) -Math.floorDiv(-span, cellSeconds);
+
+        AvailabilityGrid.Builder grid = AvailabilityGrid.builder(origin, cellSize, cells);
+        windows.forEach(window -> grid.markFree(window.start(), window.end()));
+        busy.slice(origin, max).forEach(interval -> grid.markBusy(interval.start(), interval.end()));
+        return grid.build();
+    }
+
+    /**
+     * Walks the slots of one working window in ascending order. When a slot hits a fully busy cell, every following
+     * slot that would still touch that cell is skipped at once; past a partially busy cell it moves one slot on.
+     */
+    private void sweepWindow(List<Instant> available, TimeWindow window, Duration slotLength, AvailabilityGrid grid, Instant now) {
+        long slotSeconds = Math.max(1, slotLength.getSeconds());
+        Instant current = window.start();
+        while (true) {
+            Instant slotEnd = current.plus(slotLength);
+            if (slotEnd.isAfter(window.end())) {
+                break;
+            }
+
+            int busyCell = grid.firstBusyCell(current, slotEnd);
+            if (busyCell < 0) {
+                if (!current.isBefore(now)) {
+                    available.add(current);
+                }
+                current = slotEnd;
+                continue;
+            }
+
+            // a részben foglalt cellában a következő slot még szabad lehet
+            if (grid.isPartiallyBusy(busyCell)) {
+                current = slotEnd;
+                continue;
+            }
+
+            // az első olyan slot, ami már a foglalt cella után kezdődik
+            long gap = Duration.between(current, grid.cellStart(busyCell + 1)).getSeconds();
+            long steps = Math.max(1, -Math.floorDiv(-gap, slotSeconds));
+            current = current.plus(slotLength.multipliedBy(steps));
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package hu.daniinc.reservation.service.availability;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Free/busy bitmap of one employee-day at a fixed cell granularity (5 minutes by default, 288 cells a day).
+ * <p>
+ * Bit {@code i} is set when cell {@code [origin + i * cell, origin + (i + 1) * cell)} is free. Working windows are
+ * ORed in (a partially covered cell counts as free, containment in a window is checked by the caller), busy
+ * intervals are masked out (a partially covered cell counts as busy). A cell cut by an off-grid busy boundary is
+ * also flagged as partial, and a range touching it is checked against the busy intervals themselves, so the
+ * answers are exact whatever the boundaries are. A zero-length busy interval blocks the ranges strictly containing
+ * it, like the original check {@code start < busy.end && end > busy.start} did; the cells around it are partial.
+ */
+public final class AvailabilityGrid implements Serializable {
+
+    private static final long serialVersionUID = 3L;
+
+    private final long originSecond;
+    private final long cellSeconds;
+    private final int cells;
+    private final long[] free;
+    private final long[] partial;
+    private final Instant[] busyStarts;
+    private final Instant[] busyEnds;
+
+    private AvailabilityGrid(
+        long originSecond,
+        long cellSeconds,
+        int cells,
+        long[] free,
+        long[] partial,
+        Instant[] busyStarts,
+        Instant[] busyEnds
+    ) {
+        this.originSecond = originSecond;
+        this.cellSeconds = cellSeconds;
+        this.cells = cells;
+        this.free = free;
+        this.partial = partial;
+        this.busyStarts = busyStarts;
+        this.busyEnds = busyEnds;
+    }
+
+    public static Builder builder(Instant origin, Duration cell, int cells) {
+        return new Builder(origin.getEpochSecond(), cell.getSeconds(), cells);
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    public Instant cellStart(int cell) {
+        return Instant.ofEpochSecond(originSecond + cell * cellSeconds);
+    }
+
+    public boolean isFree(Instant start, Instant end) {
+        return firstBusyCell(start, end) < 0;
+    }
+
+    /**
+     * Whether {@code cell} is only partly covered by busy time, so the range after its busy part may still be free.
+     */
+    public boolean isPartiallyBusy(int cell) {
+        return cell >= 0 && cell < cells && (partial[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * The first cell touched by {@code [start, end)} where the range collides with busy time, or {@code -1} if the
+     * whole range is free. Cells outside of the grid count as busy.
+     */
+    public int firstBusyCell(Instant start, Instant end) {
+        int from = cellFloor(originSecond, cellSeconds, start);
+        int to = cellCeil(originSecond, cellSeconds, end);
+        if (from < 0) {
+            return 0;
+        }
+        int busy = firstClear(free, from, Math.min(to, cells));
+        if (busy >= 0 && isPartiallyBusy(busy) && !overlapsBusy(start, end)) {
+            // a tartomány egyik foglalt időszakkal sem ütközik, a részben foglalt cellák szabadok
+            while (busy >= 0 && isPartiallyBusy(busy)) {
+                busy = firstClear(free, busy + 1, Math.min(to, cells));
+            }
+        }
+        if (busy < 0 && to > cells) {
+            return cells;
+        }
+        return busy;
+    }
+
+    /**
+     * Exact check of {@code [start, end)} against the busy intervals, with the semantics of the original check. It is
+     * not restricted to the partial cell: a zero-length interval on a cell boundary only collides with ranges reaching
+     * into both of its cells.
+     */
+    private boolean overlapsBusy(Instant start, Instant end) {
+        int low = 0;
+        int high = busyEnds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (busyEnds[mid].isAfter(start)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low < busyStarts.length && busyStarts[low].isBefore(end);
+    }
+
+    private static int cellFloor(long originSecond, long cellSeconds, Instant instant) {
+        return (int) Math.floorDiv(instant.getEpochSecond() - originSecond, cellSeconds);
+    }
+
+    private static int cellCeil(long originSecond, long cellSeconds, Instant instant) {
+        long offset = instant.getEpochSecond() - originSecond;
+        return (int) -Math.floorDiv(-offset - (instant.getNano() > 0 ? 1 : 0), cellSeconds);
+    }
+
+    /**
+     * Index of the first clear bit in {@code [from, to)}, scanning a whole word at a time, or {@code -1}.
+     */
+    static int firstClear(long[] words, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int word = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long clear = ~words[word] & (-1L << from);
+        while (true) {
+            if (word == lastWord) {
+                clear &= -1L >>> (63 - ((to - 1) & 63));
+                return clear != 0 ? (word << 6) + Long.numberOfTrailingZeros(clear) : -1;
+            }
+            if (clear != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(clear);
+            }
+            clear = ~words[++word];
+        }
+    }
+
+    static void setRange(long[] words, int from, int to, boolean value) {
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            long mask = (-1L << i) & (-1L >>> (63 - ((end - 1) & 63)));
+            if (value) {
+                words[word] |= mask;
+            } else {
+                words[word] &= ~mask;
+            }
+            i = end;
+        }
+    }
+
+    public static final class Builder {
+
+        private final long originSecond;
+        private final long cellSeconds;
+        private final int cells;
+        private final long[] free;
+        private final long[] partial;
+        private final List<Instant[]> busy = new ArrayList<>();
+
+        private Builder(long originSecond, long cellSeconds, int cells) {
+            this.originSecond = originSecond;
+            this.cellSeconds = cellSeconds;
+            this.cells = cells;
+            this.free = new long[(cells + 63) >>> 6];
+            this.partial = new long[free.length];
+        }
+
+        public Builder markFree(Instant start, Instant end) {
+            return mark(start, end, true);
+        }
+
+        public Builder markBusy(Instant start, Instant end) {
+            if (end.equals(start)) {
+                return markInstant(start);
+            }
+            if (end.isAfter(start)) {
+                busy.add(new Instant[] { start, end });
+                if (!isOnGrid(start)) {
+                    markPartial(cellFloor(originSecond, cellSeconds, start));
+                }
+                if (!isOnGrid(end)) {
+                    markPartial(cellFloor(originSecond, cellSeconds, end));
+                }
+            }
+            return mark(start, end, false);
+        }
+
+        /**
+         * A zero-length busy interval: the cell holding it (both cells next to it on a boundary) is masked out and
+         * left to the exact check, which only lets through the ranges not strictly containing it.
+         */
+        private Builder markInstant(Instant instant) {
+            busy.add(new Instant[] { instant, instant });
+            int cell = cellFloor(originSecond, cellSeconds, instant);
+            for (int i = isOnGrid(instant) ? cell - 1 : cell; i <= cell; i++) {
+                if (i >= 0 && i < cells) {
+                    setRange(free, i, i + 1, false);
+                    markPartial(i);
+                }
+            }
+            return this;
+        }
+
+        private boolean isOnGrid(Instant instant) {
+            return (instant.getEpochSecond() - originSecond) % cellSeconds == 0 && instant.getNano() == 0;
+        }
+
+        private void markPartial(int cell) {
+            if (cell >= 0 && cell < cells) {
+                setRange(partial, cell, cell + 1, true);
+            }
+        }
+
+        private Builder mark(Instant start, Instant end, boolean value) {
+            if (!end.isAfter(start)) {
+                return this;
+            }
+            int from = Math.max(0, cellFloor(originSecond, cellSeconds, start));
+            int to = Math.min(cells, cellCeil(originSecond, cellSeconds, end));
+            if (from < to) {
+                setRange(free, from, to, value);
+            }
+            return this;
+        }
+
+        /**
+         * The busy intervals are coalesced, so both their starts and their ends are ordered for the exact check.
+         */
+        public AvailabilityGrid build() {
+            busy.sort(Comparator.comparing(i -> i[0]));
+            List<Instant> starts = new ArrayList<>(busy.size());
+            List<Instant> ends = new ArrayList<>(busy.size());
+            for (Instant[] interval : busy) {
+                int last = ends.size() - 1;
+                if (last >= 0 && !interval[0].isAfter(ends.get(last))) {
+                    if (interval[1].isAfter(ends.get(last))) {
+                        ends.set(last, interval[1]);
+                    }
+                } else {
+                    starts.add(interval[0]);
+                    ends.add(interval[1]);
+                }
+            }
+            return new AvailabilityGrid(
+                originSecond,
+                cellSeconds,
+                cells,
+                free.clone(),
+                partial.clone(),
+                starts.toArray(new Instant[0]),
+                ends.toArray(new Instant[0])
+            );
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package hu.daniinc.reservation.service.availability;
+
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Offering;
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Everything a guest booking is validated against, loaded once at the start of the booking.
+ */
+public record BookingContext(Business business, BusinessEmployee employee, Offering offering, ZoneId zone) {
+    public Long businessId() {
+        return business.getId();
+    }
+
+    /**
+     * Minimum gap the business keeps between two appointments of the same employee.
+     */
+    public Duration breakBetweenAppointments() {
+        Integer minutes = business.getBreakBetweenAppointmentsMin();
+        return minutes != null && minutes > 0 ? Duration.ofMinutes(minutes) : Duration.ZERO;
+    }
+
+    /**
+     * The employee's user id, the id the availability cache is keyed by.
+     */
+    public Long employeeId() {
+        return employee.getUser().getId();
+    }
+}
@@ -0,0 +1,160 @@
+package hu.daniinc.reservation.service.availability;
+
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Offering;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.OfferingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validation pipeline of the guest booking hot path.
+ * <p>
+ * The business, employee and offering are loaded with one query, the slot is then checked against the cached
+ * {@link DayAvailability} grid in memory. The grid may lag behind a booking committed a moment ago, so the final
+ * word is {@link #lockAndCheckFree}, run under the employee's row lock. Every step is timed as {@code reservation.booking.step{step=...}}.
+ */
+@Service
+public class BookingValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookingValidator.class);
+
+    private static final String DEFAULT_TIME_ZONE = "Europe/Budapest";
+
+    public enum Step {
+        CONTEXT,
+        AVAILABILITY,
+        LOCK,
+        GUEST,
+        PERSIST,
+    }
+
+    private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final BusinessRepository businessRepository;
+    private final OfferingRepository offeringRepository;
+    private final AvailabilityCache availabilityCache;
+    private final Map<Step, Timer> timers = new EnumMap<>(Step.class);
+
+    public BookingValidator(
+        BusinessEmployeeRepository businessEmployeeRepository,
+        AppointmentRepository appointmentRepository,
+        BusinessRepository businessRepository,
+        OfferingRepository offeringRepository,
+        AvailabilityCache availabilityCache,
+        MeterRegistry meterRegistry
+    ) {
+        this.businessEmployeeRepository = businessEmployeeRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.businessRepository = businessRepository;
+        this.offeringRepository = offeringRepository;
+        this.availabilityCache = availabilityCache;
+        for (Step step : Step.values()) {
+            timers.put(
+                step,
+                Timer.builder("reservation.booking.step")
+                    .description("Duration of one step of a guest booking")
+                    .tag("step", step.name().toLowerCase())
+                    .register(meterRegistry)
+            );
+        }
+    }
+
+    public <T> T time(Step step, Supplier<T> action) {
+        return timers.get(step).record(action);
+    }
+
+    /**
+     * Loads the booking context with a single query. Only when it comes back empty are the individual
+     * lookups repeated, to report which part is missing.
+     */
+    public BookingContext loadContext(Long businessId, Long employeeId, Long offeringId) {
+        return time(Step.CONTEXT, () -> {
+            List<Object[]> rows = businessEmployeeRepository.findBookingContext(businessId, employeeId, offeringId);
+            if (!rows.isEmpty()) {
+                Object[] row = rows.get(0);
+                Business business = (Business) row[0];
+                return new BookingContext(business, (BusinessEmployee) row[1], (Offering) row[2], zoneOf(business));
+            }
+
+            businessRepository
+                .findById(businessId)
+                .orElseThrow(() -> new EntityNotFoundException("Business not found with id: " + businessId));
+            if (!offeringRepository.isBusinessHasTheOffer(offeringId, businessId)) {
+                throw new RuntimeException("Business doesn't have the offer with id: " + offeringId);
+            }
+            throw new EntityNotFoundException("Employee not found");
+        });
+    }
+
+    /**
+     * Checks the slot of the offering at {@code date} {@code time}: besides the grid check below, the date must be
+     * within the business' booking horizon ({@code maxWeeksInAdvance} weeks from today), like the listed slots.
+     */
+    public boolean isSlotAvailable(BookingContext context, LocalDate date, LocalTime time) {
+        return time(Step.AVAILABILITY, () -> {
+            Integer maxWeeks = context.business().getMaxWeeksInAdvance();
+            if (maxWeeks != null && maxWeeks > 0 && date.isAfter(LocalDate.now(context.zone()).plusWeeks(maxWeeks))) {
+                LOG.debug("Booking attempt beyond {} weeks in advance: {}", maxWeeks, date);
+                return false;
+            }
+            Instant slotStart = date.atTime(time).atZone(context.zone()).toInstant();
+            Instant slotEnd = slotStart.plusSeconds(context.offering().getDurationMinutes() * 60L);
+            return isSlotAvailable(context.businessId(), context.employeeId(), date, slotStart, slotEnd, context.zone());
+        });
+    }
+
+    /**
+     * Same check without a preloaded context, the employee is identified by user id.
+     */
+    public boolean isSlotAvailable(Long businessId, Long employeeId, LocalDate date, Instant slotStart, Instant slotEnd, ZoneId zone) {
+        // Múlt kizárása (azonnali ellenőrzés UTC szerint)
+        if (slotStart.isBefore(Instant.now())) {
+            LOG.debug("Booking attempt in the past: {}", slotStart);
+            return false;
+        }
+
+        // A nap rácsa: munkaidő, foglalások (szünettel együtt) és szabadságok egyben
+        if (availabilityCache.getDay(businessId, employeeId, date, zone).isFree(slotStart, slotEnd)) {
+            return true;
+        }
+
+        LOG.debug("Slot is outside of working hours or overlaps a booking or time off for employee {}", employeeId);
+        return false;
+    }
+
+    /**
+     * Locks the employee row until the end of the current transaction, then checks the committed appointments for
+     * an overlap with {@code [start - padding, end + padding)}. Concurrent bookings of the same employee are
+     * serialized here, so the second one sees the first one's appointment; other employees are not blocked.
+     */
+    public boolean lockAndCheckFree(BusinessEmployee employee, Instant start, Instant end, Duration padding) {
+        return time(Step.LOCK, () -> {
+            businessEmployeeRepository.lockById(employee.getId()).orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+            if (start == null || end == null) {
+                return true;
+            }
+            return !appointmentRepository.existsOverlappingByBusinessEmployeeId(employee.getId(), start.minus(padding), end.plus(padding));
+        });
+    }
+
+    private static ZoneId zoneOf(Business business) {
+        return ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : DEFAULT_TIME_ZONE);
+    }
+}
@@ -0,0 +1,161 @@
+package hu.daniinc.reservation.service.availability;
+
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.service.EmployeeTimeOffService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, sorted and coalesced set of busy intervals of one employee (appointments + time offs).
+ * <p>
+ * Overlapping or touching intervals are merged on build, so the stored intervals are disjoint and both
+ * their starts and ends are strictly ordered. This allows answering "does [start, end) collide with anything?"
+ * with a single binary search instead of scanning every appointment.
+ */
+public final class BusyTimeline {
+
+    private static final BusyTimeline EMPTY = new BusyTimeline(new Instant[0], new Instant[0]);
+
+    private final Instant[] starts;
+    private final Instant[] ends;
+
+    private BusyTimeline(Instant[] starts, Instant[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static BusyTimeline empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Same semantics as the original check: {@code start < busy.end && end > busy.start}.
+     */
+    public boolean overlaps(Instant start, Instant end) {
+        int idx = firstEndingAfter(start, 0);
+        return idx < ends.length && starts[idx].isBefore(end);
+    }
+
+    /**
+     * The coalesced intervals that overlap {@code [from, to)}, in ascending order.
+     */
+    public List<TimeWindow> slice(Instant from, Instant to) {
+        List<TimeWindow> result = new ArrayList<>();
+        for (int i = firstEndingAfter(from, 0); i < starts.length && starts[i].isBefore(to); i++) {
+            result.add(new TimeWindow(starts[i], ends[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Index of the first interval whose end is strictly after {@code instant}, searching from {@code fromIndex}.
+     * Returns {@link #size()} if there is none.
+     */
+    int firstEndingAfter(Instant instant, int fromIndex) {
+        int low = fromIndex;
+        int high = ends.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid].isAfter(instant)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    public static final class Builder {
+
+        private final List<Instant[]> intervals = new ArrayList<>();
+
+        private Builder() {}
+
+        public Builder add(Instant start, Instant end) {
+            if (start != null && end != null && !end.isBefore(start)) {
+                intervals.add(new Instant[] { start, end });
+            }
+            return this;
+        }
+
+        public Builder addAppointments(Collection<Appointment> appointments) {
+            return addAppointments(appointments, Duration.ZERO);
+        }
+
+        /**
+         * Adds the appointments widened by {@code buffer} on both sides, so a new booking keeps the business'
+         * break from its neighbours in either direction.
+         */
+        public Builder addAppointments(Collection<Appointment> appointments, Duration buffer) {
+            appointments.forEach(a -> addAppointment(a, buffer));
+            return this;
+        }
+
+        /**
+         * Deleted appointments are skipped, like the overlap queries leave them out; every other status blocks.
+         */
+        public Builder addAppointment(Appointment appointment, Duration buffer) {
+            if (
+                appointment.getStatus() != AppointmentStatus.DELETED &&
+                appointment.getStartDate() != null &&
+                appointment.getEndDate() != null
+            ) {
+                add(appointment.getStartDate().minus(buffer), appointment.getEndDate().plus(buffer));
+            }
+            return this;
+        }
+
+        public Builder addTimeOffs(Collection<EmployeeTimeOffService.TimeOffRange> timeOffs) {
+            timeOffs.forEach(t -> add(t.start(), t.end()));
+            return this;
+        }
+
+        public Builder addWindows(Collection<TimeWindow> windows) {
+            windows.forEach(w -> add(w.start(), w.end()));
+            return this;
+        }
+
+        public BusyTimeline build() {
+            if (intervals.isEmpty()) {
+                return EMPTY;
+            }
+            intervals.sort(Comparator.comparing(i -> i[0]));
+
+            List<Instant> mergedStarts = new ArrayList<>(intervals.size());
+            List<Instant> mergedEnds = new ArrayList<>(intervals.size());
+
+            Instant currentStart = intervals.get(0)[0];
+            Instant currentEnd = intervals.get(0)[1];
+            for (int i = 1; i < intervals.size(); i++) {
+                Instant[] next = intervals.get(i);
+                if (!next[0].isAfter(currentEnd)) {
+                    if (next[1].isAfter(currentEnd)) {
+                        currentEnd = next[1];
+                    }
+                } else {
+                    mergedStarts.add(currentStart);
+                    mergedEnds.add(currentEnd);
+                    currentStart = next[0];
+                    currentEnd = next[1];
+                }
+            }
+            mergedStarts.add(currentStart);
+            mergedEnds.add(currentEnd);
+
+            return new BusyTimeline(mergedStarts.toArray(new Instant[0]), mergedEnds.toArray(new Instant[0]));
+        }
+    }
+}
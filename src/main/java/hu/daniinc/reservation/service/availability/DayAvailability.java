@@ -0,0 +1,36 @@
+package hu.daniinc.reservation.service.availability;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Everything needed to compute the free slots of one employee on one day: the working windows
+ * (custom hours if present, weekly hours otherwise), which define where slots start, and the
+ * {@link AvailabilityGrid} with the busy intervals already masked out.
+ * <p>
+ * It does not depend on the requested slot length or on the current time, so it can be cached per day.
+ */
+public record DayAvailability(List<TimeWindow> workingWindows, AvailabilityGrid grid) implements Serializable {
+    public static final DayAvailability CLOSED = new DayAvailability(List.of(), null);
+
+    public DayAvailability {
+        workingWindows = List.copyOf(workingWindows);
+    }
+
+    public boolean isClosed() {
+        return workingWindows.isEmpty();
+    }
+
+    /**
+     * Whether {@code [start, end)} lies inside one working window and does not touch anything busy.
+     */
+    public boolean isFree(Instant start, Instant end) {
+        for (TimeWindow window : workingWindows) {
+            if (!start.isBefore(window.start()) && !end.isAfter(window.end())) {
+                return grid.isFree(start, end);
+            }
+        }
+        return false;
+    }
+}
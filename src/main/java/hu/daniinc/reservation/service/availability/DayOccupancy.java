@@ -0,0 +1,17 @@
+package hu.daniinc.reservation.service.availability;
+
+import java.io.Serializable;
+
+/**
+ * Available and booked working time of one employee on one day, in seconds.
+ * <p>
+ * Available is the working time (custom hours if present, weekly hours otherwise) minus time off; booked is the
+ * part of it covered by appointments, so it never exceeds the available time.
+ */
+public record DayOccupancy(long availableSeconds, long bookedSeconds) implements Serializable {
+    public static final DayOccupancy NONE = new DayOccupancy(0, 0);
+
+    public DayOccupancy plus(DayOccupancy other) {
+        return new DayOccupancy(availableSeconds + other.availableSeconds, bookedSeconds + other.bookedSeconds);
+    }
+}
@@ -0,0 +1,105 @@
+package hu.daniinc.reservation.service.availability;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Measures a day's {@link DayOccupancy} with one linear sweep over sorted intervals.
+ * <p>
+ * The working windows are coalesced, the time offs (already coalesced by {@link BusyTimeline}) are cut out of them,
+ * and the remaining available intervals are intersected with the coalesced appointments using two cursors. Every
+ * step only moves forward, so a day costs {@code O(windows + time offs + appointments)} after the binary searches
+ * that slice the timelines.
+ */
+public final class OccupancySweep {
+
+    private OccupancySweep() {}
+
+    public static DayOccupancy measure(List<TimeWindow> workingWindows, BusyTimeline timeOff, BusyTimeline booked) {
+        if (workingWindows.isEmpty()) {
+            return DayOccupancy.NONE;
+        }
+        List<TimeWindow> available = new ArrayList<>();
+        for (TimeWindow window : coalesce(workingWindows)) {
+            subtract(window, timeOff.slice(window.start(), window.end()), available);
+        }
+        if (available.isEmpty()) {
+            return DayOccupancy.NONE;
+        }
+
+        long availableSeconds = 0;
+        for (TimeWindow window : available) {
+            availableSeconds += seconds(window.start(), window.end());
+        }
+        List<TimeWindow> appointments = booked.slice(available.get(0).start(), available.get(available.size() - 1).end());
+        return new DayOccupancy(availableSeconds, intersection(available, appointments));
+    }
+
+    private static List<TimeWindow> coalesce(List<TimeWindow> windows) {
+        List<TimeWindow> sorted = new ArrayList<>(windows);
+        sorted.sort(Comparator.comparing(TimeWindow::start));
+        List<TimeWindow> merged = new ArrayList<>(sorted.size());
+        TimeWindow current = sorted.get(0);
+        for (int i = 1; i < sorted.size(); i++) {
+            TimeWindow next = sorted.get(i);
+            if (!next.start().isAfter(current.end())) {
+                current = new TimeWindow(current.start(), next.end().isAfter(current.end()) ? next.end() : current.end());
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Adds the parts of {@code window} not covered by {@code holes} (sorted, disjoint) to {@code result}.
+     */
+    private static void subtract(TimeWindow window, List<TimeWindow> holes, List<TimeWindow> result) {
+        Instant cursor = window.start();
+        for (TimeWindow hole : holes) {
+            if (hole.start().isAfter(cursor)) {
+                result.add(new TimeWindow(cursor, hole.start()));
+            }
+            if (hole.end().isAfter(cursor)) {
+                cursor = hole.end();
+            }
+        }
+        if (cursor.isBefore(window.end())) {
+            result.add(new TimeWindow(cursor, window.end()));
+        }
+    }
+
+    /**
+     * Total overlap of two sorted, disjoint interval lists.
+     */
+    private static long intersection(List<TimeWindow> first, List<TimeWindow> second) {
+        long total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.size() && j < second.size()) {
+            TimeWindow a = first.get(i);
+            TimeWindow b = second.get(j);
+            Instant start = a.start().isAfter(b.start()) ? a.start() : b.start();
+            Instant end = a.end().isBefore(b.end()) ? a.end() : b.end();
+            if (start.isBefore(end)) {
+                total += seconds(start, end);
+            }
+            // amelyik előbb ér véget, attól lépünk tovább
+            if (a.end().isBefore(b.end())) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return total;
+    }
+
+    private static long seconds(Instant start, Instant end) {
+        return Duration.between(start, end).getSeconds();
+    }
+}
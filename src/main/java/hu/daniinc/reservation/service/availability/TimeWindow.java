@@ -0,0 +1,13 @@
+package hu.daniinc.reservation.service.availability;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Half-open {@code [start, end)} time interval used by the availability computation.
+ */
+public record TimeWindow(Instant start, Instant end) implements Serializable {
+    public boolean overlaps(Instant otherStart, Instant otherEnd) {
+        return otherStart.isBefore(end) && otherEnd.isAfter(start);
+    }
+}
@@ -0,0 +1,104 @@
+package hu.daniinc.reservation.service.availability;
+
+import hu.daniinc.reservation.domain.WorkingHours;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An employee's weekly working hours, pre-sorted per day of week as second-of-day intervals.
+ * <p>
+ * Built once from the {@link WorkingHours} rows and reused until they change. {@link #windowsOn(LocalDate)} turns
+ * a day's intervals into instants in the template's zone (so DST days get their real length) and remembers the
+ * result per date.
+ */
+public final class WeeklyTemplate {
+
+    private static final int MAX_EXPANDED_DATES = 400;
+
+    private final ZoneId zone;
+
+    /** Index 1..7 (ISO day of week): {@code [start0, end0, start1, end1, ...]} in second of day, ordered by start. */
+    private final int[][] secondsByDay;
+
+    private final ConcurrentMap<LocalDate, List<TimeWindow>> expanded = new ConcurrentHashMap<>();
+
+    private WeeklyTemplate(ZoneId zone, int[][] secondsByDay) {
+        this.zone = zone;
+        this.secondsByDay = secondsByDay;
+    }
+
+    public static WeeklyTemplate of(Collection<WorkingHours> workingHours, ZoneId zone) {
+        List<List<int[]>> byDay = new ArrayList<>(8);
+        for (int i = 0; i <= 7; i++) {
+            byDay.add(new ArrayList<>());
+        }
+        for (WorkingHours wh : workingHours) {
+            Integer dayOfWeek = wh.getDayOfWeek();
+            if (dayOfWeek != null && dayOfWeek >= 1 && dayOfWeek <= 7 && wh.getStartTime() != null && wh.getEndTime() != null) {
+                byDay.get(dayOfWeek).add(new int[] { wh.getStartTime().toSecondOfDay(), wh.getEndTime().toSecondOfDay() });
+            }
+        }
+
+        int[][] secondsByDay = new int[8][];
+        for (int day = 0; day <= 7; day++) {
+            List<int[]> intervals = byDay.get(day);
+            intervals.sort((a, b) -> Integer.compare(a[0], b[0]));
+            int[] flat = new int[intervals.size() * 2];
+            for (int i = 0; i < intervals.size(); i++) {
+                flat[2 * i] = intervals.get(i)[0];
+                flat[2 * i + 1] = intervals.get(i)[1];
+            }
+            secondsByDay[day] = flat;
+        }
+        return new WeeklyTemplate(zone, secondsByDay);
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * The working windows of {@code date}, in ascending order of start. Empty if the employee does not work that day.
+     */
+    public List<TimeWindow> windowsOn(LocalDate date) {
+        int[] seconds = secondsByDay[date.getDayOfWeek().getValue()];
+        if (seconds.length == 0) {
+            return List.of();
+        }
+        List<TimeWindow> windows = expanded.get(date);
+        if (windows == null) {
+            windows = expand(date, seconds);
+            if (expanded.size() >= MAX_EXPANDED_DATES) {
+                expanded.clear();
+            }
+            expanded.put(date, windows);
+        }
+        return windows;
+    }
+
+    private List<TimeWindow> expand(LocalDate date, int[] seconds) {
+        List<TimeWindow> windows = new ArrayList<>(seconds.length / 2);
+        for (int i = 0; i < seconds.length; i += 2) {
+            windows.add(
+                new TimeWindow(
+                    date.atTime(LocalTime.ofSecondOfDay(seconds[i])).atZone(zone).toInstant(),
+                    date.atTime(LocalTime.ofSecondOfDay(seconds[i + 1])).atZone(zone).toInstant()
+                )
+            );
+        }
+        return Collections.unmodifiableList(windows);
+    }
+
+    @Override
+    public String toString() {
+        return "WeeklyTemplate{zone=" + zone + ", secondsByDay=" + Arrays.deepToString(secondsByDay) + "}";
+    }
+}
@@ -0,0 +1,60 @@
+package hu.daniinc.reservation.service.bus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local subscriber registry and JSON handling shared by the bus implementations.
+ */
+public abstract class AbstractNotificationBus implements NotificationBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractNotificationBus.class);
+
+    protected final ObjectMapper objectMapper;
+
+    private final Map<String, List<Consumer<BusMessage>>> subscribers = new ConcurrentHashMap<>();
+
+    protected AbstractNotificationBus(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(String topic, String target, Object payload) {
+        publish(new BusMessage(topic, target, objectMapper.valueToTree(payload)));
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<BusMessage> subscriber) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    protected abstract void publish(BusMessage message);
+
+    /**
+     * Hands the message to the local subscribers of its topic; one failing subscriber does not stop the others.
+     */
+    protected void dispatch(BusMessage message) {
+        for (Consumer<BusMessage> subscriber : subscribers.getOrDefault(message.topic(), List.of())) {
+            try {
+                subscriber.accept(message);
+            } catch (Exception e) {
+                LOG.error("Notification subscriber of topic {} failed", message.topic(), e);
+            }
+        }
+    }
+
+    String write(BusMessage message) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    BusMessage read(String json) throws JsonProcessingException {
+        return objectMapper.readValue(json, BusMessage.class);
+    }
+}
@@ -0,0 +1,21 @@
+package hu.daniinc.reservation.service.bus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A real-time message on the {@link NotificationBus}: {@code topic} selects the subscribers, {@code target} is
+ * the recipient within the topic (a user id for SSE, a destination for STOMP), {@code payload} the JSON sent on.
+ */
+public record BusMessage(String topic, String target, JsonNode payload) {
+    /** SSE events to the connections of one user; the target is the user id. */
+    public static final String SSE = "sse";
+
+    /** STOMP messages to the local broker; the target is the destination. */
+    public static final String STOMP = "stomp";
+
+    /** Statistics changes for the local caches; the target is the business id, {@code null} for every business. */
+    public static final String STATISTICS = "statistics";
+
+    /** Schedule changes for the local availability caches; the target is the business id. */
+    public static final String AVAILABILITY = "availability";
+}
@@ -0,0 +1,19 @@
+package hu.daniinc.reservation.service.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Delivers every message to the subscribers of this instance only, on the publishing thread. The default when
+ * a single instance is running.
+ */
+public class InMemoryNotificationBus extends AbstractNotificationBus {
+
+    public InMemoryNotificationBus(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void publish(BusMessage message) {
+        dispatch(message);
+    }
+}
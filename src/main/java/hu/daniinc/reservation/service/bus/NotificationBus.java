@@ -0,0 +1,22 @@
+package hu.daniinc.reservation.service.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * Fans real-time messages out to every application instance.
+ * <p>
+ * Publishers call {@link #publish(String, String, Object)} instead of writing to their own SSE connections or STOMP
+ * broker; every instance (the publishing one included) hands the message to its local subscribers, which deliver
+ * it to the clients connected there. Delivery is best effort: the persisted notifications stay the source of truth.
+ */
+public interface NotificationBus {
+    /**
+     * Publishes {@code payload}, converted to JSON, to the subscribers of {@code topic} on every instance.
+     */
+    void publish(String topic, String target, Object payload);
+
+    /**
+     * Registers a local subscriber. It is called on the delivering thread and must not block.
+     */
+    void subscribe(String topic, Consumer<BusMessage> subscriber);
+}
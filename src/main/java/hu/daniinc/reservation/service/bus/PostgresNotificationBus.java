@@ -0,0 +1,170 @@
+package hu.daniinc.reservation.service.bus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fans messages out through PostgreSQL {@code LISTEN/NOTIFY} on one channel, so every instance connected to the
+ * same database receives them.
+ * <p>
+ * Publishing runs {@code pg_notify} on a pooled connection in a transaction of its own, so the message goes out
+ * right away; callers that must not announce uncommitted changes publish after their commit, which also works from
+ * {@code afterCommit} callbacks, whose transaction is already finished. Receiving uses one dedicated connection,
+ * outside the pool, held by a listener thread that reconnects after failures; messages sent while it is reconnecting
+ * are missed. Payloads above the {@code NOTIFY} size limit are delivered on this instance only.
+ * <p>
+ * The PostgreSQL driver is only on the classpath of the {@code prod} build, so its notification API is reached
+ * through reflection.
+ */
+public class PostgresNotificationBus extends AbstractNotificationBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostgresNotificationBus.class);
+
+    // a NOTIFY payload legfeljebb 8000 bájt lehet
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final long reconnectDelayMillis;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresNotificationBus(
+        ObjectMapper objectMapper,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        String url,
+        String username,
+        String password,
+        String channel,
+        long reconnectDelayMillis
+    ) {
+        super(objectMapper);
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "notification-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    @Override
+    protected void publish(BusMessage message) {
+        String json;
+        try {
+            json = write(message);
+        } catch (JsonProcessingException e) {
+            LOG.error("Cannot serialize notification of topic {}", message.topic(), e);
+            return;
+        }
+        if (json.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            LOG.warn("Notification of topic {} is too large for NOTIFY, delivered on this instance only", message.topic());
+            dispatch(message);
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, json));
+        } catch (DataAccessException e) {
+            // ha az adatbázis nem elérhető, legalább a helyi kliensek megkapják
+            LOG.warn("Cannot publish notification through PostgreSQL, delivered on this instance only: {}", e.getMessage());
+            dispatch(message);
+        }
+    }
+
+    private void listen() {
+        Method getNotifications;
+        Method getParameter;
+        Class<?> pgConnection;
+        try {
+            pgConnection = Class.forName("org.postgresql.PGConnection");
+            getNotifications = pgConnection.getMethod("getNotifications", int.class);
+            getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        } catch (ReflectiveOperationException e) {
+            LOG.error("The PostgreSQL notification bus needs the PostgreSQL JDBC driver, no notification will be received", e);
+            return;
+        }
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                Object notifying = connection.unwrap(pgConnection);
+                LOG.info("Listening for notifications on channel {}", channel);
+
+                while (running) {
+                    Object[] notifications = (Object[]) getNotifications.invoke(notifying, POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (Object notification : notifications) {
+                            receive((String) getParameter.invoke(notification));
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                LOG.warn("Notification listener failed, reconnecting in {} ms: {}", reconnectDelayMillis, cause.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String json) {
+        try {
+            dispatch(read(json));
+        } catch (JsonProcessingException e) {
+            LOG.warn("Skipping unreadable notification: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hu.daniinc.reservation.service.dto;
+
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One line of the appointment export, read as a flat projection so no entity is loaded per row.
+ */
+public record AppointmentExportRow(
+    Long id,
+    Instant startDate,
+    Instant endDate,
+    AppointmentStatus status,
+    String employeeFirstName,
+    String employeeLastName,
+    String guestName,
+    String guestEmail,
+    String guestPhoneNumber,
+    String offeringTitle,
+    BigDecimal price
+) {}
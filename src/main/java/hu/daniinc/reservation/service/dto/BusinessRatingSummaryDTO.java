@@ -7,6 +7,9 @@ public class BusinessRatingSummaryDTO {
 
     private List<BusinessRatingDTO> ratings;
     private Double averageRating;
+    private Long ratingCount;
+    // az 1-5 csillagos értékelések száma, sorrendben
+    private List<Long> starCounts;
 
     public BusinessRatingSummaryDTO() {}
 
@@ -30,4 +33,20 @@ public class BusinessRatingSummaryDTO {
     public void setAverageRating(Double averageRating) {
         this.averageRating = averageRating;
     }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public List<Long> getStarCounts() {
+        return starCounts;
+    }
+
+    public void setStarCounts(List<Long> starCounts) {
+        this.starCounts = starCounts;
+    }
 }
@@ -8,6 +8,8 @@ public class CustomerDistributionDTO {
     private Long topCustomerBookings;
     private Long returningGuestCount;
     private Long newGuestCount;
+    // true if topCustomerBookings was merged from the daily top lists and may differ from the real count
+    private boolean topCustomerApproximate;
 
     public CustomerDistributionDTO(
         Double returningPercentage,
@@ -50,6 +52,14 @@ public class CustomerDistributionDTO {
 
     public CustomerDistributionDTO() {}
 
+    public boolean isTopCustomerApproximate() {
+        return topCustomerApproximate;
+    }
+
+    public void setTopCustomerApproximate(boolean topCustomerApproximate) {
+        this.topCustomerApproximate = topCustomerApproximate;
+    }
+
     public Double getReturningPercentage() {
         return returningPercentage;
     }
@@ -0,0 +1,32 @@
+package hu.daniinc.reservation.service.dto;
+
+public class DailyStatsProjection {
+
+    private Long revenue;
+    private Long bookings;
+    private Long cancellations;
+    private Long newGuests;
+
+    public DailyStatsProjection(Object revenue, Object bookings, Object cancellations, Object newGuests) {
+        this.revenue = revenue != null ? ((Number) revenue).longValue() : 0L;
+        this.bookings = bookings != null ? ((Number) bookings).longValue() : 0L;
+        this.cancellations = cancellations != null ? ((Number) cancellations).longValue() : 0L;
+        this.newGuests = newGuests != null ? ((Number) newGuests).longValue() : 0L;
+    }
+
+    public Long getRevenue() {
+        return revenue;
+    }
+
+    public Long getBookings() {
+        return bookings;
+    }
+
+    public Long getCancellations() {
+        return cancellations;
+    }
+
+    public Long getNewGuests() {
+        return newGuests;
+    }
+}
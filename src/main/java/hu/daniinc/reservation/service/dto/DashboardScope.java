@@ -0,0 +1,16 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A dashboard request whose permissions are already checked: {@code employeeId} is the employee (user id) filter
+ * the logged-in user is allowed to see, and {@code eTag} identifies the current state of that view.
+ */
+public record DashboardScope(
+    Long businessId,
+    Instant from,
+    Instant to,
+    Long employeeId,
+    ChartGranularity granularity,
+    String eTag
+) {}
@@ -0,0 +1,60 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.util.List;
+
+/**
+ * Every widget of the statistics page in one response.
+ */
+public class DashboardStatisticDTO {
+
+    private BusinessStatisticSummaryDTO summary;
+    private List<IncomeBucketDTO> income;
+    private List<TopOfferingStatisticDTO> topOfferings;
+    private CustomerDistributionDTO customerDistribution;
+
+    public DashboardStatisticDTO() {}
+
+    public DashboardStatisticDTO(
+        BusinessStatisticSummaryDTO summary,
+        List<IncomeBucketDTO> income,
+        List<TopOfferingStatisticDTO> topOfferings,
+        CustomerDistributionDTO customerDistribution
+    ) {
+        this.summary = summary;
+        this.income = income;
+        this.topOfferings = topOfferings;
+        this.customerDistribution = customerDistribution;
+    }
+
+    public BusinessStatisticSummaryDTO getSummary() {
+        return summary;
+    }
+
+    public void setSummary(BusinessStatisticSummaryDTO summary) {
+        this.summary = summary;
+    }
+
+    public List<IncomeBucketDTO> getIncome() {
+        return income;
+    }
+
+    public void setIncome(List<IncomeBucketDTO> income) {
+        this.income = income;
+    }
+
+    public List<TopOfferingStatisticDTO> getTopOfferings() {
+        return topOfferings;
+    }
+
+    public void setTopOfferings(List<TopOfferingStatisticDTO> topOfferings) {
+        this.topOfferings = topOfferings;
+    }
+
+    public CustomerDistributionDTO getCustomerDistribution() {
+        return customerDistribution;
+    }
+
+    public void setCustomerDistribution(CustomerDistributionDTO customerDistribution) {
+        this.customerDistribution = customerDistribution;
+    }
+}
@@ -0,0 +1,69 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Occupancy of one employee over a range of business-local days: booked minutes divided by available minutes,
+ * where available is the working time minus time off. {@code occupancy} is {@code null} when nothing was available.
+ */
+public class EmployeeOccupancyDTO {
+
+    private Long employeeId;
+    private long availableMinutes;
+    private long bookedMinutes;
+    private Double occupancy;
+    private List<Day> days;
+
+    public EmployeeOccupancyDTO() {}
+
+    public EmployeeOccupancyDTO(Long employeeId, long availableMinutes, long bookedMinutes, List<Day> days) {
+        this.employeeId = employeeId;
+        this.availableMinutes = availableMinutes;
+        this.bookedMinutes = bookedMinutes;
+        this.occupancy = availableMinutes > 0 ? (double) bookedMinutes / availableMinutes : null;
+        this.days = days;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public long getAvailableMinutes() {
+        return availableMinutes;
+    }
+
+    public void setAvailableMinutes(long availableMinutes) {
+        this.availableMinutes = availableMinutes;
+    }
+
+    public long getBookedMinutes() {
+        return bookedMinutes;
+    }
+
+    public void setBookedMinutes(long bookedMinutes) {
+        this.bookedMinutes = bookedMinutes;
+    }
+
+    public Double getOccupancy() {
+        return occupancy;
+    }
+
+    public void setOccupancy(Double occupancy) {
+        this.occupancy = occupancy;
+    }
+
+    public List<Day> getDays() {
+        return days;
+    }
+
+    public void setDays(List<Day> days) {
+        this.days = days;
+    }
+
+    public record Day(LocalDate date, long availableMinutes, long bookedMinutes) {}
+}
@@ -0,0 +1,36 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One point of the income chart: {@code start} is the epoch millisecond at which the bucket starts in the
+ * business time zone.
+ */
+public class IncomeBucketDTO {
+
+    private long start;
+    private BigDecimal value;
+
+    public IncomeBucketDTO() {}
+
+    public IncomeBucketDTO(long start, BigDecimal value) {
+        this.start = start;
+        this.value = value;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public void setStart(long start) {
+        this.start = start;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public void setValue(BigDecimal value) {
+        this.value = value;
+    }
+}
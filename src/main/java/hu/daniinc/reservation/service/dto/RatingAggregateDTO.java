@@ -0,0 +1,46 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.util.List;
+
+/**
+ * Rating totals of a business (or of a range of months): sum of the stars, number of ratings and number of
+ * ratings per star, {@code starCounts.get(0)} being the one-star ratings.
+ */
+public class RatingAggregateDTO {
+
+    private final long sum;
+    private final long count;
+    private final List<Long> starCounts;
+
+    public RatingAggregateDTO(Object sum, Object count, Object star1, Object star2, Object star3, Object star4, Object star5) {
+        // SUM üres halmazon null, és típusa adatbázisonként eltérhet
+        this.sum = toLong(sum);
+        this.count = toLong(count);
+        this.starCounts = List.of(toLong(star1), toLong(star2), toLong(star3), toLong(star4), toLong(star5));
+    }
+
+    public static RatingAggregateDTO empty() {
+        return new RatingAggregateDTO(0L, 0L, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<Long> getStarCounts() {
+        return starCounts;
+    }
+
+    // null, ha még nincs értékelés, ahogy az AVG is
+    public Double getAverage() {
+        return count > 0 ? (double) sum / count : null;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+}
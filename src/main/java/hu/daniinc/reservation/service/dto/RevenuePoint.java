@@ -0,0 +1,9 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Revenue booked at an instant: an appointment start, or the local midnight of a rollup day.
+ */
+public record RevenuePoint(Instant at, BigDecimal amount) {}
@@ -0,0 +1,36 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A free slot of the business with the employees (user ids) who can take it.
+ */
+public class StaffAvailableSlotDTO implements Serializable {
+
+    private String start;
+    private List<Long> employeeIds;
+
+    public StaffAvailableSlotDTO() {}
+
+    public StaffAvailableSlotDTO(String start, List<Long> employeeIds) {
+        this.start = start;
+        this.employeeIds = employeeIds;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public List<Long> getEmployeeIds() {
+        return employeeIds;
+    }
+
+    public void setEmployeeIds(List<Long> employeeIds) {
+        this.employeeIds = employeeIds;
+    }
+}
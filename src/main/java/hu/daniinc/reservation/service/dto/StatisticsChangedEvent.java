@@ -0,0 +1,16 @@
+package hu.daniinc.reservation.service.dto;
+
+import java.time.Instant;
+
+/**
+ * Published when something shown on the statistics dashboard changed.
+ * <p>
+ * With {@code businessEmployeeId} and {@code at} set, {@code at} falls on the business-local day whose rollup row
+ * has to be recomputed for that employee; without them only the dashboard version of the business is bumped.
+ * A {@code null} business id bumps every business.
+ */
+public record StatisticsChangedEvent(Long businessId, Long businessEmployeeId, Instant at) {
+    public static StatisticsChangedEvent ofBusiness(Long businessId) {
+        return new StatisticsChangedEvent(businessId, null, null);
+    }
+}
@@ -4,6 +4,8 @@ public class TopOfferingStatisticDTO {
 
     private String offeringName;
     private Long offeringCount;
+    // true if the count was merged from the daily top lists and may differ from the real one
+    private boolean approximate;
 
     public TopOfferingStatisticDTO() {}
 
@@ -12,6 +14,11 @@ public class TopOfferingStatisticDTO {
         this.offeringCount = offeringCount;
     }
 
+    public TopOfferingStatisticDTO(String offeringName, Long offeringCount, boolean approximate) {
+        this(offeringName, offeringCount);
+        this.approximate = approximate;
+    }
+
     public String getOfferingName() {
         return offeringName;
     }
@@ -27,4 +34,12 @@ public class TopOfferingStatisticDTO {
     public void setOfferingCount(Long offeringCount) {
         this.offeringCount = offeringCount;
     }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
 }
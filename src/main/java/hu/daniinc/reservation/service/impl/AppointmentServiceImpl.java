@@ -6,25 +6,28 @@ import hu.daniinc.reservation.domain.enumeration.BusinessPermission;
 import hu.daniinc.reservation.repository.*;
 import hu.daniinc.reservation.service.AppointmentService;
 import hu.daniinc.reservation.service.EmailService;
-import hu.daniinc.reservation.service.EmployeeTimeOffService;
 import hu.daniinc.reservation.service.UserService;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
+import hu.daniinc.reservation.service.availability.AvailabilityEngine;
+import hu.daniinc.reservation.service.availability.BookingContext;
+import hu.daniinc.reservation.service.availability.BookingValidator;
+import hu.daniinc.reservation.service.availability.DayAvailability;
 import hu.daniinc.reservation.service.dto.*;
 import hu.daniinc.reservation.service.mapper.AppointmentMapper;
 import hu.daniinc.reservation.service.mapper.BusinessEmployeeMapper;
 import hu.daniinc.reservation.service.quartz.AppointmentReminderService;
-import hu.daniinc.reservation.service.specifications.AppointmentsSpecification;
 import hu.daniinc.reservation.web.rest.errors.BadRequestAlertException;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
 import hu.daniinc.reservation.web.rest.errors.NotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.*;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,11 +41,15 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AppointmentServiceImpl.class);
 
+    private static final int STREAM_CHUNK_DAYS = 7;
+
+    private static final int[] NEXT_SLOTS_WINDOW_DAYS = { 1, 7, 31 };
+
+    private static final int NEXT_SLOTS_MAX_DAYS = 366;
+
     private final AppointmentRepository appointmentRepository;
     private final EmailService emailService;
     private final AppointmentMapper appointmentMapper;
-    private final CustomWorkingHoursRepository customWorkingHoursRepository;
-    private final WorkingHoursRepository workingHoursRepository;
     private final BusinessRepository businessRepository;
     private final OfferingRepository offeringRepository;
     private final GuestRepository guestRepository;
@@ -51,14 +58,14 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final UserService userService;
     private final ApplicationEventPublisher eventPublisher;
     private final BusinessEmployeeMapper businessEmployeeMapper;
-    private final EmployeeTimeOffService employeeTimeOffService;
+    private final AvailabilityEngine availabilityEngine;
+    private final AvailabilityCache availabilityCache;
+    private final BookingValidator bookingValidator;
 
     public AppointmentServiceImpl(
         AppointmentRepository appointmentRepository,
         EmailService emailService,
         AppointmentMapper appointmentMapper,
-        CustomWorkingHoursRepository customWorkingHoursRepository,
-        WorkingHoursRepository workingHoursRepository,
         BusinessRepository businessRepository,
         OfferingRepository offeringRepository,
         GuestRepository guestRepository,
@@ -67,13 +74,13 @@ public class AppointmentServiceImpl implements AppointmentService {
         UserService userService,
         ApplicationEventPublisher eventPublisher,
         BusinessEmployeeMapper businessEmployeeMapper,
-        EmployeeTimeOffService employeeTimeOffService
+        AvailabilityEngine availabilityEngine,
+        AvailabilityCache availabilityCache,
+        BookingValidator bookingValidator
     ) {
         this.appointmentRepository = appointmentRepository;
         this.emailService = emailService;
         this.appointmentMapper = appointmentMapper;
-        this.customWorkingHoursRepository = customWorkingHoursRepository;
-        this.workingHoursRepository = workingHoursRepository;
         this.businessRepository = businessRepository;
         this.offeringRepository = offeringRepository;
         this.guestRepository = guestRepository;
@@ -82,7 +89,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         this.userService = userService;
         this.eventPublisher = eventPublisher;
         this.businessEmployeeMapper = businessEmployeeMapper;
-        this.employeeTimeOffService = employeeTimeOffService;
+        this.availabilityEngine = availabilityEngine;
+        this.availabilityCache = availabilityCache;
+        this.bookingValidator = bookingValidator;
     }
 
     @Override
@@ -90,14 +99,17 @@ public class AppointmentServiceImpl implements AppointmentService {
         LOG.debug("Request to save Appointment : {}", appointmentDTO);
         Appointment appointment = appointmentMapper.toEntity(appointmentDTO);
         appointment = appointmentRepository.save(appointment);
+        appointmentChanged(appointment);
         return appointmentMapper.toDto(appointment);
     }
 
     @Override
     public AppointmentDTO update(AppointmentDTO appointmentDTO) {
         LOG.debug("Request to update Appointment : {}", appointmentDTO);
+        appointmentRepository.findById(appointmentDTO.getId()).ifPresent(this::appointmentChanged);
         Appointment appointment = appointmentMapper.toEntity(appointmentDTO);
         appointment = appointmentRepository.save(appointment);
+        appointmentChanged(appointment);
         return appointmentMapper.toDto(appointment);
     }
 
@@ -109,6 +121,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         return appointmentRepository
             .findById(dto.getId())
             .map(existingAppointment -> {
+                // a régi időpont napjai is érvénytelenek lesznek
+                appointmentChanged(existingAppointment);
+
                 //update offering
                 offeringRepository.findByIdToLoggedInUser(dto.getOfferingId()).ifPresent(existingAppointment::setOffering);
 
@@ -128,7 +143,10 @@ public class AppointmentServiceImpl implements AppointmentService {
                 return existingAppointment;
             })
             .map(appointmentRepository::save)
-            .map(appointmentMapper::toDto);
+            .map(saved -> {
+                appointmentChanged(saved);
+                return appointmentMapper.toDto(saved);
+            });
     }
 
     @Override
@@ -152,13 +170,15 @@ public class AppointmentServiceImpl implements AppointmentService {
             LOG.warn("Unauthorized access attempt by {}: requested {}, allowed {}", user.getLogin(), employeeId, myBusinessEmployeeId);
             employeeId = String.valueOf(myBusinessEmployeeId);
         }
-        Specification<Appointment> spec = AppointmentsSpecification.overlappingAppointmentsByEmployeeName(
-            startDate,
-            endDate,
-            businessId,
-            employeeId
-        );
-        return appointmentRepository.findAll(spec).stream().map(appointmentMapper::toDto).toList();
+        // "all" (vagy üres) -> nincs alkalmazott szűrés, minden alkalmazott foglalása
+        Long businessEmployeeId = employeeId == null || employeeId.isEmpty() || "all".equalsIgnoreCase(employeeId)
+            ? null
+            : Long.valueOf(employeeId);
+        return appointmentRepository
+            .findOverlappingForCalendar(businessId, businessEmployeeId, startDate, endDate)
+            .stream()
+            .map(appointmentMapper::toDto)
+            .toList();
     }
 
     @Override
@@ -181,6 +201,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
         appointment.setStatus(AppointmentStatus.DELETED);
         appointmentRepository.save(appointment);
+        appointmentChanged(appointment);
     }
 
     @Override
@@ -191,108 +212,135 @@ public class AppointmentServiceImpl implements AppointmentService {
         LocalDate to,
         Duration slotLength
     ) {
-        Map<LocalDate, List<Instant>> availableSlotsMap = new LinkedHashMap<>();
-
         // 1. Business lekérése
         Business business = businessRepository.findById(businessId).orElseThrow(() -> new EntityNotFoundException("Business not found"));
 
         ZoneId zone = ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : "Europe/Budapest");
 
         // 2. Max előre foglalható idő korlátozása
-        Integer maxWeeks = business.getMaxWeeksInAdvance();
-        if (maxWeeks != null && maxWeeks > 0) {
-            LocalDate maxAllowedDate = LocalDate.now(zone).plusWeeks(maxWeeks);
-            if (to.isAfter(maxAllowedDate)) {
-                to = maxAllowedDate;
-            }
+        to = limitToBookingHorizon(business, zone, to);
+        if (to.isBefore(from)) {
+            return new LinkedHashMap<>();
         }
 
-        // 3. Összes releváns foglalás lekérése - EGYSZER
-        Instant overallStart = from.atStartOfDay(zone).toInstant();
-        Instant overallEnd = to.plusDays(1).atStartOfDay(zone).toInstant();
+        // 3. Napi munkaidő- és foglaltsági pillanatképek a cache-ből (hiányzó napok egy körben töltődnek be)
+        Map<LocalDate, DayAvailability> days = availabilityCache.getDays(businessId, employeeId, from, to, zone);
 
-        List<Appointment> allAppointments = appointmentRepository.findByBusinessIdAndEmployeeIdAndDateRange(
-            businessId,
-            employeeId,
-            overallStart,
-            overallEnd
-        );
-
-        // ÚJ: WorkingHours lekérése EGYSZER a ciklus előtt
-        Set<WorkingHours> allWorkingHours = workingHoursRepository.findAllByBusinessAndEmployeeId(businessId, employeeId);
+        // 4. Munkaidő-ablakok egyszeri végigsöprése
+        return availabilityEngine.computeAvailableSlots(days, slotLength, Instant.now());
+    }
 
-        Instant now = Instant.now();
+    @Override
+    public void streamAvailableSlots(
+        Long businessId,
+        Long employeeId,
+        LocalDate from,
+        LocalDate to,
+        Duration slotLength,
+        BiConsumer<LocalDate, List<Instant>> dayConsumer
+    ) {
+        Business business = businessRepository.findById(businessId).orElseThrow(() -> new EntityNotFoundException("Business not found"));
+        ZoneId zone = ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : "Europe/Budapest");
+        to = limitToBookingHorizon(business, zone, to);
 
-        // 4. Napokon való végigfutás
+        // STREAM_CHUNK_DAYS naponként töltünk és számolunk, így a memória nem nő a horizonttal
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(STREAM_CHUNK_DAYS)) {
+            LocalDate chunkEnd = chunkStart.plusDays(STREAM_CHUNK_DAYS - 1L);
+            if (chunkEnd.isAfter(to)) {
+                chunkEnd = to;
+            }
+            Map<LocalDate, DayAvailability> days = availabilityCache.getDays(businessId, employeeId, chunkStart, chunkEnd, zone);
+            availabilityEngine.computeAvailableSlots(days, slotLength, Instant.now()).forEach(dayConsumer);
+        }
+    }
 
-        List<CustomWorkingHours> allCustomWorkingHours = customWorkingHoursRepository.findByBusinessIdAndEmployeeIdAndWorkDateBetween(
-            businessId,
-            employeeId,
-            from,
-            to
-        );
+    @Override
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<StaffAvailableSlotDTO>> getAvailableSlotsForAnyEmployee(
+        Long businessId,
+        LocalDate from,
+        LocalDate to,
+        Duration slotLength
+    ) {
+        Business business = businessRepository.findById(businessId).orElseThrow(() -> new EntityNotFoundException("Business not found"));
+        ZoneId zone = ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : "Europe/Budapest");
 
-        Map<LocalDate, CustomWorkingHours> customByDate = allCustomWorkingHours
+        to = limitToBookingHorizon(business, zone, to);
+        List<Long> employeeIds = businessEmployeeRepository
+            .findAllPublicByBusinessId(businessId)
             .stream()
-            .collect(Collectors.toMap(CustomWorkingHours::getWorkDate, c -> c));
+            .map(be -> be.getUser().getId())
+            .toList();
+        if (to.isBefore(from) || employeeIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
 
-        List<EmployeeTimeOffService.TimeOffRange> allTimeOffs = employeeTimeOffService.findOverlappingRanges(
-            businessId,
-            employeeId,
-            overallStart,
-            overallEnd
+        // minden alkalmazott napjai egy körben (táblánként egy lekérdezés), majd alkalmazottanként egy söprés
+        Map<Long, Map<LocalDate, DayAvailability>> daysByEmployee = availabilityCache.getDays(businessId, employeeIds, from, to, zone);
+        Instant now = Instant.now();
+        Map<Long, Map<LocalDate, List<Instant>>> slotsByEmployee = new LinkedHashMap<>();
+        daysByEmployee.forEach((employeeId, days) ->
+            slotsByEmployee.put(employeeId, availabilityEngine.computeAvailableSlots(days, slotLength, now))
         );
 
-        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
-            List<Instant> potentialSlots = new ArrayList<>();
-
-            CustomWorkingHours cwh = customByDate.get(date);
-            if (cwh != null) {
-                generateSlots(potentialSlots, cwh.getStartTime(), cwh.getEndTime(), slotLength);
-            } else {
-                int dayOfWeek = date.getDayOfWeek().getValue();
-                List<WorkingHours> whList = allWorkingHours.stream().filter(wh -> wh.getDayOfWeek().equals(dayOfWeek)).toList();
-                for (WorkingHours wh : whList) {
-                    Instant start = date.atTime(wh.getStartTime()).atZone(zone).toInstant();
-                    Instant end = date.atTime(wh.getEndTime()).atZone(zone).toInstant();
-                    generateSlots(potentialSlots, start, end, slotLength);
-                }
-            }
+        Map<LocalDate, List<StaffAvailableSlotDTO>> result = new LinkedHashMap<>();
+        availabilityEngine
+            .mergeAvailableSlots(slotsByEmployee)
+            .forEach((date, slots) -> {
+                List<StaffAvailableSlotDTO> dtos = new ArrayList<>(slots.size());
+                slots.forEach((start, employees) -> dtos.add(new StaffAvailableSlotDTO(start.toString(), employees)));
+                result.put(date, dtos);
+            });
+        return result;
+    }
 
-            List<Instant> available = potentialSlots
-                .stream()
-                .filter(slot -> !slot.isBefore(now))
-                .filter(slot ->
-                    allAppointments
-                        .stream()
-                        .noneMatch(appt -> slot.isBefore(appt.getEndDate()) && slot.plus(slotLength).isAfter(appt.getStartDate()))
-                )
-                // ÚJ: szabadság/time off szűrés
-                .filter(slot -> allTimeOffs.stream().noneMatch(t -> slot.isBefore(t.end()) && slot.plus(slotLength).isAfter(t.start())))
-                .collect(Collectors.toList());
+    @Override
+    public List<Instant> findNextAvailableSlots(Long businessId, Long employeeId, Long offeringId, Instant after, int n) {
+        Business business = businessRepository.findById(businessId).orElseThrow(() -> new EntityNotFoundException("Business not found"));
+        Offering offering = offeringRepository
+            .findByIdToBusiness(businessId, offeringId)
+            .orElseThrow(() -> new EntityNotFoundException("Offering not found with id: " + offeringId));
+        ZoneId zone = ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : "Europe/Budapest");
+        Duration slotLength = Duration.ofMinutes(offering.getDurationMinutes());
+
+        Instant now = Instant.now();
+        Instant cutoff = after != null && after.isAfter(now) ? after : now;
+        LocalDate from = LocalDate.ofInstant(cutoff, zone);
+        LocalDate last = limitToBookingHorizon(business, zone, from.plusDays(NEXT_SLOTS_MAX_DAYS));
+
+        List<Instant> result = new ArrayList<>(Math.max(n, 0));
+        // növekvő ablakok: 1 nap, 1 hét, majd havonta, amíg meg nincs az n szabad időpont
+        int windowIndex = 0;
+        for (LocalDate windowStart = from; result.size() < n && !windowStart.isAfter(last); ) {
+            int windowDays = NEXT_SLOTS_WINDOW_DAYS[Math.min(windowIndex++, NEXT_SLOTS_WINDOW_DAYS.length - 1)];
+            LocalDate windowEnd = windowStart.plusDays(windowDays - 1L);
+            if (windowEnd.isAfter(last)) {
+                windowEnd = last;
+            }
 
-            if (!available.isEmpty()) {
-                availableSlotsMap.put(date, available);
+            Map<LocalDate, DayAvailability> days = availabilityCache.getDays(businessId, employeeId, windowStart, windowEnd, zone);
+            for (List<Instant> slots : availabilityEngine.computeAvailableSlots(days, slotLength, cutoff).values()) {
+                for (Instant slot : slots) {
+                    if (result.size() == n) {
+                        return result;
+                    }
+                    result.add(slot);
+                }
             }
+            windowStart = windowEnd.plusDays(1);
         }
-
-        return availableSlotsMap;
+        return result;
     }
 
-    /**
-     * Segédmetódus a slotok legenerálásához két időpont között
-     */
-    private void generateSlots(List<Instant> slots, Instant start, Instant end, Duration slotLength) {
-        if (slotLength == null || slotLength.isZero() || slotLength.isNegative()) {
-            LOG.warn("Invalid slotLength provided: {}", slotLength);
-            return;
-        }
-
-        Instant current = start;
-        while (!current.plus(slotLength).isAfter(end)) {
-            slots.add(current);
-            current = current.plus(slotLength);
+    private static LocalDate limitToBookingHorizon(Business business, ZoneId zone, LocalDate to) {
+        Integer maxWeeks = business.getMaxWeeksInAdvance();
+        if (maxWeeks != null && maxWeeks > 0) {
+            LocalDate maxAllowedDate = LocalDate.now(zone).plusWeeks(maxWeeks);
+            if (to.isAfter(maxAllowedDate)) {
+                return maxAllowedDate;
+            }
         }
+        return to;
     }
 
     @Override
@@ -302,6 +350,18 @@ public class AppointmentServiceImpl implements AppointmentService {
             .findByBusinessIdAndEmployeeId(businessId, employeeId)
             .orElseThrow(() -> new GeneralException("Employee not found!", "employee-not-found", HttpStatus.NOT_FOUND));
 
+        // alkalmazott zárolása, így párhuzamos foglalás nem csúszhat be az ellenőrzés és a mentés közé
+        if (
+            !bookingValidator.lockAndCheckFree(
+                employee,
+                createAppointmentRequestDTO.getStartDate(),
+                createAppointmentRequestDTO.getEndDate(),
+                Duration.ZERO
+            )
+        ) {
+            throw new GeneralException("Appointment overlaps another appointment!", "appointment-overlaps", HttpStatus.CONFLICT);
+        }
+
         Appointment appointment = new Appointment();
         appointment.setStartDate(createAppointmentRequestDTO.getStartDate());
         appointment.setEndDate(createAppointmentRequestDTO.getEndDate());
@@ -321,6 +381,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setModifierToken(UUID.randomUUID().toString());
 
         Appointment saved = appointmentRepository.save(appointment);
+        appointmentChanged(saved);
 
         emailService.sendAppointmentReminder(saved.getGuest(), saved);
 
@@ -330,57 +391,29 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     @Transactional
     public AppointmentDTO saveAppointmentByGuest(Long businessId, Long employeeId, CreateAppointmentByGuestDTO dto) {
-        // 1. Business lekérése az elején (kell az időzóna és az approval beállítás miatt)
-        Business business = businessRepository
-            .findById(businessId)
-            .orElseThrow(() -> new EntityNotFoundException("Business not found with id: " + businessId));
+        // 1-3. Cég, alkalmazott és szolgáltatás egyetlen lekérdezéssel (időzóna és approval beállítás is innen)
+        BookingContext context = bookingValidator.loadContext(businessId, employeeId, dto.getOfferingId());
+        Business business = context.business();
+        BusinessEmployee employee = context.employee();
+        Offering offering = context.offering();
+        ZoneId zone = context.zone();
 
-        // Időzóna meghatározása (ha a cégnek nincs megadva, default Europe/Budapest)
-        ZoneId zone = ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : "Europe/Budapest");
+        // Start és End dátum kiszámítása Instant-ként
+        Instant startDate = dto.getDate().atTime(dto.getTime()).atZone(zone).toInstant();
+        Instant endDate = startDate.plusSeconds(offering.getDurationMinutes() * 60L);
 
-        // 2. Ellenőrizzük, hogy a cég nyújtja-e ezt a szolgáltatást
-        if (!offeringRepository.isBusinessHasTheOffer(dto.getOfferingId(), businessId)) {
-            throw new RuntimeException("Business doesn't have the offer with id: " + dto.getOfferingId());
+        // 4. Szabad hely ellenőrzése a gyorsítótárazott napi rácson
+        if (!bookingValidator.isSlotAvailable(context, dto.getDate(), dto.getTime())) {
+            throw new BadRequestAlertException("Appointment is reserved or outside working hours!", null, "appointment.reserved");
         }
 
-        // 3. Alkalmazott létezésének ellenőrzése
-        BusinessEmployee employee = businessEmployeeRepository
-            .findByBusinessIdAndEmployeeId(businessId, employeeId)
-            .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
-
-        // 4. Szabad hely ellenőrzése (átadjuk a kinyert zónát)
-        if (!isSlotAvailable(businessId, employeeId, dto.getDate(), dto.getTime(), dto.getOfferingId(), zone)) {
+        // 4/b. Alkalmazott zárolása a tranzakció végéig, majd ütközés ellenőrzése a már mentett foglalásokkal
+        if (!bookingValidator.lockAndCheckFree(employee, startDate, endDate, context.breakBetweenAppointments())) {
             throw new BadRequestAlertException("Appointment is reserved or outside working hours!", null, "appointment.reserved");
         }
 
         // 5. Vendég kezelése
-        Guest guest = guestRepository
-            .findByEmailByBusinessId(dto.getEmail(), business.getId())
-            .map(existingGuest -> {
-                boolean hasChanged = false;
-
-                if (!Objects.equals(existingGuest.getName(), dto.getName())) {
-                    existingGuest.setName(dto.getName());
-                    hasChanged = true;
-                }
-
-                if (!Objects.equals(existingGuest.getPhoneNumber(), dto.getPhoneNumber())) {
-                    existingGuest.setPhoneNumber(dto.getPhoneNumber());
-                    hasChanged = true;
-                }
-
-                return hasChanged ? guestRepository.save(existingGuest) : existingGuest;
-            })
-            .orElseGet(() -> {
-                //if user not exists for the business
-                Guest newGuest = new Guest();
-                newGuest.setEmail(dto.getEmail());
-                newGuest.setName(dto.getName());
-                newGuest.setPhoneNumber(dto.getPhoneNumber());
-                newGuest.setBusinessEmployee(employee);
-                newGuest.setCanBook(true);
-                return guestRepository.save(newGuest);
-            });
+        Guest guest = bookingValidator.time(BookingValidator.Step.GUEST, () -> upsertGuest(business, employee, dto));
 
         if (!guest.getCanBook()) {
             throw new BadRequestAlertException("Guest can't book!", null, "guest.cantbook");
@@ -390,30 +423,26 @@ public class AppointmentServiceImpl implements AppointmentService {
         Appointment appointment = new Appointment();
         appointment.setGuest(guest);
         appointment.setBusinessEmployee(employee);
-
-        Offering offering = offeringRepository.findById(dto.getOfferingId()).orElseThrow(() -> new RuntimeException("No offering found"));
         appointment.setOffering(offering);
 
         // Státusz beállítása
         appointment.setStatus(business.getAppointmentApprovalRequired() ? AppointmentStatus.PENDING : AppointmentStatus.CONFIRMED);
 
-        // Start és End dátum kiszámítása Instant-ként
-        Instant startDate = dto.getDate().atTime(dto.getTime()).atZone(zone).toInstant();
-        Instant endDate = startDate.plusSeconds(offering.getDurationMinutes() * 60L);
-
         appointment.setStartDate(startDate);
         appointment.setEndDate(endDate);
         appointment.setModifierToken(UUID.randomUUID().toString());
 
         // saving - notifications - email reminders
-        Appointment savedAppointment;
-
-        try {
-            savedAppointment = appointmentRepository.save(appointment);
-            appointmentRepository.flush();
-        } catch (DataIntegrityViolationException e) {
-            throw new BadRequestAlertException("Appointment is reserved!", null, "appointment.reserved");
-        }
+        Appointment savedAppointment = bookingValidator.time(BookingValidator.Step.PERSIST, () -> {
+            try {
+                Appointment saved = appointmentRepository.save(appointment);
+                appointmentRepository.flush();
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                throw new BadRequestAlertException("Appointment is reserved!", null, "appointment.reserved");
+            }
+        });
+        appointmentChanged(savedAppointment);
 
         eventPublisher.publishEvent(savedAppointment);
         eventPublisher.publishEvent(
@@ -433,6 +462,65 @@ public class AppointmentServiceImpl implements AppointmentService {
         return appointmentMapper.toDto(savedAppointment);
     }
 
+    private Guest upsertGuest(Business business, BusinessEmployee employee, CreateAppointmentByGuestDTO dto) {
+        return guestRepository
+            .findByEmailByBusinessId(dto.getEmail(), business.getId())
+            .map(existingGuest -> {
+                boolean hasChanged = false;
+
+                if (!Objects.equals(existingGuest.getName(), dto.getName())) {
+                    existingGuest.setName(dto.getName());
+                    hasChanged = true;
+                }
+
+                if (!Objects.equals(existingGuest.getPhoneNumber(), dto.getPhoneNumber())) {
+                    existingGuest.setPhoneNumber(dto.getPhoneNumber());
+                    hasChanged = true;
+                }
+
+                return hasChanged ? guestRepository.save(existingGuest) : existingGuest;
+            })
+            .orElseGet(() -> {
+                //if user not exists for the business
+                Guest newGuest = new Guest();
+                newGuest.setEmail(dto.getEmail());
+                newGuest.setName(dto.getName());
+                newGuest.setPhoneNumber(dto.getPhoneNumber());
+                newGuest.setBusinessEmployee(employee);
+                newGuest.setCanBook(true);
+                Guest savedGuest = guestRepository.save(newGuest);
+                eventPublisher.publishEvent(new StatisticsChangedEvent(business.getId(), employee.getId(), Instant.now()));
+                return savedGuest;
+            });
+    }
+
+    // az elérhetőségi cache és a napi statisztika is a foglalás napjához kötött
+    private void appointmentChanged(Appointment appointment) {
+        availabilityCache.evictAppointment(appointment);
+        recordGuestVisit(appointment);
+        statisticsChanged(appointment);
+    }
+
+    // a vendég első foglalásának kezdete csak korábbra mozdulhat, a visszatérő vendégek számlálása ehhez hasonlít
+    private void recordGuestVisit(Appointment appointment) {
+        if (
+            appointment != null &&
+            appointment.getGuest() != null &&
+            appointment.getStartDate() != null &&
+            appointment.getStatus() != AppointmentStatus.DELETED
+        ) {
+            guestRepository.recordVisit(appointment.getGuest().getId(), appointment.getStartDate());
+        }
+    }
+
+    private void statisticsChanged(Appointment appointment) {
+        if (appointment != null && appointment.getBusinessEmployee() != null) {
+            BusinessEmployee employee = appointment.getBusinessEmployee();
+            Long businessId = employee.getBusiness() != null ? employee.getBusiness().getId() : null;
+            eventPublisher.publishEvent(new StatisticsChangedEvent(businessId, employee.getId(), appointment.getStartDate()));
+        }
+    }
+
     //get and appointment by guest name and appointment ID
     @Override
     public AppointmentDTO getAppointmentByModifierToken(String token) {
@@ -450,6 +538,7 @@ public class AppointmentServiceImpl implements AppointmentService {
             .orElseThrow(() -> new EntityNotFoundException("Appointment not found"));
         appointment.setStatus(AppointmentStatus.CANCELLED);
         appointmentRepository.save(appointment);
+        appointmentChanged(appointment);
 
         //send notification to businessEmployee
         eventPublisher.publishEvent(
@@ -487,7 +576,10 @@ public class AppointmentServiceImpl implements AppointmentService {
             .orElseThrow(() -> new EntityNotFoundException("appointment"));
         appointment.setStatus(AppointmentStatus.CONFIRMED);
         appointmentReminderService.scheduleEmailReminder(appointment);
-        return appointmentMapper.toDto(appointmentRepository.save(appointment));
+        Appointment saved = appointmentRepository.save(appointment);
+        // a foglalt idősáv nem változik, csak a bevétel
+        statisticsChanged(saved);
+        return appointmentMapper.toDto(saved);
     }
 
     @Override
@@ -514,7 +606,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         );
         //sending email
         emailService.sendEmailCancelled(appointment);
-        return appointmentMapper.toDto(appointmentRepository.save(appointment));
+        Appointment saved = appointmentRepository.save(appointment);
+        appointmentChanged(saved);
+        return appointmentMapper.toDto(saved);
     }
 
     //thats for global search
@@ -535,75 +629,9 @@ public class AppointmentServiceImpl implements AppointmentService {
             .findById(offeringId)
             .orElseThrow(() -> new EntityNotFoundException("Offering not found with id: " + offeringId));
 
-        // 1. Slot kiszámítása a cég időzónájában, majd konvertálás Instant-ra
+        // Slot kiszámítása a cég időzónájában, majd konvertálás Instant-ra
         Instant slotStart = date.atTime(time).atZone(zone).toInstant();
         Instant slotEnd = slotStart.plusSeconds(offering.getDurationMinutes() * 60L);
-
-        // 2. Múlt kizárása (azonnali ellenőrzés UTC szerint)
-        if (slotStart.isBefore(Instant.now())) {
-            LOG.debug("Booking attempt in the past: {}", slotStart);
-            return false;
-        }
-
-        // 3. Meglévő foglalások (Appointments) ellenőrzése
-        Instant dayStart = date.atStartOfDay(zone).toInstant();
-        Instant dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant();
-
-        List<Appointment> appointments = appointmentRepository.findByBusinessIdAndEmployeeIdAndDateRange(
-            businessId,
-            employeeId,
-            dayStart,
-            dayEnd
-        );
-
-        boolean overlaps = appointments.stream().anyMatch(a -> slotStart.isBefore(a.getEndDate()) && slotEnd.isAfter(a.getStartDate()));
-
-        if (overlaps) {
-            LOG.debug("Slot overlaps with existing appointment for employee {}", employeeId);
-            return false;
-        }
-
-        List<EmployeeTimeOffService.TimeOffRange> timeOffs = employeeTimeOffService.findOverlappingRanges(
-            businessId,
-            employeeId,
-            slotStart,
-            slotEnd
-        );
-
-        boolean onTimeOff = timeOffs.stream().anyMatch(t -> slotStart.isBefore(t.end()) && slotEnd.isAfter(t.start()));
-
-        if (onTimeOff) {
-            LOG.debug("Slot overlaps with employee time off for employee {}", employeeId);
-            return false;
-        }
-
-        // 4. Munkaidő ellenőrzése (Egyedi munkaidő elsőbbséget élvez)
-        Optional<CustomWorkingHours> customOpt = customWorkingHoursRepository.findByBusinessIdAndEmployeeIdAndWorkDate(
-            businessId,
-            employeeId,
-            date
-        );
-
-        if (customOpt.isPresent()) {
-            CustomWorkingHours cwh = customOpt.get();
-            // Feltételezzük, hogy a DB-ben a CustomWorkingHours már Instant (UTC)
-            return !slotStart.isBefore(cwh.getStartTime()) && !slotEnd.isAfter(cwh.getEndTime());
-        }
-
-        // 5. Alapértelmezett munkaidő ellenőrzése
-        int dow = date.getDayOfWeek().getValue();
-        List<WorkingHours> whList = workingHoursRepository.findByBusinessIdAndEmployeeIdAndDayOfWeek(businessId, employeeId, dow);
-
-        for (WorkingHours wh : whList) {
-            Instant whStart = date.atTime(wh.getStartTime()).atZone(zone).toInstant();
-            Instant whEnd = date.atTime(wh.getEndTime()).atZone(zone).toInstant();
-
-            if (!slotStart.isBefore(whStart) && !slotEnd.isAfter(whEnd)) {
-                return true;
-            }
-        }
-
-        LOG.debug("No working hours defined or slot is outside of working hours for employee {}", employeeId);
-        return false;
+        return bookingValidator.isSlotAvailable(businessId, employeeId, date, slotStart, slotEnd, zone);
     }
 }
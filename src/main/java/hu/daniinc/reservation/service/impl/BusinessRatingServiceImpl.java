@@ -3,12 +3,18 @@ package hu.daniinc.reservation.service.impl;
 import hu.daniinc.reservation.domain.BusinessRating;
 import hu.daniinc.reservation.repository.BusinessRatingRepository;
 import hu.daniinc.reservation.service.BusinessRatingService;
+import hu.daniinc.reservation.service.RatingAggregateService;
+import hu.daniinc.reservation.service.RatingAggregateService.RatingSnapshot;
 import hu.daniinc.reservation.service.dto.BusinessRatingDTO;
 import hu.daniinc.reservation.service.dto.BusinessRatingSummaryDTO;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
+import hu.daniinc.reservation.service.dto.StatisticsChangedEvent;
 import hu.daniinc.reservation.service.mapper.BusinessRatingMapper;
+import java.time.Instant;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,24 +33,44 @@ public class BusinessRatingServiceImpl implements BusinessRatingService {
 
     private final BusinessRatingMapper businessRatingMapper;
 
-    public BusinessRatingServiceImpl(BusinessRatingRepository businessRatingRepository, BusinessRatingMapper businessRatingMapper) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final RatingAggregateService ratingAggregateService;
+
+    public BusinessRatingServiceImpl(
+        BusinessRatingRepository businessRatingRepository,
+        BusinessRatingMapper businessRatingMapper,
+        ApplicationEventPublisher eventPublisher,
+        RatingAggregateService ratingAggregateService
+    ) {
         this.businessRatingRepository = businessRatingRepository;
         this.businessRatingMapper = businessRatingMapper;
+        this.eventPublisher = eventPublisher;
+        this.ratingAggregateService = ratingAggregateService;
     }
 
     @Override
     public BusinessRatingDTO save(BusinessRatingDTO businessRatingDTO) {
         LOG.debug("Request to save BusinessRating : {}", businessRatingDTO);
         BusinessRating businessRating = businessRatingMapper.toEntity(businessRatingDTO);
+        // a havi összesítő a létrehozás hónapjába számolja
+        if (businessRating.getCreatedDate() == null) {
+            businessRating.setCreatedDate(Instant.now());
+        }
         businessRating = businessRatingRepository.save(businessRating);
+        ratingAggregateService.ratingAdded(RatingSnapshot.of(businessRating));
+        ratingChanged(businessRating);
         return businessRatingMapper.toDto(businessRating);
     }
 
     @Override
     public BusinessRatingDTO update(BusinessRatingDTO businessRatingDTO) {
         LOG.debug("Request to update BusinessRating : {}", businessRatingDTO);
+        RatingSnapshot before = businessRatingRepository.findById(businessRatingDTO.getId()).map(RatingSnapshot::of).orElse(null);
         BusinessRating businessRating = businessRatingMapper.toEntity(businessRatingDTO);
         businessRating = businessRatingRepository.save(businessRating);
+        ratingAggregateService.ratingChanged(before, snapshotAfter(before, businessRating));
+        ratingChanged(businessRating);
         return businessRatingMapper.toDto(businessRating);
     }
 
@@ -55,12 +81,16 @@ public class BusinessRatingServiceImpl implements BusinessRatingService {
         return businessRatingRepository
             .findById(businessRatingDTO.getId())
             .map(existingBusinessRating -> {
+                RatingSnapshot before = RatingSnapshot.of(existingBusinessRating);
                 businessRatingMapper.partialUpdate(existingBusinessRating, businessRatingDTO);
-
-                return existingBusinessRating;
+                BusinessRating saved = businessRatingRepository.save(existingBusinessRating);
+                ratingAggregateService.ratingChanged(before, snapshotAfter(before, saved));
+                return saved;
             })
-            .map(businessRatingRepository::save)
-            .map(businessRatingMapper::toDto);
+            .map(saved -> {
+                ratingChanged(saved);
+                return businessRatingMapper.toDto(saved);
+            });
     }
 
     @Override
@@ -80,6 +110,12 @@ public class BusinessRatingServiceImpl implements BusinessRatingService {
     @Override
     public void delete(Long id) {
         LOG.debug("Request to delete BusinessRating : {}", id);
+        businessRatingRepository
+            .findById(id)
+            .ifPresent(rating -> {
+                ratingAggregateService.ratingRemoved(RatingSnapshot.of(rating));
+                ratingChanged(rating);
+            });
         businessRatingRepository.deleteById(id);
     }
 
@@ -90,6 +126,23 @@ public class BusinessRatingServiceImpl implements BusinessRatingService {
 
     @Override
     public Double getAverageRatingForBusiness(Long businessId) {
-        return businessRatingRepository.getAverageRatingForBusiness(businessId);
+        return ratingAggregateService.getAggregate(businessId).getAverage();
+    }
+
+    @Override
+    public RatingAggregateDTO getRatingAggregate(Long businessId) {
+        return ratingAggregateService.getAggregate(businessId);
+    }
+
+    // a létrehozás ideje nem módosítható, a DTO-ból érkező érték helyett a tárolt számít
+    private static RatingSnapshot snapshotAfter(RatingSnapshot before, BusinessRating saved) {
+        RatingSnapshot after = RatingSnapshot.of(saved);
+        return before != null ? new RatingSnapshot(after.businessId(), after.star(), before.createdDate()) : after;
+    }
+
+    // a statisztika oldal átlagértékelése is változik
+    private void ratingChanged(BusinessRating businessRating) {
+        Long businessId = businessRating.getBusiness() != null ? businessRating.getBusiness().getId() : null;
+        eventPublisher.publishEvent(StatisticsChangedEvent.ofBusiness(businessId));
     }
 }
@@ -4,6 +4,7 @@ import hu.daniinc.reservation.domain.Business;
 import hu.daniinc.reservation.domain.enumeration.BusinessTheme;
 import hu.daniinc.reservation.repository.BusinessRepository;
 import hu.daniinc.reservation.service.BusinessService;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
 import hu.daniinc.reservation.service.dto.BusinessDTO;
 import hu.daniinc.reservation.service.mapper.BusinessMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -34,9 +35,12 @@ public class BusinessServiceImpl implements BusinessService {
 
     private final BusinessMapper businessMapper;
 
-    public BusinessServiceImpl(BusinessRepository businessRepository, BusinessMapper businessMapper) {
+    private final AvailabilityCache availabilityCache;
+
+    public BusinessServiceImpl(BusinessRepository businessRepository, BusinessMapper businessMapper, AvailabilityCache availabilityCache) {
         this.businessRepository = businessRepository;
         this.businessMapper = businessMapper;
+        this.availabilityCache = availabilityCache;
     }
 
     @Override
@@ -52,6 +56,7 @@ public class BusinessServiceImpl implements BusinessService {
         LOG.debug("Request to update Business : {}", businessDTO);
         Business business = businessMapper.toEntity(businessDTO);
         business = businessRepository.save(business);
+        availabilityCache.evictBusiness(business.getId());
         return businessMapper.toDto(business);
     }
 
@@ -67,7 +72,10 @@ public class BusinessServiceImpl implements BusinessService {
                 return existingBusiness;
             })
             .map(businessRepository::save)
-            .map(businessMapper::toDto);
+            .map(saved -> {
+                availabilityCache.evictBusiness(saved.getId());
+                return businessMapper.toDto(saved);
+            });
     }
 
     @Override
@@ -3,6 +3,7 @@ package hu.daniinc.reservation.service.impl;
 import hu.daniinc.reservation.domain.CustomWorkingHours;
 import hu.daniinc.reservation.repository.CustomWorkingHoursRepository;
 import hu.daniinc.reservation.service.CustomWorkingHoursService;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
 import hu.daniinc.reservation.service.dto.CustomWorkingHoursDTO;
 import hu.daniinc.reservation.service.mapper.CustomWorkingHoursMapper;
 import java.util.Optional;
@@ -26,12 +27,16 @@ public class CustomWorkingHoursServiceImpl implements CustomWorkingHoursService
 
     private final CustomWorkingHoursMapper customWorkingHoursMapper;
 
+    private final AvailabilityCache availabilityCache;
+
     public CustomWorkingHoursServiceImpl(
         CustomWorkingHoursRepository customWorkingHoursRepository,
-        CustomWorkingHoursMapper customWorkingHoursMapper
+        CustomWorkingHoursMapper customWorkingHoursMapper,
+        AvailabilityCache availabilityCache
     ) {
         this.customWorkingHoursRepository = customWorkingHoursRepository;
         this.customWorkingHoursMapper = customWorkingHoursMapper;
+        this.availabilityCache = availabilityCache;
     }
 
     @Override
@@ -39,14 +44,17 @@ public class CustomWorkingHoursServiceImpl implements CustomWorkingHoursService
         LOG.debug("Request to save CustomWorkingHours : {}", customWorkingHoursDTO);
         CustomWorkingHours customWorkingHours = customWorkingHoursMapper.toEntity(customWorkingHoursDTO);
         customWorkingHours = customWorkingHoursRepository.save(customWorkingHours);
+        evictAvailability(customWorkingHours);
         return customWorkingHoursMapper.toDto(customWorkingHours);
     }
 
     @Override
     public CustomWorkingHoursDTO update(CustomWorkingHoursDTO customWorkingHoursDTO) {
         LOG.debug("Request to update CustomWorkingHours : {}", customWorkingHoursDTO);
+        customWorkingHoursRepository.findById(customWorkingHoursDTO.getId()).ifPresent(this::evictAvailability);
         CustomWorkingHours customWorkingHours = customWorkingHoursMapper.toEntity(customWorkingHoursDTO);
         customWorkingHours = customWorkingHoursRepository.save(customWorkingHours);
+        evictAvailability(customWorkingHours);
         return customWorkingHoursMapper.toDto(customWorkingHours);
     }
 
@@ -57,12 +65,16 @@ public class CustomWorkingHoursServiceImpl implements CustomWorkingHoursService
         return customWorkingHoursRepository
             .findById(customWorkingHoursDTO.getId())
             .map(existingCustomWorkingHours -> {
+                evictAvailability(existingCustomWorkingHours);
                 customWorkingHoursMapper.partialUpdate(existingCustomWorkingHours, customWorkingHoursDTO);
 
                 return existingCustomWorkingHours;
             })
             .map(customWorkingHoursRepository::save)
-            .map(customWorkingHoursMapper::toDto);
+            .map(saved -> {
+                evictAvailability(saved);
+                return customWorkingHoursMapper.toDto(saved);
+            });
     }
 
     @Override
@@ -82,6 +94,11 @@ public class CustomWorkingHoursServiceImpl implements CustomWorkingHoursService
     @Override
     public void delete(Long id) {
         LOG.debug("Request to delete CustomWorkingHours : {}", id);
+        customWorkingHoursRepository.findById(id).ifPresent(this::evictAvailability);
         customWorkingHoursRepository.deleteById(id);
     }
+
+    private void evictAvailability(CustomWorkingHours customWorkingHours) {
+        availabilityCache.evictDay(customWorkingHours.getBusinessEmployee(), customWorkingHours.getWorkDate());
+    }
 }
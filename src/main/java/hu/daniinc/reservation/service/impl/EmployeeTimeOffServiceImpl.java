@@ -12,6 +12,7 @@ import hu.daniinc.reservation.repository.EmployeeTimeOffRepository;
 import hu.daniinc.reservation.service.BusinessEmployeeService;
 import hu.daniinc.reservation.service.EmployeeTimeOffService;
 import hu.daniinc.reservation.service.UserService;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
 import hu.daniinc.reservation.service.dto.CreateTimeOffDTO;
 import hu.daniinc.reservation.service.dto.EmployeeTimeOffDTO;
 import hu.daniinc.reservation.service.mapper.EmployeeTimeOffMapper;
@@ -40,6 +41,7 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
     private final EmployeeTimeOffMapper employeeTimeOffMapper;
     private final UserService userService;
     private final BusinessEmployeeService businessEmployeeService;
+    private final AvailabilityCache availabilityCache;
 
     public EmployeeTimeOffServiceImpl(
         EmployeeTimeOffRepository employeeTimeOffRepository,
@@ -47,7 +49,8 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
         BusinessRepository businessRepository,
         EmployeeTimeOffMapper employeeTimeOffMapper,
         UserService userService,
-        BusinessEmployeeService businessEmployeeService
+        BusinessEmployeeService businessEmployeeService,
+        AvailabilityCache availabilityCache
     ) {
         this.employeeTimeOffRepository = employeeTimeOffRepository;
         this.businessEmployeeRepository = businessEmployeeRepository;
@@ -55,6 +58,7 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
         this.employeeTimeOffMapper = employeeTimeOffMapper;
         this.userService = userService;
         this.businessEmployeeService = businessEmployeeService;
+        this.availabilityCache = availabilityCache;
     }
 
     @Override
@@ -79,6 +83,7 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
         checkNoOverlap(businessId, employeeId, entity.getStartInstant(), entity.getEndInstant(), null);
 
         EmployeeTimeOff saved = employeeTimeOffRepository.save(entity);
+        availabilityCache.evictRange(employee, saved.getStartInstant(), saved.getEndInstant());
         return employeeTimeOffMapper.toDto(saved);
     }
 
@@ -111,6 +116,8 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
 
         ZoneId zone = ZoneId.of(business.getTimeZone() != null ? business.getTimeZone() : "Europe/Budapest");
 
+        availabilityCache.evictRange(existing.getBusinessEmployee(), existing.getStartInstant(), existing.getEndInstant());
+
         existing.setStartDate(dto.getStartDate());
         existing.setEndDate(dto.getEndDate());
         existing.setStartTime(dto.getStartTime());
@@ -123,6 +130,7 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
         checkNoOverlap(businessId, businessEmployee.getId(), existing.getStartInstant(), existing.getEndInstant(), existing.getId());
 
         EmployeeTimeOff saved = employeeTimeOffRepository.save(existing);
+        availabilityCache.evictRange(businessEmployee, saved.getStartInstant(), saved.getEndInstant());
         return employeeTimeOffMapper.toDto(saved);
     }
 
@@ -144,6 +152,7 @@ public class EmployeeTimeOffServiceImpl implements EmployeeTimeOffService {
             .orElseThrow(() -> new EntityNotFoundException("Time off not found with id: " + id));
         existing.setStatus(TimeOffStatus.DELETED);
         employeeTimeOffRepository.save(existing);
+        availabilityCache.evictRange(existing.getBusinessEmployee(), existing.getStartInstant(), existing.getEndInstant());
     }
 
     @Override
@@ -7,9 +7,11 @@ import hu.daniinc.reservation.repository.GuestRepository;
 import hu.daniinc.reservation.service.GuestService;
 import hu.daniinc.reservation.service.UserService;
 import hu.daniinc.reservation.service.dto.GuestDTO;
+import hu.daniinc.reservation.service.dto.StatisticsChangedEvent;
 import hu.daniinc.reservation.service.mapper.GuestMapper;
 import hu.daniinc.reservation.service.specifications.GuestSpecification;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
+import java.time.Instant;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +19,7 @@ import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -39,17 +42,20 @@ public class GuestServiceImpl implements GuestService {
     private final GuestMapper guestMapper;
     private final BusinessEmployeeRepository businessEmployeeRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public GuestServiceImpl(
         GuestRepository guestRepository,
         GuestMapper guestMapper,
         BusinessEmployeeRepository businessEmployeeRepository,
-        UserService userService
+        UserService userService,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.guestRepository = guestRepository;
         this.guestMapper = guestMapper;
         this.businessEmployeeRepository = businessEmployeeRepository;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -64,6 +70,7 @@ public class GuestServiceImpl implements GuestService {
             .orElseThrow(() -> new GeneralException("business-employee-not-found", "business-employee-not-found", HttpStatus.NOT_FOUND));
         guest.setBusinessEmployee(be);
         guest = guestRepository.save(guest);
+        eventPublisher.publishEvent(new StatisticsChangedEvent(businessId, be.getId(), Instant.now()));
         return guestMapper.toDto(guest);
     }
 
@@ -72,6 +79,7 @@ public class GuestServiceImpl implements GuestService {
         LOG.debug("Request to update Guest : {}", guestDTO);
         Guest guest = guestMapper.toEntity(guestDTO);
         guest = guestRepository.save(guest);
+        guestChanged(guest);
         return guestMapper.toDto(guest);
     }
 
@@ -87,7 +95,10 @@ public class GuestServiceImpl implements GuestService {
                 return existingGuest;
             })
             .map(guestRepository::save)
-            .map(guestMapper::toDto);
+            .map(saved -> {
+                guestChanged(saved);
+                return guestMapper.toDto(saved);
+            });
     }
 
     @Override
@@ -120,9 +131,17 @@ public class GuestServiceImpl implements GuestService {
     @Override
     public void delete(Long id) {
         LOG.debug("Request to delete Guest : {}", id);
+        guestRepository.findById(id).ifPresent(this::guestChanged);
         guestRepository.deleteById(id);
     }
 
+    // a vendég neve a toplistákon is megjelenik, ezért az üzlet statisztikái érvénytelenek lesznek
+    private void guestChanged(Guest guest) {
+        BusinessEmployee be = guest.getBusinessEmployee();
+        Long businessId = be != null && be.getBusiness() != null ? be.getBusiness().getId() : null;
+        eventPublisher.publishEvent(StatisticsChangedEvent.ofBusiness(businessId));
+    }
+
     @Override
     public List<GuestDTO> findAllBySearchString(Long businessId, String searchString) {
         return guestRepository.searchByName(businessId, searchString).stream().map(guestMapper::toDto).collect(Collectors.toList());
@@ -6,18 +6,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import hu.daniinc.reservation.domain.BusinessEmployee;
 import hu.daniinc.reservation.domain.Notification;
 import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
 import hu.daniinc.reservation.repository.NotificationRepository;
 import hu.daniinc.reservation.service.BusinessEmployeeService;
 import hu.daniinc.reservation.service.NotificationService;
-import hu.daniinc.reservation.service.SseEmitterService;
+import hu.daniinc.reservation.service.NotificationWriteBuffer;
+import hu.daniinc.reservation.service.UnreadNotificationCounts;
 import hu.daniinc.reservation.service.UserService;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
 import hu.daniinc.reservation.service.dto.NotificationDTO;
 import hu.daniinc.reservation.service.dto.NotificationEventDTO;
 import hu.daniinc.reservation.service.mapper.BusinessEmployeeMapper;
 import hu.daniinc.reservation.service.mapper.NotificationMapper;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -26,18 +29,25 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(NotificationServiceImpl.class);
+
+    private static final String UNREAD_COUNT_CHANGED = "notification.unread-count-changed";
+
     private final NotificationRepository notificationRepository;
-    private final SseEmitterService sseEmitterService;
+    private final NotificationWriteBuffer notificationWriteBuffer;
+    private final UnreadNotificationCounts unreadNotificationCounts;
+    private final NotificationBus notificationBus;
+    private final BusinessEmployeeRepository businessEmployeeRepository;
     private final ObjectMapper objectMapper;
     private final NotificationMapper notificationMapper;
     private final UserService userService;
@@ -46,7 +56,10 @@ public class NotificationServiceImpl implements NotificationService {
 
     public NotificationServiceImpl(
         NotificationRepository notificationRepository,
-        SseEmitterService sseEmitterService,
+        NotificationWriteBuffer notificationWriteBuffer,
+        UnreadNotificationCounts unreadNotificationCounts,
+        NotificationBus notificationBus,
+        BusinessEmployeeRepository businessEmployeeRepository,
         ObjectMapper objectMapper,
         NotificationMapper notificationMapper,
         UserService userService,
@@ -54,7 +67,10 @@ public class NotificationServiceImpl implements NotificationService {
         BusinessEmployeeService businessEmployeeService
     ) {
         this.notificationRepository = notificationRepository;
-        this.sseEmitterService = sseEmitterService;
+        this.notificationWriteBuffer = notificationWriteBuffer;
+        this.unreadNotificationCounts = unreadNotificationCounts;
+        this.notificationBus = notificationBus;
+        this.businessEmployeeRepository = businessEmployeeRepository;
         this.objectMapper = objectMapper;
         this.notificationMapper = notificationMapper;
         this.userService = userService;
@@ -62,37 +78,21 @@ public class NotificationServiceImpl implements NotificationService {
         this.businessEmployeeService = businessEmployeeService;
     }
 
-    @Async
+    /**
+     * Runs on the committing thread: it only queues the notification, which {@link NotificationWriteBuffer} writes
+     * in batches, each in a new transaction, and pushes to the user after the insert committed. A full buffer holds
+     * the thread back for its submit timeout at most, then the notification is dropped.
+     */
     @Override
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handle(NotificationEventDTO event) {
         try {
-            // save to DB
             Notification notification = new Notification();
             notification.setBusinessEmployee(businessEmployeeMapper.toEntity(event.getBusinessEmployee()));
             notification.setType(event.getType());
             notification.setData(objectMapper.writeValueAsString(event.getData()));
             notification.setRead(false);
-            notificationRepository.save(notification);
-
-            // send to client
-            sseEmitterService.sendToUser(
-                event.getBusinessEmployee().getUser().getId(),
-                Map.of(
-                    "id",
-                    notification.getId(),
-                    "type",
-                    event.getType(),
-                    "data",
-                    event.getData(),
-                    "read",
-                    false,
-                    "createdAt",
-                    notification.getCreatedAt(),
-                    "businessEmployeeId",
-                    notification.getBusinessEmployee().getId()
-                )
-            );
+            notificationWriteBuffer.submit(notification, event.getBusinessEmployee().getUser().getId(), event.getData());
         } catch (Exception e) {
             LOG.error("Notification handling failed", e);
         }
@@ -127,25 +127,63 @@ public class NotificationServiceImpl implements NotificationService {
             .findByIdAndBusinessEmployeeAndUser(notificationId, businessEmployeeId, user)
             .orElseThrow(() ->
                 new GeneralException("Notification not found or access denied", "notification-not-found", HttpStatus.NOT_FOUND)
-            )
-            .setRead(true);
+            );
+        // csak az számít, ami tényleg olvasatlan volt; párhuzamos jelölésnél egyszer csökken
+        int changed = notificationRepository.markAsRead(notificationId, businessEmployeeId);
+        changeUnreadCount(businessEmployeeId, user, -changed);
+    }
+
+    @Override
+    @Transactional
+    public void markAllAsRead(Long businessEmployeeId, User user) {
+        if (!businessEmployeeRepository.isOfUser(businessEmployeeId, user.getId())) {
+            throw new GeneralException("Access denied", "access-denied", HttpStatus.FORBIDDEN);
+        }
+        int changed = notificationRepository.markAllAsRead(businessEmployeeId);
+        changeUnreadCount(businessEmployeeId, user, -changed);
     }
 
     @Override
     public long getUnreadCount(Long businessEmployeeId, User user) {
-        return notificationRepository.countUnreadByBusinessEmployeeAndUser(businessEmployeeId, user);
+        return unreadNotificationCounts.get(user.getId(), businessEmployeeId);
     }
 
     @Override
     public Map<Long, Long> getUnreadCountsByBusiness(User user) {
-        return notificationRepository
-            .countUnreadGroupedByBusinessEmployee(user)
-            .stream()
-            .collect(
-                Collectors.toMap(
-                    row -> (Long) row[0], // businessEmployee id
-                    row -> (Long) row[1] // unread count
-                )
-            );
+        return unreadNotificationCounts.getByUser(user.getId());
+    }
+
+    /**
+     * Adjusts the counter and, after the commit, pushes the change with the new count to the user.
+     */
+    private void changeUnreadCount(Long businessEmployeeId, User user, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        businessEmployeeRepository.addUnreadNotifications(businessEmployeeId, delta);
+        long unreadCount = businessEmployeeRepository.findUnreadNotificationCount(businessEmployeeId).orElse(0L);
+        Map<String, Object> payload = Map.of(
+            "type",
+            UNREAD_COUNT_CHANGED,
+            "businessEmployeeId",
+            businessEmployeeId,
+            "delta",
+            delta,
+            "unreadCount",
+            unreadCount
+        );
+        Runnable push = () -> notificationBus.publish(BusMessage.SSE, user.getId().toString(), payload);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            push.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    push.run();
+                }
+            }
+        );
     }
 }
@@ -8,6 +8,7 @@ import hu.daniinc.reservation.repository.OfferingRepository;
 import hu.daniinc.reservation.service.OfferingService;
 import hu.daniinc.reservation.service.UserService;
 import hu.daniinc.reservation.service.dto.OfferingDTO;
+import hu.daniinc.reservation.service.dto.StatisticsChangedEvent;
 import hu.daniinc.reservation.service.mapper.OfferingMapper;
 import hu.daniinc.reservation.service.specifications.OfferingSpecification;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
@@ -17,6 +18,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -39,17 +41,20 @@ public class OfferingServiceImpl implements OfferingService {
     private final OfferingMapper offeringMapper;
     private final BusinessEmployeeRepository businessEmployeeRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OfferingServiceImpl(
         OfferingRepository offeringRepository,
         OfferingMapper offeringMapper,
         BusinessEmployeeRepository businessEmployeeRepository,
-        UserService userService
+        UserService userService,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.offeringRepository = offeringRepository;
         this.offeringMapper = offeringMapper;
         this.businessEmployeeRepository = businessEmployeeRepository;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -73,6 +78,8 @@ public class OfferingServiceImpl implements OfferingService {
         LOG.debug("Request to update Offering : {}", offeringDTO);
         Offering offering = offeringMapper.toEntity(offeringDTO);
         offering = offeringRepository.save(offering);
+        // a top szolgáltatások listája a nevet mutatja
+        eventPublisher.publishEvent(StatisticsChangedEvent.ofBusiness(null));
         return offeringMapper.toDto(offering);
     }
 
@@ -99,6 +106,7 @@ public class OfferingServiceImpl implements OfferingService {
 
         // 5. Mentés + DTO vissza
         Offering saved = offeringRepository.save(offering);
+        eventPublisher.publishEvent(StatisticsChangedEvent.ofBusiness(businessId));
         return Optional.of(offeringMapper.toDto(saved));
     }
 
@@ -125,6 +133,7 @@ public class OfferingServiceImpl implements OfferingService {
             .orElseThrow(() -> new EntityNotFoundException("Offering not found for id : " + offerId));
         offering.setStatus(BasicEntityStatus.DELETED);
         offeringRepository.save(offering);
+        eventPublisher.publishEvent(StatisticsChangedEvent.ofBusiness(businessId));
     }
 
     @Override
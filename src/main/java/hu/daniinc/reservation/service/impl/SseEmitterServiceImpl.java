@@ -1,75 +1,187 @@
 package hu.daniinc.reservation.service.impl;
 
+import hu.daniinc.reservation.config.ApplicationProperties;
 import hu.daniinc.reservation.service.SseEmitterService;
-import java.util.ArrayList;
-import java.util.Iterator;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import hu.daniinc.reservation.service.sse.SseConnection;
+import hu.daniinc.reservation.service.sse.SseEvent;
+import hu.daniinc.reservation.service.sse.SseReplayBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+/**
+ * Keeps the open SSE connections of this instance per user. Sending only puts the event into the send queue of each
+ * connection (see {@link SseConnection}); the writes happen on the {@code sseExecutor} pool. Events published on
+ * the {@link NotificationBus} by any instance arrive through its {@link BusMessage#SSE} topic.
+ * <p>
+ * Every event sent to a user gets an id and is kept in the user's {@link SseReplayBuffer} while they are connected
+ * and for {@code replayRetentionSeconds} after, so a reconnecting client gets the events it missed. If that is not
+ * possible it gets a {@code resync} event and reloads its notifications.
+ */
 @Service
 public class SseEmitterServiceImpl implements SseEmitterService {
 
-    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private static final String HEARTBEAT = "heartbeat";
+
+    private static final String RESYNC = "resync";
+
+    // az azonosítók csak ezen a futáson belül vethetők össze
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    // felhasználónként; egy felhasználó állapotát a saját UserStream példányán szinkronizáljuk
+    private final Map<Long, UserStream> streams = new ConcurrentHashMap<>();
+    private final Executor sseExecutor;
+    private final int queueCapacity;
+    private final int maxEventsPerDrain;
+    private final int replayCapacity;
+    private final Duration replayRetention;
+    private final Counter droppedEvents;
+    private final Counter replayedConnections;
+    private final Counter resyncedConnections;
+
+    public SseEmitterServiceImpl(
+        @Qualifier("sseExecutor") Executor sseExecutor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        NotificationBus notificationBus
+    ) {
+        this.sseExecutor = sseExecutor;
+        this.queueCapacity = applicationProperties.getSse().getQueueCapacity();
+        this.maxEventsPerDrain = applicationProperties.getSse().getMaxEventsPerDrain();
+        this.replayCapacity = applicationProperties.getSse().getReplayCapacity();
+        this.replayRetention = Duration.ofSeconds(applicationProperties.getSse().getReplayRetentionSeconds());
+        this.droppedEvents = Counter.builder("reservation.sse.dropped")
+            .description("SSE events dropped because the client did not keep up")
+            .register(meterRegistry);
+        this.replayedConnections = reconnects(meterRegistry, "replayed");
+        this.resyncedConnections = reconnects(meterRegistry, "resync");
+        notificationBus.subscribe(BusMessage.SSE, message -> sendToUser(Long.valueOf(message.target()), message.payload()));
+    }
 
     @Override
-    public SseEmitter addEmitter(Long userId) {
+    public SseEmitter addEmitter(Long userId, String lastEventId) {
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        SseConnection connection = new SseConnection(
+            emitter,
+            sseExecutor,
+            queueCapacity,
+            maxEventsPerDrain,
+            droppedEvents::increment,
+            closed -> removeConnection(userId, closed)
+        );
+        boolean registered = false;
+        while (!registered) {
+            UserStream stream = streams.computeIfAbsent(userId, id -> new UserStream(newReplayBuffer()));
+            synchronized (stream) {
+                // ha közben lejárt, újat kérünk
+                if (!stream.retired) {
+                    if (lastEventId != null) {
+                        // a kihagyott események még a kapcsolat regisztrálása előtt sorba kerülnek
+                        replay(stream.replay, lastEventId, connection);
+                    }
+                    stream.connections.add(connection);
+                    stream.lastActive = System.nanoTime();
+                    registered = true;
+                }
+            }
+        }
 
-        emitter.onCompletion(() -> removeEmitter(userId, emitter));
-        emitter.onTimeout(() -> removeEmitter(userId, emitter));
-        emitter.onError(e -> removeEmitter(userId, emitter));
+        emitter.onCompletion(connection::closed);
+        emitter.onTimeout(connection::closed);
+        emitter.onError(e -> connection.closed());
 
         return emitter;
     }
 
     @Override
     public void sendToUser(Long userId, Object data) {
-        List<SseEmitter> userEmitters = emitters.getOrDefault(userId, List.of());
-        userEmitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event().data(data));
-            } catch (Exception e) {
-                removeEmitter(userId, emitter);
+        UserStream stream = streams.get(userId);
+        if (stream == null) {
+            return;
+        }
+        synchronized (stream) {
+            if (stream.retired) {
+                return;
             }
-        });
+            SseEvent event = stream.replay.append(SseEvent.of(data), sequence.incrementAndGet());
+            stream.connections.forEach(connection -> connection.offer(event));
+        }
+    }
+
+    private SseReplayBuffer newReplayBuffer() {
+        return new SseReplayBuffer(epoch, sequence.get(), replayCapacity);
+    }
+
+    private void replay(SseReplayBuffer replay, String lastEventId, SseConnection connection) {
+        Optional<List<SseEvent>> missed = replay.since(lastEventId);
+        if (missed.isPresent()) {
+            missed.get().forEach(connection::offer);
+            replayedConnections.increment();
+        } else {
+            connection.offer(SseEvent.named(RESYNC, RESYNC).withId(replay.lastId()));
+            resyncedConnections.increment();
+        }
     }
 
-    private void removeEmitter(Long userId, SseEmitter emitter) {
-        List<SseEmitter> userEmitters = emitters.get(userId);
-        if (userEmitters != null) {
-            userEmitters.remove(emitter);
+    private void removeConnection(Long userId, SseConnection connection) {
+        UserStream stream = streams.get(userId);
+        if (stream == null) {
+            return;
+        }
+        synchronized (stream) {
+            stream.connections.remove(connection);
+            stream.lastActive = System.nanoTime();
         }
     }
 
-    // Heartbeat
+    private static Counter reconnects(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("reservation.sse.reconnects")
+            .description("SSE reconnects served from the replay buffer (replayed) or sent to reload (resync)")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    // Heartbeat: csak sorba teszi, kapcsolatonként legfeljebb egy várakozik
     @Scheduled(fixedRate = 25000)
     public void sendHeartbeat() {
-        Iterator<Map.Entry<Long, List<SseEmitter>>> iterator = emitters.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<Long, List<SseEmitter>> entry = iterator.next();
-            List<SseEmitter> userEmitters = entry.getValue();
-            List<SseEmitter> dead = new ArrayList<>();
-
-            for (SseEmitter emitter : userEmitters) {
-                try {
-                    emitter.send(SseEmitter.event().name("heartbeat").data("ping"));
-                } catch (Exception e) {
-                    dead.add(emitter);
+        SseEvent heartbeat = SseEvent.coalesced(HEARTBEAT, "ping");
+        streams.values().forEach(stream -> stream.connections.forEach(connection -> connection.offer(heartbeat)));
+
+        // a kapcsolat nélküli felhasználók pufferét a megőrzési idő után eldobjuk
+        long expiredBefore = System.nanoTime() - replayRetention.toNanos();
+        streams.forEach((userId, stream) -> {
+            synchronized (stream) {
+                if (stream.connections.isEmpty() && stream.lastActive - expiredBefore < 0) {
+                    stream.retired = true;
+                    streams.remove(userId, stream);
                 }
             }
+        });
+    }
 
-            userEmitters.removeAll(dead);
+    private static final class UserStream {
 
-            if (userEmitters.isEmpty()) {
-                iterator.remove();
-            }
+        private final SseReplayBuffer replay;
+        private final List<SseConnection> connections = new CopyOnWriteArrayList<>();
+        private long lastActive = System.nanoTime();
+        private boolean retired;
+
+        private UserStream(SseReplayBuffer replay) {
+            this.replay = replay;
         }
     }
 }
@@ -1,31 +1,60 @@
 package hu.daniinc.reservation.service.impl;
 
+import hu.daniinc.reservation.config.ApplicationProperties;
 import hu.daniinc.reservation.domain.Business;
 import hu.daniinc.reservation.domain.BusinessEmployee;
 import hu.daniinc.reservation.domain.User;
 import hu.daniinc.reservation.domain.enumeration.BusinessPermission;
-import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.DailyBusinessStatsRepository;
 import hu.daniinc.reservation.repository.OfferingRepository;
 import hu.daniinc.reservation.repository.StatisticRepository;
 import hu.daniinc.reservation.service.BusinessEmployeeService;
 import hu.daniinc.reservation.service.BusinessService;
+import hu.daniinc.reservation.service.RatingAggregateService;
 import hu.daniinc.reservation.service.StatisticService;
+import hu.daniinc.reservation.service.StatisticsCache;
+import hu.daniinc.reservation.service.StatisticsVersions;
+import hu.daniinc.reservation.service.TimeBuckets;
+import hu.daniinc.reservation.service.TopKRankingService;
 import hu.daniinc.reservation.service.UserService;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
+import hu.daniinc.reservation.service.availability.DayOccupancy;
 import hu.daniinc.reservation.service.dto.*;
 import hu.daniinc.reservation.service.mapper.BusinessEmployeeMapperImpl;
 import hu.daniinc.reservation.service.mapper.BusinessMapperImpl;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class StatisticServiceImpl implements StatisticService {
 
-    private final AppointmentRepository appointmentRepository;
+    private static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+
+    private static final long MAX_OCCUPANCY_DAYS = 366;
+
+    private final DailyBusinessStatsRepository dailyBusinessStatsRepository;
+    private final BusinessRepository businessRepository;
     private final OfferingRepository offeringRepository;
     private final StatisticRepository statisticRepository;
     private final UserService userService;
@@ -33,18 +62,36 @@ public class StatisticServiceImpl implements StatisticService {
     private final BusinessMapperImpl businessMapperImpl;
     private final BusinessEmployeeService businessEmployeeService;
     private final BusinessEmployeeMapperImpl businessEmployeeMapperImpl;
+    private final StatisticsVersions statisticsVersions;
+    private final TopKRankingService topKRankingService;
+    private final StatisticsCache statisticsCache;
+    private final RatingAggregateService ratingAggregateService;
+    private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final AvailabilityCache availabilityCache;
+    private final Executor statisticsExecutor;
+    private final long queryTimeoutMillis;
 
     public StatisticServiceImpl(
-        AppointmentRepository appointmentRepository,
+        DailyBusinessStatsRepository dailyBusinessStatsRepository,
+        BusinessRepository businessRepository,
         OfferingRepository offeringRepository,
         StatisticRepository statisticRepository,
         BusinessService businessService,
         UserService userService,
         BusinessMapperImpl businessMapperImpl,
         BusinessEmployeeService businessEmployeeService,
-        BusinessEmployeeMapperImpl businessEmployeeMapperImpl
+        BusinessEmployeeMapperImpl businessEmployeeMapperImpl,
+        StatisticsVersions statisticsVersions,
+        TopKRankingService topKRankingService,
+        StatisticsCache statisticsCache,
+        RatingAggregateService ratingAggregateService,
+        BusinessEmployeeRepository businessEmployeeRepository,
+        AvailabilityCache availabilityCache,
+        @Qualifier("statisticsExecutor") Executor statisticsExecutor,
+        ApplicationProperties applicationProperties
     ) {
-        this.appointmentRepository = appointmentRepository;
+        this.dailyBusinessStatsRepository = dailyBusinessStatsRepository;
+        this.businessRepository = businessRepository;
         this.offeringRepository = offeringRepository;
         this.statisticRepository = statisticRepository;
         this.userService = userService;
@@ -52,6 +99,14 @@ public class StatisticServiceImpl implements StatisticService {
         this.businessMapperImpl = businessMapperImpl;
         this.businessEmployeeService = businessEmployeeService;
         this.businessEmployeeMapperImpl = businessEmployeeMapperImpl;
+        this.statisticsVersions = statisticsVersions;
+        this.topKRankingService = topKRankingService;
+        this.statisticsCache = statisticsCache;
+        this.ratingAggregateService = ratingAggregateService;
+        this.businessEmployeeRepository = businessEmployeeRepository;
+        this.availabilityCache = availabilityCache;
+        this.statisticsExecutor = statisticsExecutor;
+        this.queryTimeoutMillis = applicationProperties.getStatistics().getQueryTimeoutMillis();
     }
 
     @Override
@@ -68,13 +123,18 @@ public class StatisticServiceImpl implements StatisticService {
             loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_OWN_STATISTICS);
         boolean canViewOwn = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_OWN_STATISTICS);
 
+        Long effectiveEmployeeId;
         if (canViewAll) {
-            return appointmentRepository.getDailyStats(businessId, from, to, employeeId);
+            effectiveEmployeeId = employeeId;
         } else if (canViewOwn) {
-            return appointmentRepository.getDailyStats(businessId, from, to, loggedInUser.getId());
+            effectiveEmployeeId = loggedInUser.getId();
         } else {
             throw new GeneralException("Don't have permission to view statistics!", "access-denied", HttpStatus.FORBIDDEN);
         }
+        return statisticsCache.get(new StatisticsCache.Key("income-chart", businessId, effectiveEmployeeId, from, to), () -> {
+            LocalDateRange range = toLocalDates(businessId, from, to);
+            return dailyBusinessStatsRepository.getDailyIncome(businessId, range.from(), range.to(), effectiveEmployeeId);
+        });
     }
 
     @Override
@@ -82,68 +142,254 @@ public class StatisticServiceImpl implements StatisticService {
         Long businessId,
         Instant from,
         Instant to,
-        Long businessEmployeeSearch
+        Long businessEmployeeSearch,
+        boolean exact
     ) {
-        return offeringRepository.findTopOfferingsByBusiness(businessId, from, to, businessEmployeeSearch);
+        // itt a szűrés az alkalmazott (business employee) azonosítójára történik
+        StatisticsCache.Key key = new StatisticsCache.Key("top-offerings-by-employee", businessId, businessEmployeeSearch, from, to, exact);
+        return statisticsCache.get(key, () -> {
+            if (exact) {
+                return offeringRepository.findTopOfferingsByBusiness(businessId, from, to, businessEmployeeSearch);
+            }
+            LocalDateRange range = toLocalDates(businessId, from, to);
+            return toTopOfferings(topKRankingService.topOfferings(businessId, range.from(), range.to(), null, businessEmployeeSearch));
+        });
     }
 
     @Override
-    @Transactional(readOnly = true)
     public BusinessStatisticSummaryDTO getBusinessSummary(Long businessId, Instant from, Instant to, Long employeeId) {
-        User loggedInUser = userService.getUserWithAuthorities().orElseThrow(() -> new RuntimeException("User not logged in"));
+        Long effectiveEmployeeId = resolveEffectiveEmployeeId(businessId, employeeId);
+        return await(summaryAsync(businessId, from, to, effectiveEmployeeId, toLocalDates(businessId, from, to)));
+    }
 
-        Business business = businessMapperImpl.toEntity(businessService.getBusinessByLoggedInUser(businessId));
+    @Override
+    public CustomerDistributionDTO getCustomerDistribution(Long businessId, Instant from, Instant to, Long employeeId, boolean exact) {
+        Long effectiveEmployeeId = resolveEffectiveEmployeeId(businessId, employeeId);
+        return await(customerDistributionAsync(businessId, from, to, effectiveEmployeeId, exact));
+    }
 
-        BusinessEmployee loggedInBusinessEmployee = businessEmployeeMapperImpl.toEntity(
-            businessEmployeeService.findByBusinessIdAndUserId(business.getId(), loggedInUser.getId())
+    @Override
+    public List<IncomeBucketDTO> getIncomeBuckets(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long employeeId,
+        ChartGranularity granularity
+    ) {
+        validateRange(from, to, granularity);
+        Long effectiveEmployeeId = resolveEffectiveEmployeeId(businessId, employeeId);
+        return await(incomeBucketsAsync(businessId, from, to, effectiveEmployeeId, granularity));
+    }
+
+    @Override
+    public DashboardScope resolveDashboardScope(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long employeeId,
+        ChartGranularity granularity
+    ) {
+        validateRange(from, to, granularity);
+        Long effectiveEmployeeId = resolveEffectiveEmployeeId(businessId, employeeId);
+        String eTag =
+            statisticsVersions.current(businessId) +
+            "-" +
+            Integer.toHexString(Objects.hash(businessId, from, to, effectiveEmployeeId, granularity));
+        return new DashboardScope(businessId, from, to, effectiveEmployeeId, granularity, eTag);
+    }
+
+    @Override
+    public DashboardStatisticDTO getDashboard(DashboardScope scope) {
+        Long businessId = scope.businessId();
+        LocalDateRange range = toLocalDates(businessId, scope.from(), scope.to());
+
+        // minden widget lekérdezése egyszerre indul
+        CompletableFuture<List<IncomeBucketDTO>> incomeFuture = incomeBucketsAsync(
+            businessId,
+            scope.from(),
+            scope.to(),
+            scope.employeeId(),
+            scope.granularity()
+        );
+        CompletableFuture<List<TopOfferingStatisticDTO>> topOfferingsFuture = statisticsCache.getAsync(
+            new StatisticsCache.Key("top-offerings", businessId, scope.employeeId(), scope.from(), scope.to()),
+            () ->
+                query(() -> toTopOfferings(topKRankingService.topOfferings(businessId, range.from(), range.to(), scope.employeeId(), null)))
+        );
+        CompletableFuture<BusinessStatisticSummaryDTO> summaryFuture = summaryAsync(
+            businessId,
+            scope.from(),
+            scope.to(),
+            scope.employeeId(),
+            range
+        );
+        CompletableFuture<CustomerDistributionDTO> distributionFuture = customerDistributionAsync(
+            businessId,
+            scope.from(),
+            scope.to(),
+            scope.employeeId(),
+            false
         );
 
-        boolean canViewAll = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_ALL_STATISTICS);
-        boolean canViewOwn = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_OWN_STATISTICS);
+        return new DashboardStatisticDTO(await(summaryFuture), await(incomeFuture), await(topOfferingsFuture), await(distributionFuture));
+    }
 
-        if (!canViewAll && !canViewOwn) {
-            throw new GeneralException("Don't have permission to view statistics!", "access-denied", HttpStatus.FORBIDDEN);
-        }
+    private CompletableFuture<List<IncomeBucketDTO>> incomeBucketsAsync(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long effectiveEmployeeId,
+        ChartGranularity granularity
+    ) {
+        return statisticsCache.getAsync(
+            new StatisticsCache.Key("income-buckets", businessId, effectiveEmployeeId, from, to, granularity),
+            () -> loadIncomeBuckets(businessId, from, to, effectiveEmployeeId, granularity)
+        );
+    }
 
-        Long effectiveEmployeeId = canViewAll ? employeeId : loggedInUser.getId();
+    /**
+     * Day, week and month buckets are summed from the daily rollup rows; hour buckets need the appointment
+     * starts, read with a plain range on the start date.
+     */
+    private CompletableFuture<List<IncomeBucketDTO>> loadIncomeBuckets(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long effectiveEmployeeId,
+        ChartGranularity granularity
+    ) {
+        ZoneId zone = zoneOf(businessId);
+        if (granularity == ChartGranularity.HOUR) {
+            CompletableFuture<List<RevenuePoint>> pointsFuture = query(() ->
+                statisticRepository.findConfirmedRevenuePoints(businessId, effectiveEmployeeId, from, to)
+            );
+            return pointsFuture.thenApply(points -> TimeBuckets.sum(points, granularity, zone, from, to));
+        }
 
-        RevenueProjection revData = statisticRepository.getRevenueAndCount(businessId, from, to, effectiveEmployeeId);
-        RatingProjection ratData = statisticRepository.getRatingSummary(businessId, from, to);
-        Long newClients = statisticRepository.countNewCustomers(businessId, from, to, effectiveEmployeeId);
+        LocalDateRange range = toLocalDates(zone, from, to);
+        Instant start = range.from().atStartOfDay(zone).toInstant();
+        Instant end = range.to().plusDays(1).atStartOfDay(zone).toInstant();
+        CompletableFuture<List<Object[]>> rowsFuture = query(() ->
+            dailyBusinessStatsRepository.getDailyRevenue(businessId, range.from(), range.to(), effectiveEmployeeId)
+        );
+        return rowsFuture.thenApply(rows -> {
+            List<RevenuePoint> points = rows
+                .stream()
+                .map(row -> new RevenuePoint(((LocalDate) row[0]).atStartOfDay(zone).toInstant(), (BigDecimal) row[1]))
+                .toList();
+            return TimeBuckets.sum(points, granularity, zone, start, end);
+        });
+    }
 
-        if (revData == null) revData = new RevenueProjection(0L, 0L);
-        if (ratData == null) ratData = new RatingProjection(0.0, 0L);
+    private void validateRange(Instant from, Instant to, ChartGranularity granularity) {
+        if (to.isBefore(from)) {
+            throw new GeneralException("The end of the range is before its start!", "invalid-range", HttpStatus.BAD_REQUEST);
+        }
+        if (granularity == ChartGranularity.HOUR && Duration.between(from, to).compareTo(MAX_HOURLY_RANGE) > 0) {
+            throw new GeneralException("Hourly charts are limited to 31 days!", "invalid-granularity", HttpStatus.BAD_REQUEST);
+        }
+    }
 
-        return new BusinessStatisticSummaryDTO(
-            revData.getRevenue(),
-            revData.getCount(),
-            newClients != null ? newClients : 0L,
-            ratData.getAverage(),
-            ratData.getCount()
+    private CompletableFuture<BusinessStatisticSummaryDTO> summaryAsync(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long effectiveEmployeeId,
+        LocalDateRange range
+    ) {
+        return statisticsCache.getAsync(
+            new StatisticsCache.Key("summary", businessId, effectiveEmployeeId, from, to),
+            () -> loadSummary(businessId, from, to, effectiveEmployeeId, range)
         );
     }
 
-    @Override
-    public CustomerDistributionDTO getCustomerDistribution(Long businessId, Instant from, Instant to, Long employeeId) {
-        User loggedInUser = userService.getUserWithAuthorities().orElseThrow(() -> new RuntimeException("User not logged in"));
+    private CompletableFuture<BusinessStatisticSummaryDTO> loadSummary(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long effectiveEmployeeId,
+        LocalDateRange range
+    ) {
+        CompletableFuture<DailyStatsProjection> dailyFuture = query(() ->
+            dailyBusinessStatsRepository.sumByBusinessId(businessId, range.from(), range.to(), effectiveEmployeeId)
+        );
+        // értékelések a havi összesítőből, a tartomány által érintett hónapokra
+        CompletableFuture<RatingAggregateDTO> ratingFuture = query(() ->
+            ratingAggregateService.getAggregate(businessId, range.from(), range.to())
+        );
 
-        Business business = businessMapperImpl.toEntity(businessService.getBusinessByLoggedInUser(businessId));
+        return dailyFuture.thenCombine(ratingFuture, (dailyData, ratData) -> {
+            if (dailyData == null) dailyData = new DailyStatsProjection(0L, 0L, 0L, 0L);
+
+            return new BusinessStatisticSummaryDTO(
+                dailyData.getRevenue(),
+                dailyData.getBookings(),
+                dailyData.getNewGuests(),
+                ratData.getAverage() != null ? ratData.getAverage() : 0.0,
+                ratData.getCount()
+            );
+        });
+    }
 
-        BusinessEmployee loggedInBusinessEmployee = businessEmployeeMapperImpl.toEntity(
-            businessEmployeeService.findByBusinessIdAndUserId(business.getId(), loggedInUser.getId())
+    private CompletableFuture<CustomerDistributionDTO> customerDistributionAsync(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long effectiveEmployeeId,
+        boolean exact
+    ) {
+        return statisticsCache.getAsync(
+            new StatisticsCache.Key("customer-distribution", businessId, effectiveEmployeeId, from, to, exact),
+            () -> loadCustomerDistribution(businessId, from, to, effectiveEmployeeId, exact)
         );
+    }
 
-        boolean canViewAll = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_ALL_STATISTICS);
-        boolean canViewOwn = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_OWN_STATISTICS);
+    private CompletableFuture<CustomerDistributionDTO> loadCustomerDistribution(
+        Long businessId,
+        Instant from,
+        Instant to,
+        Long effectiveEmployeeId,
+        boolean exact
+    ) {
+        // a három lekérdezés független, párhuzamosan futnak
+        CompletableFuture<Long> uniqueFuture = query(() ->
+            statisticRepository.countUniqueCustomers(businessId, effectiveEmployeeId, from, to)
+        );
+        CompletableFuture<Long> returningFuture = query(() -> countReturningCustomers(businessId, from, to, effectiveEmployeeId));
+        CompletableFuture<List<Object[]>> topFuture = query(() -> topCustomer(businessId, from, to, effectiveEmployeeId, exact));
 
-        if (!canViewAll && !canViewOwn) {
-            throw new GeneralException("Don't have permission to view statistics!", "access-denied", HttpStatus.FORBIDDEN);
+        return CompletableFuture.allOf(uniqueFuture, returningFuture, topFuture).thenApply(ignored ->
+            toCustomerDistribution(uniqueFuture.join(), returningFuture.join(), topFuture.join())
+        );
+    }
+
+    // a vendég első foglalása az egész üzletre vonatkozik, munkatársra szűrve a pontos lekérdezés fut
+    private Long countReturningCustomers(Long businessId, Instant from, Instant to, Long effectiveEmployeeId) {
+        if (effectiveEmployeeId == null) {
+            return statisticRepository.countReturningCustomers(businessId, from, to);
         }
+        return statisticRepository.countReturningCustomersOfEmployee(businessId, effectiveEmployeeId, from, to);
+    }
 
-        Long effectiveEmployeeId = canViewAll ? employeeId : loggedInUser.getId();
+    // a megjelenítéshez csak az első sor kell: név és foglalások száma
+    private List<Object[]> topCustomer(Long businessId, Instant from, Instant to, Long effectiveEmployeeId, boolean exact) {
+        if (exact) {
+            return statisticRepository.findTopCustomer(businessId, effectiveEmployeeId, from, to, PageRequest.of(0, 1));
+        }
+        LocalDateRange range = toLocalDates(businessId, from, to);
+        return topKRankingService
+            .topGuests(businessId, range.from(), range.to(), effectiveEmployeeId)
+            .stream()
+            .limit(1)
+            .map(entry -> new Object[] { entry.label(), entry.count(), entry.approximate() })
+            .toList();
+    }
 
-        Long totalUnique = statisticRepository.countUniqueCustomers(businessId, effectiveEmployeeId, from, to);
+    private static List<TopOfferingStatisticDTO> toTopOfferings(List<TopKRankingService.RankedEntry> entries) {
+        return entries.stream().map(entry -> new TopOfferingStatisticDTO(entry.label(), entry.count(), entry.approximate())).toList();
+    }
 
+    private static CustomerDistributionDTO toCustomerDistribution(Long totalUnique, Long returningCount, List<Object[]> topData) {
         double returningPer = 0.0;
         double newPer = 0.0;
         String name = "no-data";
@@ -151,23 +397,145 @@ public class StatisticServiceImpl implements StatisticService {
         Long newCount = 0L;
 
         if (totalUnique > 0) {
-            Long returningCount = statisticRepository.countReturningCustomers(businessId, effectiveEmployeeId, from, to);
             newCount = totalUnique - returningCount;
 
             returningPer = (returningCount.doubleValue() / totalUnique) * 100;
             newPer = 100.0 - returningPer;
 
-            List<Object[]> topData = statisticRepository.findTopCustomer(businessId, effectiveEmployeeId, from, to, PageRequest.of(0, 5));
-
+            boolean approximate = false;
             if (!topData.isEmpty()) {
                 Object[] row = topData.get(0);
                 name = (String) row[0];
                 bookings = (Long) row[1];
+                // a pontos lekérdezés sorában nincs harmadik oszlop
+                approximate = row.length > 2 && (Boolean) row[2];
             }
 
-            return new CustomerDistributionDTO(returningPer, newPer, name, bookings, returningCount, newCount);
+            CustomerDistributionDTO distribution = new CustomerDistributionDTO(
+                returningPer,
+                newPer,
+                name,
+                bookings,
+                returningCount,
+                newCount
+            );
+            distribution.setTopCustomerApproximate(approximate);
+            return distribution;
         }
 
         return new CustomerDistributionDTO(returningPer, newPer, name, bookings);
     }
+
+    /**
+     * Checks the statistics permissions of the logged-in user once, on the request thread: the employee filter
+     * is kept for users who may see every employee and forced to the user's own id otherwise.
+     */
+    @Override
+    public List<EmployeeOccupancyDTO> getEmployeeOccupancy(Long businessId, Instant from, Instant to, Long employeeId) {
+        if (to.isBefore(from)) {
+            throw new GeneralException("The end of the range is before its start!", "invalid-range", HttpStatus.BAD_REQUEST);
+        }
+        Long effectiveEmployeeId = resolveEffectiveEmployeeId(businessId, employeeId);
+        ZoneId zone = zoneOf(businessId);
+        LocalDateRange range = toLocalDates(zone, from, to);
+        if (ChronoUnit.DAYS.between(range.from(), range.to()) >= MAX_OCCUPANCY_DAYS) {
+            throw new GeneralException("Occupancy is limited to 366 days!", "invalid-range", HttpStatus.BAD_REQUEST);
+        }
+
+        List<Long> employeeIds = effectiveEmployeeId != null
+            ? List.of(effectiveEmployeeId)
+            : businessEmployeeRepository.findUserIdsByBusinessId(businessId);
+        // a mai és későbbi napok még változhatnak, ezeket mindig újraszámoljuk
+        Map<Long, Map<LocalDate, DayOccupancy>> occupancy = availabilityCache.getOccupancy(
+            businessId,
+            employeeIds,
+            range.from(),
+            range.to(),
+            zone,
+            LocalDate.now(zone)
+        );
+
+        List<EmployeeOccupancyDTO> result = new ArrayList<>(employeeIds.size());
+        occupancy.forEach((id, days) -> {
+            List<EmployeeOccupancyDTO.Day> dayDTOs = new ArrayList<>(days.size());
+            DayOccupancy total = DayOccupancy.NONE;
+            for (Map.Entry<LocalDate, DayOccupancy> day : days.entrySet()) {
+                total = total.plus(day.getValue());
+                dayDTOs.add(
+                    new EmployeeOccupancyDTO.Day(day.getKey(), day.getValue().availableSeconds() / 60, day.getValue().bookedSeconds() / 60)
+                );
+            }
+            result.add(new EmployeeOccupancyDTO(id, total.availableSeconds() / 60, total.bookedSeconds() / 60, dayDTOs));
+        });
+        return result;
+    }
+
+    @Override
+    public Long resolveEmployeeFilter(Long businessId, Long businessEmployeeSearch) {
+        return resolveEffectiveEmployeeId(businessId, businessEmployeeSearch);
+    }
+
+    private Long resolveEffectiveEmployeeId(Long businessId, Long employeeId) {
+        User loggedInUser = userService.getUserWithAuthorities().orElseThrow(() -> new RuntimeException("User not logged in"));
+
+        Business business = businessMapperImpl.toEntity(businessService.getBusinessByLoggedInUser(businessId));
+
+        BusinessEmployee loggedInBusinessEmployee = businessEmployeeMapperImpl.toEntity(
+            businessEmployeeService.findByBusinessIdAndUserId(business.getId(), loggedInUser.getId())
+        );
+
+        boolean canViewAll = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_ALL_STATISTICS);
+        boolean canViewOwn = loggedInBusinessEmployee.hasPermission(BusinessPermission.VIEW_OWN_STATISTICS);
+
+        if (!canViewAll && !canViewOwn) {
+            throw new GeneralException("Don't have permission to view statistics!", "access-denied", HttpStatus.FORBIDDEN);
+        }
+
+        return canViewAll ? employeeId : loggedInUser.getId();
+    }
+
+    /**
+     * Runs one read-only query on the statistics pool. The repository opens its own read-only transaction
+     * on the pool thread, so nothing from the request thread is shared.
+     */
+    private <T> CompletableFuture<T> query(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, statisticsExecutor).orTimeout(queryTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new GeneralException("Statistics query timed out!", "statistics-timeout", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The rollup is bucketed by business-local days: the days touched by {@code [from, to]}, where a {@code to}
+     * falling exactly on local midnight does not pull in the following day.
+     */
+    private LocalDateRange toLocalDates(Long businessId, Instant from, Instant to) {
+        return toLocalDates(zoneOf(businessId), from, to);
+    }
+
+    private LocalDateRange toLocalDates(ZoneId zone, Instant from, Instant to) {
+        LocalDate fromDate = LocalDate.ofInstant(from, zone);
+        LocalDate toDate = LocalDate.ofInstant(to, zone);
+        if (to.isAfter(from) && toDate.atStartOfDay(zone).toInstant().equals(to)) {
+            toDate = toDate.minusDays(1);
+        }
+        return new LocalDateRange(fromDate, toDate);
+    }
+
+    private ZoneId zoneOf(Long businessId) {
+        return ZoneId.of(businessRepository.findTimeZoneById(businessId).orElse("Europe/Budapest"));
+    }
+
+    private record LocalDateRange(LocalDate from, LocalDate to) {}
 }
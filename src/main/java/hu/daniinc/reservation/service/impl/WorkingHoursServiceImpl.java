@@ -6,6 +6,7 @@ import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
 import hu.daniinc.reservation.repository.BusinessRepository;
 import hu.daniinc.reservation.repository.WorkingHoursRepository;
 import hu.daniinc.reservation.service.WorkingHoursService;
+import hu.daniinc.reservation.service.availability.AvailabilityCache;
 import hu.daniinc.reservation.service.dto.WorkingHoursDTO;
 import hu.daniinc.reservation.service.mapper.WorkingHoursMapper;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
@@ -37,17 +38,20 @@ public class WorkingHoursServiceImpl implements WorkingHoursService {
     private final WorkingHoursMapper workingHoursMapper;
     private final BusinessRepository businessRepository;
     private final BusinessEmployeeRepository businessEmployeeRepository;
+    private final AvailabilityCache availabilityCache;
 
     public WorkingHoursServiceImpl(
         WorkingHoursRepository workingHoursRepository,
         WorkingHoursMapper workingHoursMapper,
         BusinessRepository businessRepository,
-        BusinessEmployeeRepository businessEmployeeRepository
+        BusinessEmployeeRepository businessEmployeeRepository,
+        AvailabilityCache availabilityCache
     ) {
         this.workingHoursRepository = workingHoursRepository;
         this.workingHoursMapper = workingHoursMapper;
         this.businessRepository = businessRepository;
         this.businessEmployeeRepository = businessEmployeeRepository;
+        this.availabilityCache = availabilityCache;
     }
 
     @Override
@@ -55,6 +59,7 @@ public class WorkingHoursServiceImpl implements WorkingHoursService {
         LOG.debug("Request to save WorkingHours : {}", workingHoursDTO);
         WorkingHours workingHours = workingHoursMapper.toEntity(workingHoursDTO);
         workingHours = workingHoursRepository.save(workingHours);
+        availabilityCache.evictEmployee(workingHours.getBusinessEmployee());
         return workingHoursMapper.toDto(workingHours);
     }
 
@@ -63,6 +68,7 @@ public class WorkingHoursServiceImpl implements WorkingHoursService {
         LOG.debug("Request to update WorkingHours : {}", workingHoursDTO);
         WorkingHours workingHours = workingHoursMapper.toEntity(workingHoursDTO);
         workingHours = workingHoursRepository.save(workingHours);
+        availabilityCache.evictEmployee(workingHours.getBusinessEmployee());
         return workingHoursMapper.toDto(workingHours);
     }
 
@@ -78,7 +84,10 @@ public class WorkingHoursServiceImpl implements WorkingHoursService {
                 return existingWorkingHours;
             })
             .map(workingHoursRepository::save)
-            .map(workingHoursMapper::toDto);
+            .map(saved -> {
+                availabilityCache.evictEmployee(saved.getBusinessEmployee());
+                return workingHoursMapper.toDto(saved);
+            });
     }
 
     @Override
@@ -98,6 +107,7 @@ public class WorkingHoursServiceImpl implements WorkingHoursService {
     @Override
     public void delete(Long id) {
         LOG.debug("Request to delete WorkingHours : {}", id);
+        workingHoursRepository.findById(id).ifPresent(workingHours -> availabilityCache.evictEmployee(workingHours.getBusinessEmployee()));
         workingHoursRepository.deleteById(id);
     }
 
@@ -150,6 +160,8 @@ public class WorkingHoursServiceImpl implements WorkingHoursService {
             }
         }
 
+        availabilityCache.evictEmployee(employee);
+
         return null;
     }
 
@@ -0,0 +1,57 @@
+package hu.daniinc.reservation.service.jobs;
+
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.service.DailyBusinessStatsService;
+import hu.daniinc.reservation.service.RatingAggregateService;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the daily statistics rollup and the rating totals of every business, one transaction per business each.
+ * <p>
+ * Runs every night as a safety net for refreshes lost between a commit and the asynchronous listener
+ * (restart, failure) and for any drift of the running rating totals, and can be started on demand from the
+ * admin statistics endpoint.
+ */
+@Component
+public class DailyBusinessStatsRebuildJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DailyBusinessStatsRebuildJob.class);
+
+    private final BusinessRepository businessRepository;
+    private final DailyBusinessStatsService dailyBusinessStatsService;
+    private final RatingAggregateService ratingAggregateService;
+
+    public DailyBusinessStatsRebuildJob(
+        BusinessRepository businessRepository,
+        DailyBusinessStatsService dailyBusinessStatsService,
+        RatingAggregateService ratingAggregateService
+    ) {
+        this.businessRepository = businessRepository;
+        this.dailyBusinessStatsService = dailyBusinessStatsService;
+        this.ratingAggregateService = ratingAggregateService;
+    }
+
+    @Async
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void rebuildAll() {
+        List<Long> businessIds = businessRepository.findAllIds();
+        LOG.info("Rebuilding daily statistics of {} businesses", businessIds.size());
+        for (Long businessId : businessIds) {
+            try {
+                dailyBusinessStatsService.rebuildBusiness(businessId);
+            } catch (Exception e) {
+                LOG.error("Failed to rebuild daily statistics of business id={}", businessId, e);
+            }
+            try {
+                ratingAggregateService.rebuildBusiness(businessId);
+            } catch (Exception e) {
+                LOG.error("Failed to rebuild rating totals of business id={}", businessId, e);
+            }
+        }
+    }
+}
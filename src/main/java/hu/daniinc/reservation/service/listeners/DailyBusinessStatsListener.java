@@ -0,0 +1,39 @@
+package hu.daniinc.reservation.service.listeners;
+
+import hu.daniinc.reservation.service.DailyBusinessStatsService;
+import hu.daniinc.reservation.service.StatisticsVersions;
+import hu.daniinc.reservation.service.dto.StatisticsChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class DailyBusinessStatsListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DailyBusinessStatsListener.class);
+
+    private final DailyBusinessStatsService dailyBusinessStatsService;
+    private final StatisticsVersions statisticsVersions;
+
+    public DailyBusinessStatsListener(DailyBusinessStatsService dailyBusinessStatsService, StatisticsVersions statisticsVersions) {
+        this.dailyBusinessStatsService = dailyBusinessStatsService;
+        this.statisticsVersions = statisticsVersions;
+    }
+
+    // commit után, hogy a friss sor már a véglegesített foglalásokból számolódjon
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatisticsChanged(StatisticsChangedEvent event) {
+        try {
+            dailyBusinessStatsService.refresh(event.businessEmployeeId(), event.at());
+        } catch (Exception e) {
+            LOG.error("Failed to refresh daily statistics of business employee id={}", event.businessEmployeeId(), e);
+        } finally {
+            // csak a frissítés után, különben a régi adat kerülne az új ETag alá
+            statisticsVersions.bump(event.businessId());
+        }
+    }
+}
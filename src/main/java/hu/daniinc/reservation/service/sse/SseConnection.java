@@ -0,0 +1,161 @@
+package hu.daniinc.reservation.service.sse;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One open SSE connection with its own bounded send queue.
+ * <p>
+ * {@link #offer(SseEvent)} only enqueues, it never touches the socket. The queue is drained on the writer pool by
+ * at most one task per connection at a time, which yields after {@code maxEventsPerDrain} events so busy
+ * connections take turns. A client that reads slowly therefore holds back its own events only. When its queue is
+ * full the oldest event is dropped; coalesced events replace their queued predecessor instead of adding to it.
+ */
+public class SseConnection {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SseConnection.class);
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int capacity;
+    private final int maxEventsPerDrain;
+    private final Runnable onDrop;
+    private final Consumer<SseConnection> onClose;
+
+    // a sor és a két jelző a példányon szinkronizálva
+    private final Deque<SseEvent> queue = new ArrayDeque<>();
+    private boolean draining;
+    private boolean closed;
+
+    public SseConnection(
+        SseEmitter emitter,
+        Executor executor,
+        int capacity,
+        int maxEventsPerDrain,
+        Runnable onDrop,
+        Consumer<SseConnection> onClose
+    ) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.maxEventsPerDrain = maxEventsPerDrain;
+        this.onDrop = onDrop;
+        this.onClose = onClose;
+    }
+
+    public SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * Queues the event and schedules a drain if none is pending; returns {@code false} if the connection is closed.
+     */
+    public boolean offer(SseEvent event) {
+        boolean dropped = false;
+        boolean schedule;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (event.coalesceKey() != null && replaceQueued(event)) {
+                return true;
+            }
+            if (queue.size() >= capacity) {
+                queue.pollFirst();
+                dropped = true;
+            }
+            queue.addLast(event);
+            schedule = !draining;
+            draining = true;
+        }
+        if (dropped) {
+            onDrop.run();
+        }
+        if (schedule) {
+            submit();
+        }
+        return true;
+    }
+
+    /**
+     * Marks the connection closed after the emitter completed, timed out or failed; nothing is sent afterwards.
+     */
+    public void closed() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+        }
+        onClose.accept(this);
+    }
+
+    synchronized int queued() {
+        return queue.size();
+    }
+
+    private boolean replaceQueued(SseEvent event) {
+        Iterator<SseEvent> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (event.coalesceKey().equals(iterator.next().coalesceKey())) {
+                iterator.remove();
+                queue.addLast(event);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            fail(e);
+        }
+    }
+
+    private void drain() {
+        for (int sent = 0; sent < maxEventsPerDrain; sent++) {
+            SseEvent event;
+            synchronized (this) {
+                event = closed ? null : queue.pollFirst();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            try {
+                emitter.send(event.toBuilder());
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+        }
+        // a többi kapcsolat is sorra kerül, a maradékot új feladatként küldjük
+        synchronized (this) {
+            if (closed || queue.isEmpty()) {
+                draining = false;
+                return;
+            }
+        }
+        submit();
+    }
+
+    private void fail(Exception e) {
+        LOG.debug("Closing SSE connection after failed delivery: {}", e.getMessage());
+        try {
+            emitter.completeWithError(e);
+        } catch (Exception ignored) {
+            // már lezárt emitter
+        }
+        closed();
+    }
+}
@@ -0,0 +1,39 @@
+package hu.daniinc.reservation.service.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * An event waiting in a connection's send queue.
+ * <p>
+ * Events with a {@code coalesceKey} replace the queued event with the same key, so a client that fell behind
+ * gets only the latest one (heartbeats, counters); events without it are delivered one by one. The {@code id},
+ * set by {@link SseReplayBuffer}, is what the client sends back as {@code Last-Event-ID} when it reconnects.
+ */
+public record SseEvent(String id, String name, Object data, String coalesceKey) {
+    public static SseEvent of(Object data) {
+        return new SseEvent(null, null, data, null);
+    }
+
+    public static SseEvent named(String name, Object data) {
+        return new SseEvent(null, name, data, null);
+    }
+
+    public static SseEvent coalesced(String name, Object data) {
+        return new SseEvent(null, name, data, name);
+    }
+
+    public SseEvent withId(String id) {
+        return new SseEvent(id, name, data, coalesceKey);
+    }
+
+    SseEmitter.SseEventBuilder toBuilder() {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (id != null) {
+            builder.id(id);
+        }
+        if (name != null) {
+            builder.name(name);
+        }
+        return builder.data(data);
+    }
+}
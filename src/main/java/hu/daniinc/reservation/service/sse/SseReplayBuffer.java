@@ -0,0 +1,89 @@
+package hu.daniinc.reservation.service.sse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The recent events of one user, kept so a client reconnecting with {@code Last-Event-ID} gets only what it missed.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}: the epoch identifies the instance run that issued them, the sequence
+ * increases with every event of that run. The buffer keeps the last {@code capacity} events and knows from which
+ * sequence on it holds every event of the user; an id from before that, or from another epoch, cannot be replayed
+ * and the client has to reload from the database. Not thread-safe, callers serialize access per user.
+ */
+public class SseReplayBuffer {
+
+    private final String epoch;
+    private final int capacity;
+    private final Deque<Entry> events = new ArrayDeque<>();
+
+    // minden ennél nagyobb sorszámú esemény a pufferben van
+    private long coveredFrom;
+    private long position;
+
+    /**
+     * @param coveredFrom the last sequence issued before this buffer existed; every later event of the user is
+     *                    appended to it.
+     */
+    public SseReplayBuffer(String epoch, long coveredFrom, int capacity) {
+        this.epoch = epoch;
+        this.capacity = capacity;
+        this.coveredFrom = coveredFrom;
+        this.position = coveredFrom;
+    }
+
+    /**
+     * Stores the event under {@code sequence}, which must be larger than any appended before, and returns it with
+     * its id.
+     */
+    public SseEvent append(SseEvent event, long sequence) {
+        SseEvent identified = event.withId(epoch + "-" + sequence);
+        if (events.size() >= capacity) {
+            coveredFrom = events.pollFirst().sequence();
+        }
+        events.addLast(new Entry(sequence, identified));
+        position = sequence;
+        return identified;
+    }
+
+    /**
+     * The events after {@code lastEventId} in order, or empty if some of them may no longer be in the buffer.
+     */
+    public Optional<List<SseEvent>> since(String lastEventId) {
+        long last = sequenceOf(lastEventId);
+        if (last < coveredFrom) {
+            return Optional.empty();
+        }
+        List<SseEvent> missed = new ArrayList<>();
+        for (Entry entry : events) {
+            if (entry.sequence() > last) {
+                missed.add(entry.event());
+            }
+        }
+        return Optional.of(missed);
+    }
+
+    /**
+     * The id of the latest event of the user, for marking a client that reloaded everything as up to date.
+     */
+    public String lastId() {
+        return epoch + "-" + position;
+    }
+
+    private long sequenceOf(String eventId) {
+        String prefix = epoch + "-";
+        if (eventId == null || !eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Entry(long sequence, SseEvent event) {}
+}
@@ -1,5 +1,7 @@
 package hu.daniinc.reservation.web.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import hu.daniinc.reservation.domain.enumeration.BusinessPermission;
 import hu.daniinc.reservation.repository.AppointmentRepository;
 import hu.daniinc.reservation.security.annotation.RequiredBusinessPermission;
@@ -10,6 +12,8 @@ import hu.daniinc.reservation.web.rest.errors.BadRequestAlertException;
 import hu.daniinc.reservation.web.rest.errors.GeneralException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Duration;
@@ -29,8 +33,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -47,6 +53,8 @@ public class AppointmentResource {
 
     private static final String ENTITY_NAME = "appointment";
 
+    private static final int MAX_NEXT_SLOTS = 50;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -54,9 +62,16 @@ public class AppointmentResource {
 
     private final AppointmentRepository appointmentRepository;
 
-    public AppointmentResource(AppointmentService appointmentService, AppointmentRepository appointmentRepository) {
+    private final ObjectMapper objectMapper;
+
+    public AppointmentResource(
+        AppointmentService appointmentService,
+        AppointmentRepository appointmentRepository,
+        ObjectMapper objectMapper
+    ) {
         this.appointmentService = appointmentService;
         this.appointmentRepository = appointmentRepository;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -237,6 +252,78 @@ public class AppointmentResource {
             .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().stream().map(Instant::toString).collect(Collectors.toList())));
     }
 
+    /**
+     * {@code GET  /appointments/employees/:employeeId/available-slots/stream} : the same slots as
+     * {@link #getAvailableSlots}, as newline-delimited JSON ({@code {"date":"...","slots":["...", ...]}} per line).
+     * Days are written as soon as their week is computed, so long horizons neither wait nor pile up in memory.
+     */
+    @GetMapping(value = "/employees/{employeeId}/available-slots/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAvailableSlots(
+        @TenantBusiness Long businessId,
+        @PathVariable Long employeeId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @RequestParam(required = false) Long durationMinutes
+    ) {
+        Duration slotDuration = (durationMinutes != null) ? Duration.ofMinutes(durationMinutes) : Duration.ofMinutes(30);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                appointmentService.streamAvailableSlots(businessId, employeeId, startDate, endDate, slotDuration, (date, slots) -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeStringField("date", date.toString());
+                        generator.writeArrayFieldStart("slots");
+                        for (Instant slot : slots) {
+                            generator.writeString(slot.toString());
+                        }
+                        generator.writeEndArray();
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * {@code GET  /appointments/employees/:employeeId/next-available-slots} : the earliest {@code count} free slots of
+     * the employee for the offering, from {@code after} (default: now) on.
+     */
+    @GetMapping("/employees/{employeeId}/next-available-slots")
+    public List<Instant> getNextAvailableSlots(
+        @TenantBusiness Long businessId,
+        @PathVariable Long employeeId,
+        @RequestParam Long offeringId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant after,
+        @RequestParam(defaultValue = "1") int count
+    ) {
+        if (count < 1 || count > MAX_NEXT_SLOTS) {
+            throw new BadRequestAlertException("count must be between 1 and " + MAX_NEXT_SLOTS, ENTITY_NAME, "invalidcount");
+        }
+        return appointmentService.findNextAvailableSlots(businessId, employeeId, offeringId, after, count);
+    }
+
+    /**
+     * {@code GET  /appointments/employees/available-slots} : free slots of all public employees of the business,
+     * each slot with the ids of the employees who can take it ("any available staff" booking).
+     */
+    @GetMapping("/employees/available-slots")
+    public Map<LocalDate, List<StaffAvailableSlotDTO>> getAvailableSlotsForAnyEmployee(
+        @TenantBusiness Long businessId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+        @RequestParam(required = false) Long durationMinutes
+    ) {
+        Duration slotDuration = (durationMinutes != null) ? Duration.ofMinutes(durationMinutes) : Duration.ofMinutes(30);
+        return appointmentService.getAvailableSlotsForAnyEmployee(businessId, startDate, endDate, slotDuration);
+    }
+
     @GetMapping("/cancel/{modifierToken}")
     public ResponseEntity<AppointmentDTO> getAppointmentByGuestnameAndAppointmentId(
         @PathVariable(value = "modifierToken") String modifierToken
@@ -7,6 +7,7 @@ import hu.daniinc.reservation.security.annotation.TenantBusiness;
 import hu.daniinc.reservation.service.BusinessRatingService;
 import hu.daniinc.reservation.service.dto.BusinessRatingDTO;
 import hu.daniinc.reservation.service.dto.BusinessRatingSummaryDTO;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
 import hu.daniinc.reservation.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -189,11 +190,13 @@ public class BusinessRatingResource {
         LOG.debug("REST request to get BusinessRatings by businessId : {}", businessId);
 
         Page<BusinessRatingDTO> page = businessRatingService.findAllByBusinessId(businessId, pageable);
-        Double average = businessRatingService.getAverageRatingForBusiness(businessId);
+        RatingAggregateDTO rating = businessRatingService.getRatingAggregate(businessId);
 
         BusinessRatingSummaryDTO body = new BusinessRatingSummaryDTO();
         body.setRatings(page.getContent());
-        body.setAverageRating(average);
+        body.setAverageRating(rating.getAverage());
+        body.setRatingCount(rating.getCount());
+        body.setStarCounts(rating.getStarCounts());
 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
 
@@ -34,9 +34,13 @@ public class SseResource {
     }
 
     @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream() {
+    public SseEmitter stream(
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+        @RequestParam(required = false) String lastEventId
+    ) {
         User user = userService.getUserWithAuthorities().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-        return sseEmitterService.addEmitter(user.getId());
+        // a böngésző automatikus újracsatlakozáskor fejlécben küldi, kézi újranyitáskor csak paraméterben adható át
+        return sseEmitterService.addEmitter(user.getId(), lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
     }
 
     @GetMapping("/notifications/{businessEmployeeId}")
@@ -59,6 +63,13 @@ public class SseResource {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/notifications/read-all")
+    public ResponseEntity<Void> markAllAsRead(@RequestParam Long businessEmployeeId) {
+        User user = userService.getUserWithAuthorities().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        notificationService.markAllAsRead(businessEmployeeId, user);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/notifications/unread-counts")
     public ResponseEntity<Map<Long, Long>> getUnreadCounts() {
         User user = userService.getUserWithAuthorities().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
@@ -1,26 +1,57 @@
 package hu.daniinc.reservation.web.rest;
 
 import hu.daniinc.reservation.domain.enumeration.BusinessPermission;
+import hu.daniinc.reservation.security.AuthoritiesConstants;
 import hu.daniinc.reservation.security.annotation.RequiredBusinessPermission;
+import hu.daniinc.reservation.service.AppointmentExportService;
+import hu.daniinc.reservation.service.DailyBusinessStatsService;
 import hu.daniinc.reservation.service.StatisticService;
 import hu.daniinc.reservation.service.dto.BusinessStatisticSummaryDTO;
+import hu.daniinc.reservation.service.dto.ChartGranularity;
 import hu.daniinc.reservation.service.dto.CustomerDistributionDTO;
+import hu.daniinc.reservation.service.dto.DashboardScope;
+import hu.daniinc.reservation.service.dto.DashboardStatisticDTO;
+import hu.daniinc.reservation.service.dto.EmployeeOccupancyDTO;
+import hu.daniinc.reservation.service.dto.IncomeBucketDTO;
 import hu.daniinc.reservation.service.dto.IncomeChartDTO;
 import hu.daniinc.reservation.service.dto.TopOfferingStatisticDTO;
+import hu.daniinc.reservation.service.jobs.DailyBusinessStatsRebuildJob;
+import hu.daniinc.reservation.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/statistic")
 public class StatisticResource {
 
+    private static final String ENTITY_NAME = "statistic";
+
     private final StatisticService statisticService;
+    private final DailyBusinessStatsService dailyBusinessStatsService;
+    private final DailyBusinessStatsRebuildJob dailyBusinessStatsRebuildJob;
+    private final AppointmentExportService appointmentExportService;
 
-    public StatisticResource(final StatisticService statisticService) {
+    public StatisticResource(
+        final StatisticService statisticService,
+        final DailyBusinessStatsService dailyBusinessStatsService,
+        final DailyBusinessStatsRebuildJob dailyBusinessStatsRebuildJob,
+        final AppointmentExportService appointmentExportService
+    ) {
         this.statisticService = statisticService;
+        this.dailyBusinessStatsService = dailyBusinessStatsService;
+        this.dailyBusinessStatsRebuildJob = dailyBusinessStatsRebuildJob;
+        this.appointmentExportService = appointmentExportService;
     }
 
     @GetMapping("/business/{businessId}/income")
@@ -35,16 +66,34 @@ public class StatisticResource {
         return ResponseEntity.ok(statisticService.getIncomeChart(businessId, from, to, employeeId));
     }
 
+    /**
+     * {@code GET /business/:businessId/income/buckets} : income per hour, day, week or month in the business time zone,
+     * with a zero point for every bucket without income. Hourly charts are limited to 31 days.
+     */
+    @GetMapping("/business/{businessId}/income/buckets")
+    @RequiredBusinessPermission({ BusinessPermission.VIEW_ALL_STATISTICS, BusinessPermission.VIEW_OWN_STATISTICS })
+    public ResponseEntity<List<IncomeBucketDTO>> getIncomeBucketsByBusinessId(
+        @PathVariable Long businessId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+        @RequestParam String businessEmployeeSearch,
+        @RequestParam(defaultValue = "day") String granularity
+    ) {
+        Long employeeId = "all".equalsIgnoreCase(businessEmployeeSearch) ? null : Long.parseLong(businessEmployeeSearch);
+        return ResponseEntity.ok(statisticService.getIncomeBuckets(businessId, from, to, employeeId, parseGranularity(granularity)));
+    }
+
     @GetMapping("/business/{businessId}/top-offerings")
     public ResponseEntity<List<TopOfferingStatisticDTO>> getTopOfferingList(
         @PathVariable Long businessId,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
-        @RequestParam String businessEmployeeSearch
+        @RequestParam String businessEmployeeSearch,
+        @RequestParam(defaultValue = "false") boolean exact
     ) {
         Long employeeId = "all".equalsIgnoreCase(businessEmployeeSearch) ? null : Long.parseLong(businessEmployeeSearch);
 
-        return ResponseEntity.ok(statisticService.getTopOfferingsByBusinessId(businessId, from, to, employeeId));
+        return ResponseEntity.ok(statisticService.getTopOfferingsByBusinessId(businessId, from, to, employeeId, exact));
     }
 
     @GetMapping("/business/{businessId}/summary")
@@ -60,12 +109,102 @@ public class StatisticResource {
 
     @GetMapping("/business/{businessId}/customer-distribution")
     public ResponseEntity<CustomerDistributionDTO> getCustomerDistributionByBusinessId(
+        @PathVariable Long businessId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+        @RequestParam String businessEmployeeSearch,
+        @RequestParam(defaultValue = "false") boolean exact
+    ) {
+        Long employeeId = "all".equalsIgnoreCase(businessEmployeeSearch) ? null : Long.parseLong(businessEmployeeSearch);
+        return ResponseEntity.ok(statisticService.getCustomerDistribution(businessId, from, to, employeeId, exact));
+    }
+
+    /**
+     * {@code GET /business/:businessId/dashboard} : every widget of the statistics page in one response.
+     * <p>
+     * Sends an ETag; a request with a matching {@code If-None-Match} gets {@code 304 Not Modified} after the
+     * permission check, without any aggregation.
+     */
+    @GetMapping("/business/{businessId}/dashboard")
+    @RequiredBusinessPermission({ BusinessPermission.VIEW_ALL_STATISTICS, BusinessPermission.VIEW_OWN_STATISTICS })
+    public ResponseEntity<DashboardStatisticDTO> getDashboardByBusinessId(
+        @PathVariable Long businessId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+        @RequestParam String businessEmployeeSearch,
+        @RequestParam(defaultValue = "day") String granularity,
+        WebRequest webRequest
+    ) {
+        Long employeeId = "all".equalsIgnoreCase(businessEmployeeSearch) ? null : Long.parseLong(businessEmployeeSearch);
+        DashboardScope scope = statisticService.resolveDashboardScope(businessId, from, to, employeeId, parseGranularity(granularity));
+        if (webRequest.checkNotModified(scope.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(scope.eTag()).body(statisticService.getDashboard(scope));
+    }
+
+    /**
+     * {@code GET /business/:businessId/occupancy} : booked versus available working time per employee and day.
+     */
+    @GetMapping("/business/{businessId}/occupancy")
+    @RequiredBusinessPermission({ BusinessPermission.VIEW_ALL_STATISTICS, BusinessPermission.VIEW_OWN_STATISTICS })
+    public ResponseEntity<List<EmployeeOccupancyDTO>> getEmployeeOccupancyByBusinessId(
+        @PathVariable Long businessId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+        @RequestParam String businessEmployeeSearch
+    ) {
+        Long employeeId = "all".equalsIgnoreCase(businessEmployeeSearch) ? null : Long.parseLong(businessEmployeeSearch);
+        return ResponseEntity.ok(statisticService.getEmployeeOccupancy(businessId, from, to, employeeId));
+    }
+
+    /**
+     * {@code GET /business/:businessId/appointments/export} : the appointments starting in {@code [from, to)}, except the
+     * deleted ones, as a CSV file with guest, offering and price columns, streamed while it is read from the database.
+     */
+    @GetMapping("/business/{businessId}/appointments/export")
+    @RequiredBusinessPermission({ BusinessPermission.VIEW_ALL_STATISTICS, BusinessPermission.VIEW_OWN_STATISTICS })
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
         @PathVariable Long businessId,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
         @RequestParam String businessEmployeeSearch
     ) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestAlertException("The start of the range must be before its end", ENTITY_NAME, "invalidrange");
+        }
         Long employeeId = "all".equalsIgnoreCase(businessEmployeeSearch) ? null : Long.parseLong(businessEmployeeSearch);
-        return ResponseEntity.ok(statisticService.getCustomerDistribution(businessId, from, to, employeeId));
+        // a jogosultságot még a kérés szálán ellenőrizzük, az írás már egy async szálon fut
+        Long effectiveEmployeeId = statisticService.resolveEmployeeFilter(businessId, employeeId);
+
+        StreamingResponseBody body = out -> appointmentExportService.writeAppointmentsCsv(businessId, from, to, effectiveEmployeeId, out);
+        String fileName = "appointments-" + businessId + "-" + from.toEpochMilli() + "-" + to.toEpochMilli() + ".csv";
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+            .body(body);
+    }
+
+    /**
+     * {@code POST /daily-stats/rebuild} : rebuilds the daily statistics rollup from the appointment history,
+     * synchronously for one business or in the background for every business when {@code businessId} is omitted.
+     */
+    @PostMapping("/daily-stats/rebuild")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> rebuildDailyStats(@RequestParam(required = false) Long businessId) {
+        if (businessId != null) {
+            dailyBusinessStatsService.rebuildBusiness(businessId);
+            return ResponseEntity.noContent().build();
+        }
+        dailyBusinessStatsRebuildJob.rebuildAll();
+        return ResponseEntity.accepted().build();
+    }
+
+    private static ChartGranularity parseGranularity(String granularity) {
+        try {
+            return ChartGranularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid granularity", ENTITY_NAME, "invalidgranularity");
+        }
     }
 }
@@ -2,6 +2,8 @@ package hu.daniinc.reservation.web.websocket;
 
 import static hu.daniinc.reservation.config.WebsocketConfiguration.IP_ADDRESS;
 
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
 import hu.daniinc.reservation.web.websocket.dto.ActivityDTO;
 import java.security.Principal;
 import java.time.Instant;
@@ -19,21 +21,24 @@ public class ActivityService implements ApplicationListener<SessionDisconnectEve
 
     private static final Logger LOG = LoggerFactory.getLogger(ActivityService.class);
 
-    private final SimpMessageSendingOperations messagingTemplate;
+    private static final String TRACKER_DESTINATION = "/topic/tracker";
 
-    public ActivityService(SimpMessageSendingOperations messagingTemplate) {
-        this.messagingTemplate = messagingTemplate;
+    private final NotificationBus notificationBus;
+
+    // a busz minden példányon a helyi brokernek adja tovább, így a tracker az összes példány kliensét látja
+    public ActivityService(SimpMessageSendingOperations messagingTemplate, NotificationBus notificationBus) {
+        this.notificationBus = notificationBus;
+        notificationBus.subscribe(BusMessage.STOMP, message -> messagingTemplate.convertAndSend(message.target(), message.payload()));
     }
 
     @MessageMapping("/topic/activity")
-    @SendTo("/topic/tracker")
-    public ActivityDTO sendActivity(@Payload ActivityDTO activityDTO, StompHeaderAccessor stompHeaderAccessor, Principal principal) {
+    public void sendActivity(@Payload ActivityDTO activityDTO, StompHeaderAccessor stompHeaderAccessor, Principal principal) {
         activityDTO.setUserLogin(principal.getName());
         activityDTO.setSessionId(stompHeaderAccessor.getSessionId());
         activityDTO.setIpAddress(stompHeaderAccessor.getSessionAttributes().get(IP_ADDRESS).toString());
         activityDTO.setTime(Instant.now());
         LOG.debug("Sending user tracking data {}", activityDTO);
-        return activityDTO;
+        notificationBus.publish(BusMessage.STOMP, TRACKER_DESTINATION, activityDTO);
     }
 
     @Override
@@ -41,6 +46,6 @@ public class ActivityService implements ApplicationListener<SessionDisconnectEve
         ActivityDTO activityDTO = new ActivityDTO();
         activityDTO.setSessionId(event.getSessionId());
         activityDTO.setPage("logout");
-        messagingTemplate.convertAndSend("/topic/tracker", activityDTO);
+        notificationBus.publish(BusMessage.STOMP, TRACKER_DESTINATION, activityDTO);
     }
 }
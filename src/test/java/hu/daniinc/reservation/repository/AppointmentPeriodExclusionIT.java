@@ -0,0 +1,117 @@
+package hu.daniinc.reservation.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.service.BusinessFixtures;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests for the {@code ex_appointment_employee_period} exclusion constraint, which only exists on
+ * PostgreSQL, so only run with the PostgreSQL test profile.
+ * <p>
+ * The rows are inserted with plain SQL, past every check of the services, and each insert commits on its own; they
+ * are deleted after each test.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "spring.profiles.active", matches = ".*testprod.*")
+class AppointmentPeriodExclusionIT {
+
+    private static final Instant TEN = Instant.parse("2030-01-07T10:00:00Z");
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Business business;
+
+    private User user;
+
+    private BusinessEmployee businessEmployee;
+
+    @BeforeEach
+    void initTest() {
+        business = businessRepository.saveAndFlush(BusinessFixtures.business("exclusion"));
+        user = userRepository.saveAndFlush(BusinessFixtures.user("exclusion"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM appointment WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee_permissions WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee WHERE id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM jhi_user WHERE id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM business WHERE id = ?", business.getId());
+    }
+
+    @Test
+    void shouldRejectOverlappingLiveAppointments() {
+        insert(TEN, 60, AppointmentStatus.CONFIRMED);
+
+        assertThatThrownBy(() -> insert(TEN.plusSeconds(30 * 60), 60, AppointmentStatus.PENDING))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining("ex_appointment_employee_period");
+        assertThatThrownBy(() -> insert(TEN.minusSeconds(15 * 60), 90, AppointmentStatus.CONFIRMED))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining("ex_appointment_employee_period");
+        assertThat(count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAcceptOverlapsWithCancelledOrDeletedAppointments() {
+        insert(TEN, 60, AppointmentStatus.CONFIRMED);
+
+        insert(TEN.plusSeconds(15 * 60), 30, AppointmentStatus.CANCELLED);
+        insert(TEN.plusSeconds(30 * 60), 60, AppointmentStatus.DELETED);
+        // a periódus félig nyitott, az előző végén kezdődő foglalás nem ütközik
+        insert(TEN.plusSeconds(60 * 60), 60, AppointmentStatus.PENDING);
+
+        assertThat(count()).isEqualTo(4);
+    }
+
+    private void insert(Instant start, int minutes, AppointmentStatus status) {
+        // az oszlopok UTC falióra-időt tárolnak
+        jdbcTemplate.update(
+            "INSERT INTO appointment (id, start_date, end_date, created_date, status, modifier_token, business_employee_id) " +
+            "VALUES (nextval('sequence_generator'), ?, ?, ?, ?, ?, ?)",
+            LocalDateTime.ofInstant(start, ZoneOffset.UTC),
+            LocalDateTime.ofInstant(start.plusSeconds(minutes * 60L), ZoneOffset.UTC),
+            LocalDateTime.now(ZoneOffset.UTC),
+            status.name(),
+            UUID.randomUUID().toString(),
+            businessEmployee.getId()
+        );
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM appointment WHERE business_employee_id = ?",
+            Long.class,
+            businessEmployee.getId()
+        );
+    }
+}
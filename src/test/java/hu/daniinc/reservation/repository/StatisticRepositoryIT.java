@@ -0,0 +1,116 @@
+package hu.daniinc.reservation.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Guest;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.service.BusinessFixtures;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the returning customer counts of {@link StatisticRepository}: without an employee filter the
+ * first booking at the business decides, with a filter the first booking with that employee.
+ */
+@IntegrationTest
+@Transactional
+class StatisticRepositoryIT {
+
+    private static final Instant FROM = Instant.parse("2030-02-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2030-03-01T00:00:00Z");
+    private static final long DAY = 24 * 3600;
+
+    @Autowired
+    private StatisticRepository statisticRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Business business;
+
+    private User user;
+
+    private User otherUser;
+
+    private BusinessEmployee businessEmployee;
+
+    private BusinessEmployee otherEmployee;
+
+    @BeforeEach
+    void initTest() {
+        business = businessRepository.saveAndFlush(BusinessFixtures.business("returning"));
+        user = userRepository.saveAndFlush(BusinessFixtures.user("returning"));
+        otherUser = userRepository.saveAndFlush(BusinessFixtures.user("returning"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+        otherEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, otherUser));
+
+        // az első vendég korábban csak a másik munkatársnál járt, a törölt korábbi foglalás nem számít
+        Guest firstAtOtherEmployee = guest("first");
+        appointment(otherEmployee, firstAtOtherEmployee, FROM.minusSeconds(10 * DAY), AppointmentStatus.CONFIRMED);
+        appointment(businessEmployee, firstAtOtherEmployee, FROM.minusSeconds(5 * DAY), AppointmentStatus.DELETED);
+        appointment(businessEmployee, firstAtOtherEmployee, FROM.plusSeconds(DAY), AppointmentStatus.CONFIRMED);
+
+        // a második vendég ugyanannál a munkatársnál tér vissza
+        Guest returning = guest("returning");
+        appointment(businessEmployee, returning, FROM.minusSeconds(DAY), AppointmentStatus.CANCELLED);
+        appointment(businessEmployee, returning, FROM.plusSeconds(2 * DAY), AppointmentStatus.CONFIRMED);
+
+        // a harmadik vendég új
+        appointment(businessEmployee, guest("new"), FROM.plusSeconds(3 * DAY), AppointmentStatus.PENDING);
+
+        guestRepository.recomputeFirstVisits(business.getId());
+    }
+
+    @Test
+    void shouldCountGuestsWhoBookedAtTheBusinessBefore() {
+        assertThat(statisticRepository.countUniqueCustomers(business.getId(), null, FROM, TO)).isEqualTo(3);
+        assertThat(statisticRepository.countReturningCustomers(business.getId(), FROM, TO)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountGuestsWhoBookedWithTheEmployeeBefore() {
+        assertThat(statisticRepository.countUniqueCustomers(business.getId(), user.getId(), FROM, TO)).isEqualTo(3);
+        assertThat(statisticRepository.countReturningCustomersOfEmployee(business.getId(), user.getId(), FROM, TO)).isEqualTo(1);
+        assertThat(statisticRepository.countReturningCustomersOfEmployee(business.getId(), otherUser.getId(), FROM, TO)).isZero();
+    }
+
+    private Guest guest(String name) {
+        Guest guest = new Guest().name(name).email(name + "-" + business.getSlug() + "@localhost");
+        guest.setCanBook(true);
+        guest.setBusinessEmployee(businessEmployee);
+        return guestRepository.saveAndFlush(guest);
+    }
+
+    private void appointment(BusinessEmployee employee, Guest guest, Instant start, AppointmentStatus status) {
+        Appointment appointment = new Appointment()
+            .startDate(start)
+            .endDate(start.plusSeconds(3600))
+            .createdDate(Instant.now())
+            .status(status)
+            .guest(guest);
+        appointment.setModifierToken(UUID.randomUUID().toString());
+        appointment.setBusinessEmployee(employee);
+        appointmentRepository.saveAndFlush(appointment);
+    }
+}
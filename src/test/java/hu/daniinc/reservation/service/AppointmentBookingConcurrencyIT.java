@@ -0,0 +1,300 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Offering;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.domain.enumeration.BasicEntityStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.OfferingRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.service.dto.CreateAppointmentByGuestDTO;
+import hu.daniinc.reservation.web.rest.errors.BadRequestAlertException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Concurrency tests for the guest booking of {@link AppointmentService}.
+ * <p>
+ * Not {@code @Transactional}: every booking has to commit on its own thread for the employee lock to matter, so the
+ * created rows are deleted after each test. The pool is widened so the requests really reach the database together.
+ * Overlaps must be rejected by the check under the employee lock: a rejection by a database constraint (the unique
+ * start date, or the exclusion constraint on PostgreSQL) would mean two overlapping bookings got past the lock.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=" + AppointmentBookingConcurrencyIT.POOL_SIZE)
+class AppointmentBookingConcurrencyIT {
+
+    static final int POOL_SIZE = 32;
+
+    private static final int REQUESTS = 500;
+
+    // a mentéskor elkapott DataIntegrityViolationException címe, a zárolás utáni ellenőrzésé ettől eltér
+    private static final String CONSTRAINT_REJECTION = "Appointment is reserved!";
+
+    private static final long CLEANUP_TIMEOUT_MILLIS = 10000;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private OfferingRepository offeringRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Scheduler scheduler;
+
+    private Business business;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    private LocalDate date;
+
+    @BeforeEach
+    void initTest() {
+        business = BusinessFixtures.business("concurrency");
+        business.setMaxWeeksInAdvance(52);
+        business.setAppointmentApprovalRequired(false);
+        business = businessRepository.saveAndFlush(business);
+
+        date = LocalDate.now().plusDays(7);
+    }
+
+    @AfterEach
+    void cleanup() throws Exception {
+        List<Long> employeeIds = employees.stream().map(employee -> employee.businessEmployee().getId()).toList();
+        if (!employeeIds.isEmpty()) {
+            String in = inClause(employeeIds);
+            List<Long> appointmentIds = jdbcTemplate.queryForList(
+                "SELECT id FROM appointment WHERE business_employee_id IN " + in,
+                Long.class
+            );
+            // az értesítéseket a write-behind puffer a commit után írja ki, meg kell várni őket
+            awaitCount("SELECT COUNT(*) FROM notification WHERE business_employee_id IN " + in, appointmentIds.size());
+            for (Long appointmentId : appointmentIds) {
+                scheduler.deleteJob(new JobKey("appointment-reminder-" + appointmentId, "appointment-jobs"));
+            }
+            jdbcTemplate.update("DELETE FROM notification WHERE business_employee_id IN " + in);
+            jdbcTemplate.update("DELETE FROM appointment WHERE business_employee_id IN " + in);
+            jdbcTemplate.update("DELETE FROM guest WHERE business_employee_id IN " + in);
+            jdbcTemplate.update("DELETE FROM daily_business_stats WHERE business_id = ?", business.getId());
+            jdbcTemplate.update("DELETE FROM offering WHERE business_employee_id IN " + in);
+            jdbcTemplate.update("DELETE FROM working_hours WHERE business_employee_id IN " + in);
+            jdbcTemplate.update("DELETE FROM business_employee_permissions WHERE business_employee_id IN " + in);
+            jdbcTemplate.update("DELETE FROM business_employee WHERE id IN " + in);
+            jdbcTemplate.update(
+                "DELETE FROM jhi_user WHERE id IN " + inClause(employees.stream().map(employee -> employee.user().getId()).toList())
+            );
+        }
+        jdbcTemplate.update("DELETE FROM business WHERE id = ?", business.getId());
+        employees.clear();
+    }
+
+    @Test
+    void shouldNeverDoubleBookUnderConcurrentGuestRequests() throws Exception {
+        Employee employee = createEmployee();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger rejectedByConstraint = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        // minden kérés saját szálon, egyszerre indul
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                // 10:00-tól 5 percenként eltolt, egymást átfedő 30 perces foglalások
+                CreateAppointmentByGuestDTO dto = guestBooking(employee, LocalTime.of(10, 0).plusMinutes(5L * (i % 12)), i);
+                futures.add(
+                    executor.submit(() -> {
+                        ready.countDown();
+                        start.await();
+                        try {
+                            book(employee, dto);
+                        } catch (BadRequestAlertException e) {
+                            rejected.incrementAndGet();
+                            if (CONSTRAINT_REJECTION.equals(e.getProblemDetailWithCause().getTitle())) {
+                                rejectedByConstraint.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    })
+                );
+            }
+            assertThat(ready.await(30, TimeUnit.SECONDS)).isTrue();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Instant dayStart = date.atStartOfDay(ZoneId.of(business.getTimeZone())).toInstant();
+        Instant dayEnd = dayStart.plus(Duration.ofDays(1));
+        List<Appointment> booked = appointmentRepository
+            .findOverlappingByBusinessIdAndEmployeeId(business.getId(), employee.user().getId(), dayStart, dayEnd)
+            .stream()
+            .sorted(Comparator.comparing(Appointment::getStartDate))
+            .toList();
+
+        assertThat(booked).isNotEmpty();
+        assertThat(booked.size() + rejected.get()).isEqualTo(REQUESTS);
+        // az ütközéseket a zárolás utáni ellenőrzés utasítja el, nem az adatbázis kényszere (PostgreSQL-en az EXCLUDE)
+        assertThat(rejectedByConstraint.get()).isZero();
+        for (int i = 1; i < booked.size(); i++) {
+            assertThat(booked.get(i).getStartDate()).isAfterOrEqualTo(booked.get(i - 1).getEndDate());
+        }
+    }
+
+    @Test
+    void shouldNotSerializeBookingsOfDifferentEmployees() throws Exception {
+        Employee locked = createEmployee();
+        Employee other = createEmployee();
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            // az egyik alkalmazott zárolását egy nyitott tranzakció tartja
+            Future<?> holder = executor.submit(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    businessEmployeeRepository.lockById(locked.businessEmployee().getId());
+                    lockHeld.countDown();
+                    try {
+                        release.await(1, TimeUnit.MINUTES);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+            );
+            assertThat(lockHeld.await(30, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> sameEmployee = executor.submit(() -> book(locked, guestBooking(locked, LocalTime.of(10, 0), 0)));
+            Future<?> otherEmployee = executor.submit(() -> book(other, guestBooking(other, LocalTime.of(10, 0), 1)));
+
+            // a másik alkalmazott foglalása nem vár a zárra
+            otherEmployee.get(30, TimeUnit.SECONDS);
+            assertThatThrownBy(() -> sameEmployee.get(1, TimeUnit.SECONDS)).isInstanceOf(TimeoutException.class);
+
+            release.countDown();
+            holder.get(30, TimeUnit.SECONDS);
+            sameEmployee.get(30, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(appointmentRepository.findAllById(bookedIds())).hasSize(2);
+    }
+
+    private Employee createEmployee() {
+        User user = userRepository.saveAndFlush(BusinessFixtures.user("concurrency"));
+        BusinessEmployee businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+
+        for (int day = 1; day <= 7; day++) {
+            workingHoursRepository.saveAndFlush(
+                new WorkingHours()
+                    .dayOfWeek(day)
+                    .startTime(LocalTime.of(8, 0))
+                    .endTime(LocalTime.of(20, 0))
+                    .businessEmployee(businessEmployee)
+            );
+        }
+
+        Offering offering = new Offering().title("Haircut").price(BigDecimal.TEN).durationMinutes(30).businessEmployee(businessEmployee);
+        offering.setStatus(BasicEntityStatus.ACTIVE);
+        offering = offeringRepository.saveAndFlush(offering);
+
+        Employee employee = new Employee(user, businessEmployee, offering);
+        employees.add(employee);
+        return employee;
+    }
+
+    private CreateAppointmentByGuestDTO guestBooking(Employee employee, LocalTime time, int guest) {
+        CreateAppointmentByGuestDTO dto = new CreateAppointmentByGuestDTO();
+        dto.setDate(date);
+        dto.setTime(time);
+        dto.setOfferingId(employee.offering().getId());
+        dto.setEmployeeId(employee.user().getId());
+        dto.setName("Guest " + guest);
+        dto.setEmail("guest" + guest + "-" + business.getSlug() + "@localhost");
+        return dto;
+    }
+
+    private Object book(Employee employee, CreateAppointmentByGuestDTO dto) {
+        return appointmentService.saveAppointmentByGuest(business.getId(), employee.user().getId(), dto);
+    }
+
+    private List<Long> bookedIds() {
+        List<Long> employeeIds = employees.stream().map(employee -> employee.businessEmployee().getId()).toList();
+        return jdbcTemplate.queryForList("SELECT id FROM appointment WHERE business_employee_id IN " + inClause(employeeIds), Long.class);
+    }
+
+    private void awaitCount(String countQuery, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CLEANUP_TIMEOUT_MILLIS;
+        while (jdbcTemplate.queryForObject(countQuery, Long.class) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static String inClause(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private record Employee(User user, BusinessEmployee businessEmployee, Offering offering) {}
+}
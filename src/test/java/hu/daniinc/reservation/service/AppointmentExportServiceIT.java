@@ -0,0 +1,84 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link AppointmentExportService}.
+ */
+@IntegrationTest
+@Transactional
+class AppointmentExportServiceIT {
+
+    private static final Instant FROM = Instant.parse("2030-01-07T00:00:00Z");
+
+    @Autowired
+    private AppointmentExportService appointmentExportService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Business business;
+
+    private BusinessEmployee businessEmployee;
+
+    @BeforeEach
+    void initTest() {
+        business = businessRepository.saveAndFlush(BusinessFixtures.business("export"));
+        User user = userRepository.saveAndFlush(BusinessFixtures.user("export"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+    }
+
+    @Test
+    void shouldLeaveOutDeletedAppointments() throws Exception {
+        Appointment confirmed = appointment(FROM.plusSeconds(9 * 3600), AppointmentStatus.CONFIRMED);
+        Appointment cancelled = appointment(FROM.plusSeconds(10 * 3600), AppointmentStatus.CANCELLED);
+        Appointment deleted = appointment(FROM.plusSeconds(11 * 3600), AppointmentStatus.DELETED);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = appointmentExportService.writeAppointmentsCsv(business.getId(), FROM, FROM.plusSeconds(24 * 3600), null, out);
+
+        assertThat(count).isEqualTo(2);
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(csv).contains(String.valueOf(confirmed.getId()), String.valueOf(cancelled.getId()), "CANCELLED");
+        assertThat(csv).doesNotContain("DELETED");
+    }
+
+    private Appointment appointment(Instant start, AppointmentStatus status) {
+        Appointment appointment = new Appointment()
+            .startDate(start)
+            .endDate(start.plusSeconds(3600))
+            .createdDate(Instant.now())
+            .status(status);
+        appointment.setModifierToken(UUID.randomUUID().toString());
+        appointment.setBusinessEmployee(businessEmployee);
+        return appointmentRepository.saveAndFlush(appointment);
+    }
+}
@@ -0,0 +1,56 @@
+package hu.daniinc.reservation.service;
+
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.enumeration.BasicEntityStatus;
+import hu.daniinc.reservation.domain.enumeration.BusinessRole;
+import org.apache.commons.lang3.RandomStringUtils;
+
+/**
+ * Unsaved entities for the service integration tests that need a business with employees. Names and logins are
+ * random, so tests that commit their data do not collide.
+ */
+public final class BusinessFixtures {
+
+    private BusinessFixtures() {}
+
+    /**
+     * A business without a break between appointments, with a random slug starting with {@code slugPrefix}.
+     */
+    public static Business business(String slugPrefix) {
+        Business business = new Business().name(slugPrefix + " test").breakBetweenAppointmentsMin(0);
+        business.setSlug(slugPrefix + "-" + random());
+        return business;
+    }
+
+    /**
+     * An activated user with a random login starting with {@code loginPrefix}.
+     */
+    public static User user(String loginPrefix) {
+        User user = new User();
+        user.setLogin(loginPrefix + "-" + random());
+        user.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail(user.getLogin() + "@localhost");
+        user.setLangKey("hu");
+        return user;
+    }
+
+    /**
+     * An active employee of {@code business}; both {@code business} and {@code user} must be saved already.
+     */
+    public static BusinessEmployee employee(Business business, User user) {
+        BusinessEmployee businessEmployee = new BusinessEmployee();
+        businessEmployee.setBusiness(business);
+        businessEmployee.setUser(user);
+        businessEmployee.setRole(BusinessRole.EMPLOYEE);
+        businessEmployee.setStatus(BasicEntityStatus.ACTIVE);
+        businessEmployee.setCreatedBy("system");
+        return businessEmployee;
+    }
+
+    private static String random() {
+        return RandomStringUtils.insecure().nextAlphabetic(8).toLowerCase();
+    }
+}
@@ -0,0 +1,30 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class CsvWriterTest {
+
+    @Test
+    void shouldQuoteFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.writeRow(1L, "Kovács, Anna", "say \"hi\"", "two\nlines", null, new BigDecimal("12500.00"));
+
+        assertThat(out).hasToString("1,\"Kovács, Anna\",\"say \"\"hi\"\"\",\"two\nlines\",,12500.00\r\n");
+    }
+
+    @Test
+    void shouldNeutralizeFormulasButKeepNumbersAndPhoneNumbers() {
+        assertThat(CsvWriter.escape("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+        assertThat(CsvWriter.escape("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+        assertThat(CsvWriter.escape("-2+3+cmd|' /C calc'!A0")).isEqualTo("'-2+3+cmd|' /C calc'!A0");
+        assertThat(CsvWriter.escape("+36 30 123 4567")).isEqualTo("+36 30 123 4567");
+        assertThat(CsvWriter.escape("-15.5")).isEqualTo("-15.5");
+    }
+}
@@ -0,0 +1,210 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Guest;
+import hu.daniinc.reservation.domain.Offering;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.domain.enumeration.BasicEntityStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.GuestRepository;
+import hu.daniinc.reservation.repository.OfferingRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests for the write path of the {@code daily_business_stats} rollup: the refresh of a single day and the
+ * rebuild of the whole business must write the same row. Runs on both databases, each has its own statements.
+ * <p>
+ * Not {@code @Transactional}: the refresh runs in its own transaction and only sees committed rows, so the rows are
+ * committed and deleted after each test.
+ */
+@IntegrationTest
+class DailyBusinessStatsServiceIT {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 10);
+
+    @Autowired
+    private DailyBusinessStatsService dailyBusinessStatsService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private OfferingRepository offeringRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper om;
+
+    private Business business;
+
+    private User user;
+
+    private BusinessEmployee businessEmployee;
+
+    @BeforeEach
+    void initTest() {
+        business = BusinessFixtures.business("rollup");
+        business.setTimeZone(ZONE.getId());
+        business = businessRepository.saveAndFlush(business);
+        user = userRepository.saveAndFlush(BusinessFixtures.user("rollup"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM daily_business_stats WHERE business_id = ?", business.getId());
+        jdbcTemplate.update("DELETE FROM appointment WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM guest WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM offering WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee_permissions WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee WHERE id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM jhi_user WHERE id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM business WHERE id = ?", business.getId());
+    }
+
+    @Test
+    void shouldWriteTheSameRowOnRefreshAndRebuild() throws Exception {
+        Offering haircut = offering("Haircut", "10.00");
+        Offering color = offering("Color", "25.00");
+        Guest anna = guest("Anna", DAY);
+        Guest bela = guest("Bela", DAY);
+        // a napon foglal, de az előző napon jött létre
+        Guest cecil = guest("Cecil", DAY.minusDays(1));
+
+        // foglalás, majd jóváhagyás, lemondás és törlés
+        update(appointment(anna, haircut, 8, AppointmentStatus.PENDING), AppointmentStatus.CONFIRMED);
+        appointment(anna, color, 9, AppointmentStatus.CONFIRMED);
+        appointment(anna, color, 10, AppointmentStatus.CONFIRMED);
+        update(appointment(bela, color, 11, AppointmentStatus.PENDING), AppointmentStatus.CANCELLED);
+        update(appointment(bela, haircut, 12, AppointmentStatus.CONFIRMED), AppointmentStatus.DELETED);
+        appointment(cecil, haircut, 13, AppointmentStatus.PENDING);
+
+        dailyBusinessStatsService.refresh(businessEmployee.getId(), DAY.atTime(12, 0).atZone(ZONE).toInstant());
+        Map<String, Object> refreshed = row();
+        dailyBusinessStatsService.rebuildBusiness(business.getId());
+        Map<String, Object> rebuilt = row();
+
+        // csak a jóváhagyott foglalások bevétele, a törölt foglalás sehol nem számít
+        assertThat((BigDecimal) refreshed.get("revenue")).isEqualByComparingTo("60.00");
+        assertThat(number(refreshed, "bookings")).isEqualTo(3);
+        assertThat(number(refreshed, "cancellations")).isEqualTo(1);
+        assertThat(number(refreshed, "new_guests")).isEqualTo(2);
+        assertThat(topList(refreshed, "top_guests")).containsExactlyInAnyOrder(
+            entry(anna.getId().toString(), "Anna", 3),
+            entry(bela.getId().toString(), "Bela", 1),
+            entry(cecil.getId().toString(), "Cecil", 1)
+        );
+        assertThat(topList(refreshed, "top_offerings")).containsExactlyInAnyOrder(
+            entry("Color", "Color", 3),
+            entry("Haircut", "Haircut", 2)
+        );
+
+        assertThat((BigDecimal) rebuilt.get("revenue")).isEqualByComparingTo((BigDecimal) refreshed.get("revenue"));
+        assertThat(number(rebuilt, "bookings")).isEqualTo(number(refreshed, "bookings"));
+        assertThat(number(rebuilt, "cancellations")).isEqualTo(number(refreshed, "cancellations"));
+        assertThat(number(rebuilt, "new_guests")).isEqualTo(number(refreshed, "new_guests"));
+        // azonos darabszámnál a sorrend adatbázisonként eltérhet
+        assertThat(topList(rebuilt, "top_guests")).containsExactlyInAnyOrderElementsOf(topList(refreshed, "top_guests"));
+        assertThat(topList(rebuilt, "top_offerings")).containsExactlyInAnyOrderElementsOf(topList(refreshed, "top_offerings"));
+    }
+
+    private Offering offering(String title, String price) {
+        Offering offering = new Offering().title(title).price(new BigDecimal(price)).durationMinutes(60).businessEmployee(businessEmployee);
+        offering.setStatus(BasicEntityStatus.ACTIVE);
+        return offeringRepository.saveAndFlush(offering);
+    }
+
+    private Guest guest(String name, LocalDate createdOn) {
+        Guest guest = new Guest().name(name).email(name.toLowerCase() + "-" + business.getSlug() + "@localhost");
+        guest.setCanBook(true);
+        guest.setBusinessEmployee(businessEmployee);
+        guest = guestRepository.saveAndFlush(guest);
+        // a létrehozás idejét a naplózás írja, az oszlop UTC falióra-időt tárol
+        Instant createdDate = createdOn.atTime(7, 0).atZone(ZONE).toInstant();
+        jdbcTemplate.update(
+            "UPDATE guest SET created_date = ? WHERE id = ?",
+            LocalDateTime.ofInstant(createdDate, ZoneOffset.UTC),
+            guest.getId()
+        );
+        return guest;
+    }
+
+    private Appointment appointment(Guest guest, Offering offering, int hour, AppointmentStatus status) {
+        Instant start = DAY.atTime(hour, 0).atZone(ZONE).toInstant();
+        Appointment appointment = new Appointment()
+            .startDate(start)
+            .endDate(start.plusSeconds(3600))
+            .createdDate(Instant.now())
+            .status(status)
+            .guest(guest);
+        appointment.setOffering(offering);
+        appointment.setModifierToken(UUID.randomUUID().toString());
+        appointment.setBusinessEmployee(businessEmployee);
+        return appointmentRepository.saveAndFlush(appointment);
+    }
+
+    private void update(Appointment appointment, AppointmentStatus status) {
+        appointment.setStatus(status);
+        appointmentRepository.saveAndFlush(appointment);
+    }
+
+    private Map<String, Object> row() {
+        return jdbcTemplate.queryForMap(
+            "SELECT revenue, bookings, cancellations, new_guests, top_guests, top_offerings FROM daily_business_stats " +
+            "WHERE business_employee_id = ? AND stat_date = ?",
+            businessEmployee.getId(),
+            DAY
+        );
+    }
+
+    private static long number(Map<String, Object> row, String column) {
+        return ((Number) row.get(column)).longValue();
+    }
+
+    private List<Map<String, Object>> topList(Map<String, Object> row, String column) throws Exception {
+        return om.readValue((String) row.get(column), new TypeReference<>() {});
+    }
+
+    private static Map<String, Object> entry(String key, String label, int count) {
+        return Map.of("key", key, "label", label, "count", count);
+    }
+}
@@ -0,0 +1,172 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Offering;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.domain.enumeration.BasicEntityStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.OfferingRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.service.availability.BookingContext;
+import hu.daniinc.reservation.service.availability.BookingValidator;
+import hu.daniinc.reservation.service.dto.CreateAppointmentByGuestDTO;
+import hu.daniinc.reservation.web.rest.errors.BadRequestAlertException;
+import jakarta.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the checks of the guest booking in {@link AppointmentService#saveAppointmentByGuest}: the
+ * {@link BookingContext} loaded by the {@link BookingValidator} and the slot checks made against it.
+ */
+@IntegrationTest
+@Transactional
+class GuestBookingValidationIT {
+
+    private static final int MAX_WEEKS_IN_ADVANCE = 4;
+
+    private static final Instant FAR_FUTURE = Instant.parse("2100-01-01T00:00:00Z");
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private BookingValidator bookingValidator;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private OfferingRepository offeringRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    private Business business;
+
+    private User user;
+
+    private BusinessEmployee businessEmployee;
+
+    private Offering offering;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void initTest() {
+        business = BusinessFixtures.business("booking");
+        business.setMaxWeeksInAdvance(MAX_WEEKS_IN_ADVANCE);
+        business.setAppointmentApprovalRequired(false);
+        business = businessRepository.saveAndFlush(business);
+        today = LocalDate.now(ZoneId.of(business.getTimeZone()));
+
+        user = userRepository.saveAndFlush(BusinessFixtures.user("booking"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+        offering = createOffering(businessEmployee);
+
+        for (int day = 1; day <= 7; day++) {
+            workingHoursRepository.saveAndFlush(
+                new WorkingHours()
+                    .dayOfWeek(day)
+                    .startTime(LocalTime.of(8, 0))
+                    .endTime(LocalTime.of(20, 0))
+                    .businessEmployee(businessEmployee)
+            );
+        }
+    }
+
+    @Test
+    void shouldRejectASlotInThePast() {
+        CreateAppointmentByGuestDTO dto = guestBooking(today.minusDays(1), offering);
+
+        assertThatThrownBy(() -> book(dto)).isInstanceOf(BadRequestAlertException.class);
+        assertNothingBooked();
+    }
+
+    @Test
+    void shouldRejectASlotBeyondMaxWeeksInAdvance() {
+        LocalDate lastDay = today.plusWeeks(MAX_WEEKS_IN_ADVANCE);
+        BookingContext context = bookingValidator.loadContext(business.getId(), user.getId(), offering.getId());
+        // a horizont utolsó napja még foglalható, a rács szerint a következő is az lenne
+        assertThat(bookingValidator.isSlotAvailable(context, lastDay, LocalTime.of(10, 0))).isTrue();
+
+        CreateAppointmentByGuestDTO dto = guestBooking(lastDay.plusDays(1), offering);
+
+        assertThatThrownBy(() -> book(dto)).isInstanceOf(BadRequestAlertException.class);
+        assertNothingBooked();
+    }
+
+    @Test
+    void shouldRejectAnInactiveEmployee() {
+        businessEmployee.setStatus(BasicEntityStatus.INACTIVE);
+        businessEmployeeRepository.saveAndFlush(businessEmployee);
+        CreateAppointmentByGuestDTO dto = guestBooking(today.plusDays(1), offering);
+
+        assertThatThrownBy(() -> book(dto)).isInstanceOf(EntityNotFoundException.class).hasMessage("Employee not found");
+        assertNothingBooked();
+    }
+
+    @Test
+    void shouldRejectAnOfferingOfAnotherBusiness() {
+        Business otherBusiness = businessRepository.saveAndFlush(BusinessFixtures.business("booking"));
+        User otherUser = userRepository.saveAndFlush(BusinessFixtures.user("booking"));
+        BusinessEmployee otherEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(otherBusiness, otherUser));
+        Offering otherOffering = createOffering(otherEmployee);
+        CreateAppointmentByGuestDTO dto = guestBooking(today.plusDays(1), otherOffering);
+
+        assertThatThrownBy(() -> book(dto)).hasMessage("Business doesn't have the offer with id: " + otherOffering.getId());
+        assertNothingBooked();
+    }
+
+    private Offering createOffering(BusinessEmployee employee) {
+        Offering created = new Offering().title("Haircut").price(BigDecimal.TEN).durationMinutes(30).businessEmployee(employee);
+        created.setStatus(BasicEntityStatus.ACTIVE);
+        return offeringRepository.saveAndFlush(created);
+    }
+
+    private CreateAppointmentByGuestDTO guestBooking(LocalDate date, Offering bookedOffering) {
+        CreateAppointmentByGuestDTO dto = new CreateAppointmentByGuestDTO();
+        dto.setDate(date);
+        dto.setTime(LocalTime.of(10, 0));
+        dto.setOfferingId(bookedOffering.getId());
+        dto.setEmployeeId(user.getId());
+        dto.setName("Guest");
+        dto.setEmail("guest-" + business.getSlug() + "@localhost");
+        return dto;
+    }
+
+    private Object book(CreateAppointmentByGuestDTO dto) {
+        return appointmentService.saveAppointmentByGuest(business.getId(), user.getId(), dto);
+    }
+
+    private void assertNothingBooked() {
+        assertThat(
+            appointmentRepository.findOverlappingByBusinessIdAndEmployeeId(business.getId(), user.getId(), Instant.EPOCH, FAR_FUTURE)
+        ).isEmpty();
+    }
+}
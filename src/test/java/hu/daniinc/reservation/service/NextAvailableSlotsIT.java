@@ -0,0 +1,184 @@
+package hu.daniinc.reservation.service;
+
+import static hu.daniinc.reservation.web.rest.TestUtil.tenantBusiness;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Offering;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.domain.enumeration.BasicEntityStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.OfferingRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.web.rest.AppointmentResource;
+import hu.daniinc.reservation.web.rest.errors.ExceptionTranslator;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link AppointmentService#findNextAvailableSlots}: the search grows its window (1 day, 1 week,
+ * then 31 days) until it has {@code n} slots or has looked 366 days ahead.
+ */
+@IntegrationTest
+@Transactional
+class NextAvailableSlotsIT {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+    // 2030-01-01 01:00 helyi idő, az első nap 10:00-s slotja még hátravan
+    private static final Instant AFTER = Instant.parse("2030-01-01T00:00:00Z");
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private OfferingRepository offeringRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    private Business business;
+
+    private User user;
+
+    private BusinessEmployee businessEmployee;
+
+    private Offering offering;
+
+    @BeforeEach
+    void initTest() {
+        business = BusinessFixtures.business("next");
+        business.setTimeZone(ZONE.getId());
+        business = businessRepository.saveAndFlush(business);
+        user = userRepository.saveAndFlush(BusinessFixtures.user("next"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+
+        // naponta egyetlen egyórás slot: 10:00
+        for (int day = 1; day <= 7; day++) {
+            workingHoursRepository.saveAndFlush(
+                new WorkingHours()
+                    .dayOfWeek(day)
+                    .startTime(LocalTime.of(10, 0))
+                    .endTime(LocalTime.of(11, 0))
+                    .businessEmployee(businessEmployee)
+            );
+        }
+
+        offering = new Offering().title("Massage").price(BigDecimal.TEN).durationMinutes(60).businessEmployee(businessEmployee);
+        offering.setStatus(BasicEntityStatus.ACTIVE);
+        offering = offeringRepository.saveAndFlush(offering);
+    }
+
+    @Test
+    void shouldReturnEmptyWhenNothingIsFreeWithin366Days() {
+        appointment(AFTER, AFTER.plusSeconds(400L * 24 * 3600));
+
+        assertThat(findNext(5)).isEmpty();
+    }
+
+    @Test
+    void shouldCollectSlotsOverSeveralWindowsWithoutDuplicates() {
+        // 40 nap: az 1 napos, a 7 napos, a 31 napos és a következő ablakból is
+        List<Instant> slots = findNext(40);
+
+        List<Instant> expected = new ArrayList<>();
+        for (int day = 0; day < 40; day++) {
+            expected.add(FIRST_DAY.plusDays(day).atTime(10, 0).atZone(ZONE).toInstant());
+        }
+        assertThat(slots).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldReturnFewerSlotsWhenNIsLargerThanTheFreeOnes() {
+        // csak az első három nap szabad, utána több mint egy évig foglalt
+        Instant busyFrom = FIRST_DAY.plusDays(3).atStartOfDay(ZONE).toInstant();
+        appointment(busyFrom, busyFrom.plusSeconds(400L * 24 * 3600));
+
+        assertThat(findNext(50)).containsExactly(
+            FIRST_DAY.atTime(10, 0).atZone(ZONE).toInstant(),
+            FIRST_DAY.plusDays(1).atTime(10, 0).atZone(ZONE).toInstant(),
+            FIRST_DAY.plusDays(2).atTime(10, 0).atZone(ZONE).toInstant()
+        );
+    }
+
+    @Test
+    void shouldRejectACountOutsideOneToFifty() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AppointmentResource(appointmentService, appointmentRepository, om))
+            .setCustomArgumentResolvers(tenantBusiness(business.getId()))
+            .setControllerAdvice(exceptionTranslator)
+            .build();
+        String url = "/api/appointments/employees/{employeeId}/next-available-slots";
+
+        for (String count : List.of("0", "51")) {
+            mockMvc
+                .perform(get(url, user.getId()).param("offeringId", offering.getId().toString()).param("count", count))
+                .andExpect(status().isBadRequest());
+        }
+        mockMvc
+            .perform(
+                get(url, user.getId())
+                    .param("offeringId", offering.getId().toString())
+                    .param("after", AFTER.toString())
+                    .param("count", "50")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(50));
+    }
+
+    private List<Instant> findNext(int n) {
+        return appointmentService.findNextAvailableSlots(business.getId(), user.getId(), offering.getId(), AFTER, n);
+    }
+
+    private void appointment(Instant start, Instant end) {
+        Appointment appointment = new Appointment()
+            .startDate(start)
+            .endDate(end)
+            .createdDate(Instant.now())
+            .status(AppointmentStatus.CONFIRMED);
+        appointment.setModifierToken(UUID.randomUUID().toString());
+        appointment.setBusinessEmployee(businessEmployee);
+        appointmentRepository.saveAndFlush(appointment);
+    }
+}
@@ -0,0 +1,148 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Notification;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.NotificationRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import hu.daniinc.reservation.service.bus.PostgresNotificationBus;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the unread notification counts on the {@link PostgresNotificationBus}, so only run with the
+ * PostgreSQL test profile.
+ * <p>
+ * Not {@code @Transactional}: the count change is published after the commit of {@link NotificationService#markAsRead},
+ * and the cached counts are only invalidated if that message really goes out through {@code NOTIFY}.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "spring.profiles.active", matches = ".*testprod.*")
+@TestPropertySource(properties = "application.notification-bus.type=postgres")
+class NotificationUnreadCountIT {
+
+    private static final String UNREAD_COUNT_CHANGED = "notification.unread-count-changed";
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UnreadNotificationCounts unreadNotificationCounts;
+
+    @Autowired
+    private NotificationBus notificationBus;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final BlockingQueue<BusMessage> received = new LinkedBlockingQueue<>();
+
+    private Business business;
+
+    private User user;
+
+    private BusinessEmployee businessEmployee;
+
+    @BeforeEach
+    void initTest() {
+        assertThat(notificationBus).isInstanceOf(PostgresNotificationBus.class);
+
+        business = businessRepository.saveAndFlush(BusinessFixtures.business("notification"));
+
+        user = userRepository.saveAndFlush(BusinessFixtures.user("notification"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+
+        // a felhasználónak szóló üzenetek, a feliratkozás a tesztek között megmarad
+        String target = user.getId().toString();
+        notificationBus.subscribe(BusMessage.SSE, message -> {
+            if (target.equals(message.target())) {
+                received.add(message);
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM notification WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee_permissions WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee WHERE id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM jhi_user WHERE id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM business WHERE id = ?", business.getId());
+    }
+
+    @Test
+    void shouldPublishTheNewCountAndInvalidateTheCachedCountsOnMarkAsRead() throws InterruptedException {
+        Notification notification = createUnreadNotification();
+        assertThat(unreadNotificationCounts.get(user.getId(), businessEmployee.getId())).isEqualTo(1);
+
+        notificationService.markAsRead(notification.getId(), businessEmployee.getId(), user);
+
+        BusMessage message = received.poll(10, TimeUnit.SECONDS);
+        assertThat(message).as("unread count change published over NOTIFY").isNotNull();
+        assertThat(message.payload().get("type").asText()).isEqualTo(UNREAD_COUNT_CHANGED);
+        assertThat(message.payload().get("businessEmployeeId").asLong()).isEqualTo(businessEmployee.getId());
+        assertThat(message.payload().get("delta").asLong()).isEqualTo(-1);
+        assertThat(message.payload().get("unreadCount").asLong()).isZero();
+        // a cache a mi feliratkozásunk előtt iratkozott fel, így ekkorra már érvénytelenített
+        assertThat(unreadNotificationCounts.get(user.getId(), businessEmployee.getId())).isZero();
+    }
+
+    @Test
+    void shouldNotPublishWhenTheNotificationWasAlreadyRead() throws InterruptedException {
+        Notification notification = createUnreadNotification();
+        notificationService.markAsRead(notification.getId(), businessEmployee.getId(), user);
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isNotNull();
+
+        notificationService.markAsRead(notification.getId(), businessEmployee.getId(), user);
+
+        assertThat(received.poll(1, TimeUnit.SECONDS)).isNull();
+        assertThat(unreadNotificationCounts.get(user.getId(), businessEmployee.getId())).isZero();
+    }
+
+    private Notification createUnreadNotification() {
+        return transactionTemplate.execute(status -> {
+            Notification notification = new Notification();
+            notification.setType("appointment.created");
+            notification.setData("{}");
+            notification.setRead(false);
+            notification.setCreatedAt(Instant.now());
+            notification.setBusinessEmployee(businessEmployee);
+            notification = notificationRepository.saveAndFlush(notification);
+            businessEmployeeRepository.addUnreadNotifications(businessEmployee.getId(), 1);
+            return notification;
+        });
+    }
+}
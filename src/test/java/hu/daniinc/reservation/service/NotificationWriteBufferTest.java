@@ -0,0 +1,153 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.Notification;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.NotificationRepository;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.InMemoryNotificationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class NotificationWriteBufferTest {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final BusinessEmployeeRepository businessEmployeeRepository = mock(BusinessEmployeeRepository.class);
+    private final InMemoryNotificationBus bus = new InMemoryNotificationBus(new ObjectMapper());
+    private final List<BusMessage> pushed = new ArrayList<>();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationWriteBuffer buffer = buffer(100);
+
+    NotificationWriteBufferTest() {
+        bus.subscribe(BusMessage.SSE, pushed::add);
+    }
+
+    @Test
+    void shouldCollectUpToMaxBatchSizeWaitingNotificationsInSubmitOrder() throws InterruptedException {
+        for (int i = 1; i <= 4; i++) {
+            buffer.enqueue(new NotificationWriteBuffer.PendingNotification(notification("n" + i), 1L, null));
+        }
+
+        assertThat(buffer.nextBatch()).extracting(pending -> pending.notification().getType()).containsExactly("n1", "n2", "n3");
+        assertThat(buffer.nextBatch()).extracting(pending -> pending.notification().getType()).containsExactly("n4");
+        assertThat(buffer.nextBatch()).isEmpty();
+    }
+
+    @Test
+    void shouldPushOnlyAfterTheBatchIsSavedInSubmitOrder() {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            assertThat(pushed).isEmpty();
+            List<Notification> notifications = invocation.getArgument(0);
+            notifications.forEach(notification -> notification.setId(ids.incrementAndGet()));
+            batchSizes.add(notifications.size());
+            return notifications;
+        });
+
+        buffer.flush(
+            List.of(
+                new NotificationWriteBuffer.PendingNotification(notification("n1"), 1L, null),
+                new NotificationWriteBuffer.PendingNotification(notification("n2"), 2L, null),
+                new NotificationWriteBuffer.PendingNotification(notification("n3"), 1L, null)
+            )
+        );
+
+        assertThat(batchSizes).containsExactly(3);
+        verify(businessEmployeeRepository).addUnreadNotifications(10L, 3L);
+        assertThat(pushed).extracting(message -> message.payload().get("type").asText()).containsExactly("n1", "n2", "n3");
+        assertThat(pushed).extracting(BusMessage::target).containsExactly("1", "2", "1");
+        assertThat(pushed).extracting(message -> message.payload().get("id").asLong()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldFallBackToSingleInsertsAndSkipTheFailingNotification() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> notifications = invocation.getArgument(0);
+            if (notifications.stream().anyMatch(notification -> "bad".equals(notification.getType()))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            notifications.forEach(notification -> notification.setId(ids.incrementAndGet()));
+            return notifications;
+        });
+
+        buffer.flush(
+            List.of(
+                new NotificationWriteBuffer.PendingNotification(notification("first"), 1L, null),
+                new NotificationWriteBuffer.PendingNotification(notification("bad"), 1L, null),
+                new NotificationWriteBuffer.PendingNotification(notification("last"), 1L, null)
+            )
+        );
+
+        assertThat(pushed).extracting(message -> message.payload().get("type").asText()).containsExactly("first", "last");
+        verify(businessEmployeeRepository, times(2)).addUnreadNotifications(10L, 1L);
+    }
+
+    @Test
+    void shouldDropTheNotificationWhenTheBufferStaysFull() throws InterruptedException {
+        NotificationWriteBuffer full = buffer(1);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> notifications = invocation.getArgument(0);
+            notifications.forEach(notification -> notification.setId(ids.incrementAndGet()));
+            return notifications;
+        });
+        assertThat(full.enqueue(new NotificationWriteBuffer.PendingNotification(notification("queued"), 1L, null))).isTrue();
+
+        // nem blokkol, hanem eldobja, a várakozót pedig kiírja, mert az író szál nem fut
+        full.submit(notification("dropped"), 1L, null);
+
+        assertThat(meterRegistry.get("reservation.notifications.dropped").counter().count()).isEqualTo(1);
+        assertThat(pushed).extracting(message -> message.payload().get("type").asText()).containsExactly("queued");
+    }
+
+    @Test
+    void shouldSaveInANewTransaction() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        buffer.flush(List.of(new NotificationWriteBuffer.PendingNotification(notification("n1"), 1L, null)));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private NotificationWriteBuffer buffer(int capacity) {
+        return new NotificationWriteBuffer(
+            repository,
+            businessEmployeeRepository,
+            new TransactionTemplate(transactionManager),
+            bus,
+            capacity,
+            3,
+            Duration.ZERO,
+            Duration.ofMillis(10),
+            meterRegistry
+        );
+    }
+
+    private static Notification notification(String type) {
+        BusinessEmployee businessEmployee = new BusinessEmployee();
+        businessEmployee.setId(10L);
+        Notification notification = new Notification();
+        notification.setType(type);
+        notification.setBusinessEmployee(businessEmployee);
+        return notification;
+    }
+}
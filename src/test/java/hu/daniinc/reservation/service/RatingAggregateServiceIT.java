@@ -0,0 +1,180 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.service.dto.BusinessDTO;
+import hu.daniinc.reservation.service.dto.BusinessRatingDTO;
+import hu.daniinc.reservation.service.dto.RatingAggregateDTO;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the running rating totals of {@link RatingAggregateService}, kept up to date through
+ * {@link BusinessRatingService}. After every change the totals and the month buckets are compared with what the
+ * ratings themselves give.
+ */
+@IntegrationTest
+@Transactional
+class RatingAggregateServiceIT {
+
+    private static final LocalDate JANUARY = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2026, 2, 1);
+
+    @Autowired
+    private BusinessRatingService businessRatingService;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    private Business business;
+
+    @BeforeEach
+    void initTest() {
+        business = businessRepository.saveAndFlush(BusinessFixtures.business("rating"));
+    }
+
+    @Test
+    void shouldKeepTheTotalsInLineWithTheRatingsThroughCreateUpdateAndDelete() {
+        BusinessRatingDTO first = rate(5, "2026-01-10T12:00:00Z");
+        BusinessRatingDTO second = rate(3, "2026-01-20T12:00:00Z");
+        BusinessRatingDTO third = rate(4, "2026-02-15T12:00:00Z");
+        assertTotalsMatchRatings();
+
+        // csillag módosítása teljes frissítéssel
+        second.setNumber(1);
+        second.setBusiness(businessDTO());
+        businessRatingService.update(second);
+        assertTotalsMatchRatings();
+
+        // csillag módosítása részleges frissítéssel
+        BusinessRatingDTO partial = new BusinessRatingDTO();
+        partial.setId(third.getId());
+        partial.setNumber(2);
+        businessRatingService.partialUpdate(partial);
+        assertTotalsMatchRatings();
+
+        // a szöveg módosítása nem számít
+        BusinessRatingDTO description = new BusinessRatingDTO();
+        description.setId(third.getId());
+        description.setDescription("Changed");
+        businessRatingService.partialUpdate(description);
+        assertTotalsMatchRatings();
+
+        businessRatingService.delete(first.getId());
+        assertTotalsMatchRatings();
+
+        RatingAggregateDTO total = ratingAggregateService.getAggregate(business.getId());
+        assertThat(total.getCount()).isEqualTo(2);
+        assertThat(total.getStarCounts()).containsExactly(1L, 1L, 0L, 0L, 0L);
+        assertThat(ratingAggregateService.getAggregate(business.getId(), JANUARY, JANUARY).getCount()).isEqualTo(1);
+        assertThat(ratingAggregateService.getAggregate(business.getId(), FEBRUARY, FEBRUARY).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRebuildTheSameTotalsAndMonthBucketsTheIncrementalUpdatesKept() {
+        rate(5, "2026-01-10T12:00:00Z");
+        BusinessRatingDTO changed = rate(3, "2026-01-20T12:00:00Z");
+        BusinessRatingDTO removed = rate(4, "2026-02-15T12:00:00Z");
+        rate(2, "2026-02-16T12:00:00Z");
+        changed.setNumber(4);
+        changed.setBusiness(businessDTO());
+        businessRatingService.update(changed);
+        businessRatingService.delete(removed.getId());
+
+        RatingAggregateDTO total = ratingAggregateService.getAggregate(business.getId());
+        List<Map<String, Object>> months = monthRows();
+
+        // eltérés az összesítőkben, amit az újraépítésnek helyre kell hoznia
+        jdbcTemplate.update("UPDATE business SET rating_sum = 99, rating_count = 99 WHERE id = ?", business.getId());
+        jdbcTemplate.update("UPDATE business_rating_month SET rating_count = 99 WHERE business_id = ?", business.getId());
+        ratingAggregateService.rebuildBusiness(business.getId());
+
+        assertThat(ratingAggregateService.getAggregate(business.getId())).usingRecursiveComparison().isEqualTo(total);
+        assertThat(monthRows()).isEqualTo(months);
+        assertTotalsMatchRatings();
+    }
+
+    private BusinessRatingDTO rate(int star, String createdDate) {
+        BusinessRatingDTO rating = new BusinessRatingDTO();
+        rating.setNumber(star);
+        rating.setCreatedDate(Instant.parse(createdDate));
+        rating.setBusiness(businessDTO());
+        return businessRatingService.save(rating);
+    }
+
+    private BusinessDTO businessDTO() {
+        BusinessDTO businessDTO = new BusinessDTO();
+        businessDTO.setId(business.getId());
+        return businessDTO;
+    }
+
+    private void assertTotalsMatchRatings() {
+        // a JdbcTemplate ugyanabban a tranzakcióban olvas, de a függő JPA írásokat nem látja
+        em.flush();
+        Map<String, Object> expected = jdbcTemplate.queryForMap(
+            "SELECT COUNT(*) AS cnt, COALESCE(SUM(number), 0) AS total, AVG(number) AS average FROM business_rating WHERE business_id = ?",
+            business.getId()
+        );
+        RatingAggregateDTO total = ratingAggregateService.getAggregate(business.getId());
+        assertThat(total.getCount()).isEqualTo(((Number) expected.get("cnt")).longValue());
+        assertThat(total.getSum()).isEqualTo(((Number) expected.get("total")).longValue());
+        if (expected.get("average") == null) {
+            assertThat(total.getAverage()).isNull();
+        } else {
+            assertThat(total.getAverage()).isCloseTo(((Number) expected.get("average")).doubleValue(), within(1e-9));
+        }
+        for (int star = 1; star <= 5; star++) {
+            Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM business_rating WHERE business_id = ? AND number = ?",
+                Long.class,
+                business.getId(),
+                star
+            );
+            assertThat(total.getStarCounts().get(star - 1)).as("%d-star ratings", star).isEqualTo(count);
+        }
+
+        for (LocalDate month : List.of(JANUARY, FEBRUARY)) {
+            // a havi közepi időpontok miatt az UTC hónap megegyezik az üzlet helyi hónapjával
+            Map<String, Object> expectedMonth = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS cnt, COALESCE(SUM(number), 0) AS total FROM business_rating " +
+                "WHERE business_id = ? AND created_date >= ? AND created_date < ?",
+                business.getId(),
+                month.atStartOfDay(),
+                month.plusMonths(1).atStartOfDay()
+            );
+            RatingAggregateDTO monthTotal = ratingAggregateService.getAggregate(business.getId(), month, month);
+            assertThat(monthTotal.getCount()).as("ratings of %s", month).isEqualTo(((Number) expectedMonth.get("cnt")).longValue());
+            assertThat(monthTotal.getSum()).as("stars of %s", month).isEqualTo(((Number) expectedMonth.get("total")).longValue());
+        }
+    }
+
+    private List<Map<String, Object>> monthRows() {
+        em.flush();
+        return jdbcTemplate.queryForList(
+            "SELECT month, rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5 " +
+            "FROM business_rating_month WHERE business_id = ? AND rating_count <> 0 ORDER BY month",
+            business.getId()
+        );
+    }
+}
@@ -0,0 +1,60 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.service.SpaceSavingSketch.Entry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void shouldCountExactlyWhileBelowCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.offer("1", "Anna", 2);
+        sketch.offer("2", "Bela", 5);
+        sketch.offer("1", "Anna", 1);
+        sketch.offer("3", "Cecil", 3);
+
+        assertThat(sketch.top(2)).containsExactly(new Entry("2", "Bela", 5, 0), new Entry("1", "Anna", 3, 0));
+    }
+
+    @Test
+    void shouldReplaceSmallestCounterWhenFull() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer("a", "A", 5);
+        sketch.offer("b", "B", 1);
+        sketch.offer("c", "C", 1);
+
+        assertThat(sketch.size()).isEqualTo(2);
+        assertThat(sketch.top(2)).containsExactly(new Entry("a", "A", 5, 0), new Entry("c", "C", 2, 1));
+    }
+
+    @Test
+    void shouldMergeDailyListsIntoTheSameRankingAsExactCounts() {
+        Random random = new Random(7);
+        Map<String, Long> exact = new HashMap<>();
+        SpaceSavingSketch range = new SpaceSavingSketch(16);
+
+        for (int day = 0; day < 60; day++) {
+            SpaceSavingSketch daily = new SpaceSavingSketch(16);
+            for (int booking = 0; booking < 10; booking++) {
+                // néhány törzsvendég és sok egyszeri vendég
+                String key = random.nextInt(3) == 0 ? "regular-" + random.nextInt(3) : "guest-" + random.nextInt(500);
+                daily.offer(key, key, 1);
+                exact.merge(key, 1L, Long::sum);
+            }
+            range.merge(daily.top(16));
+        }
+
+        List<Entry> top = range.top(3);
+        assertThat(top).extracting(Entry::key).containsExactlyInAnyOrder("regular-0", "regular-1", "regular-2");
+        for (Entry entry : top) {
+            assertThat(entry.count()).isGreaterThanOrEqualTo(exact.get(entry.key()));
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(exact.get(entry.key()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.service.bus.InMemoryNotificationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class StatisticsCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final StatisticsVersions versions = new StatisticsVersions(new InMemoryNotificationBus(new ObjectMapper()));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatisticsCache cache = new StatisticsCache(
+        versions,
+        meterRegistry,
+        Clock.fixed(NOW, ZoneOffset.UTC),
+        Duration.ofMinutes(1),
+        Duration.ofDays(1),
+        100
+    );
+
+    @Test
+    void shouldServeRepeatedRequestsFromTheCacheAndCountHits() {
+        AtomicInteger loads = new AtomicInteger();
+        StatisticsCache.Key key = new StatisticsCache.Key("summary", 1L, null, NOW.minus(Duration.ofDays(30)), NOW);
+
+        cache.get(key, loads::incrementAndGet);
+        Integer second = cache.get(key, loads::incrementAndGet);
+
+        assertThat(second).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("reservation.statistics.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("reservation.statistics.cache").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRecomputeOnlyTheBusinessWhoseVersionWasBumped() {
+        AtomicInteger loads = new AtomicInteger();
+        StatisticsCache.Key first = new StatisticsCache.Key("summary", 1L, null, NOW.minus(Duration.ofDays(30)), NOW);
+        StatisticsCache.Key second = new StatisticsCache.Key("summary", 2L, null, NOW.minus(Duration.ofDays(30)), NOW);
+        cache.get(first, loads::incrementAndGet);
+        cache.get(second, loads::incrementAndGet);
+
+        versions.bump(1L);
+        cache.get(first, loads::incrementAndGet);
+        cache.get(second, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void shouldTreatWindowsEndingWithinTheLastDayAsOpen() {
+        assertThat(cache.isOpen(NOW.plus(Duration.ofDays(1)))).isTrue();
+        assertThat(cache.isOpen(NOW.minus(Duration.ofHours(12)))).isTrue();
+        assertThat(cache.isOpen(NOW.minus(Duration.ofDays(2)))).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.service.bus.InMemoryNotificationBus;
+import org.junit.jupiter.api.Test;
+
+class StatisticsVersionsTest {
+
+    // a közös busz két példány közti LISTEN/NOTIFY-t helyettesíti
+    private final InMemoryNotificationBus bus = new InMemoryNotificationBus(new ObjectMapper());
+
+    @Test
+    void shouldOnlyChangeTheVersionOfTheBumpedBusiness() {
+        StatisticsVersions versions = new StatisticsVersions(bus);
+        String first = versions.current(1L);
+        String second = versions.current(2L);
+
+        versions.bump(1L);
+
+        assertThat(versions.current(1L)).isNotEqualTo(first);
+        assertThat(versions.current(2L)).isEqualTo(second);
+    }
+
+    @Test
+    void shouldChangeEveryVersionWhenTheBusinessIsUnknown() {
+        StatisticsVersions versions = new StatisticsVersions(bus);
+        String first = versions.current(1L);
+
+        versions.bump(null);
+
+        assertThat(versions.current(1L)).isNotEqualTo(first);
+    }
+
+    @Test
+    void shouldNotReuseVersionsOfAnotherInstance() {
+        assertThat(new StatisticsVersions(bus).current(1L)).isNotEqualTo(new StatisticsVersions(bus).current(1L));
+    }
+
+    @Test
+    void shouldBumpTheVersionOnTheOtherInstances() {
+        StatisticsVersions local = new StatisticsVersions(bus);
+        StatisticsVersions remote = new StatisticsVersions(bus);
+        String business = remote.current(1L);
+        String other = remote.current(2L);
+
+        local.bump(1L);
+
+        assertThat(remote.current(1L)).isNotEqualTo(business);
+        assertThat(remote.current(2L)).isEqualTo(other);
+
+        String everyBusiness = remote.current(2L);
+        local.bump(null);
+
+        assertThat(remote.current(2L)).isNotEqualTo(everyBusiness);
+    }
+
+    @Test
+    void shouldBumpOnlyOnceForItsOwnMessage() {
+        StatisticsVersions versions = new StatisticsVersions(bus);
+
+        versions.bump(1L);
+
+        assertThat(versions.current(1L)).endsWith("-0-1");
+    }
+}
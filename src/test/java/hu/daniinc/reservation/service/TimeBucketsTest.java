@@ -0,0 +1,97 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.service.dto.ChartGranularity;
+import hu.daniinc.reservation.service.dto.IncomeBucketDTO;
+import hu.daniinc.reservation.service.dto.RevenuePoint;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimeBucketsTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+
+    @Test
+    void shouldFillDaysWithoutIncomeWithZero() {
+        List<IncomeBucketDTO> buckets = TimeBuckets.sum(
+            List.of(point("2026-03-02T10:00", 10), point("2026-03-02T23:30", 5), point("2026-03-04T00:15", 7)),
+            ChartGranularity.DAY,
+            ZONE,
+            midnight("2026-03-02"),
+            midnight("2026-03-05")
+        );
+
+        assertThat(buckets)
+            .extracting(IncomeBucketDTO::getStart)
+            .containsExactly(millis("2026-03-02"), millis("2026-03-03"), millis("2026-03-04"));
+        assertThat(buckets)
+            .extracting(IncomeBucketDTO::getValue)
+            .containsExactly(BigDecimal.valueOf(15), BigDecimal.ZERO, BigDecimal.valueOf(7));
+    }
+
+    @Test
+    void shouldAlignWeeksToMondayAndMonthsToTheFirstDay() {
+        List<RevenuePoint> points = List.of(point("2026-03-04T12:00", 1), point("2026-03-29T12:00", 2), point("2026-04-01T12:00", 4));
+
+        List<IncomeBucketDTO> weeks = TimeBuckets.sum(points, ChartGranularity.WEEK, ZONE, midnight("2026-03-04"), midnight("2026-04-02"));
+        assertThat(weeks).extracting(IncomeBucketDTO::getStart).startsWith(millis("2026-03-02")).endsWith(millis("2026-03-30"));
+        assertThat(weeks).hasSize(5);
+        assertThat(weeks.get(3).getValue()).isEqualTo(BigDecimal.valueOf(2));
+        assertThat(weeks.get(4).getValue()).isEqualTo(BigDecimal.valueOf(4));
+
+        List<IncomeBucketDTO> months = TimeBuckets.sum(
+            points,
+            ChartGranularity.MONTH,
+            ZONE,
+            midnight("2026-03-01"),
+            midnight("2026-05-01")
+        );
+        assertThat(months).extracting(IncomeBucketDTO::getStart).containsExactly(millis("2026-03-01"), millis("2026-04-01"));
+        assertThat(months).extracting(IncomeBucketDTO::getValue).containsExactly(BigDecimal.valueOf(3), BigDecimal.valueOf(4));
+    }
+
+    @Test
+    void shouldHaveTwentyFiveHoursOnTheAutumnDstDay() {
+        List<IncomeBucketDTO> hours = TimeBuckets.sum(
+            List.of(point("2026-10-25T02:30", 3)),
+            ChartGranularity.HOUR,
+            ZONE,
+            midnight("2026-10-25"),
+            midnight("2026-10-26")
+        );
+
+        assertThat(hours).hasSize(25);
+        assertThat(hours.stream().map(IncomeBucketDTO::getValue).reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualTo(BigDecimal.valueOf(3));
+    }
+
+    @Test
+    void shouldIgnorePointsOutsideTheRange() {
+        List<IncomeBucketDTO> buckets = TimeBuckets.sum(
+            List.of(point("2026-03-01T23:59", 9), point("2026-03-03T00:00", 9)),
+            ChartGranularity.DAY,
+            ZONE,
+            midnight("2026-03-02"),
+            midnight("2026-03-03")
+        );
+
+        assertThat(buckets).singleElement().extracting(IncomeBucketDTO::getValue).isEqualTo(BigDecimal.ZERO);
+    }
+
+    private static RevenuePoint point(String localDateTime, long amount) {
+        return new RevenuePoint(LocalDateTime.parse(localDateTime).atZone(ZONE).toInstant(), BigDecimal.valueOf(amount));
+    }
+
+    private static Instant midnight(String date) {
+        return LocalDate.parse(date).atStartOfDay(ZONE).toInstant();
+    }
+
+    private static long millis(String date) {
+        return midnight(date).toEpochMilli();
+    }
+}
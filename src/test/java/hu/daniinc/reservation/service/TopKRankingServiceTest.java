@@ -0,0 +1,53 @@
+package hu.daniinc.reservation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.config.ApplicationProperties;
+import hu.daniinc.reservation.repository.DailyBusinessStatsRepository;
+import hu.daniinc.reservation.service.TopKRankingService.RankedEntry;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TopKRankingServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 10, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 10, 2);
+
+    private final DailyBusinessStatsRepository repository = mock(DailyBusinessStatsRepository.class);
+    private final TopKRankingService service;
+
+    TopKRankingServiceTest() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getStatistics().setSketchCapacity(2);
+        properties.getStatistics().setTopK(2);
+        service = new TopKRankingService(repository, new ObjectMapper(), properties);
+    }
+
+    @Test
+    void shouldMarkCountsExactWhenNoDailyListWasCut() {
+        when(repository.findTopGuestLists(1L, FROM, TO, null)).thenReturn(
+            List.of(
+                "[{\"key\":\"1\",\"label\":\"Anna\",\"count\":3}]",
+                "[{\"key\":\"1\",\"label\":\"Anna\",\"count\":1}]"
+            )
+        );
+
+        assertThat(service.topGuests(1L, FROM, TO, null)).containsExactly(new RankedEntry("1", "Anna", 4, false));
+    }
+
+    @Test
+    void shouldMarkCountsApproximateWhenADailyListIsFull() {
+        when(repository.findTopGuestLists(1L, FROM, TO, null)).thenReturn(
+            List.of(
+                "[{\"key\":\"1\",\"label\":\"Anna\",\"count\":3},{\"key\":\"2\",\"label\":\"Bela\",\"count\":2}]",
+                "[{\"key\":\"1\",\"label\":\"Anna\",\"count\":1}]"
+            )
+        );
+
+        assertThat(service.topGuests(1L, FROM, TO, null)).extracting(RankedEntry::approximate).containsOnly(true);
+    }
+}
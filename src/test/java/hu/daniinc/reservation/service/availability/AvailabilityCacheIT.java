@@ -0,0 +1,149 @@
+package hu.daniinc.reservation.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.service.BusinessFixtures;
+import hu.daniinc.reservation.service.bus.BusMessage;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the occupancy of {@link AvailabilityCache}, and for the evictions it receives from the other
+ * instances over the {@link NotificationBus}.
+ */
+@IntegrationTest
+@Transactional
+class AvailabilityCacheIT {
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private NotificationBus notificationBus;
+
+    private Business business;
+
+    private BusinessEmployee businessEmployee;
+
+    private ZoneId zone;
+
+    @BeforeEach
+    void initTest() {
+        business = businessRepository.saveAndFlush(BusinessFixtures.business("occupancy"));
+        zone = ZoneId.of(business.getTimeZone());
+
+        User user = userRepository.saveAndFlush(BusinessFixtures.user("occupancy"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+
+        for (int day = 1; day <= 7; day++) {
+            workingHoursRepository.saveAndFlush(
+                new WorkingHours()
+                    .dayOfWeek(day)
+                    .startTime(LocalTime.of(8, 0))
+                    .endTime(LocalTime.of(16, 0))
+                    .businessEmployee(businessEmployee)
+            );
+        }
+    }
+
+    @Test
+    void shouldCountPendingAndConfirmedButNotCancelledOrDeletedAppointmentsAsBooked() {
+        LocalDate today = LocalDate.now(zone);
+        LocalDate date = today.minusDays(3);
+        appointment(date, 9, AppointmentStatus.CONFIRMED);
+        appointment(date, 10, AppointmentStatus.PENDING);
+        appointment(date, 11, AppointmentStatus.CANCELLED);
+        appointment(date, 12, AppointmentStatus.DELETED);
+        Long employeeId = businessEmployee.getUser().getId();
+
+        DayOccupancy occupancy = availabilityCache
+            .getOccupancy(business.getId(), List.of(employeeId), date, date, zone, today)
+            .get(employeeId)
+            .get(date);
+
+        assertThat(occupancy).isEqualTo(new DayOccupancy(8 * 3600, 2 * 3600));
+    }
+
+    @Test
+    void shouldDropTheDaysEvictedByAnotherInstance() {
+        LocalDate today = LocalDate.now(zone);
+        LocalDate date = today.minusDays(3);
+        appointment(date, 9, AppointmentStatus.CONFIRMED);
+        Long employeeId = businessEmployee.getUser().getId();
+        assertThat(occupancy(employeeId, date, today).bookedSeconds()).isEqualTo(3600);
+
+        // a másik példány írása: itt nem hívódik evict, a lezárt nap a cache-ből jön
+        appointment(date, 10, AppointmentStatus.CONFIRMED);
+        assertThat(occupancy(employeeId, date, today).bookedSeconds()).isEqualTo(3600);
+
+        notificationBus.publish(
+            BusMessage.AVAILABILITY,
+            business.getId().toString(),
+            Map.of("origin", "other-instance", "employeeId", employeeId, "dates", List.of(date.toString()))
+        );
+
+        assertThat(occupancy(employeeId, date, today).bookedSeconds()).isEqualTo(2 * 3600);
+    }
+
+    @Test
+    void shouldDropTheWholeBusinessEvictedByAnotherInstance() {
+        LocalDate today = LocalDate.now(zone);
+        LocalDate date = today.minusDays(3);
+        Long employeeId = businessEmployee.getUser().getId();
+        assertThat(occupancy(employeeId, date, today).bookedSeconds()).isZero();
+        appointment(date, 9, AppointmentStatus.CONFIRMED);
+
+        notificationBus.publish(BusMessage.AVAILABILITY, business.getId().toString(), Map.of("origin", "other-instance"));
+
+        assertThat(occupancy(employeeId, date, today).bookedSeconds()).isEqualTo(3600);
+    }
+
+    private DayOccupancy occupancy(Long employeeId, LocalDate date, LocalDate today) {
+        return availabilityCache.getOccupancy(business.getId(), List.of(employeeId), date, date, zone, today).get(employeeId).get(date);
+    }
+
+    private void appointment(LocalDate date, int hour, AppointmentStatus status) {
+        appointmentRepository.saveAndFlush(
+            new Appointment()
+                .startDate(date.atTime(hour, 0).atZone(zone).toInstant())
+                .endDate(date.atTime(hour + 1, 0).atZone(zone).toInstant())
+                .status(status)
+                .businessEmployee(businessEmployee)
+        );
+    }
+}
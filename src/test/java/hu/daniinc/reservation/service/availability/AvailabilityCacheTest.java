@@ -0,0 +1,123 @@
+package hu.daniinc.reservation.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.CustomWorkingHoursRepository;
+import hu.daniinc.reservation.repository.EmployeeTimeOffRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.service.bus.NotificationBus;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class AvailabilityCacheTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 23);
+    private static final Long BUSINESS_ID = 1L;
+    private static final Long EMPLOYEE_ID = 2L;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+        AvailabilityCache.DAY_AVAILABILITY_CACHE,
+        AvailabilityCache.DAY_OCCUPANCY_CACHE
+    );
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final BusinessEmployeeRepository businessEmployeeRepository = mock(BusinessEmployeeRepository.class);
+    private final AvailabilityCache availabilityCache = new AvailabilityCache(
+        cacheManager,
+        new AvailabilityEngine(Duration.ofMinutes(5)),
+        appointmentRepository,
+        mock(WorkingHoursRepository.class),
+        mock(CustomWorkingHoursRepository.class),
+        mock(EmployeeTimeOffRepository.class),
+        businessEmployeeRepository,
+        mock(BusinessRepository.class),
+        mock(NotificationBus.class)
+    );
+
+    private BusinessEmployee businessEmployee;
+
+    @BeforeEach
+    void initTest() {
+        Business business = new Business();
+        business.setId(BUSINESS_ID);
+        User user = new User();
+        user.setId(EMPLOYEE_ID);
+        businessEmployee = new BusinessEmployee();
+        businessEmployee.setId(3L);
+        businessEmployee.setBusiness(business);
+        businessEmployee.setUser(user);
+
+        when(businessEmployeeRepository.findIdsByBusinessIdAndUserIdIn(anyLong(), anyCollection())).thenReturn(
+            Collections.singletonList(new Object[] { 3L, EMPLOYEE_ID })
+        );
+    }
+
+    @Test
+    void shouldEvictTheDaysAroundAWrittenAppointment() {
+        availabilityCache.getDays(BUSINESS_ID, EMPLOYEE_ID, MONDAY, MONDAY.plusDays(6), ZONE);
+        availabilityCache.getDays(BUSINESS_ID, EMPLOYEE_ID, MONDAY, MONDAY.plusDays(6), ZONE);
+        verify(appointmentRepository, times(1)).findOverlappingByBusinessEmployeeIdIn(anyCollection(), any(), any());
+
+        Appointment appointment = new Appointment().startDate(at(MONDAY.plusDays(3), 10)).endDate(at(MONDAY.plusDays(3), 11));
+        appointment.setBusinessEmployee(businessEmployee);
+        availabilityCache.evictAppointment(appointment);
+
+        // a foglalás napja és két szomszédja esik ki, a többi nap a cache-ben marad
+        assertThat(cached(MONDAY.plusDays(1))).isNotNull();
+        assertThat(cached(MONDAY.plusDays(2))).isNull();
+        assertThat(cached(MONDAY.plusDays(3))).isNull();
+        assertThat(cached(MONDAY.plusDays(4))).isNull();
+        assertThat(cached(MONDAY.plusDays(5))).isNotNull();
+
+        availabilityCache.getDays(BUSINESS_ID, EMPLOYEE_ID, MONDAY, MONDAY.plusDays(6), ZONE);
+        verify(appointmentRepository, times(2)).findOverlappingByBusinessEmployeeIdIn(anyCollection(), any(), any());
+    }
+
+    @Test
+    void shouldNotKeepADayLoadedWhileItWasWritten() {
+        // az írás a betöltés lekérdezései közben fut le, a betöltött nap már elavult
+        when(appointmentRepository.findOverlappingByBusinessEmployeeIdIn(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            availabilityCache.evictDay(businessEmployee, MONDAY);
+            return List.of();
+        });
+
+        DayAvailability day = availabilityCache.getDay(BUSINESS_ID, EMPLOYEE_ID, MONDAY, ZONE);
+
+        assertThat(day).isNotNull();
+        assertThat(cached(MONDAY)).isNull();
+        availabilityCache.getDay(BUSINESS_ID, EMPLOYEE_ID, MONDAY, ZONE);
+        verify(appointmentRepository, times(2)).findOverlappingByBusinessEmployeeIdIn(anyCollection(), any(), any());
+    }
+
+    private DayAvailability cached(LocalDate date) {
+        Cache cache = cacheManager.getCache(AvailabilityCache.DAY_AVAILABILITY_CACHE);
+        AvailabilityCache.DayKey key = new AvailabilityCache.DayKey(new AvailabilityCache.EmployeeKey(BUSINESS_ID, EMPLOYEE_ID), 0, date);
+        return cache.get(key, DayAvailability.class);
+    }
+
+    private static Instant at(LocalDate date, int hour) {
+        return date.atTime(hour, 0).atZone(ZONE).toInstant();
+    }
+}
@@ -0,0 +1,384 @@
+package hu.daniinc.reservation.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.CustomWorkingHours;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.service.EmployeeTimeOffService.TimeOffRange;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class AvailabilityEngineTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 23);
+
+    private final AvailabilityEngine engine = new AvailabilityEngine(Duration.ofMinutes(5));
+
+    @Test
+    void shouldExcludeSlotsOverlappingAppointmentsAndTimeOffs() {
+        Set<WorkingHours> workingHours = Set.of(workingHours(1, "09:00", "12:00"));
+        Appointment appointment = appointment(at(MONDAY, "10:00"), at(MONDAY, "10:30"));
+        TimeOffRange timeOff = new TimeOffRange(at(MONDAY, "11:15"), at(MONDAY, "11:20"));
+        BusyTimeline busy = BusyTimeline.builder().addAppointments(List.of(appointment)).addTimeOffs(List.of(timeOff)).build();
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            workingHours,
+            Map.of(),
+            busy,
+            Duration.ofMinutes(30),
+            Instant.EPOCH
+        );
+
+        assertThat(result.get(MONDAY)).containsExactly(
+            at(MONDAY, "09:00"),
+            at(MONDAY, "09:30"),
+            at(MONDAY, "10:30"),
+            at(MONDAY, "11:30")
+        );
+    }
+
+    @Test
+    void shouldPreferCustomWorkingHoursAndSkipPastSlots() {
+        Set<WorkingHours> workingHours = Set.of(workingHours(1, "09:00", "17:00"));
+        CustomWorkingHours custom = new CustomWorkingHours()
+            .workDate(MONDAY)
+            .startTime(at(MONDAY, "14:00"))
+            .endTime(at(MONDAY, "16:00"));
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY.plusDays(1),
+            ZONE,
+            workingHours,
+            Map.of(MONDAY, custom),
+            BusyTimeline.empty(),
+            Duration.ofHours(1),
+            at(MONDAY, "14:30")
+        );
+
+        assertThat(result).containsOnlyKeys(MONDAY);
+        assertThat(result.get(MONDAY)).containsExactly(at(MONDAY, "15:00"));
+    }
+
+    @Test
+    void shouldReturnEmptyMapForInvalidSlotLength() {
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            Set.of(workingHours(1, "09:00", "17:00")),
+            Map.of(),
+            BusyTimeline.empty(),
+            Duration.ZERO,
+            Instant.EPOCH
+        );
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shouldKeepBreakAroundAppointments() {
+        Set<WorkingHours> workingHours = Set.of(workingHours(1, "09:00", "12:00"));
+        BusyTimeline busy = BusyTimeline.builder()
+            .addAppointments(List.of(appointment(at(MONDAY, "10:00"), at(MONDAY, "10:30"))), Duration.ofMinutes(15))
+            .build();
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            workingHours,
+            Map.of(),
+            busy,
+            Duration.ofMinutes(30),
+            Instant.EPOCH
+        );
+
+        assertThat(result.get(MONDAY)).containsExactly(at(MONDAY, "09:00"), at(MONDAY, "11:00"), at(MONDAY, "11:30"));
+    }
+
+    @Test
+    void shouldCheckOffGridBookingsExactly() {
+        Map<LocalDate, DayAvailability> days = engine.buildDays(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            Set.of(workingHours(1, "09:00", "11:00")),
+            Map.of(),
+            BusyTimeline.builder().add(at(MONDAY, "09:07"), at(MONDAY, "09:14")).add(at(MONDAY, "09:57"), at(MONDAY, "10:02")).build()
+        );
+        DayAvailability day = days.get(MONDAY);
+
+        assertThat(day.isFree(at(MONDAY, "09:00"), at(MONDAY, "09:07"))).isTrue();
+        assertThat(day.isFree(at(MONDAY, "09:00"), at(MONDAY, "09:08"))).isFalse();
+        assertThat(day.isFree(at(MONDAY, "09:14"), at(MONDAY, "09:57"))).isTrue();
+        assertThat(day.isFree(at(MONDAY, "09:13"), at(MONDAY, "09:30"))).isFalse();
+        assertThat(day.isFree(at(MONDAY, "09:56"), at(MONDAY, "09:58"))).isFalse();
+        assertThat(day.isFree(at(MONDAY, "10:02"), at(MONDAY, "11:00"))).isTrue();
+        assertThat(day.isFree(at(MONDAY, "10:30"), at(MONDAY, "11:05"))).isFalse();
+    }
+
+    @Test
+    void shouldOfferSlotsNextToOffGridBookings() {
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            Set.of(workingHours(1, "09:00", "10:00")),
+            Map.of(),
+            BusyTimeline.builder().add(at(MONDAY, "09:07"), at(MONDAY, "09:14")).build(),
+            Duration.ofMinutes(7),
+            Instant.EPOCH
+        );
+
+        assertThat(result.get(MONDAY)).startsWith(at(MONDAY, "09:00"), at(MONDAY, "09:14"), at(MONDAY, "09:21"));
+    }
+
+    @Test
+    void shouldBlockSlotsStrictlyContainingZeroLengthAppointments() {
+        BusyTimeline busy = BusyTimeline.builder()
+            .addAppointments(
+                List.of(appointment(at(MONDAY, "09:10"), at(MONDAY, "09:10")), appointment(at(MONDAY, "10:00"), at(MONDAY, "10:00")))
+            )
+            .build();
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            Set.of(workingHours(1, "09:00", "11:00")),
+            Map.of(),
+            busy,
+            Duration.ofMinutes(30),
+            Instant.EPOCH
+        );
+
+        assertThat(result.get(MONDAY)).containsExactly(at(MONDAY, "09:30"), at(MONDAY, "10:00"), at(MONDAY, "10:30"));
+    }
+
+    @Test
+    void shouldNotBlockSlotsWithDeletedAppointments() {
+        BusyTimeline busy = BusyTimeline.builder()
+            .addAppointments(
+                List.of(
+                    appointment(at(MONDAY, "09:00"), at(MONDAY, "09:30")).status(AppointmentStatus.DELETED),
+                    appointment(at(MONDAY, "09:30"), at(MONDAY, "10:00")).status(AppointmentStatus.CANCELLED)
+                )
+            )
+            .build();
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            Set.of(workingHours(1, "09:00", "10:30")),
+            Map.of(),
+            busy,
+            Duration.ofMinutes(30),
+            Instant.EPOCH
+        );
+
+        // a régi számítás a törölt foglalást is foglaltnak vette; a lemondott továbbra is foglal
+        assertThat(result.get(MONDAY)).containsExactly(at(MONDAY, "09:00"), at(MONDAY, "10:00"));
+    }
+
+    @Test
+    void shouldBlockSlotsWithAppointmentsReachingIntoTheDay() {
+        BusyTimeline busy = BusyTimeline.builder()
+            .addAppointments(List.of(appointment(at(MONDAY.minusDays(1), "23:00"), at(MONDAY, "00:45"))))
+            .build();
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            Set.of(workingHours(1, "00:00", "02:00")),
+            Map.of(),
+            busy,
+            Duration.ofMinutes(30),
+            Instant.EPOCH
+        );
+
+        // a régi számítás csak a kért napokon belül kezdődő és végződő foglalásokat nézte
+        assertThat(result.get(MONDAY)).containsExactly(at(MONDAY, "01:00"), at(MONDAY, "01:30"));
+    }
+
+    @Test
+    void shouldReturnSlotsOfSeveralWindowsInAscendingOrder() {
+        List<WorkingHours> workingHours = List.of(workingHours(1, "14:00", "15:00"), workingHours(1, "09:00", "10:00"));
+
+        Map<LocalDate, List<Instant>> result = engine.computeAvailableSlots(
+            MONDAY,
+            MONDAY,
+            ZONE,
+            workingHours,
+            Map.of(),
+            BusyTimeline.empty(),
+            Duration.ofMinutes(30),
+            Instant.EPOCH
+        );
+
+        // a régi számítás a munkaidők lekérdezési sorrendjében adta vissza a slotokat
+        assertThat(result.get(MONDAY)).containsExactly(at(MONDAY, "09:00"), at(MONDAY, "09:30"), at(MONDAY, "14:00"), at(MONDAY, "14:30"));
+    }
+
+    @Test
+    void shouldMergeSlotsOfSeveralEmployees() {
+        LocalDate tuesday = MONDAY.plusDays(1);
+        Map<Long, Map<LocalDate, List<Instant>>> slotsByEmployee = new LinkedHashMap<>();
+        slotsByEmployee.put(7L, Map.of(MONDAY, List.of(at(MONDAY, "09:00"), at(MONDAY, "10:00"))));
+        slotsByEmployee.put(3L, Map.of(MONDAY, List.of(at(MONDAY, "08:00"), at(MONDAY, "10:00")), tuesday, List.of(at(tuesday, "09:00"))));
+
+        Map<LocalDate, Map<Instant, List<Long>>> result = engine.mergeAvailableSlots(slotsByEmployee);
+
+        assertThat(result.keySet()).containsExactly(MONDAY, tuesday);
+        assertThat(result.get(MONDAY).keySet()).containsExactly(at(MONDAY, "08:00"), at(MONDAY, "09:00"), at(MONDAY, "10:00"));
+        assertThat(result.get(MONDAY).get(at(MONDAY, "10:00"))).containsExactly(7L, 3L);
+        assertThat(result.get(tuesday).get(at(tuesday, "09:00"))).containsExactly(3L);
+    }
+
+    @Test
+    void shouldMatchNaiveScanOnRandomSchedules() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            List<WorkingHours> workingHours = new ArrayList<>();
+            for (int day = 1; day <= 7; day++) {
+                if (random.nextInt(4) > 0) {
+                    int startHour = 6 + random.nextInt(5);
+                    workingHours.add(
+                        workingHours(
+                            day,
+                            LocalTime.of(startHour, random.nextInt(60)),
+                            LocalTime.of(startHour + 4 + random.nextInt(6), random.nextInt(60))
+                        )
+                    );
+                }
+            }
+
+            LocalDate to = MONDAY.plusDays(13);
+            Map<LocalDate, CustomWorkingHours> customByDate = new HashMap<>();
+            if (random.nextBoolean()) {
+                LocalDate customDate = MONDAY.plusDays(random.nextInt(14));
+                customByDate.put(
+                    customDate,
+                    new CustomWorkingHours().workDate(customDate).startTime(at(customDate, "12:00")).endTime(at(customDate, "18:00"))
+                );
+            }
+
+            List<Appointment> appointments = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(40); i++) {
+                // percre, néha másodpercre pontos határok, hogy a rácsot nem fedő cellák is előforduljanak
+                Instant start = at(MONDAY, "06:00").plus(Duration.ofMinutes(random.nextInt(14 * 24 * 60)));
+                Duration length = Duration.ofMinutes(1 + random.nextInt(150)).plusSeconds(random.nextInt(4) == 0 ? random.nextInt(60) : 0);
+                appointments.add(appointment(start, start.plus(length)));
+            }
+            List<TimeOffRange> timeOffs = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(4); i++) {
+                Instant start = at(MONDAY, "00:00").plus(Duration.ofMinutes(random.nextInt(14 * 24 * 60)));
+                timeOffs.add(new TimeOffRange(start, start.plus(Duration.ofMinutes(1 + random.nextInt(3000)))));
+            }
+
+            Duration slotLength = Duration.ofMinutes(1 + random.nextInt(120));
+            Instant now = at(MONDAY, "00:00").plus(Duration.ofHours(random.nextInt(72)));
+            BusyTimeline busy = BusyTimeline.builder().addAppointments(appointments).addTimeOffs(timeOffs).build();
+
+            Map<LocalDate, List<Instant>> expected = naive(MONDAY, to, workingHours, customByDate, appointments, timeOffs, slotLength, now);
+            Map<LocalDate, List<Instant>> actual = engine.computeAvailableSlots(
+                MONDAY,
+                to,
+                ZONE,
+                workingHours,
+                customByDate,
+                busy,
+                slotLength,
+                now
+            );
+
+            assertThat(actual).isEqualTo(expected);
+            assertThat(new ArrayList<>(actual.keySet())).isEqualTo(new ArrayList<>(expected.keySet()));
+        }
+    }
+
+    private static Map<LocalDate, List<Instant>> naive(
+        LocalDate from,
+        LocalDate to,
+        List<WorkingHours> workingHours,
+        Map<LocalDate, CustomWorkingHours> customByDate,
+        List<Appointment> appointments,
+        List<TimeOffRange> timeOffs,
+        Duration slotLength,
+        Instant now
+    ) {
+        Map<LocalDate, List<Instant>> result = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            List<Instant> potential = new ArrayList<>();
+            CustomWorkingHours cwh = customByDate.get(date);
+            if (cwh != null) {
+                addSlots(potential, cwh.getStartTime(), cwh.getEndTime(), slotLength);
+            } else {
+                int dayOfWeek = date.getDayOfWeek().getValue();
+                for (WorkingHours wh : workingHours) {
+                    if (wh.getDayOfWeek() == dayOfWeek) {
+                        addSlots(
+                            potential,
+                            date.atTime(wh.getStartTime()).atZone(ZONE).toInstant(),
+                            date.atTime(wh.getEndTime()).atZone(ZONE).toInstant(),
+                            slotLength
+                        );
+                    }
+                }
+            }
+            List<Instant> available = potential
+                .stream()
+                .filter(slot -> !slot.isBefore(now))
+                .filter(slot ->
+                    appointments.stream().noneMatch(a -> slot.isBefore(a.getEndDate()) && slot.plus(slotLength).isAfter(a.getStartDate()))
+                )
+                .filter(slot -> timeOffs.stream().noneMatch(t -> slot.isBefore(t.end()) && slot.plus(slotLength).isAfter(t.start())))
+                .toList();
+            if (!available.isEmpty()) {
+                result.put(date, available);
+            }
+        }
+        return result;
+    }
+
+    private static void addSlots(List<Instant> slots, Instant start, Instant end, Duration slotLength) {
+        for (Instant current = start; !current.plus(slotLength).isAfter(end); current = current.plus(slotLength)) {
+            slots.add(current);
+        }
+    }
+
+    private static WorkingHours workingHours(int dayOfWeek, String start, String end) {
+        return workingHours(dayOfWeek, LocalTime.parse(start), LocalTime.parse(end));
+    }
+
+    private static WorkingHours workingHours(int dayOfWeek, LocalTime start, LocalTime end) {
+        return new WorkingHours().dayOfWeek(dayOfWeek).startTime(start).endTime(end);
+    }
+
+    private static Appointment appointment(Instant start, Instant end) {
+        return new Appointment().startDate(start).endDate(end);
+    }
+
+    private static Instant at(LocalDate date, String time) {
+        return date.atTime(LocalTime.parse(time)).atZone(ZONE).toInstant();
+    }
+}
@@ -0,0 +1,88 @@
+package hu.daniinc.reservation.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AvailabilityGridTest {
+
+    private static final Instant ORIGIN = Instant.parse("2026-03-22T23:00:00Z");
+    private static final Duration CELL = Duration.ofMinutes(5);
+
+    @Test
+    void shouldFindFirstBusyCellAcrossWordBoundaries() {
+        AvailabilityGrid grid = AvailabilityGrid.builder(ORIGIN, CELL, 288)
+            .markFree(cell(0), cell(288))
+            .markBusy(cell(130), cell(131))
+            .build();
+
+        assertThat(grid.firstBusyCell(cell(0), cell(130))).isEqualTo(-1);
+        assertThat(grid.firstBusyCell(cell(60), cell(200))).isEqualTo(130);
+        assertThat(grid.firstBusyCell(cell(131), cell(288))).isEqualTo(-1);
+        assertThat(grid.isFree(cell(280), cell(290))).isFalse();
+    }
+
+    @Test
+    void shouldCheckPartiallyBusyCellsExactly() {
+        AvailabilityGrid grid = AvailabilityGrid.builder(ORIGIN, CELL, 288)
+            .markFree(cell(0), cell(288))
+            .markBusy(cell(108).plusSeconds(120), cell(110).plusSeconds(240))
+            .build();
+
+        assertThat(grid.isPartiallyBusy(108)).isTrue();
+        assertThat(grid.isPartiallyBusy(109)).isFalse();
+        assertThat(grid.isPartiallyBusy(110)).isTrue();
+        assertThat(grid.isFree(cell(100), cell(108).plusSeconds(120))).isTrue();
+        assertThat(grid.firstBusyCell(cell(100), cell(108).plusSeconds(121))).isEqualTo(108);
+        assertThat(grid.firstBusyCell(cell(108).plusSeconds(150), cell(112))).isEqualTo(108);
+        assertThat(grid.isFree(cell(110).plusSeconds(240), cell(120))).isTrue();
+    }
+
+    @Test
+    void shouldBlockRangesStrictlyContainingAZeroLengthBusyInterval() {
+        AvailabilityGrid grid = AvailabilityGrid.builder(ORIGIN, CELL, 288)
+            .markFree(cell(0), cell(288))
+            .markBusy(cell(120).plusSeconds(120), cell(120).plusSeconds(120))
+            .markBusy(cell(150), cell(150))
+            .build();
+
+        assertThat(grid.isFree(cell(114), cell(120).plusSeconds(120))).isTrue();
+        assertThat(grid.isFree(cell(120).plusSeconds(120), cell(126))).isTrue();
+        assertThat(grid.firstBusyCell(cell(114), cell(126))).isEqualTo(120);
+
+        // a cellahatáron lévő pont csak az azt közrefogó tartományokat foglalja
+        assertThat(grid.isFree(cell(144), cell(150))).isTrue();
+        assertThat(grid.isFree(cell(150), cell(156))).isTrue();
+        assertThat(grid.firstBusyCell(cell(144), cell(156))).isEqualTo(149);
+        assertThat(grid.isFree(cell(149).plusSeconds(60), cell(150).plusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void shouldMatchBitSetOnRandomRanges() {
+        Random random = new Random(7);
+        for (int run = 0; run < 500; run++) {
+            long[] words = new long[5];
+            BitSet expected = new BitSet();
+            for (int i = 0; i < 6; i++) {
+                int from = random.nextInt(300);
+                int to = from + random.nextInt(300 - from + 1);
+                boolean value = random.nextBoolean();
+                AvailabilityGrid.setRange(words, from, to, value);
+                expected.set(from, to, value);
+            }
+
+            int from = random.nextInt(300);
+            int to = from + random.nextInt(300 - from + 1);
+            int clear = expected.nextClearBit(from);
+            assertThat(AvailabilityGrid.firstClear(words, from, to)).isEqualTo(clear < to ? clear : -1);
+        }
+    }
+
+    private static Instant cell(int index) {
+        return ORIGIN.plus(CELL.multipliedBy(index));
+    }
+}
@@ -0,0 +1,54 @@
+package hu.daniinc.reservation.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OccupancySweepTest {
+
+    private static final Instant DAY = Instant.parse("2026-10-19T00:00:00Z");
+
+    @Test
+    void shouldCountOnlyBookedTimeInsideAvailableWindows() {
+        List<TimeWindow> working = List.of(window(13 * 60, 17 * 60), window(9 * 60, 12 * 60));
+        // szabadság 15:00-16:00, foglalás 11:30-13:30 (a szünetbe lóg) és 15:30-16:30 (a szabadságba lóg)
+        BusyTimeline timeOff = BusyTimeline.builder().add(at(15 * 60), at(16 * 60)).build();
+        BusyTimeline booked = BusyTimeline.builder()
+            .add(at(11 * 60 + 30), at(13 * 60 + 30))
+            .add(at(15 * 60 + 30), at(16 * 60 + 30))
+            .build();
+
+        DayOccupancy occupancy = OccupancySweep.measure(working, timeOff, booked);
+
+        // elérhető: 3h + 4h - 1h = 6h; foglalt: 30 + 30 + 30 perc
+        assertThat(occupancy).isEqualTo(new DayOccupancy(6 * 3600, 90 * 60));
+    }
+
+    @Test
+    void shouldMergeOverlappingWorkingWindowsAndIgnoreClosedDays() {
+        List<TimeWindow> working = List.of(window(8 * 60, 12 * 60), window(10 * 60, 14 * 60));
+        BusyTimeline booked = BusyTimeline.builder().add(at(7 * 60), at(9 * 60)).build();
+
+        assertThat(OccupancySweep.measure(working, BusyTimeline.empty(), booked)).isEqualTo(new DayOccupancy(6 * 3600, 3600));
+        assertThat(OccupancySweep.measure(List.of(), BusyTimeline.empty(), booked)).isEqualTo(DayOccupancy.NONE);
+    }
+
+    @Test
+    void shouldReportNothingAvailableWhenTimeOffCoversTheDay() {
+        List<TimeWindow> working = List.of(window(9 * 60, 17 * 60));
+        BusyTimeline timeOff = BusyTimeline.builder().add(at(0), at(24 * 60)).build();
+        BusyTimeline booked = BusyTimeline.builder().add(at(10 * 60), at(11 * 60)).build();
+
+        assertThat(OccupancySweep.measure(working, timeOff, booked)).isEqualTo(DayOccupancy.NONE);
+    }
+
+    private static TimeWindow window(int startMinute, int endMinute) {
+        return new TimeWindow(at(startMinute), at(endMinute));
+    }
+
+    private static Instant at(int minute) {
+        return DAY.plusSeconds(minute * 60L);
+    }
+}
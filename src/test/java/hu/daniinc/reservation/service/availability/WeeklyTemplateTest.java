@@ -0,0 +1,39 @@
+package hu.daniinc.reservation.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hu.daniinc.reservation.domain.WorkingHours;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class WeeklyTemplateTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+
+    @Test
+    void shouldExpandWindowsInOrderAndFollowDstChanges() {
+        WeeklyTemplate template = WeeklyTemplate.of(
+            List.of(workingHours(7, "13:00", "18:00"), workingHours(7, "00:00", "12:00"), workingHours(1, "09:00", "17:00")),
+            ZONE
+        );
+        // 2026-03-29 vasárnap: 02:00-kor óraátállítás, a nap 23 órás
+        LocalDate dstSunday = LocalDate.of(2026, 3, 29);
+
+        List<TimeWindow> windows = template.windowsOn(dstSunday);
+
+        assertThat(windows).hasSize(2);
+        assertThat(windows.get(0).start()).isEqualTo(dstSunday.atStartOfDay(ZONE).toInstant());
+        assertThat(Duration.between(windows.get(0).start(), windows.get(0).end())).isEqualTo(Duration.ofHours(11));
+        assertThat(windows.get(1).start()).isEqualTo(dstSunday.atTime(13, 0).atZone(ZONE).toInstant());
+        assertThat(template.windowsOn(dstSunday)).isSameAs(windows);
+        assertThat(template.windowsOn(dstSunday.minusDays(1))).isEmpty();
+    }
+
+    private static WorkingHours workingHours(int dayOfWeek, String start, String end) {
+        return new WorkingHours().dayOfWeek(dayOfWeek).startTime(LocalTime.parse(start)).endTime(LocalTime.parse(end));
+    }
+}
@@ -0,0 +1,49 @@
+package hu.daniinc.reservation.service.bus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class InMemoryNotificationBusTest {
+
+    private final InMemoryNotificationBus bus = new InMemoryNotificationBus(new ObjectMapper());
+
+    @Test
+    void shouldDeliverToTheSubscribersOfTheTopicOnly() {
+        List<BusMessage> sse = new ArrayList<>();
+        List<BusMessage> stomp = new ArrayList<>();
+        bus.subscribe(BusMessage.SSE, sse::add);
+        bus.subscribe(BusMessage.STOMP, stomp::add);
+
+        bus.publish(BusMessage.SSE, "42", Map.of("type", "NEW_APPOINTMENT"));
+
+        assertThat(stomp).isEmpty();
+        assertThat(sse).hasSize(1);
+        assertThat(sse.get(0).target()).isEqualTo("42");
+        assertThat(sse.get(0).payload().get("type").asText()).isEqualTo("NEW_APPOINTMENT");
+    }
+
+    @Test
+    void shouldKeepDeliveringWhenASubscriberFails() {
+        List<BusMessage> received = new ArrayList<>();
+        bus.subscribe(BusMessage.SSE, message -> {
+            throw new IllegalStateException("boom");
+        });
+        bus.subscribe(BusMessage.SSE, received::add);
+
+        bus.publish(BusMessage.SSE, "1", Map.of());
+
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void shouldRoundTripMessagesThroughJson() throws Exception {
+        BusMessage message = new BusMessage(BusMessage.STOMP, "/topic/tracker", new ObjectMapper().valueToTree(Map.of("page", "logout")));
+
+        assertThat(bus.read(bus.write(message))).isEqualTo(message);
+    }
+}
@@ -0,0 +1,86 @@
+package hu.daniinc.reservation.service.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SseConnectionTest {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final AtomicInteger drops = new AtomicInteger();
+    private final List<SseConnection> closed = new ArrayList<>();
+    private final SseConnection connection = new SseConnection(emitter, tasks::add, 3, 2, drops::incrementAndGet, closed::add);
+
+    @Test
+    void shouldQueueWithoutWritingAndDropTheOldestWhenFull() {
+        for (int i = 1; i <= 5; i++) {
+            assertThat(connection.offer(SseEvent.of(i))).isTrue();
+        }
+
+        assertThat(emitter.sent).isEmpty();
+        assertThat(tasks).hasSize(1);
+        assertThat(drops).hasValue(2);
+
+        runAll();
+        assertThat(emitter.sent).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void shouldKeepOnlyTheLatestCoalescedEvent() {
+        connection.offer(SseEvent.coalesced("heartbeat", "first"));
+        connection.offer(SseEvent.of("notification"));
+        connection.offer(SseEvent.coalesced("heartbeat", "second"));
+
+        runAll();
+
+        assertThat(emitter.sent).containsExactly("notification", "second");
+        assertThat(drops).hasValue(0);
+    }
+
+    @Test
+    void shouldCloseAndStopQueueingWhenTheWriteFails() {
+        emitter.failing = true;
+        connection.offer(SseEvent.of("lost"));
+
+        runAll();
+
+        assertThat(closed).containsExactly(connection);
+        assertThat(connection.offer(SseEvent.of("after"))).isFalse();
+        assertThat(tasks).isEmpty();
+    }
+
+    private void runAll() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Object> sent = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            // a keretező szövegrészek text/plain típusúak, az adat típus nélküli
+            builder
+                .build()
+                .stream()
+                .filter(part -> part.getMediaType() == null)
+                .map(SseEmitter.DataWithMediaType::getData)
+                .forEach(sent::add);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hu.daniinc.reservation.service.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SseReplayBufferTest {
+
+    private final SseReplayBuffer buffer = new SseReplayBuffer("run1", 10, 3);
+
+    @Test
+    void shouldReplayOnlyTheEventsAfterTheLastSeenId() {
+        SseEvent first = buffer.append(SseEvent.of("a"), 11);
+        buffer.append(SseEvent.of("b"), 14);
+        buffer.append(SseEvent.of("c"), 20);
+
+        assertThat(first.id()).isEqualTo("run1-11");
+        assertThat(buffer.since("run1-11")).hasValueSatisfying(missed ->
+            assertThat(missed).extracting(SseEvent::data).containsExactly("b", "c")
+        );
+        assertThat(buffer.since("run1-20")).hasValueSatisfying(missed -> assertThat(missed).isEmpty());
+        // a puffer létrejötte előtti utolsó azonosító után semmi nem veszett el
+        assertThat(buffer.since("run1-10")).hasValueSatisfying(missed -> assertThat(missed).hasSize(3));
+        assertThat(buffer.lastId()).isEqualTo("run1-20");
+    }
+
+    @Test
+    void shouldRefuseToReplayOnceMissedEventsWereEvicted() {
+        buffer.append(SseEvent.of("a"), 11);
+        buffer.append(SseEvent.of("b"), 12);
+        buffer.append(SseEvent.of("c"), 13);
+        buffer.append(SseEvent.of("d"), 14);
+
+        assertThat(buffer.since("run1-10")).isEmpty();
+        assertThat(buffer.since("run1-11")).hasValueSatisfying(missed ->
+            assertThat(missed).extracting(SseEvent::data).containsExactly("b", "c", "d")
+        );
+    }
+
+    @Test
+    void shouldRefuseIdsOfAnotherRunOrGarbage() {
+        buffer.append(SseEvent.of("a"), 11);
+
+        assertThat(buffer.since("run0-11")).isEmpty();
+        assertThat(buffer.since("run1-x")).isEmpty();
+        assertThat(buffer.since("")).isEmpty();
+    }
+}
@@ -0,0 +1,215 @@
+package hu.daniinc.reservation.web.rest;
+
+import static hu.daniinc.reservation.web.rest.TestUtil.tenantBusiness;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.daniinc.reservation.IntegrationTest;
+import hu.daniinc.reservation.domain.Appointment;
+import hu.daniinc.reservation.domain.Business;
+import hu.daniinc.reservation.domain.BusinessEmployee;
+import hu.daniinc.reservation.domain.User;
+import hu.daniinc.reservation.domain.WorkingHours;
+import hu.daniinc.reservation.domain.enumeration.AppointmentStatus;
+import hu.daniinc.reservation.repository.AppointmentRepository;
+import hu.daniinc.reservation.repository.BusinessEmployeeRepository;
+import hu.daniinc.reservation.repository.BusinessRepository;
+import hu.daniinc.reservation.repository.UserRepository;
+import hu.daniinc.reservation.repository.WorkingHoursRepository;
+import hu.daniinc.reservation.service.AppointmentService;
+import hu.daniinc.reservation.service.BusinessFixtures;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Integration tests for the streamed available slots: {@link AppointmentService#streamAvailableSlots} and the NDJSON
+ * endpoint of {@link AppointmentResource} must give the same slots as {@link AppointmentService#getAvailableSlotsBetweenDates}.
+ * <p>
+ * The range spans several weekly chunks and the change to summer time (2030-03-31 in Budapest). Not
+ * {@code @Transactional}: the response body is written on another thread, so the rows are committed and deleted
+ * after each test.
+ */
+@IntegrationTest
+class AvailableSlotsStreamIT {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Budapest");
+    private static final LocalDate FROM = LocalDate.of(2030, 3, 20);
+    private static final LocalDate TO = LocalDate.of(2030, 4, 10);
+    private static final LocalDate DST_CHANGE = LocalDate.of(2030, 3, 31);
+    // az első heti darab utolsó napja
+    private static final LocalDate CHUNK_END = FROM.plusDays(6);
+    private static final Duration SLOT_LENGTH = Duration.ofMinutes(60);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BusinessRepository businessRepository;
+
+    @Autowired
+    private BusinessEmployeeRepository businessEmployeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Business business;
+
+    private User user;
+
+    private BusinessEmployee businessEmployee;
+
+    @BeforeEach
+    void initTest() {
+        business = BusinessFixtures.business("stream");
+        business.setTimeZone(ZONE.getId());
+        business = businessRepository.saveAndFlush(business);
+        user = userRepository.saveAndFlush(BusinessFixtures.user("stream"));
+        businessEmployee = businessEmployeeRepository.saveAndFlush(BusinessFixtures.employee(business, user));
+
+        for (int day = 1; day <= 7; day++) {
+            workingHoursRepository.saveAndFlush(
+                new WorkingHours()
+                    .dayOfWeek(day)
+                    .startTime(LocalTime.of(8, 0))
+                    .endTime(LocalTime.of(20, 0))
+                    .businessEmployee(businessEmployee)
+            );
+        }
+
+        // a heti darabok határán átnyúló és a DST napjára eső foglalás
+        appointment(CHUNK_END.atTime(18, 30), CHUNK_END.plusDays(1).atTime(9, 30));
+        appointment(DST_CHANGE.atTime(10, 0), DST_CHANGE.atTime(11, 0));
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM appointment WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM working_hours WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee_permissions WHERE business_employee_id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM business_employee WHERE id = ?", businessEmployee.getId());
+        jdbcTemplate.update("DELETE FROM jhi_user WHERE id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM business WHERE id = ?", business.getId());
+    }
+
+    @Test
+    void shouldStreamTheSameSlotsAsTheWholeRange() {
+        Map<LocalDate, List<Instant>> expected = appointmentService.getAvailableSlotsBetweenDates(
+            business.getId(),
+            user.getId(),
+            FROM,
+            TO,
+            SLOT_LENGTH
+        );
+
+        Map<LocalDate, List<Instant>> streamed = new LinkedHashMap<>();
+        appointmentService.streamAvailableSlots(business.getId(), user.getId(), FROM, TO, SLOT_LENGTH, (date, slots) ->
+            assertThat(streamed.put(date, slots)).as("day %s streamed once", date).isNull()
+        );
+
+        assertThat(streamed).isEqualTo(expected);
+        assertThat(new ArrayList<>(streamed.keySet())).isSorted().hasSize(22);
+        // a foglalás a darab utolsó napjának végét és a következő nap elejét is foglalja
+        assertThat(streamed.get(CHUNK_END)).last().isEqualTo(at(CHUNK_END, "17:00"));
+        assertThat(streamed.get(CHUNK_END.plusDays(1))).first().isEqualTo(at(CHUNK_END.plusDays(1), "10:00"));
+        // téli és nyári időben is 08:00 helyi idő az első slot
+        assertThat(streamed.get(DST_CHANGE.minusDays(1))).first().isEqualTo(Instant.parse("2030-03-30T07:00:00Z"));
+        assertThat(streamed.get(DST_CHANGE)).first().isEqualTo(Instant.parse("2030-03-31T06:00:00Z"));
+        assertThat(streamed.get(DST_CHANGE)).hasSize(11).doesNotContain(at(DST_CHANGE, "10:00"));
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerDayAndLine() throws Exception {
+        Map<LocalDate, List<Instant>> expected = appointmentService.getAvailableSlotsBetweenDates(
+            business.getId(),
+            user.getId(),
+            FROM,
+            TO,
+            SLOT_LENGTH
+        );
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AppointmentResource(appointmentService, appointmentRepository, om))
+            .setCustomArgumentResolvers(tenantBusiness(business.getId()))
+            .build();
+
+        MvcResult async = mockMvc
+            .perform(
+                get("/api/appointments/employees/{employeeId}/available-slots/stream", user.getId())
+                    .param("startDate", FROM.toString())
+                    .param("endDate", TO.toString())
+                    .param("durationMinutes", String.valueOf(SLOT_LENGTH.toMinutes()))
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = mockMvc
+            .perform(asyncDispatch(async))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(body).endsWith("\n");
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(expected.size());
+        Map<LocalDate, List<Instant>> streamed = new LinkedHashMap<>();
+        for (String line : lines) {
+            JsonNode day = om.readTree(line);
+            assertThat(day.isObject()).isTrue();
+            List<Instant> slots = new ArrayList<>();
+            day.get("slots").forEach(slot -> slots.add(Instant.parse(slot.asText())));
+            streamed.put(LocalDate.parse(day.get("date").asText()), slots);
+        }
+        assertThat(streamed).isEqualTo(expected);
+        assertThat(new ArrayList<>(streamed.keySet())).isSorted();
+    }
+
+    private void appointment(LocalDateTime start, LocalDateTime end) {
+        Appointment appointment = new Appointment()
+            .startDate(start.atZone(ZONE).toInstant())
+            .endDate(end.atZone(ZONE).toInstant())
+            .createdDate(Instant.now())
+            .status(AppointmentStatus.CONFIRMED);
+        appointment.setModifierToken(UUID.randomUUID().toString());
+        appointment.setBusinessEmployee(businessEmployee);
+        appointmentRepository.saveAndFlush(appointment);
+    }
+
+    private static Instant at(LocalDate date, String time) {
+        return date.atTime(LocalTime.parse(time)).atZone(ZONE).toInstant();
+    }
+}
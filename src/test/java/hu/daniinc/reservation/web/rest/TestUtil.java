@@ -2,6 +2,7 @@ package hu.daniinc.reservation.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import hu.daniinc.reservation.security.annotation.TenantBusiness;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -18,9 +19,14 @@ import org.hamcrest.TypeSafeMatcher;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
+import org.springframework.core.MethodParameter;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.format.support.FormattingConversionService;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
 
 /**
  * Utility class for testing REST controllers.
@@ -164,6 +170,31 @@ public final class TestUtil {
         return dfcs;
     }
 
+    /**
+     * Create a {@link HandlerMethodArgumentResolver} resolving {@link TenantBusiness} to the given business, in place of
+     * the host based tenant lookup, for standalone {@link org.springframework.test.web.servlet.MockMvc} setups.
+     * @param businessId the id of the tenant business.
+     * @return the {@link HandlerMethodArgumentResolver}.
+     */
+    public static HandlerMethodArgumentResolver tenantBusiness(Long businessId) {
+        return new HandlerMethodArgumentResolver() {
+            @Override
+            public boolean supportsParameter(MethodParameter parameter) {
+                return parameter.hasParameterAnnotation(TenantBusiness.class);
+            }
+
+            @Override
+            public Object resolveArgument(
+                MethodParameter parameter,
+                ModelAndViewContainer mavContainer,
+                NativeWebRequest webRequest,
+                WebDataBinderFactory binderFactory
+            ) {
+                return businessId;
+            }
+        };
+    }
+
     /**
      * Executes a query on the EntityManager finding all stored objects.
      * @param <T> The type of objects to be searched